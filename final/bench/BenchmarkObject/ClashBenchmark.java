@@ -0,0 +1,163 @@
+package BenchmarkObject;
+
+import DataAccessObject.IReadCourseDataAccessObject;
+import DataAccessObject.TextCourseDataAccessObject;
+import EntityObject.Course;
+import EntityObject.Index;
+import ValueObject.DayOfWeek;
+import ValueObject.Sessions;
+
+import java.io.IOException;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Compares the clash checks on occupancy bitmaps with the clash checks on timings they replaced.
+ * Every pair of courses and every pair of indexes in the courses database file is checked with both,
+ * the results are verified to be the same, and the average time of one check is printed.
+ * Run it from the directory containing the data directory.
+ */
+public class ClashBenchmark {
+    /**
+     * Minimum time in nanoseconds each way of checking is repeated for
+     */
+    private static final long BENCHMARK_NANOS = 1_000_000_000L;
+
+    /**
+     * Something to be timed
+     */
+    private interface Check {
+        /**
+         * Checks every pair once
+         * @return Integer that represents the number of clashing pairs, so that the checks are not optimized away
+         */
+        int run();
+    }
+
+    /**
+     * A private Constructor that prevents any other class from instantiating
+     */
+    private ClashBenchmark() {
+    }
+
+    /**
+     * Compares both ways of checking for clashes
+     * @param args not used
+     * @throws IOException cannot read file
+     * @throws ClassNotFoundException Class does not exist
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        IReadCourseDataAccessObject courseDataAccessObject = TextCourseDataAccessObject.getInstance();
+        List<Course> courses = new ArrayList<>();
+        List<Index> indexes = new ArrayList<>();
+        for (String courseCode : courseDataAccessObject.getAllCourseCodes()) {
+            Course course = courseDataAccessObject.getCourse(courseCode);
+            courses.add(course);
+            indexes.addAll(course.getIndexes());
+        }
+
+        Check bitmaps = () -> {
+            int clashes = 0;
+            for (Course course : courses) {
+                for (Course other : courses) {
+                    clashes += course.isClashing(other) ? 1 : 0;
+                }
+                for (Index index : indexes) {
+                    clashes += course.isClashing(index) ? 1 : 0;
+                }
+            }
+            for (Index index : indexes) {
+                for (Index other : indexes) {
+                    clashes += index.isClashing(other) ? 1 : 0;
+                }
+            }
+            return clashes;
+        };
+        Check timings = () -> {
+            int clashes = 0;
+            for (Course course : courses) {
+                for (Course other : courses) {
+                    clashes += isClashing(course.getLectureTimings(), other.getLectureTimings()) ? 1 : 0;
+                }
+                for (Index index : indexes) {
+                    clashes += isClashing(course.getLectureTimings(), index.getLaboratoryTimings()) ||
+                            isClashing(course.getLectureTimings(), index.getTutorialTimings()) ? 1 : 0;
+                }
+            }
+            for (Index index : indexes) {
+                for (Index other : indexes) {
+                    clashes += isClashing(index.getLaboratoryTimings(), other.getLaboratoryTimings()) ||
+                            isClashing(index.getLaboratoryTimings(), other.getTutorialTimings()) ||
+                            isClashing(index.getTutorialTimings(), other.getLaboratoryTimings()) ||
+                            isClashing(index.getTutorialTimings(), other.getTutorialTimings()) ? 1 : 0;
+                }
+            }
+            return clashes;
+        };
+
+        int pairs = courses.size() * (courses.size() + indexes.size()) + indexes.size() * indexes.size();
+        int clashes = bitmaps.run();
+        if (clashes != timings.run()) {
+            throw new IllegalStateException("occupancy bitmaps and timings disagree");
+        }
+        System.out.println(courses.size() + " courses, " + indexes.size() + " indexes, " + pairs + " pairs, " + clashes + " clashing");
+        System.out.printf("  %-20s %10.1f ns/check%n", "timings", time(timings) / pairs);
+        System.out.printf("  %-20s %10.1f ns/check%n", "occupancy bitmaps", time(bitmaps) / pairs);
+    }
+
+    /**
+     * Repeats a check for at least BENCHMARK_NANOS after warming up
+     * @param check Check to be timed
+     * @return Double that represents the average time of one run in nanoseconds
+     */
+    private static double time(Check check) {
+        int clashes = 0;
+        for (int i = 0; i < 1000; i++) {
+            clashes += check.run();
+        }
+        int runs = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            clashes += check.run();
+            runs++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < BENCHMARK_NANOS);
+        if (clashes == -1) {
+            System.out.println();
+        }
+        return (double) elapsed / runs;
+    }
+
+    /**
+     * Determines if there is a clash between two timings the way Course and Index did before occupancy bitmaps,
+     * by comparing the start and end timings of every pair of sessions on the same day
+     * @param thisTimings Hashtable of days and start and end timings
+     * @param thatTimings Hashtable of days and start and end timings
+     * @return A boolean that is true if there is a clash in timings
+     */
+    private static boolean isClashing(Hashtable<DayOfWeek, List<LocalTime>> thisTimings,
+                                      Hashtable<DayOfWeek, List<LocalTime>> thatTimings) {
+        if (thisTimings == null || thatTimings == null) {
+            return false;
+        }
+        for (DayOfWeek thisDay : thisTimings.keySet()) {
+            for (DayOfWeek thatDay : thatTimings.keySet()) {
+                if (thisDay != thatDay) {
+                    continue;
+                }
+                List<LocalTime> these = thisTimings.get(thisDay);
+                List<LocalTime> those = thatTimings.get(thatDay);
+                for (int i = 0; i < Sessions.count(these); i++) {
+                    for (int j = 0; j < Sessions.count(those); j++) {
+                        if (Sessions.start(these, i).isBefore(Sessions.end(those, j)) &&
+                                Sessions.start(those, j).isBefore(Sessions.end(these, i))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,373 @@
+package BenchmarkObject;
+
+import ControlObject.StudentCourseRegistrar;
+import DataAccessObject.StripedLocks;
+import DataAccessObject.TextCourseDataAccessObject;
+import DataAccessObject.TextRegistrationDataAccessObject;
+import DataAccessObject.TextUserDataAccessObject;
+import DataAccessObject.WriteBehindPersister;
+import EntityObject.Course;
+import EntityObject.Index;
+import EntityObject.Student;
+import Exception.*;
+import HelperObject.Factory;
+import HelperObject.IMessenger;
+import ValueObject.RegistrationKey;
+import ValueObject.RegistrationPeriod;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registers and drops students through StudentCourseRegistrar from many threads at once, then checks that
+ * the vacancies, enrolments and waiting lists of every index still agree with each other, with the students
+ * and with the registrations.
+ * Every thread registers and drops any student, so that the threads contend for the same students as well as
+ * the same courses, and the AU and time table checks race with other registrations of the student.
+ * Students on a waiting list are dropped from it, and registered students are dropped or moved to another index
+ * even while others are waiting for their index, so that the students at the top of the waiting lists are
+ * registered as well. Their emails go to a messenger that only counts them.
+ * Registered students also swap indexes with students of other indexes of the course.
+ * Registrations rejected because another thread changed the student first are counted, not failed.
+ * Run it from the directory containing the data directory. The data directory is copied to a temporary directory
+ * and the test is run there in another JVM, as the registration period is opened and the registrations are written.
+ */
+public class RegistrationStressTest {
+    /**
+     * Number of threads registering and dropping students
+     */
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    /**
+     * Number of registrations and drops made by each thread
+     */
+    private static final int OPERATIONS_PER_THREAD = 2000;
+    /**
+     * Number of violations printed
+     */
+    private static final int VIOLATIONS_PRINTED = 10;
+
+    /**
+     * A private Constructor that prevents any other class from instantiating
+     */
+    private RegistrationStressTest() {
+    }
+
+    /**
+     * Argument given to the JVM running the test in the copy of the data directory
+     */
+    private static final String IN_COPY = "--in-copy";
+
+    /**
+     * Runs the test in a copy of the data directory
+     * @param args not used
+     * @throws IOException cannot read file
+     * @throws ClassNotFoundException Class does not exist
+     * @throws InterruptedException interrupted while waiting for the threads
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException, InterruptedException {
+        if (args.length > 0 && args[0].equals(IN_COPY)) {
+            System.exit(runInCopy() ? 0 : 1);
+        }
+        Path directory = Files.createTempDirectory("stars-stress");
+        int exitCode;
+        try {
+            copy(Paths.get("data"), directory.resolve("data"));
+            //the class path is made absolute, as the other JVM runs in the temporary directory
+            StringBuilder classPath = new StringBuilder();
+            for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+                classPath.append(classPath.length() == 0 ? "" : File.pathSeparator)
+                        .append(Paths.get(entry).toAbsolutePath());
+            }
+            String java = ProcessHandle.current().info().command().orElse("java");
+            Process process = new ProcessBuilder(java, "-cp", classPath.toString(),
+                    RegistrationStressTest.class.getName(), IN_COPY)
+                    .directory(directory.toFile())
+                    .inheritIO()
+                    .start();
+            exitCode = process.waitFor();
+        } finally {
+            delete(directory);
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * Copies a directory and everything in it
+     * @param source Path of the directory
+     * @param target Path of the copy
+     * @throws IOException cannot copy file
+     */
+    private static void copy(Path source, Path target) throws IOException {
+        try (var paths = Files.walk(source)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Files.copy(path, target.resolve(source.relativize(path).toString()));
+            }
+        }
+    }
+
+    /**
+     * Deletes a directory and everything in it
+     * @param directory Path of the directory
+     * @throws IOException cannot delete file
+     */
+    private static void delete(Path directory) throws IOException {
+        try (var paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Runs the threads and checks the invariants before and after, in the copy of the data directory
+     * @return A boolean that is true if nothing failed and no violation was added
+     * @throws IOException cannot read file
+     * @throws ClassNotFoundException Class does not exist
+     * @throws InterruptedException interrupted while waiting for the threads
+     */
+    private static boolean runInCopy() throws IOException, ClassNotFoundException, InterruptedException {
+        AtomicLong emailed = new AtomicLong();
+        Factory.setMessengerFactory(recipientEmail -> new IMessenger() {
+            @Override
+            public void sendMessage(String subject, String text) {
+                emailed.incrementAndGet();
+            }
+
+            @Override
+            public void addRecipientEmail(String recipientEmail) {
+            }
+        });
+        TextRegistrationDataAccessObject registrationDataAccessObject = TextRegistrationDataAccessObject.getInstance();
+        RegistrationPeriod registrationPeriod = registrationDataAccessObject.getRegistrationPeriod();
+        if (registrationPeriod == null || registrationPeriod.notWithinRegistrationPeriod()) {
+            try {
+                registrationDataAccessObject.updateRegistrationPeriod(Factory.createRegistrationPeriod(
+                        LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1)));
+            } catch (IdenticalRegistrationPeriodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        TextCourseDataAccessObject courseDataAccessObject = TextCourseDataAccessObject.getInstance();
+        TextUserDataAccessObject userDataAccessObject = TextUserDataAccessObject.getInstance();
+        List<String> courseCodes = courseDataAccessObject.getAllCourseCodes();
+        List<String> matricNumbers = userDataAccessObject.getAllStudentMatricNumbers();
+
+        List<String> violationsBefore = findViolations(courseCodes, matricNumbers);
+        System.out.println("violations before: " + violationsBefore.size());
+
+        AtomicLong registered = new AtomicLong();
+        AtomicLong waitListed = new AtomicLong();
+        AtomicLong dropped = new AtomicLong();
+        AtomicLong waitListDropped = new AtomicLong();
+        AtomicLong changed = new AtomicLong();
+        AtomicLong swapped = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        List<Callable<Void>> threads = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            Random random = new Random(thread);
+            StudentCourseRegistrar studentCourseRegistrar = new StudentCourseRegistrar();
+            threads.add(() -> {
+                for (int operation = 0; operation < OPERATIONS_PER_THREAD && !matricNumbers.isEmpty(); operation++) {
+                    String matricNumber = matricNumbers.get(random.nextInt(matricNumbers.size()));
+                    String courseCode = courseCodes.get(random.nextInt(courseCodes.size()));
+                    try {
+                        switch (registerOrChange(studentCourseRegistrar, matricNumber, courseCode, random)) {
+                            case REGISTERED -> registered.incrementAndGet();
+                            case WAIT_LISTED -> waitListed.incrementAndGet();
+                            case DROPPED -> dropped.incrementAndGet();
+                            case WAIT_LIST_DROPPED -> waitListDropped.incrementAndGet();
+                            case CHANGED -> changed.incrementAndGet();
+                            case SWAPPED -> swapped.incrementAndGet();
+                            case REJECTED -> rejected.incrementAndGet();
+                            case SKIPPED -> { }
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        System.err.println(matricNumber + " " + courseCode + ": " + e);
+                    }
+                }
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        executor.invokeAll(threads);
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        System.out.printf("%d threads: %d registered, %d wait listed, %d dropped, %d dropped from waiting lists, " +
+                        "%d changed, %d swapped, %d rejected, %d failed in %d ms%n", THREADS, registered.get(),
+                waitListed.get(), dropped.get(), waitListDropped.get(), changed.get(), swapped.get(), rejected.get(),
+                failed.get(), elapsed / 1_000_000);
+        System.out.println("registered from waiting lists: " + emailed.get());
+        List<String> violationsAfter = findViolations(courseCodes, matricNumbers);
+        System.out.println("violations after: " + violationsAfter.size());
+        violationsAfter.stream().limit(VIOLATIONS_PRINTED).forEach(System.out::println);
+        WriteBehindPersister.getInstance().flush().join();
+        return failed.get() == 0 && violationsAfter.size() <= violationsBefore.size();
+    }
+
+    /**
+     * Outcome of one operation
+     */
+    private enum Outcome {
+        REGISTERED, WAIT_LISTED, DROPPED, WAIT_LIST_DROPPED, CHANGED, SWAPPED, REJECTED, SKIPPED
+    }
+
+    /**
+     * Drops a student from a course if on the waiting list, drops the student, changes their index or swaps it with
+     * another student if registered, else registers the student to a random index.
+     * The student is read without any lock, so another thread may have changed it by the time it is registered or dropped
+     * @param studentCourseRegistrar StudentCourseRegistrar of the thread
+     * @param matricNumber String that represents the matric number of a student
+     * @param courseCode String that represents course code
+     * @param random Random that picks the index
+     * @return Outcome of the operation
+     * @throws Exception registration failed
+     */
+    private static Outcome registerOrChange(StudentCourseRegistrar studentCourseRegistrar, String matricNumber, String courseCode, Random random) throws Exception {
+        Course course = TextCourseDataAccessObject.getInstance().getCourse(courseCode);
+        Student student = TextUserDataAccessObject.getInstance().getStudent(matricNumber);
+        Integer waitListIndexNumber = student.getWaitingListCourses().get(courseCode);
+
+        try {
+            if (waitListIndexNumber != null) {
+                studentCourseRegistrar.deleteRegistration(matricNumber, courseCode, waitListIndexNumber);
+                return Outcome.WAIT_LIST_DROPPED;
+            } else if (student.getRegisteredCourses().containsKey(courseCode)) {
+                Integer registeredIndexNumber;
+                List<Index> otherIndexes;
+                String peerMatricNumber = null;
+                int peerIndexNumber = 0;
+                //the indexes are only read while the course is locked, the registrar then locks it again
+                ReentrantLock courseLock = StripedLocks.COURSES.get(courseCode);
+                courseLock.lock();
+                try {
+                    registeredIndexNumber = student.getRegisteredCourses().get(courseCode);
+                    if (registeredIndexNumber == null) {
+                        return Outcome.SKIPPED;
+                    }
+                    otherIndexes = new ArrayList<>(course.getIndexes());
+                    otherIndexes.remove(course.getIndex(registeredIndexNumber));
+                    if (!otherIndexes.isEmpty()) {
+                        Index peerIndex = otherIndexes.get(random.nextInt(otherIndexes.size()));
+                        peerIndexNumber = peerIndex.getIndexNumber();
+                        if (!peerIndex.getEnrolledStudents().isEmpty()) {
+                            peerMatricNumber = peerIndex.getEnrolledStudents().iterator().next();
+                        }
+                    }
+                } finally {
+                    courseLock.unlock();
+                }
+                switch (otherIndexes.isEmpty() ? 0 : random.nextInt(3)) {
+                    case 0 -> {
+                        studentCourseRegistrar.deleteRegistration(matricNumber, courseCode, registeredIndexNumber);
+                        return Outcome.DROPPED;
+                    }
+                    case 1 -> {
+                        studentCourseRegistrar.changeIndex(matricNumber, courseCode, registeredIndexNumber, peerIndexNumber);
+                        return Outcome.CHANGED;
+                    }
+                    default -> {
+                        if (peerMatricNumber == null) {
+                            return Outcome.SKIPPED;
+                        }
+                        studentCourseRegistrar.swapIndex(matricNumber, peerMatricNumber, courseCode,
+                                registeredIndexNumber, peerIndexNumber);
+                        return Outcome.SWAPPED;
+                    }
+                }
+            }
+            List<Integer> indexNumbers = new ArrayList<>();
+            for (Index index : course.getIndexes()) {
+                indexNumbers.add(index.getIndexNumber());
+            }
+            int indexNumber = indexNumbers.get(random.nextInt(indexNumbers.size()));
+            studentCourseRegistrar.addRegistration(matricNumber, courseCode, indexNumber);
+            return Outcome.REGISTERED;
+        } catch (MaxEnrolledStudentsException e) {
+            return Outcome.WAIT_LISTED;
+        } catch (InsufficientAUsException | ClashingTimeTableException | ExistingCourseException | ExistingUserException |
+                 NonExistentUserException | NonExistentCourseException | NonExistentRegistrationException e) {
+            //another thread registered or dropped the course for the student since it was read
+            return Outcome.REJECTED;
+        }
+    }
+
+    /**
+     * Checks that the vacancy of every index is its maximum class size less its enrolled and waiting list students,
+     * that no student waits while there is a vacancy, that every student of an index has the index and every index of
+     * a student has the student, and that the registrations are those of the students of the indexes
+     * @param courseCodes List of course codes of all courses
+     * @param matricNumbers List of matric numbers of all students
+     * @return List of Strings describing each violation
+     * @throws IOException cannot read file
+     * @throws ClassNotFoundException Class does not exist
+     */
+    private static List<String> findViolations(List<String> courseCodes, List<String> matricNumbers) throws IOException, ClassNotFoundException {
+        TextCourseDataAccessObject courseDataAccessObject = TextCourseDataAccessObject.getInstance();
+        TextUserDataAccessObject userDataAccessObject = TextUserDataAccessObject.getInstance();
+        TextRegistrationDataAccessObject registrationDataAccessObject = TextRegistrationDataAccessObject.getInstance();
+        List<String> violations = new ArrayList<>();
+        Set<String> indexStudents = new HashSet<>();
+        for (String courseCode : courseCodes) {
+            Course course = courseDataAccessObject.getCourse(courseCode);
+            Set<String> courseStudents = new HashSet<>();
+            for (Index index : course.getIndexes()) {
+                int indexNumber = index.getIndexNumber();
+                Set<String> enrolledStudents = index.getEnrolledStudents();
+                Queue<String> waitingList = index.getWaitingList();
+                if (index.getVacancy() != index.getMaxClassSize() - enrolledStudents.size() - waitingList.size()) {
+                    violations.add(courseCode + " " + indexNumber + ": vacancy " + index.getVacancy() + " with " +
+                            enrolledStudents.size() + " enrolled and " + waitingList.size() + " waiting");
+                }
+                if (!waitingList.isEmpty() && enrolledStudents.size() < index.getMaxClassSize()) {
+                    violations.add(courseCode + " " + indexNumber + ": students waiting with a vacancy");
+                }
+                for (String matricNumber : enrolledStudents) {
+                    Integer studentIndexNumber = userDataAccessObject.getStudent(matricNumber).getRegisteredCourses().get(courseCode);
+                    if (studentIndexNumber == null || studentIndexNumber != indexNumber) {
+                        violations.add(courseCode + " " + indexNumber + ": " + matricNumber + " enrolled but registered to " + studentIndexNumber);
+                    }
+                    indexStudents.add(matricNumber + " " + courseCode + " " + indexNumber);
+                    courseStudents.add(matricNumber + " " + indexNumber);
+                }
+                for (String matricNumber : waitingList) {
+                    Integer studentIndexNumber = userDataAccessObject.getStudent(matricNumber).getWaitingListCourses().get(courseCode);
+                    if (studentIndexNumber == null || studentIndexNumber != indexNumber) {
+                        violations.add(courseCode + " " + indexNumber + ": " + matricNumber + " waiting but wait listed to " + studentIndexNumber);
+                    }
+                    indexStudents.add(matricNumber + " " + courseCode + " " + indexNumber);
+                    courseStudents.add(matricNumber + " " + indexNumber);
+                }
+            }
+            Set<String> registrations = new HashSet<>();
+            for (RegistrationKey registrationKey : registrationDataAccessObject.getCourseRegistrations(courseCode)) {
+                registrations.add(registrationKey.getMatricNumber() + " " + registrationKey.getIndexNumber());
+            }
+            if (!registrations.equals(courseStudents)) {
+                violations.add(courseCode + ": " + registrations.size() + " registrations for " + courseStudents.size() + " students");
+            }
+        }
+        for (String matricNumber : matricNumbers) {
+            Student student = userDataAccessObject.getStudent(matricNumber);
+            List<Map.Entry<String, Integer>> studentIndexes = new ArrayList<>(student.getRegisteredCourses().entrySet());
+            studentIndexes.addAll(student.getWaitingListCourses().entrySet());
+            for (Map.Entry<String, Integer> studentIndex : studentIndexes) {
+                if (!indexStudents.contains(matricNumber + " " + studentIndex.getKey() + " " + studentIndex.getValue())) {
+                    violations.add(matricNumber + ": registered to " + studentIndex.getKey() + " " + studentIndex.getValue() + " but not in the index");
+                }
+            }
+        }
+        return violations;
+    }
+}
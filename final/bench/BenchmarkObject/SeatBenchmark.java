@@ -0,0 +1,157 @@
+package BenchmarkObject;
+
+import EntityObject.Index;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Measures how many seats per second threads racing for the seats of one index can reserve,
+ * with the atomic vacancy of Index and with the vacancy behind a lock it replaced, at 1, 8 and 64 threads.
+ * Every round starts with an empty index and more reservations than seats, and checks that exactly as many
+ * seats were handed out as the index has and that none is left for the next reservation.
+ * Needs no data directory.
+ */
+public class SeatBenchmark {
+    /**
+     * Numbers of threads the reservations are made from
+     */
+    private static final int[] THREAD_COUNTS = {1, 8, 64};
+    /**
+     * Seats of the index of every round
+     */
+    private static final int SEATS = 1000;
+    /**
+     * Reservations of every round, shared between the threads
+     */
+    private static final int RESERVATIONS = 1 << 20;
+    /**
+     * Minimum time in nanoseconds each way of reserving is repeated for
+     */
+    private static final long BENCHMARK_NANOS = 1_000_000_000L;
+
+    /**
+     * A way of reserving seats
+     */
+    private interface Reserver {
+        /**
+         * Creates the reservations of an empty index
+         * @return BooleanSupplier that reserves a place and is true if the place is a seat
+         */
+        BooleanSupplier newIndex();
+    }
+
+    /**
+     * A private Constructor that prevents any other class from instantiating
+     */
+    private SeatBenchmark() {
+    }
+
+    /**
+     * Times both ways of reserving at every number of threads
+     * @param args not used
+     * @throws InterruptedException interrupted while waiting for the threads
+     * @throws ExecutionException a round failed
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        Reserver atomic = () -> {
+            Index index = new Index(1, SEATS, new Hashtable<>(), null, new Hashtable<>(), null);
+            return index::reserveSeat;
+        };
+        Reserver locked = () -> {
+            //the vacancy check and the decrement as they were, made atomic with a lock
+            int[] vacancy = {SEATS};
+            Object lock = new Object();
+            return () -> {
+                synchronized (lock) {
+                    return vacancy[0]-- > 0;
+                }
+            };
+        };
+
+        int maxThreads = THREAD_COUNTS[THREAD_COUNTS.length - 1];
+        ExecutorService executor = Executors.newFixedThreadPool(maxThreads);
+        try {
+            System.out.println(SEATS + " seats, " + RESERVATIONS + " reservations per round, "
+                    + Runtime.getRuntime().availableProcessors() + " processors");
+            for (int threads : THREAD_COUNTS) {
+                System.out.printf("  %2d threads %-8s %12.0f reservations/s%n", threads, "locked",
+                        time(executor, threads, locked));
+                System.out.printf("  %2d threads %-8s %12.0f reservations/s%n", threads, "atomic",
+                        time(executor, threads, atomic));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Repeats rounds for at least BENCHMARK_NANOS after warming up
+     * @param executor ExecutorService with at least as many threads as given
+     * @param threads Integer that represents the number of threads racing
+     * @param reserver Reserver to be timed
+     * @return Double that represents the reservations per second
+     * @throws InterruptedException interrupted while waiting for the threads
+     * @throws ExecutionException a round failed
+     */
+    private static double time(ExecutorService executor, int threads, Reserver reserver) throws InterruptedException, ExecutionException {
+        for (int i = 0; i < 5; i++) {
+            round(executor, threads, reserver);
+        }
+        long reservations = 0;
+        long elapsed = 0;
+        do {
+            elapsed += round(executor, threads, reserver);
+            reservations += RESERVATIONS;
+        } while (elapsed < BENCHMARK_NANOS);
+        return reservations * 1e9 / elapsed;
+    }
+
+    /**
+     * Races the threads for the seats of an empty index and checks that no more seats were handed out than it has
+     * @param executor ExecutorService with at least as many threads as given
+     * @param threads Integer that represents the number of threads racing
+     * @param reserver Reserver to be timed
+     * @return Long that represents the time from the start of the race to the end of the last thread in nanoseconds
+     * @throws InterruptedException interrupted while waiting for the threads
+     * @throws ExecutionException a round failed
+     */
+    private static long round(ExecutorService executor, int threads, Reserver reserver) throws InterruptedException, ExecutionException {
+        BooleanSupplier reserveSeat = reserver.newIndex();
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> seats = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            int reservations = RESERVATIONS / threads + (thread < RESERVATIONS % threads ? 1 : 0);
+            seats.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                int taken = 0;
+                for (int i = 0; i < reservations; i++) {
+                    if (reserveSeat.getAsBoolean()) {
+                        taken++;
+                    }
+                }
+                return taken;
+            }));
+        }
+        ready.await();
+        long startNanos = System.nanoTime();
+        start.countDown();
+        int taken = 0;
+        for (Future<Integer> future : seats) {
+            taken += future.get();
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        if (taken != SEATS) {
+            throw new IllegalStateException(taken + " seats handed out for " + SEATS);
+        }
+        if (reserveSeat.getAsBoolean()) {
+            throw new IllegalStateException("seat handed out after " + RESERVATIONS + " reservations");
+        }
+        return elapsed;
+    }
+}
@@ -3,6 +3,8 @@ package ControlObject;
 import DataAccessObject.IReadWriteCourseDataAccessObject;
 import DataAccessObject.IReadWriteRegistrationDataAccessObject;
 import DataAccessObject.IReadWriteUserDataAccessObject;
+import DataAccessObject.OptimisticUpdate;
+import DataAccessObject.VenueSchedule;
 import EntityObject.*;
 import HelperObject.EmailMessenger;
 import HelperObject.Factory;
@@ -19,6 +21,7 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Class for implementing admin session
@@ -65,8 +68,9 @@ public class ConsoleAdminSession implements ISession {
                     "5. Print student list by index number\n" +
                     "6. Print student list by course (all students registered for the selected course)\n" +
                     "7. Update student's courses/ Sign in as student\n" +
-                    "8. Log out\n" +
-                    "9. Exit\n";
+                    "8. Check venues for double-bookings\n" +
+                    "9. Log out\n" +
+                    "10. Exit\n";
 
     /**
      * Creates the Admin Session.
@@ -94,10 +98,11 @@ public class ConsoleAdminSession implements ISession {
 
     /**
      * Exits the system.
+     * @throws SecurityException caught by the application to exit, or by the server to close the connection only
      */
     @Override
     public void exit() {
-        System.exit(0);
+        throw new SecurityException();
     }
 
     /**
@@ -132,7 +137,7 @@ public class ConsoleAdminSession implements ISession {
                 _terminal.println(adminOptions);
                 _terminal.println("\t\twelcome " + _user.getName());
                 choice = _textIO.newIntInputReader()
-                        .withMinVal(1).withMaxVal(9)
+                        .withMinVal(1).withMaxVal(10)
                         .read("Enter your choice: ");
                 _terminal.resetToBookmark("admin");
                 switch (choice) {
@@ -151,12 +156,13 @@ public class ConsoleAdminSession implements ISession {
                             _terminal.println("--------------------------------------------------------------------------------");
                         }
                     }
-                    case 8 -> loggedIn = false;
-                    case 9 -> exit();
+                    case 8 -> checkVenueDoubleBookingsMenu();
+                    case 9 -> loggedIn = false;
+                    case 10 -> exit();
                 }
             } catch (ReadAbortedException ignored) {
             }
-        } while (choice >= 0 && choice < 8);
+        } while (choice >= 0 && choice < 9);
     }
 
     /**
@@ -483,25 +489,28 @@ public class ConsoleAdminSession implements ISession {
             do {
                 lectureDay = _textIO.newEnumInputReader(DayOfWeek.class).
                         read("Enter lecture day: ");
-                //validates that there is no other lecture session on the same day
-                //if there is, user will be prompted to select another day
-                if (lectureTimings.containsKey(lectureDay)) {
+                lectureTiming = getValidTimeInput("lecture");
+                //validates that the session does not overlap another lecture session on the same day
+                //if it does, user will be prompted to add the session again
+                if (!Sessions.addSession(lectureTimings, lectureDay, Sessions.start(lectureTiming, 0), Sessions.end(lectureTiming, 0))) {
                     _terminal.resetToBookmark("add lecture session");
                     _terminal.getProperties().setPromptColor(Color.RED);
-                    _terminal.println("there is already a lecture session on " + lectureDay +
-                            ". please select another day");
+                    _terminal.println("there is already a lecture session at that time on " + lectureDay +
+                            ". please select another day or time");
                     _terminal.getProperties().setPromptColor(Color.WHITE);
                     contAdd = true;
                     continue;
                 }
-                lectureTiming = getValidTimeInput("lecture");
-                lectureTimings.put(lectureDay, lectureTiming);
                 contAdd = _textIO.newBooleanInputReader().
                         read("do you wish to continue adding a lecture session?");
             } while (contAdd);
 
-            Venue lectureVenue = _textIO.newEnumInputReader(Venue.class)
-                    .read("add the venue for the lecture session(s): ");
+            Venue lectureVenue;
+            //prompts user to select another venue so long as the venue is booked at the lecture timings
+            do {
+                lectureVenue = _textIO.newEnumInputReader(Venue.class)
+                        .read("add the venue for the lecture session(s): ");
+            } while (isDoubleBooked(selectedCourseCode, lectureVenue, lectureTimings));
 
             _terminal.resetToBookmark("add course details");
             selectedCourse = Factory.createCourse(selectedCourseCode, courseName, school, lectureTimings, lectureVenue, AUs);
@@ -579,23 +588,27 @@ public class ConsoleAdminSession implements ISession {
                     case 1 -> {
                         String newCourseName = _textIO.newStringInputReader()
                                 .read("enter new course name: ");
-                        selectedCourse.setCourseName(newCourseName);
-                        updateCourse(selectedCourse);
-                        _terminal.getProperties().setPromptColor(Color.GREEN);
-                        _terminal.println("Successfully updated course name");
-                        _terminal.getProperties().setPromptColor("white");
+                        Course updatedCourse = updateCourse(selectedCourseCode, course -> course.setCourseName(newCourseName));
+                        if (updatedCourse != null) {
+                            selectedCourse = updatedCourse;
+                            _terminal.getProperties().setPromptColor(Color.GREEN);
+                            _terminal.println("Successfully updated course name");
+                            _terminal.getProperties().setPromptColor("white");
+                        }
                         _textIO.newStringInputReader().withDefaultValue(" ")
                                 .read("press enter to continue");
                     }
                     //---------------Update school
                     case 2 -> {
-                        school = _textIO.newEnumInputReader(School.class)
+                        School newSchool = _textIO.newEnumInputReader(School.class)
                                 .read("enter new school: ");
-                        selectedCourse.setSchool(school);
-                        updateCourse(selectedCourse);
-                        _terminal.getProperties().setPromptColor(Color.GREEN);
-                        _terminal.println("Successfully updated school");
-                        _terminal.getProperties().setPromptColor("white");
+                        Course updatedCourse = updateCourse(selectedCourseCode, course -> course.setSchool(newSchool));
+                        if (updatedCourse != null) {
+                            selectedCourse = updatedCourse;
+                            _terminal.getProperties().setPromptColor(Color.GREEN);
+                            _terminal.println("Successfully updated school");
+                            _terminal.getProperties().setPromptColor("white");
+                        }
                         _textIO.newStringInputReader().withDefaultValue(" ")
                                 .read("press enter to continue");
                     }
@@ -603,11 +616,15 @@ public class ConsoleAdminSession implements ISession {
                     case 3 -> {
                         Venue lectureVenue = _textIO.newEnumInputReader(Venue.class)
                                 .read("enter new venue for the lecture session(s): ");
-                        selectedCourse.setLectureVenue(lectureVenue);
-                        updateCourse(selectedCourse);
-                        _terminal.getProperties().setPromptColor(Color.GREEN);
-                        _terminal.println("Successfully updated lecture venue");
-                        _terminal.getProperties().setPromptColor("white");
+                        if (!isDoubleBooked(selectedCourseCode, lectureVenue, selectedCourse.getLectureTimings())) {
+                            Course updatedCourse = updateCourse(selectedCourseCode, course -> course.setLectureVenue(lectureVenue));
+                            if (updatedCourse != null) {
+                                selectedCourse = updatedCourse;
+                                _terminal.getProperties().setPromptColor(Color.GREEN);
+                                _terminal.println("Successfully updated lecture venue");
+                                _terminal.getProperties().setPromptColor("white");
+                            }
+                        }
                         _textIO.newStringInputReader().withDefaultValue(" ").
                                 read("press enter to continue");
                     }
@@ -653,7 +670,7 @@ public class ConsoleAdminSession implements ISession {
                             for (Iterator<String> indexNumberIterator = indexNumbers.iterator(); indexNumberIterator.hasNext();) {
                                 String indexNumber = indexNumberIterator.next();
                                 Index index = selectedCourse.getIndex(Integer.parseInt(indexNumber));
-                                ArrayList<String> enrolledStudents = index.getEnrolledStudents();
+                                Set<String> enrolledStudents = index.getEnrolledStudents();
                                 Queue<String> waitingList = index.getWaitingList();
                                 ArrayList<String> allStudents = new ArrayList<>();
                                 allStudents.addAll(enrolledStudents);
@@ -743,13 +760,16 @@ public class ConsoleAdminSession implements ISession {
             switch (option) {
                 case 1 -> {
                     Hashtable<DayOfWeek, List<LocalTime>> originalTutorialTimings = existingIndex.getTutorialTimings();
+                    Venue originalTutorialVenue = existingIndex.getTutorialVenue();
                     Hashtable<DayOfWeek, List<LocalTime>> newTutorialTimings;
                     _terminal.println("Add/Update Tutorial Timing");
-                    newTutorialTimings = Objects.requireNonNullElseGet(originalTutorialTimings, Hashtable::new);
+                    newTutorialTimings = originalTutorialTimings == null ? new Hashtable<>() : new Hashtable<>(originalTutorialTimings);
                     DayOfWeek sessionDay = _textIO.newEnumInputReader(DayOfWeek.class)
                             .read("Enter tutorial day: ");
                     List<LocalTime> sessionTiming = getValidTimeInput("tutorial");
-                    newTutorialTimings.put(sessionDay, sessionTiming);
+                    if (!addSessionInput(newTutorialTimings, sessionDay, sessionTiming, "tutorial")) {
+                        break;
+                    }
 
                     //Check if timing clashed with lecture timing
                     existingIndex.setTutorialTimings(newTutorialTimings);
@@ -778,20 +798,29 @@ public class ConsoleAdminSession implements ISession {
                         _terminal.println("Successfully added tutorial venue");
                         _terminal.getProperties().setPromptColor("white");
                     }
+                    //reverts the tutorial if its venue is booked by another course at the new timing
+                    if (isDoubleBooked(course.getCourseCode(), existingIndex.getTutorialVenue(), existingIndex.getTutorialTimings())) {
+                        existingIndex.setTutorialTimings(originalTutorialTimings);
+                        existingIndex.setTutorialVenue(originalTutorialVenue);
+                        _terminal.println("Tutorial timing has not been added/updated");
+                    }
                     _textIO.newStringInputReader().withDefaultValue(" ")
                             .read("press enter to continue");
                 }
                 case 2 -> {
                     Hashtable<DayOfWeek, List<LocalTime>> originalLaboratoryTimings = existingIndex.getLaboratoryTimings();
+                    Venue originalLaboratoryVenue = existingIndex.getLaboratoryVenue();
                     Hashtable<DayOfWeek, List<LocalTime>> newLaboratoryTimings;
                     _terminal.println("Add/Update Laboratory Timing");
-                    newLaboratoryTimings = Objects.requireNonNullElseGet(originalLaboratoryTimings, Hashtable::new);
+                    newLaboratoryTimings = originalLaboratoryTimings == null ? new Hashtable<>() : new Hashtable<>(originalLaboratoryTimings);
                     DayOfWeek sessionDay = _textIO.newEnumInputReader(DayOfWeek.class)
                             .read("Enter Laboratory day: ");
                     List<LocalTime> sessionTiming = getValidTimeInput("laboratory");
-                    newLaboratoryTimings.put(sessionDay, sessionTiming);
+                    if (!addSessionInput(newLaboratoryTimings, sessionDay, sessionTiming, "laboratory")) {
+                        break;
+                    }
 
-                    existingIndex.setTutorialTimings(newLaboratoryTimings);
+                    existingIndex.setLaboratoryTimings(newLaboratoryTimings);
                     if (course.isClashing(existingIndex)) {
                         existingIndex.setLaboratoryTimings(originalLaboratoryTimings);
                         _terminal.getProperties().setPromptColor("red");
@@ -818,12 +847,19 @@ public class ConsoleAdminSession implements ISession {
                         _terminal.println("Successfully added laboratory venue");
                         _terminal.getProperties().setPromptColor("white");
                     }
+                    //reverts the laboratory if its venue is booked by another course at the new timing
+                    if (isDoubleBooked(course.getCourseCode(), existingIndex.getLaboratoryVenue(), existingIndex.getLaboratoryTimings())) {
+                        existingIndex.setLaboratoryTimings(originalLaboratoryTimings);
+                        existingIndex.setLaboratoryVenue(originalLaboratoryVenue);
+                        _terminal.println("Laboratory timing has not been added/updated");
+                    }
                     _textIO.newStringInputReader().withDefaultValue(" ")
                             .read("press enter to continue");
                 }
                 //---------------Add/Update tutorial venue
                 case 3 -> {
                     _terminal.println("Add/Update tutorial venue");
+                    Venue originalTutorialVenue = existingIndex.getTutorialVenue();
                     Venue tutorialVenue = _textIO.newEnumInputReader(Venue.class)
                             .read("add the venue for the tutorial session(s): ");
                     existingIndex.setTutorialVenue(tutorialVenue);
@@ -859,12 +895,21 @@ public class ConsoleAdminSession implements ISession {
                             _terminal.println("Successfully added tutorial timing");
                         }
                     }
+                    //reverts the tutorial venue if it is booked by another course at the tutorial timing
+                    if (isDoubleBooked(course.getCourseCode(), existingIndex.getTutorialVenue(), existingIndex.getTutorialTimings())) {
+                        if (originalTutorialVenue == null) {
+                            existingIndex.setTutorialTimings(null);
+                        }
+                        existingIndex.setTutorialVenue(originalTutorialVenue);
+                        _terminal.println("Tutorial venue has not been added/updated");
+                    }
                     _textIO.newStringInputReader().withDefaultValue(" ")
                             .read("press enter to continue");
                 }
                 //---------------Add/Update laboratory venue
                 case 4 -> {
                     _terminal.println("Add/Update laboratory venue");
+                    Venue originalLaboratoryVenue = existingIndex.getLaboratoryVenue();
                     Venue laboratoryVenue = _textIO.newEnumInputReader(Venue.class)
                             .read("add the venue for the laboratory session(s): ");
                     existingIndex.setLaboratoryVenue(laboratoryVenue);
@@ -885,7 +930,7 @@ public class ConsoleAdminSession implements ISession {
                         List<LocalTime> sessionTiming = getValidTimeInput("laboratory");
                         newLaboratoryTimings.put(sessionDay, sessionTiming);
 
-                        existingIndex.setTutorialTimings(newLaboratoryTimings);
+                        existingIndex.setLaboratoryTimings(newLaboratoryTimings);
                         //if the new laboratory timing clashes with a lecture timing
                         //revert the creation of the laboratory session
                         if (course.isClashing(existingIndex)) {
@@ -902,6 +947,14 @@ public class ConsoleAdminSession implements ISession {
                             _terminal.println("Successfully added laboratory timing");
                         }
                     }
+                    //reverts the laboratory venue if it is booked by another course at the laboratory timing
+                    if (isDoubleBooked(course.getCourseCode(), existingIndex.getLaboratoryVenue(), existingIndex.getLaboratoryTimings())) {
+                        if (originalLaboratoryVenue == null) {
+                            existingIndex.setLaboratoryTimings(null);
+                        }
+                        existingIndex.setLaboratoryVenue(originalLaboratoryVenue);
+                        _terminal.println("Laboratory venue has not been added/updated");
+                    }
                     _textIO.newStringInputReader().withDefaultValue(" ")
                             .read("press enter to continue");
                 }
@@ -921,10 +974,21 @@ public class ConsoleAdminSession implements ISession {
                             _terminal.getProperties().setPromptColor("white");
                         }
                     } while (newMaxClassSize < currentMaxClassSize);
-                    existingIndex.setMaxClassSize(newMaxClassSize);
-                    _terminal.getProperties().setPromptColor(Color.GREEN);
-                    _terminal.println("Successfully updated maximum class size");
-                    _terminal.getProperties().setPromptColor("white");
+                    int maxClassSize = newMaxClassSize;
+                    //seats owed to the waiting list by the copy that was stored, as the change may be tried again
+                    int[] owedSeats = new int[1];
+                    Index updatedIndex = updateIndex(course.getCourseCode(), existingIndex.getIndexNumber(),
+                            copy -> owedSeats[0] = copy.setMaxClassSize(maxClassSize));
+                    if (updatedIndex != null) {
+                        existingIndex = updatedIndex;
+                        course.updateIndex(existingIndex);
+                        _terminal.getProperties().setPromptColor(Color.GREEN);
+                        _terminal.println("Successfully updated maximum class size");
+                        _terminal.getProperties().setPromptColor("white");
+                        if (owedSeats[0] > 0) {
+                            existingIndex = registerWaitingList(course, existingIndex, owedSeats[0]);
+                        }
+                    }
                     _textIO.newStringInputReader().withDefaultValue(" ")
                             .read("press enter to continue");
                 }
@@ -934,7 +998,7 @@ public class ConsoleAdminSession implements ISession {
                         //get all enrolled students and students on wait list
                         IReadWriteRegistrationDataAccessObject registrationDataAccessObject =
                                 Factory.getTextRegistrationDataAccessObject(this);
-                        ArrayList<String> enrolledStudents = existingIndex.getEnrolledStudents();
+                        Set<String> enrolledStudents = existingIndex.getEnrolledStudents();
                         Queue<String> waitingList = existingIndex.getWaitingList();
                         ArrayList<String> allStudents = new ArrayList<>();
                         allStudents.addAll(enrolledStudents);
@@ -1033,6 +1097,35 @@ public class ConsoleAdminSession implements ISession {
         }
     }
 
+    /**
+     * Print every pair of sessions booked in the same venue at the same time
+     * @see DataAccessObject.IReadCourseDataAccessObject#getVenueSchedule()
+     * @see DataAccessObject.VenueSchedule#findDoubleBookings()
+     */
+    private void checkVenueDoubleBookingsMenu() {
+        try {
+            IReadWriteCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+            List<String> doubleBookings = courseDataAccessObject.getVenueSchedule().findDoubleBookings();
+            if (doubleBookings.isEmpty()) {
+                _terminal.getProperties().setPromptColor(Color.GREEN);
+                _terminal.println("No venue is double-booked");
+            } else {
+                _terminal.getProperties().setPromptColor("red");
+                _terminal.println(doubleBookings.size() + " double-booking(s) found");
+                for (String doubleBooking : doubleBookings) {
+                    _terminal.println(doubleBooking);
+                }
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            _terminal.getProperties().setPromptColor("red");
+            _terminal.println("file not found");
+        } finally {
+            _terminal.getProperties().setPromptColor("white");
+            _textIO.newStringInputReader().withDefaultValue(" ")
+                    .read("press enter to continue");
+        }
+    }
+
     /**
      * Prints the student menu for admin
      * Allows admin to access those functions in student menu
@@ -1084,6 +1177,36 @@ public class ConsoleAdminSession implements ISession {
         }
     }
 
+    /**
+     * Determines if a venue is booked by another course at some timings, and prints the sessions booked if it is
+     * @param courseCode String that represents the course code of the course being added or updated
+     * @param venue Venue to be booked, or null
+     * @param timings Hashtable of days and start and end timings to be booked, or null
+     * @return A boolean that is true if the venue is double-booked
+     * @see DataAccessObject.VenueSchedule#getConflicts(String, Venue, Hashtable)
+     */
+    private boolean isDoubleBooked(String courseCode, Venue venue, Hashtable<DayOfWeek, List<LocalTime>> timings) {
+        try {
+            IReadWriteCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+            List<VenueSchedule.Booking> conflicts = courseDataAccessObject.getVenueSchedule().getConflicts(courseCode, venue, timings);
+            if (conflicts.isEmpty()) {
+                return false;
+            }
+            _terminal.getProperties().setPromptColor("red");
+            _terminal.println(venue + " is already booked at that time by");
+            for (VenueSchedule.Booking conflict : conflicts) {
+                _terminal.println(conflict.toString());
+            }
+            return true;
+        } catch (IOException | ClassNotFoundException e) {
+            _terminal.getProperties().setPromptColor("red");
+            _terminal.println("file not found");
+            return false;
+        } finally {
+            _terminal.getProperties().setPromptColor("white");
+        }
+    }
+
     /**
      * Overrides an existing course
      */
@@ -1101,6 +1224,100 @@ public class ConsoleAdminSession implements ISession {
         }
     }
 
+    /**
+     * Changes a copy of an existing course and stores it,
+     * with a fresh copy each time another session stores the course first.
+     * Only failures are printed, the caller prints what was updated
+     * @param courseCode String that represents course code
+     * @param change Consumer that changes the copy
+     * @return Course object as stored, or null if it could not be stored
+     * @see DataAccessObject.OptimisticUpdate#updateCourse(IReadWriteCourseDataAccessObject, String, Consumer)
+     */
+    private Course updateCourse(String courseCode, Consumer<Course> change) {
+        try {
+            IReadWriteCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+            return OptimisticUpdate.updateCourse(courseDataAccessObject, courseCode, change);
+        } catch (IOException | ClassNotFoundException e) {
+            _terminal.getProperties().setPromptColor("red");
+            _terminal.println("file not found");
+        } catch (NonExistentCourseException e) {
+            _terminal.getProperties().setPromptColor("red");
+            _terminal.println("Course has been deleted");
+        } catch (StaleVersionException e) {
+            _terminal.getProperties().setPromptColor("red");
+            _terminal.println("Course is being changed by others, please try again");
+        } finally {
+            _terminal.getProperties().setPromptColor("white");
+        }
+        return null;
+    }
+
+    /**
+     * Changes a copy of an existing index and stores it, keeping changes to the other indexes of the course,
+     * with a fresh copy each time another session changes the index first
+     * @param courseCode String that represents course code
+     * @param indexNumber Integer that represents the index number
+     * @param change Consumer that changes the copy
+     * @return Index object as stored, or null if it could not be stored
+     * @see DataAccessObject.OptimisticUpdate#updateIndex(IReadWriteCourseDataAccessObject, String, int, Consumer)
+     */
+    private Index updateIndex(String courseCode, int indexNumber, Consumer<Index> change) {
+        try {
+            IReadWriteCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+            return OptimisticUpdate.updateIndex(courseDataAccessObject, courseCode, indexNumber, change);
+        } catch (IOException | ClassNotFoundException e) {
+            _terminal.getProperties().setPromptColor("red");
+            _terminal.println("file not found");
+        } catch (NonExistentCourseException | NonExistentIndexException e) {
+            _terminal.getProperties().setPromptColor("red");
+            _terminal.println("Index has not been saved yet or has been deleted");
+        } catch (StaleVersionException e) {
+            _terminal.getProperties().setPromptColor("red");
+            _terminal.println("Index is being changed by others, please try again");
+        } finally {
+            _terminal.getProperties().setPromptColor("white");
+        }
+        return null;
+    }
+
+    /**
+     * Registers the students at the top of the waiting list of an index that are owed the seats added to it,
+     * as when a student drops the index
+     * @param course Course object being updated
+     * @param index Index object as stored
+     * @param seats Integer that represents the number of seats owed to the waiting list
+     * @return Index object with the students registered, or the index given if it could not be read again
+     * @see DataAccessObject.IReadWriteRegistrationDataAccessObject#registerWaitingList(String, int, int)
+     */
+    private Index registerWaitingList(Course course, Index index, int seats) {
+        try {
+            IReadWriteRegistrationDataAccessObject registrationDataAccessObject =
+                    Factory.getTextRegistrationDataAccessObject(this);
+            registrationDataAccessObject.registerWaitingList(course.getCourseCode(), index.getIndexNumber(), seats);
+            _terminal.getProperties().setPromptColor(Color.GREEN);
+            _terminal.println("Registered " + seats + " student(s) from the waiting list");
+        } catch (IOException | ClassNotFoundException e) {
+            _terminal.getProperties().setPromptColor("red");
+            _terminal.println("file not found");
+        } catch (RuntimeException e) {
+            //the students are registered before the emails are sent
+            _terminal.getProperties().setPromptColor("red");
+            _terminal.println("Registered students from the waiting list, but the email could not be sent");
+        } catch (Exception e) {
+            _terminal.getProperties().setPromptColor("red");
+            _terminal.println("Error registering students from the waiting list");
+        } finally {
+            _terminal.getProperties().setPromptColor("white");
+        }
+        try {
+            index = Factory.getTextCourseDataAccessObject(this).getCourse(course.getCourseCode())
+                    .getIndex(index.getIndexNumber());
+            course.updateIndex(index);
+        } catch (IOException | ClassNotFoundException ignore) {
+        }
+        return index;
+    }
+
     /**
      * Appends data of students in enrolled and waiting list of a Index object into a String
      * @param index Index object
@@ -1110,7 +1327,7 @@ public class ConsoleAdminSession implements ISession {
         StringBuilder str = new StringBuilder();
         try {
             IReadWriteUserDataAccessObject userDataAccessObject = Factory.getTextUserDataAccessObject(this);
-            ArrayList<String> enrolledStudents = index.getEnrolledStudents();
+            Set<String> enrolledStudents = index.getEnrolledStudents();
             Queue<String> waitingListStudents = index.getWaitingList();
             str.append("indexNumber: ").append(index.getIndexNumber()).append('\n');
             if (enrolledStudents.isEmpty()) {
@@ -1143,6 +1360,33 @@ public class ConsoleAdminSession implements ISession {
         return str.toString();
     }
 
+    /**
+     * Adds a session input by the user to timings.
+     * If there are sessions on the same day, prompts user to replace them or to add the session alongside them
+     * @param timings Hashtable of days and start and end timings to add to
+     * @param day DayOfWeek of the session
+     * @param sessionTiming List of LocalTime that represents the start and end time of the session
+     * @param sessionType String that represents the type of the session
+     * @return A boolean that is false if the session overlaps another session on the same day and was not added
+     * @see ValueObject.Sessions#addSession(Hashtable, DayOfWeek, LocalTime, LocalTime)
+     */
+    private boolean addSessionInput(Hashtable<DayOfWeek, List<LocalTime>> timings, DayOfWeek day,
+                                    List<LocalTime> sessionTiming, String sessionType) {
+        if (timings.containsKey(day) && _textIO.newBooleanInputReader()
+                .read("replace the existing " + sessionType + " session(s) on " + day + "?")) {
+            timings.remove(day);
+        }
+        if (!Sessions.addSession(timings, day, Sessions.start(sessionTiming, 0), Sessions.end(sessionTiming, 0))) {
+            _terminal.getProperties().setPromptColor("red");
+            _terminal.println("there is already a " + sessionType + " session at that time on " + day);
+            _terminal.getProperties().setPromptColor("white");
+            _textIO.newStringInputReader().withDefaultValue(" ")
+                    .read("press enter to continue");
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Get valid time input
      * @return List of LocalTime that represents the start and end time
@@ -1153,28 +1397,27 @@ public class ConsoleAdminSession implements ISession {
         String startTime;
         String schoolStartTime = "07:30";
         String schoolEndTime = "21:30";
-        int maxDuration = 4;
+        int maxDuration = 4 * 60;
         int duration = _textIO.newIntInputReader()
                 .withMinVal(1).withMaxVal(maxDuration)
-                .read("enter the duration (1-" + maxDuration + ") of the " + sessionType + "(hrs): ");
+                .read("enter the duration (1-" + maxDuration + ") of the " + sessionType + "(mins): ");
         _terminal.setBookmark("start time");
         do {
             //Prompt user to enter start time of the session and reads it
-            startTime = _textIO.newStringInputReader().read("enter the start time in HH:MM (30 min interval, e.g. 16:30): ");
+            startTime = _textIO.newStringInputReader().read("enter the start time in HH:MM (e.g. 16:45): ");
             //Checks if input is valid
             proceed = InputValidator.validateTimeInput(startTime) &&
                     InputValidator.validateTimeInput(startTime, schoolStartTime, schoolEndTime, duration);
             if (!proceed) {
                 _terminal.resetToBookmark("start time");
                 _terminal.getProperties().setPromptColor("red");
-                _terminal.println("timing is invalid. school should start earliest at 07:30 and end latest by 21:30." +
-                        "\nAND classes should start at a 30min interval");
+                _terminal.println("timing is invalid. school should start earliest at 07:30 and end latest by 21:30.");
                 _terminal.getProperties().setPromptColor("white");
             }
         } while (!proceed);
 
         LocalTime classStartTime = LocalTime.parse(startTime);
-        LocalTime classEndTime = classStartTime.plusHours(duration);
+        LocalTime classEndTime = classStartTime.plusMinutes(duration);
         startEndTime.add(classStartTime);
         startEndTime.add(classEndTime);
 
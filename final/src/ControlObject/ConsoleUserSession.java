@@ -196,6 +196,7 @@ public class ConsoleUserSession implements ISession{
             } catch (MaxEnrolledStudentsException e) {
                 _terminal.getProperties().setPromptColor("red");
                 _terminal.println("maximum class size reached, adding you to waiting list instead.");
+                printSuggestedIndexes(courseCodeInput);
             } catch (InvalidAccessPeriodException e) {
                 _terminal.getProperties().setPromptColor("red");
                 _terminal.println("registration period have not started/over");
@@ -205,6 +206,7 @@ public class ConsoleUserSession implements ISession{
             } catch (ClashingTimeTableException e) {
                 _terminal.getProperties().setPromptColor("red");
                 _terminal.println("unable to add course, time table clashes");
+                printSuggestedIndexes(courseCodeInput);
             } catch (Exception e) {
                 _terminal.getProperties().setPromptColor("red");
                 _terminal.println("error adding course");
@@ -298,6 +300,34 @@ public class ConsoleUserSession implements ISession{
 
     }
 
+    /**
+     * Print the indexes of a course the student can register for instead, ranked by vacancy and waiting list
+     * @param courseCode String that represents course code
+     * @see ControlObject.StudentCourseRegistrar#suggestIndexes(String, String)
+     */
+    private void printSuggestedIndexes(String courseCode) {
+        try {
+            List<Integer> suggestions = Factory.createStudentCourseRegistrar().suggestIndexes(_user.getMatricNumber(), courseCode);
+            Course course = Factory.getTextCourseDataAccessObject(this).getCourse(courseCode);
+            _terminal.getProperties().setPromptColor(Color.yellow);
+            if (suggestions.isEmpty()) {
+                _terminal.println("no other index of " + courseCode + " fits your time table");
+            } else {
+                _terminal.println("_______Other indexes of " + courseCode + " that fit your time table_______");
+                _terminal.println("Index |	 Vacancy |	 Waiting list");
+                for (int indexNumber : suggestions) {
+                    Index index = course.getIndex(indexNumber);
+                    _terminal.printf("%d 	:	 %d 	:	 %d\n", indexNumber, Math.max(index.getVacancy(), 0), index.getWaitingList().size());
+                }
+            }
+        } catch (IOException | ClassNotFoundException | NonExistentCourseException e) {
+            _terminal.getProperties().setPromptColor("red");
+            _terminal.println("error reading file");
+        } finally {
+            _terminal.getProperties().setPromptColor("white");
+        }
+    }
+
     /**
      * Print student registered courses
      */
@@ -311,8 +341,13 @@ public class ConsoleUserSession implements ISession{
             _terminal.println("Course code |\t Index");
             registered.forEach((key, value) -> _terminal.printf("%s \t:\t %d\n", key, value));
             _terminal.println("_______Waiting List Courses_______");
-            _terminal.println("Course code |\t Index");
-            waitingList.forEach((key, value) -> _terminal.printf("%s \t:\t %d\n", key, value));
+            _terminal.println("Course code |\t Index |\t Position");
+            IReadCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+            for (Map.Entry<String, Integer> waitingListCourse : waitingList.entrySet()) {
+                int position = courseDataAccessObject.getCourse(waitingListCourse.getKey())
+                        .getIndex(waitingListCourse.getValue()).getWaitingListPosition(_user.getMatricNumber());
+                _terminal.printf("%s \t:\t %d \t:\t %d\n", waitingListCourse.getKey(), waitingListCourse.getValue(), position);
+            }
         } catch (IOException | ClassNotFoundException e) {
             _terminal.getProperties().setPromptColor("red");
             _terminal.println("error reading file");
@@ -419,41 +454,24 @@ public class ConsoleUserSession implements ISession{
             }
 
             boolean clashingTimeTable = false;
-            Course course = courseDataAccessObject.getCourse(courseCodeInput);
-            Index index = course.getIndex(newIndexNumber);
-            Set<String> registeredCourses = _user.getRegisteredCourses().keySet();
-            Set<String> waitlist = _user.getWaitingListCourses().keySet();
-            ArrayList<String> allRegisteredCourses = new ArrayList<>();
-            allRegisteredCourses.addAll(registeredCourses);
-            allRegisteredCourses.addAll(waitlist);
-            //Checks if user had registered for the course
-            for (String registeredCourseCode : allRegisteredCourses) {
-                if (registeredCourseCode.equals(courseCodeInput)) {
-                    continue;
-                }
-                int registeredCourseIndexNumber = _user.getRegisteredCourses().get(registeredCourseCode);
-                Course registeredCourse = courseDataAccessObject.getCourse(registeredCourseCode);
-                Index registeredIndex = registeredCourse.getIndex(registeredCourseIndexNumber);
-                //Check if there is a clash of schedule of new index and user current schedule
-                if (registeredCourse.isClashing(course) || registeredCourse.isClashing(index) ||
-                        registeredIndex.isClashing(index)) {
-                    _terminal.getProperties().setPromptColor("red");
-                    _terminal.println("Unable to swap. There is clashing timeslot in your timetable");
-                    _terminal.getProperties().setPromptColor("white");
-                    clashingTimeTable = true;
-                    break;
-                }
+            //Check if there is a clash of schedule of new index and user current schedule without the course
+            Map<String, Integer> otherIndexes = new HashMap<>(_user.getRegisteredCourses());
+            otherIndexes.putAll(_user.getWaitingListCourses());
+            otherIndexes.remove(courseCodeInput);
+            if (courseDataAccessObject.getClashMatrix().isClashing(courseCodeInput, newIndexNumber, otherIndexes)) {
+                _terminal.getProperties().setPromptColor("red");
+                _terminal.println("Unable to swap. There is clashing timeslot in your timetable");
+                printSuggestedIndexes(courseCodeInput);
+                _terminal.getProperties().setPromptColor("white");
+                clashingTimeTable = true;
             }
 
             if (!clashingTimeTable) {
                 //get user matricNumber
                 String matricNumber = _user.getMatricNumber();
-                //delete old index
+                //move from old index to new index
                 StudentCourseRegistrar studentCourseRegistrar = Factory.createStudentCourseRegistrar();
-                studentCourseRegistrar.deleteRegistration(matricNumber, courseCodeInput, currIndexNumber);
-
-                //add new index
-                studentCourseRegistrar.addRegistration(matricNumber, courseCodeInput, newIndexNumber);
+                studentCourseRegistrar.changeIndex(matricNumber, courseCodeInput, currIndexNumber, newIndexNumber);
                 _terminal.getProperties().setPromptColor(Color.green);
                 _terminal.printf("successfully swapped %s from %s to %s\n", courseCodeInput, currIndexNumber, newIndexNumber);
             }
@@ -617,17 +635,11 @@ public class ConsoleUserSession implements ISession{
                             }
                         }
 
-                        //swapping is performed by deleting and adding registrations for user and peer
+                        //swapping gives the user and peer each other's seat, both or neither
                         if (!clashingTimeTable) {
                             StudentCourseRegistrar studentCourseRegistrar = Factory.createStudentCourseRegistrar();
-                            //drop course for peer
-                            studentCourseRegistrar.deleteRegistration(studentPeer.getMatricNumber(), courseCodeInput, peerIndexNumber);
-                            //drop course for user
-                            studentCourseRegistrar.deleteRegistration(_user.getMatricNumber(), courseCodeInput, currIndexNumber);
-                            //add course for peer with user index
-                            studentCourseRegistrar.addRegistration(studentPeer.getMatricNumber(), courseCodeInput, currIndexNumber);
-                            //add course for user with peer index
-                            studentCourseRegistrar.addRegistration(_user.getMatricNumber(), courseCodeInput, peerIndexNumber);
+                            studentCourseRegistrar.swapIndex(_user.getMatricNumber(), studentPeer.getMatricNumber(),
+                                    courseCodeInput, currIndexNumber, peerIndexNumber);
                             _terminal.getProperties().setPromptColor(Color.GREEN);
                             _terminal.println("Successfully swapped indexes");
                             _terminal.println("Your new index is: " + peerIndexNumber);
@@ -646,6 +658,10 @@ public class ConsoleUserSession implements ISession{
                 _terminal.setBookmark("Enter peer username:");
                 _terminal.getProperties().setPromptColor("red");
                 _terminal.println("registration period have not started/over");
+            } catch (ClashingTimeTableException e) {
+                _terminal.setBookmark("Enter peer username:");
+                _terminal.getProperties().setPromptColor("red");
+                _terminal.println("Unable to swap. There is clashing timeslot in your or peer's timetable");
             } catch (Exception e) {
                 _terminal.setBookmark("Enter peer username:");
                 _terminal.getProperties().setPromptColor("red");
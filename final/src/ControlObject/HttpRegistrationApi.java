@@ -0,0 +1,793 @@
+package ControlObject;
+
+import DataAccessObject.IReadCourseDataAccessObject;
+import DataAccessObject.IReadUserDataAccessObject;
+import DataAccessObject.OptimisticUpdate;
+import EntityObject.AbstractUser;
+import EntityObject.Course;
+import EntityObject.Index;
+import EntityObject.Student;
+import Exception.*;
+import HelperObject.Factory;
+import HelperObject.JsonWriter;
+import HelperObject.LatencyHistogram;
+import HelperObject.PasswordStorage;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import javax.mail.MessagingException;
+
+/**
+ * HTTP API for students to register for courses, answering in JSON.
+ * <p>
+ * Parameters are given in the query string or as a form in the body. A student logs in with POST /login and gives
+ * the token returned in the Authorization header of every other request, as "Bearer token".
+ * <ul>
+ *     <li>POST /login with username and password, POST /logout</li>
+ *     <li>GET /courses, and GET /courses/{courseCode}/vacancies</li>
+ *     <li>GET /registrations, the courses and waiting lists of the student</li>
+ *     <li>POST /registrations with courseCode and indexNumber, to add a course</li>
+ *     <li>DELETE /registrations/{courseCode}, to drop a course</li>
+ *     <li>PUT /registrations/{courseCode} with indexNumber, to change index</li>
+ *     <li>POST /swaps with courseCode, peerUsername and peerPassword, to swap index with a peer</li>
+ *     <li>GET /metrics, the number of requests and the 50th and 99th percentile latencies of every endpoint,
+ *     and the number of optimistic updates, retries and failures</li>
+ * </ul>
+ * Registrations are made through StudentCourseRegistrar and everything else is read through the read only
+ * data access objects, so the API follows the same rules as the console sessions.
+ */
+public class HttpRegistrationApi {
+    /**
+     * Number of connections that may wait to be accepted
+     */
+    private static final int BACKLOG = 1024;
+    /**
+     * Number of random bytes of a token
+     */
+    private static final int TOKEN_BYTES = 16;
+    /**
+     * Largest body of a request read
+     */
+    private static final int MAX_BODY_LENGTH = 64 * 1024;
+    /**
+     * HttpServer object
+     */
+    private final HttpServer server;
+    /**
+     * Endpoints, in the order they are matched
+     */
+    private final List<Route> routes = new ArrayList<>();
+    /**
+     * Matric numbers of the students logged in, by token
+     */
+    private final ConcurrentHashMap<String, String> students = new ConcurrentHashMap<>();
+    /**
+     * SecureRandom that generates the tokens
+     */
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Handles the requests of an endpoint
+     */
+    private interface Handler {
+        /**
+         * Handles a request
+         * @param request Request object
+         * @return Response object
+         * @throws Exception the request failed, turned into an error response
+         */
+        Response handle(Request request) throws Exception;
+    }
+
+    /**
+     * An endpoint, with the latencies of its requests
+     */
+    private static class Route {
+        /**
+         * HTTP method
+         */
+        private final String method;
+        /**
+         * Segments of the path, with {name} matching any segment
+         */
+        private final String[] path;
+        /**
+         * boolean that is true if a student must be logged in
+         */
+        private final boolean loginRequired;
+        /**
+         * Handler object
+         */
+        private final Handler handler;
+        /**
+         * Latencies of the requests
+         */
+        private final LatencyHistogram latencies = new LatencyHistogram();
+
+        /**
+         * Creates an endpoint
+         * @param method String that represents the HTTP method
+         * @param path String that represents the path without the leading slash, with {name} matching any segment
+         * @param loginRequired boolean that is true if a student must be logged in
+         * @param handler Handler object
+         */
+        Route(String method, String path, boolean loginRequired, Handler handler) {
+            this.method = method;
+            this.path = path.split("/");
+            this.loginRequired = loginRequired;
+            this.handler = handler;
+        }
+
+        /**
+         * Determines if the path of a request is the path of the endpoint
+         * @param segments Array of Strings of the segments of the path of the request
+         * @return A boolean that is true if the paths match
+         */
+        boolean matches(String[] segments) {
+            if (segments.length != path.length) {
+                return false;
+            }
+            for (int i = 0; i < path.length; i++) {
+                if (!path[i].startsWith("{") && !path[i].equals(segments[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Gets the name of the endpoint
+         * @return String of the method and path
+         */
+        String name() {
+            return method + " /" + String.join("/", path);
+        }
+    }
+
+    /**
+     * A request to an endpoint
+     */
+    private static class Request {
+        /**
+         * Segments of the path
+         */
+        private final String[] segments;
+        /**
+         * Parameters of the query string and form, by name
+         */
+        private final Map<String, String> parameters;
+        /**
+         * Token given, or null
+         */
+        private final String token;
+        /**
+         * Matric number of the student logged in, or null
+         */
+        private final String matricNumber;
+
+        /**
+         * Creates a request
+         * @param segments Array of Strings of the segments of the path
+         * @param parameters Map of the parameters of the query string and form, by name
+         * @param token String that represents the token given, or null
+         * @param matricNumber String that represents the matric number of the student logged in, or null
+         */
+        Request(String[] segments, Map<String, String> parameters, String token, String matricNumber) {
+            this.segments = segments;
+            this.parameters = parameters;
+            this.token = token;
+            this.matricNumber = matricNumber;
+        }
+
+        /**
+         * Gets a parameter
+         * @param name String that represents the name of the parameter
+         * @return String that represents the value
+         * @throws IllegalArgumentException the parameter is not given
+         */
+        String get(String name) {
+            String value = parameters.get(name);
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException(name + " is required");
+            }
+            return value.trim();
+        }
+
+        /**
+         * Gets a parameter that is a number
+         * @param name String that represents the name of the parameter
+         * @return Integer that represents the value
+         * @throws IllegalArgumentException the parameter is not given or is not a number
+         */
+        int getInt(String name) {
+            try {
+                return Integer.parseInt(get(name));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " must be a number");
+            }
+        }
+    }
+
+    /**
+     * A response to a request
+     */
+    private static class Response {
+        /**
+         * HTTP status
+         */
+        private final int status;
+        /**
+         * JSON body
+         */
+        private final JsonWriter body;
+
+        /**
+         * Creates a response
+         * @param status Integer that represents the HTTP status
+         * @param body JsonWriter of the body
+         */
+        Response(int status, JsonWriter body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        /**
+         * Creates a response of an object with a single string
+         * @param status Integer that represents the HTTP status
+         * @param name String that represents the name of the string
+         * @param value String that represents the string
+         * @return Response object
+         */
+        static Response of(int status, String name, String value) {
+            return new Response(status, new JsonWriter().beginObject().name(name).value(value).endObject());
+        }
+    }
+
+    /**
+     * Creates the API, listening on an address once started
+     * @param address InetSocketAddress to listen on
+     * @param executor Executor that handles the requests
+     * @throws IOException cannot listen on the address
+     */
+    public HttpRegistrationApi(InetSocketAddress address, Executor executor) throws IOException {
+        server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/", this::dispatch);
+        route("POST", "login", false, this::login);
+        route("POST", "logout", true, this::logout);
+        route("GET", "courses", true, this::listCourses);
+        route("GET", "courses/{courseCode}/vacancies", true, this::checkVacancies);
+        route("GET", "registrations", true, this::listRegistrations);
+        route("POST", "registrations", true, this::addCourse);
+        route("DELETE", "registrations/{courseCode}", true, this::dropCourse);
+        route("PUT", "registrations/{courseCode}", true, this::changeIndex);
+        route("POST", "swaps", true, this::swapIndex);
+        route("GET", "metrics", false, this::metrics);
+    }
+
+    /**
+     * Starts answering requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops answering requests, waiting for the requests being handled
+     * @param delaySeconds Integer that represents the longest time to wait in seconds
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+    }
+
+    /**
+     * Gets the address listened on
+     * @return InetSocketAddress listened on
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Adds an endpoint
+     * @param method String that represents the HTTP method
+     * @param path String that represents the path without the leading slash, with {name} matching any segment
+     * @param loginRequired boolean that is true if a student must be logged in
+     * @param handler Handler object
+     */
+    private void route(String method, String path, boolean loginRequired, Handler handler) {
+        routes.add(new Route(method, path, loginRequired, handler));
+    }
+
+    /**
+     * Finds the endpoint of a request, handles it and records its latency
+     * @param exchange HttpExchange of the request
+     * @throws IOException cannot read the request or write the response
+     */
+    private void dispatch(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        Route route = null;
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String[] segments = path.replaceAll("^/+|/+$", "").split("/+");
+            boolean pathFound = false;
+            for (Route candidate : routes) {
+                if (candidate.matches(segments)) {
+                    pathFound = true;
+                    if (candidate.method.equals(exchange.getRequestMethod())) {
+                        route = candidate;
+                        break;
+                    }
+                }
+            }
+            Response response;
+            if (route == null) {
+                response = pathFound ? Response.of(405, "error", "method not allowed") : Response.of(404, "error", "not found");
+            } else {
+                response = handle(route, exchange, segments);
+            }
+            byte[] body = response.body.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            if (route != null) {
+                route.latencies.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Checks the login of a request and handles it, turning failures into error responses
+     * @param route Route of the request
+     * @param exchange HttpExchange of the request
+     * @param segments Array of Strings of the segments of the path
+     * @return Response object
+     * @throws IOException cannot read the request
+     */
+    private Response handle(Route route, HttpExchange exchange, String[] segments) throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), parameters);
+        try (InputStream in = exchange.getRequestBody()) {
+            parseForm(new String(in.readNBytes(MAX_BODY_LENGTH), StandardCharsets.UTF_8), parameters);
+        }
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        String token = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7).trim() : null;
+        String matricNumber = token != null ? students.get(token) : null;
+        if (route.loginRequired && matricNumber == null) {
+            return Response.of(401, "error", "not logged in");
+        }
+        try {
+            return route.handler.handle(new Request(segments, parameters, token, matricNumber));
+        } catch (Exception e) {
+            return failure(e);
+        }
+    }
+
+    /**
+     * Turns a failed request into an error response, with the messages of the console sessions
+     * @param e Exception the request failed with
+     * @return Response object
+     */
+    private static Response failure(Exception e) {
+        if (e instanceof IllegalArgumentException) {
+            return Response.of(400, "error", e.getMessage());
+        } else if (e instanceof InvalidAccessPeriodException) {
+            return Response.of(403, "error", "registration period have not started/over");
+        } else if (e instanceof InsufficientAUsException) {
+            return Response.of(409, "error", "You exceed max AU limit.");
+        } else if (e instanceof ExistingCourseException || e instanceof ExistingRegistrationException
+                || e instanceof ExistingUserException) {
+            return Response.of(409, "error", "course already registered");
+        } else if (e instanceof ClashingTimeTableException) {
+            return Response.of(409, "error", "unable to add course, time table clashes");
+        } else if (e instanceof NonExistentCourseException) {
+            return Response.of(404, "error", "no such course");
+        } else if (e instanceof NonExistentIndexException) {
+            return Response.of(404, "error", "no such index");
+        } else if (e instanceof NonExistentRegistrationException) {
+            return Response.of(404, "error", "non existent registration");
+        } else if (e instanceof NonExistentUserException) {
+            return Response.of(404, "error", "no such student");
+        } else if (e instanceof IOException || e instanceof ClassNotFoundException) {
+            return Response.of(500, "error", "error reading file");
+        } else if (e instanceof PasswordStorage.InvalidHashException || e instanceof PasswordStorage.CannotPerformOperationException) {
+            return Response.of(500, "error", "error validating password");
+        }
+        e.printStackTrace();
+        return Response.of(500, "error", "internal error");
+    }
+
+    /**
+     * Adds the parameters of a query string or form
+     * @param form String of name=value pairs separated by ampersands, URL encoded, or null
+     * @param parameters Map of parameters to add to, by name
+     */
+    private static void parseForm(String form, Map<String, String> parameters) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Logs in a student, giving a token for the other requests
+     * @param request Request with username and password
+     * @return Response with the token, name and matric number
+     * @throws Exception cannot read file or check the password
+     */
+    private Response login(Request request) throws Exception {
+        IReadUserDataAccessObject userDataAccessObject = Factory.getTextUserDataAccessObject(this);
+        AbstractUser user = userDataAccessObject.authenticate(request.get("username"), request.get("password"));
+        if (user == null) {
+            return Response.of(401, "error", "wrong username/password");
+        } else if (!(user instanceof Student)) {
+            return Response.of(403, "error", "only students can register for courses");
+        }
+        Student student = (Student) user;
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        students.put(token, student.getMatricNumber());
+        return new Response(200, new JsonWriter().beginObject()
+                .name("token").value(token)
+                .name("name").value(student.getName())
+                .name("matricNumber").value(student.getMatricNumber())
+                .endObject());
+    }
+
+    /**
+     * Logs out the student of the token given
+     * @param request Request object
+     * @return Response object
+     */
+    private Response logout(Request request) {
+        students.remove(request.token);
+        return Response.of(200, "status", "logged out");
+    }
+
+    /**
+     * Lists all courses with their index numbers
+     * @param request Request object
+     * @return Response with an array of courses
+     * @throws IOException cannot read file
+     * @throws ClassNotFoundException Class does not exist
+     */
+    private Response listCourses(Request request) throws IOException, ClassNotFoundException {
+        IReadCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+        JsonWriter json = new JsonWriter().beginArray();
+        for (String courseCode : courseDataAccessObject.getAllCourseCodes()) {
+            Course course = courseDataAccessObject.getCourse(courseCode);
+            json.beginObject()
+                    .name("courseCode").value(course.getCourseCode())
+                    .name("courseName").value(course.getCourseName())
+                    .name("school").value(String.valueOf(course.getSchool()))
+                    .name("AUs").value(course.getAUs())
+                    .name("indexNumbers").beginArray();
+            for (Index index : course.getIndexes()) {
+                json.value(index.getIndexNumber());
+            }
+            json.endArray().endObject();
+        }
+        return new Response(200, json.endArray());
+    }
+
+    /**
+     * Lists the vacancies and waiting list lengths of the indexes of a course
+     * @param request Request with the course code in the path
+     * @return Response with an array of indexes
+     * @throws IOException cannot read file
+     * @throws ClassNotFoundException Class does not exist
+     * @throws NonExistentCourseException course does not exist
+     */
+    private Response checkVacancies(Request request) throws IOException, ClassNotFoundException, NonExistentCourseException {
+        Course course = getCourse(request.segments[1]);
+        JsonWriter json = new JsonWriter().beginArray();
+        for (Index index : course.getIndexes()) {
+            json.beginObject()
+                    .name("indexNumber").value(index.getIndexNumber())
+                    .name("vacancy").value(Math.max(index.getVacancy(), 0))
+                    .name("maxClassSize").value(index.getMaxClassSize())
+                    .name("waitingList").value(index.getWaitingList().size())
+                    .endObject();
+        }
+        return new Response(200, json.endArray());
+    }
+
+    /**
+     * Lists the courses registered and waiting lists of the student
+     * @param request Request object
+     * @return Response with the registered courses, waiting list courses and AUs
+     * @throws IOException cannot read file
+     * @throws ClassNotFoundException Class does not exist
+     */
+    private Response listRegistrations(Request request) throws IOException, ClassNotFoundException {
+        Student student = Factory.getTextUserDataAccessObject(this).getStudent(request.matricNumber);
+        IReadCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+        JsonWriter json = new JsonWriter().beginObject().name("registered").beginArray();
+        for (Map.Entry<String, Integer> registered : student.getRegisteredCourses().entrySet()) {
+            json.beginObject()
+                    .name("courseCode").value(registered.getKey())
+                    .name("indexNumber").value(registered.getValue())
+                    .endObject();
+        }
+        json.endArray().name("waitingList").beginArray();
+        for (Map.Entry<String, Integer> waiting : student.getWaitingListCourses().entrySet()) {
+            int position = courseDataAccessObject.getCourse(waiting.getKey())
+                    .getIndex(waiting.getValue()).getWaitingListPosition(student.getMatricNumber());
+            json.beginObject()
+                    .name("courseCode").value(waiting.getKey())
+                    .name("indexNumber").value(waiting.getValue())
+                    .name("position").value(position)
+                    .endObject();
+        }
+        return new Response(200, json.endArray()
+                .name("totalRegisteredAUs").value(student.getTotalRegisteredAUs())
+                .name("maxAUs").value(student.getMaxAUs())
+                .endObject());
+    }
+
+    /**
+     * Registers the student for an index of a course, or puts the student on its waiting list if it is full
+     * @param request Request with courseCode and indexNumber
+     * @return Response with the status, and the suggested indexes if the index is full or clashes
+     * @throws Exception the registration failed
+     */
+    private Response addCourse(Request request) throws Exception {
+        String courseCode = request.get("courseCode");
+        int indexNumber = request.getInt("indexNumber");
+        getIndex(getCourse(courseCode), indexNumber);
+        StudentCourseRegistrar studentCourseRegistrar = Factory.createStudentCourseRegistrar();
+        try {
+            studentCourseRegistrar.addRegistration(request.matricNumber, courseCode, indexNumber);
+            return Response.of(201, "status", "registered");
+        } catch (MaxEnrolledStudentsException e) {
+            return suggest(202, "status", "waitingList", request.matricNumber, courseCode);
+        } catch (ClashingTimeTableException e) {
+            return suggest(409, "error", "unable to add course, time table clashes", request.matricNumber, courseCode);
+        }
+    }
+
+    /**
+     * Drops a course the student is registered for or waiting for
+     * @param request Request with the course code in the path
+     * @return Response with the status
+     * @throws Exception the course could not be dropped
+     */
+    private Response dropCourse(Request request) throws Exception {
+        String courseCode = request.segments[1];
+        Student student = Factory.getTextUserDataAccessObject(this).getStudent(request.matricNumber);
+        Integer indexNumber = student.getRegisteredCourses().get(courseCode);
+        if (indexNumber == null) {
+            indexNumber = student.getWaitingListCourses().get(courseCode);
+        }
+        if (indexNumber == null) {
+            throw new NonExistentRegistrationException();
+        }
+        try {
+            Factory.createStudentCourseRegistrar().deleteRegistration(request.matricNumber, courseCode, indexNumber);
+        } catch (MaxEnrolledStudentsException ignored) {
+            //the waiting list student given the vacancy was put back on the waiting list
+        } catch (RuntimeException e) {
+            if (!isEmailFailure(e)) {
+                throw e;
+            }
+            return new Response(200, new JsonWriter().beginObject()
+                    .name("status").value("dropped")
+                    .name("warning").value("error sending email, course dropped nonetheless")
+                    .endObject());
+        }
+        return Response.of(200, "status", "dropped");
+    }
+
+    /**
+     * Changes the index of a course the student is registered for
+     * @param request Request with the course code in the path and indexNumber
+     * @return Response with the status and new index number, and the suggested indexes if the new index clashes
+     * @throws Exception the index could not be changed
+     */
+    private Response changeIndex(Request request) throws Exception {
+        String courseCode = request.segments[1];
+        int newIndexNumber = request.getInt("indexNumber");
+        Student student = Factory.getTextUserDataAccessObject(this).getStudent(request.matricNumber);
+        Integer currentIndexNumber = student.getRegisteredCourses().get(courseCode);
+        if (currentIndexNumber == null) {
+            throw new NonExistentRegistrationException();
+        } else if (currentIndexNumber == newIndexNumber) {
+            return Response.of(409, "error", "you are already in the index");
+        }
+        getIndex(getCourse(courseCode), newIndexNumber);
+        if (isClashing(student, courseCode, newIndexNumber)) {
+            return suggest(409, "error", "unable to add course, time table clashes", request.matricNumber, courseCode);
+        }
+
+        try {
+            Factory.createStudentCourseRegistrar().changeIndex(request.matricNumber, courseCode, currentIndexNumber, newIndexNumber);
+        } catch (MaxEnrolledStudentsException e) {
+            return Response.of(202, "status", "waitingList");
+        } catch (ClashingTimeTableException e) {
+            return suggest(409, "error", "unable to add course, time table clashes", request.matricNumber, courseCode);
+        } catch (RuntimeException e) {
+            if (!isEmailFailure(e)) {
+                throw e;
+            }
+            return new Response(200, new JsonWriter().beginObject()
+                    .name("status").value("changed")
+                    .name("indexNumber").value(newIndexNumber)
+                    .name("warning").value("error sending email, index changed nonetheless")
+                    .endObject());
+        }
+        return new Response(200, new JsonWriter().beginObject()
+                .name("status").value("changed")
+                .name("indexNumber").value(newIndexNumber)
+                .endObject());
+    }
+
+    /**
+     * Swaps the index of a course the student is registered for with the index of a peer, who logs in to agree
+     * @param request Request with courseCode, peerUsername and peerPassword
+     * @return Response with the status and new index number
+     * @throws Exception the indexes could not be swapped
+     */
+    private Response swapIndex(Request request) throws Exception {
+        String courseCode = request.get("courseCode");
+        IReadUserDataAccessObject userDataAccessObject = Factory.getTextUserDataAccessObject(this);
+        Student student = userDataAccessObject.getStudent(request.matricNumber);
+        Integer currentIndexNumber = student.getRegisteredCourses().get(courseCode);
+        if (currentIndexNumber == null) {
+            throw new NonExistentRegistrationException();
+        }
+        AbstractUser peer = userDataAccessObject.authenticate(request.get("peerUsername"), request.get("peerPassword"));
+        if (!(peer instanceof Student)) {
+            return Response.of(401, "error", "wrong peer username/password");
+        }
+        Student studentPeer = (Student) peer;
+        if (studentPeer.getMatricNumber().equals(student.getMatricNumber())) {
+            return Response.of(409, "error", "you cant swap index with yourself");
+        }
+        Integer peerIndexNumber = studentPeer.getRegisteredCourses().get(courseCode);
+        if (peerIndexNumber == null) {
+            return Response.of(409, "error", "peer is not registered for this course");
+        } else if (peerIndexNumber.equals(currentIndexNumber)) {
+            return Response.of(409, "error", "both of you are in the same index");
+        } else if (isClashing(student, courseCode, peerIndexNumber)) {
+            return Response.of(409, "error", "unable to swap, there is clashing timeslot in your timetable");
+        } else if (isClashing(studentPeer, courseCode, currentIndexNumber)) {
+            return Response.of(409, "error", "unable to swap, there is clashing timeslot in peer's timetable");
+        }
+
+        //swapped with the course and both students locked, so either both indexes change or neither does
+        try {
+            Factory.createStudentCourseRegistrar().swapIndex(student.getMatricNumber(), studentPeer.getMatricNumber(),
+                    courseCode, currentIndexNumber, peerIndexNumber);
+        } catch (ClashingTimeTableException e) {
+            return Response.of(409, "error", "unable to swap, there is clashing timeslot in your or peer's timetable");
+        }
+        return new Response(200, new JsonWriter().beginObject()
+                .name("status").value("swapped")
+                .name("indexNumber").value(peerIndexNumber)
+                .endObject());
+    }
+
+    /**
+     * Lists the number of requests and the latencies of every endpoint, and the retries of optimistic updates
+     * @param request Request object
+     * @return Response with an object of endpoints, by method and path, and of optimistic updates
+     */
+    private Response metrics(Request request) {
+        JsonWriter json = new JsonWriter().beginObject();
+        for (Route route : routes) {
+            LatencyHistogram latencies = route.latencies;
+            json.name(route.name()).beginObject()
+                    .name("count").value(latencies.getCount())
+                    .name("p50Micros").value(latencies.getPercentile(50))
+                    .name("p99Micros").value(latencies.getPercentile(99))
+                    .name("maxMicros").value(latencies.getMax())
+                    .endObject();
+        }
+        json.name("optimisticUpdates").beginObject()
+                .name("count").value(OptimisticUpdate.getUpdateCount())
+                .name("retries").value(OptimisticUpdate.getRetryCount())
+                .name("failures").value(OptimisticUpdate.getFailureCount())
+                .endObject();
+        return new Response(200, json.endObject());
+    }
+
+    /**
+     * Gets a course
+     * @param courseCode String that represents the course code
+     * @return Course object
+     * @throws IOException cannot read file
+     * @throws ClassNotFoundException Class does not exist
+     * @throws NonExistentCourseException course does not exist
+     */
+    private Course getCourse(String courseCode) throws IOException, ClassNotFoundException, NonExistentCourseException {
+        Course course = Factory.getTextCourseDataAccessObject(this).getCourse(courseCode);
+        if (course == null) {
+            throw new NonExistentCourseException();
+        }
+        return course;
+    }
+
+    /**
+     * Gets an index of a course
+     * @param course Course object
+     * @param indexNumber Integer that represents the index number
+     * @return Index object
+     * @throws NonExistentIndexException the course has no such index
+     */
+    private static Index getIndex(Course course, int indexNumber) throws NonExistentIndexException {
+        Index index = course.getIndex(indexNumber);
+        if (index == null) {
+            throw new NonExistentIndexException();
+        }
+        return index;
+    }
+
+    /**
+     * Determines if an exception is the failure to email a student on a waiting list, which is thrown after the
+     * registrations were changed, so that only that failure is reported as a warning
+     * @param e RuntimeException thrown by StudentCourseRegistrar
+     * @return A boolean that is true if the exception is the failure to send the email
+     * @see HelperObject.EmailMessenger#sendMessage(String, String)
+     */
+    private static boolean isEmailFailure(RuntimeException e) {
+        return e.getCause() instanceof MessagingException;
+    }
+
+    /**
+     * Determines if an index of a course would clash with the other courses of a student
+     * @param student Student object
+     * @param courseCode String that represents the course code, whose index the student holds is left out
+     * @param indexNumber Integer that represents the index number
+     * @return A boolean that is true if there is a clash
+     * @throws IOException cannot read file
+     * @throws ClassNotFoundException Class does not exist
+     */
+    private boolean isClashing(Student student, String courseCode, int indexNumber) throws IOException, ClassNotFoundException {
+        Map<String, Integer> otherIndexes = new HashMap<>(student.getRegisteredCourses());
+        otherIndexes.putAll(student.getWaitingListCourses());
+        otherIndexes.remove(courseCode);
+        return Factory.getTextCourseDataAccessObject(this).getClashMatrix().isClashing(courseCode, indexNumber, otherIndexes);
+    }
+
+    /**
+     * Creates a response with the indexes of a course suggested to a student
+     * @param status Integer that represents the HTTP status
+     * @param name String that represents the name of the string
+     * @param value String that represents the string
+     * @param matricNumber String that represents the matric number of the student
+     * @param courseCode String that represents the course code
+     * @return Response with the string and an array of suggested index numbers
+     * @throws IOException cannot read file
+     * @throws ClassNotFoundException Class does not exist
+     * @throws NonExistentCourseException course does not exist
+     * @see StudentCourseRegistrar#suggestIndexes(String, String)
+     */
+    private static Response suggest(int status, String name, String value, String matricNumber, String courseCode) throws IOException, ClassNotFoundException, NonExistentCourseException {
+        JsonWriter json = new JsonWriter().beginObject().name(name).value(value).name("suggestedIndexes").beginArray();
+        for (int indexNumber : Factory.createStudentCourseRegistrar().suggestIndexes(matricNumber, courseCode)) {
+            json.value(indexNumber);
+        }
+        return new Response(status, json.endArray().endObject());
+    }
+}
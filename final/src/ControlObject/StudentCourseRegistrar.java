@@ -1,8 +1,10 @@
 package ControlObject;
 
+import DataAccessObject.ClashMatrix;
 import DataAccessObject.IReadWriteCourseDataAccessObject;
 import DataAccessObject.IReadWriteRegistrationDataAccessObject;
 import DataAccessObject.IReadWriteUserDataAccessObject;
+import DataAccessObject.StripedLocks;
 import HelperObject.Factory;
 import EntityObject.Course;
 import EntityObject.Index;
@@ -12,7 +14,12 @@ import EntityObject.Student;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Set;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * control object to facilitate adding and dropping of courses.
@@ -37,6 +44,10 @@ public class StudentCourseRegistrar {
      *
      * @see EntityObject.Index#enrollStudent(String)
      *
+     * @see DataAccessObject.IReadCourseDataAccessObject#getClashMatrix()
+     * @see DataAccessObject.ClashMatrix#isClashing(String, int, Map)
+     * @see EntityObject.Student#getRegisteredCourses()
+     * @see EntityObject.Student#getWaitingListCourses()
      * @see EntityObject.Student#registerWaitListCourse(String, int)
      * @see EntityObject.Student#registerCourse(String, int)
      * @see EntityObject.Student#registerAUs(int)
@@ -51,8 +62,9 @@ public class StudentCourseRegistrar {
      * @throws NonExistentUserException user does not exist
      * @throws MaxEnrolledStudentsException index reach it maximum student capacity
      * @throws ClashingTimeTableException index will result in clashing time table
+     * @return CompletableFuture that completes when the registration is durable
      */
-    public void addRegistration(String matricNumber, String courseCode, int indexNumber) throws IOException, ClassNotFoundException, InvalidAccessPeriodException, InsufficientAUsException, ExistingCourseException, ExistingUserException, ExistingRegistrationException, NonExistentUserException, MaxEnrolledStudentsException, ClashingTimeTableException {
+    public CompletableFuture<Void> addRegistration(String matricNumber, String courseCode, int indexNumber) throws IOException, ClassNotFoundException, InvalidAccessPeriodException, InsufficientAUsException, ExistingCourseException, ExistingUserException, ExistingRegistrationException, NonExistentUserException, MaxEnrolledStudentsException, ClashingTimeTableException {
         //create data access objects for user, course and registration
     	IReadWriteUserDataAccessObject userDataAccessObject = Factory.getTextUserDataAccessObject(this);
         IReadWriteCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
@@ -75,32 +87,59 @@ public class StudentCourseRegistrar {
             throw new InsufficientAUsException();
         }
 
-        //variables to store student's registered courses and waitlisted courses
-        Set<String> registeredCourses = student.getRegisteredCourses().keySet();
-        Set<String> waitlist = student.getWaitingListCourses().keySet();
-        ArrayList<String> allRegisteredCourses = new ArrayList<>();
-        allRegisteredCourses.addAll(registeredCourses);
-        allRegisteredCourses.addAll(waitlist);
-
-        //checks through student's current registered courses for compatibility
-        for (String registeredCourseCode : allRegisteredCourses) {
-            int registeredCourseIndexNumber;
-            if (student.getRegisteredCourses() == null || !student.getRegisteredCourses().containsKey(registeredCourseCode)) {
-                registeredCourseIndexNumber = student.getWaitingListCourses().get(registeredCourseCode);
-            } else {
-                registeredCourseIndexNumber = student.getRegisteredCourses().get(registeredCourseCode);
-            }
-            Course registeredCourse = courseDataAccessObject.getCourse(registeredCourseCode);
-            Index registeredIndex = registeredCourse.getIndex(registeredCourseIndexNumber);
+        //checks if course being registered would clash with student's current time table
+        Map<String, Integer> registeredIndexes = getHeldIndexes(student);
+        if (courseDataAccessObject.getClashMatrix().isClashing(courseCode, indexNumber, registeredIndexes)) {
+            throw new ClashingTimeTableException();
+        }
 
-            //checks if course being registered would clash with student's current time table
-            if (registeredCourse.isClashing(course) || registeredCourse.isClashing(index) ||
-                    registeredIndex.isClashing(index)) {
-                throw new ClashingTimeTableException();
-            }
+        return registrationDataAccessObject.addRegistration(registrationKey); //successfully registers course
+    }
+
+    /**
+     * Suggests other indexes of a course that a student can register for without clashing with their time table.
+     * Indexes with vacancy come first, most vacancy first, followed by full indexes, shortest waiting list first.
+     * The index the student already holds in the course is left out, and so are the sessions of the course
+     * when checking for clashes, so that the suggestions also serve changing index.
+     * Only the student, the course and the clash matrix kept in memory are read.
+     * @param matricNumber student matric number.
+     * @param courseCode course to suggest indexes of.
+     * @return List of index numbers as described above
+     * @see DataAccessObject.IReadCourseDataAccessObject#getClashMatrix()
+     * @see DataAccessObject.ClashMatrix#isClashing(int, java.util.Collection)
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException class is not defined in project
+     * @throws NonExistentCourseException course does not exist
+     */
+    public List<Integer> suggestIndexes(String matricNumber, String courseCode) throws IOException, ClassNotFoundException, NonExistentCourseException {
+        IReadWriteUserDataAccessObject userDataAccessObject = Factory.getTextUserDataAccessObject(this);
+        IReadWriteCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+        Student student = userDataAccessObject.getStudent(matricNumber);
+        Course course = courseDataAccessObject.getCourse(courseCode);
+        if (course == null) {
+            throw new NonExistentCourseException();
         }
 
-        registrationDataAccessObject.addRegistration(registrationKey); //successfully registers course
+        //indexes of the other courses of the student
+        Map<String, Integer> otherIndexes = getHeldIndexes(student);
+        Integer heldIndexNumber = otherIndexes.remove(course.getCourseCode());
+
+        ClashMatrix clashMatrix = courseDataAccessObject.getClashMatrix();
+        List<Index> suggestions = new ArrayList<>();
+        for (Index index : course.getIndexes()) {
+            if ((heldIndexNumber == null || index.getIndexNumber() != heldIndexNumber) &&
+                    !clashMatrix.isClashing(course.getCourseCode(), index.getIndexNumber(), otherIndexes)) {
+                suggestions.add(index);
+            }
+        }
+        suggestions.sort(Comparator.comparingInt(Index::getVacancy).reversed()
+                .thenComparingInt(index -> index.getWaitingList().size())
+                .thenComparingInt(Index::getIndexNumber));
+        List<Integer> suggestedIndexNumbers = new ArrayList<>(suggestions.size());
+        for (Index index : suggestions) {
+            suggestedIndexNumbers.add(index.getIndexNumber());
+        }
+        return suggestedIndexNumbers;
     }
 
     /**
@@ -110,10 +149,10 @@ public class StudentCourseRegistrar {
      * @param indexNumber index number to be added.
      * @see HelperObject.Factory#getTextCourseDataAccessObject(ConsoleAdminSession)
      * @see DataAccessObject.IReadWriteCourseDataAccessObject#getCourse(String)
-     * @see DataAccessObject.IReadWriteCourseDataAccessObject#updateCourse(Course)
+     * @see DataAccessObject.IReadWriteCourseDataAccessObject#updateCourse(Course, DataAccessObject.UnitOfWork)
      *
      * @see HelperObject.Factory#getTextUserDataAccessObject(ConsoleAdminSession)
-     * @see DataAccessObject.IReadWriteUserDataAccessObject#updateStudent(Student)
+     * @see DataAccessObject.IReadWriteUserDataAccessObject#updateStudent(Student, DataAccessObject.UnitOfWork)
      * @see DataAccessObject.IReadWriteUserDataAccessObject#getStudent(String)
      * @see EntityObject.Student#getEmail()
      *
@@ -145,10 +184,10 @@ public class StudentCourseRegistrar {
      * @throws ExistingCourseException course already exists
      * @throws MaxEnrolledStudentsException index reach it maximum student capacity
      * @throws ExistingUserException user already exist
+     * @return CompletableFuture that completes when the deletion is durable
      */
-    public void deleteRegistration(String matricNumber, String courseCode, int indexNumber) throws IOException, ClassNotFoundException, InvalidAccessPeriodException, NonExistentRegistrationException, NonExistentUserException, NonExistentCourseException, ExistingCourseException, MaxEnrolledStudentsException, ExistingUserException {
-        //create data access objects for course and registration
-    	IReadWriteCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+    public CompletableFuture<Void> deleteRegistration(String matricNumber, String courseCode, int indexNumber) throws IOException, ClassNotFoundException, InvalidAccessPeriodException, NonExistentRegistrationException, NonExistentUserException, NonExistentCourseException, ExistingCourseException, MaxEnrolledStudentsException, ExistingUserException {
+        //create data access object for registration
         IReadWriteRegistrationDataAccessObject registrationDataAccessObject =
                 Factory.getTextRegistrationDataAccessObject(this);
 
@@ -159,21 +198,89 @@ public class StudentCourseRegistrar {
 
         //initialise variables to store information relevant to registration key
         RegistrationKey registrationKey = Factory.createRegistrationKey(matricNumber, courseCode, indexNumber);
-        Course course = courseDataAccessObject.getCourse(courseCode);
-        Index index = course.getIndex(indexNumber);
-
         //drops course even when student is in waiting list for it
-        if (index.getWaitingList().contains(matricNumber)) {
-            index.dropStudent(matricNumber);
-            course.updateIndex(index);
-            courseDataAccessObject.updateCourse(course);
-
-            IReadWriteUserDataAccessObject userDataAccessObject = Factory.getTextUserDataAccessObject(this);
-            Student student = userDataAccessObject.getStudent(matricNumber);
-            student.deregisterCourse(courseCode);
-            userDataAccessObject.updateStudent(student);
-        } else {
-            registrationDataAccessObject.deleteRegistration(registrationKey); //successfully removes registered course
+        return registrationDataAccessObject.deleteRegistration(registrationKey); //successfully removes registered course
+    }
+
+    /**
+     * Moves a student to another index of a course they are registered for
+     * @param matricNumber student matric number.
+     * @param courseCode course of the indexes.
+     * @param indexNumber index number the student is registered for.
+     * @param newIndexNumber index number to move to.
+     * @see DataAccessObject.IReadWriteRegistrationDataAccessObject#changeIndex(RegistrationKey, int)
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException class is not defined in project
+     * @throws InvalidAccessPeriodException accessed outside registration period
+     * @throws NonExistentRegistrationException student is not registered for the index
+     * @throws NonExistentUserException user does not exist
+     * @throws NonExistentCourseException course does not exist
+     * @throws ExistingCourseException course already exists
+     * @throws ExistingUserException user already exist
+     * @throws ClashingTimeTableException new index will result in clashing time table, nothing is changed
+     * @throws MaxEnrolledStudentsException new index reach it maximum student capacity, the student is wait listed instead
+     * @return CompletableFuture that completes when the change is durable
+     */
+    public CompletableFuture<Void> changeIndex(String matricNumber, String courseCode, int indexNumber, int newIndexNumber) throws IOException, ClassNotFoundException, InvalidAccessPeriodException, NonExistentRegistrationException, NonExistentUserException, NonExistentCourseException, ExistingCourseException, ExistingUserException, ClashingTimeTableException, MaxEnrolledStudentsException {
+        IReadWriteRegistrationDataAccessObject registrationDataAccessObject =
+                Factory.getTextRegistrationDataAccessObject(this);
+
+        //checks if method is called during access period
+        if (registrationDataAccessObject.getRegistrationPeriod().notWithinRegistrationPeriod()) {
+            throw new InvalidAccessPeriodException();
+        }
+
+        RegistrationKey registrationKey = Factory.createRegistrationKey(matricNumber, courseCode, indexNumber);
+        return registrationDataAccessObject.changeIndex(registrationKey, newIndexNumber);
+    }
+
+    /**
+     * Swaps the indexes of a course of two students, both or neither
+     * @param matricNumber student matric number.
+     * @param peerMatricNumber peer matric number.
+     * @param courseCode course of the indexes.
+     * @param indexNumber index number the student is registered for.
+     * @param peerIndexNumber index number the peer is registered for.
+     * @see DataAccessObject.IReadWriteRegistrationDataAccessObject#swapIndex(RegistrationKey, RegistrationKey)
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException class is not defined in project
+     * @throws InvalidAccessPeriodException accessed outside registration period
+     * @throws NonExistentRegistrationException either student is not registered for the index
+     * @throws NonExistentUserException user does not exist
+     * @throws NonExistentCourseException course does not exist
+     * @throws ExistingCourseException course already exists
+     * @throws ExistingUserException user already exist
+     * @throws ClashingTimeTableException either index will result in clashing time table, nothing is changed
+     * @return CompletableFuture that completes when the swap is durable
+     */
+    public CompletableFuture<Void> swapIndex(String matricNumber, String peerMatricNumber, String courseCode, int indexNumber, int peerIndexNumber) throws IOException, ClassNotFoundException, InvalidAccessPeriodException, NonExistentRegistrationException, NonExistentUserException, NonExistentCourseException, ExistingCourseException, ExistingUserException, ClashingTimeTableException {
+        IReadWriteRegistrationDataAccessObject registrationDataAccessObject =
+                Factory.getTextRegistrationDataAccessObject(this);
+
+        //checks if method is called during access period
+        if (registrationDataAccessObject.getRegistrationPeriod().notWithinRegistrationPeriod()) {
+            throw new InvalidAccessPeriodException();
+        }
+
+        return registrationDataAccessObject.swapIndex(
+                Factory.createRegistrationKey(matricNumber, courseCode, indexNumber),
+                Factory.createRegistrationKey(peerMatricNumber, courseCode, peerIndexNumber));
+    }
+
+    /**
+     * Copies the indexes a student is registered or wait listed to, while no other thread changes the student
+     * @param student Student object
+     * @return Map of index numbers by course code
+     */
+    private static Map<String, Integer> getHeldIndexes(Student student) {
+        ReentrantLock studentLock = StripedLocks.STUDENTS.get(student.getMatricNumber());
+        studentLock.lock();
+        try {
+            Map<String, Integer> heldIndexes = new HashMap<>(student.getRegisteredCourses());
+            heldIndexes.putAll(student.getWaitingListCourses());
+            return heldIndexes;
+        } finally {
+            studentLock.unlock();
         }
     }
 }
@@ -0,0 +1,411 @@
+package ControlObject;
+
+import DataAccessObject.IReadCourseDataAccessObject;
+import EntityObject.Course;
+import EntityObject.Index;
+import Exception.NonExistentCourseException;
+import HelperObject.Factory;
+import ValueObject.Timetable;
+import ValueObject.TimetablePlan;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * control object that plans clash-free timetables for a wishlist of courses without registering any of them.
+ * <p>
+ * Every assignment of one index to every course in the wishlist is searched depth first, skipping indexes that clash
+ * with the occupancy bitmap of the indexes chosen so far. The top of the search tree is split into tasks
+ * that run on a ForkJoinPool. Plans are ranked by their smallest vacancy, then by their total vacancy, and only the best
+ * plans up to a limit are kept, so that a branch is cut as soon as it cannot do better than the worst plan kept.
+ */
+public class TimetablePlanner {
+    /**
+     * Number of tasks the top of the search tree is split into for every thread of the pool
+     */
+    private static final int TASKS_PER_THREAD = 4;
+    /**
+     * Pool the search runs on
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a planner
+     * @param pool ForkJoinPool the search runs on
+     */
+    public TimetablePlanner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Plans clash-free timetables for a wishlist of courses.
+     * The courses are read when this method is called. The search only runs when the stream is consumed,
+     * and finds the best plans up to the limit before the first one is returned.
+     * @param courseCodes List of course codes in the wishlist
+     * @param occupied Timetable of sessions the plans must not clash with, such as the timetable of the student
+     * @param limit Integer that represents the maximum number of plans
+     * @return Stream of TimetablePlan objects, the plan with most vacancy first, empty if there is no clash-free plan
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException class is not defined in project
+     * @throws NonExistentCourseException a course in the wishlist does not exist
+     * @see EntityObject.Student#getTimetable(String, java.util.function.BiFunction)
+     */
+    public Stream<TimetablePlan> plan(List<String> courseCodes, Timetable occupied, int limit) throws IOException, ClassNotFoundException, NonExistentCourseException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        IReadCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+        List<Course> courses = new ArrayList<>();
+        for (String courseCode : new LinkedHashSet<>(courseCodes)) {
+            Course course = courseDataAccessObject.getCourse(courseCode);
+            if (course == null) {
+                throw new NonExistentCourseException();
+            }
+            courses.add(course);
+        }
+        Search search = new Search(courses, occupied == null ? Timetable.EMPTY : occupied, limit);
+        return StreamSupport.stream(() -> search.run().spliterator(),
+                Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED, false);
+    }
+
+    /**
+     * Plans clash-free timetables for a wishlist of courses, without any other sessions to avoid
+     * @param courseCodes List of course codes in the wishlist
+     * @param limit Integer that represents the maximum number of plans
+     * @return Stream of TimetablePlan objects, the plan with most vacancy first
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException class is not defined in project
+     * @throws NonExistentCourseException a course in the wishlist does not exist
+     */
+    public Stream<TimetablePlan> plan(List<String> courseCodes, int limit) throws IOException, ClassNotFoundException, NonExistentCourseException {
+        return plan(courseCodes, Timetable.EMPTY, limit);
+    }
+
+    /**
+     * Packs the vacancies of a plan into one number that orders plans the way they are ranked
+     * @param minimumVacancy Integer that represents the smallest vacancy
+     * @param totalVacancy Integer that represents the total vacancy
+     * @return Long that is larger for a plan that ranks first
+     */
+    private static long score(int minimumVacancy, int totalVacancy) {
+        return ((long) minimumVacancy << 32) + ((long) totalVacancy - Integer.MIN_VALUE);
+    }
+
+    /**
+     * A search for the best plans of one wishlist
+     */
+    private class Search {
+        /**
+         * Course codes of the wishlist, the course with fewest candidate indexes first
+         */
+        private final String[] courseCodes;
+        /**
+         * Index numbers of the candidate indexes of every course, the index with most vacancy first
+         */
+        private final int[][] indexNumbers;
+        /**
+         * Vacancies of the candidate indexes of every course
+         */
+        private final int[][] vacancies;
+        /**
+         * Occupancy bitmaps of the lecture sessions of every course together with the sessions of each candidate index
+         */
+        private final Timetable[][] timetables;
+        /**
+         * Smallest of the largest vacancies of the courses from a depth onwards
+         */
+        private final int[] remainingMinimum;
+        /**
+         * Sum of the largest vacancies of the courses from a depth onwards
+         */
+        private final int[] remainingTotal;
+        /**
+         * Timetable of sessions the plans must not clash with
+         */
+        private final Timetable occupied;
+        /**
+         * Maximum number of plans kept
+         */
+        private final int limit;
+        /**
+         * Plans kept so far, the worst plan first
+         */
+        private final PriorityQueue<Found> best;
+        /**
+         * Score of the worst plan kept once limit plans are kept, branches that cannot reach it are cut
+         */
+        private volatile long worstScore = Long.MIN_VALUE;
+
+        /**
+         * A plan found by the search, as the positions of the chosen candidate indexes
+         */
+        private class Found implements Comparable<Found> {
+            /**
+             * Position of the chosen candidate index of every course
+             */
+            final int[] choice;
+            /**
+             * Score of the plan
+             */
+            final long score;
+
+            /**
+             * Creates a found plan
+             * @param choice int array of positions of the chosen candidate indexes
+             * @param score Long that represents the score of the plan
+             */
+            Found(int[] choice, long score) {
+                this.choice = choice;
+                this.score = score;
+            }
+
+            /**
+             * Compares Found object to another Found object, the plan that ranks first is larger
+             * Plans with the same score are ranked by the positions of their candidate indexes, so that the result does
+             * not depend on the order the tasks found them in
+             * @param other A Found object
+             * @return positive if this plan ranks before the other plan
+             */
+            @Override
+            public int compareTo(Found other) {
+                if (score != other.score) {
+                    return Long.compare(score, other.score);
+                }
+                return Arrays.compare(other.choice, choice);
+            }
+        }
+
+        /**
+         * Collects the candidate indexes of every course, those that do not clash with the occupied sessions
+         * @param courses List of Course objects in the wishlist
+         * @param occupied Timetable of sessions the plans must not clash with
+         * @param limit Integer that represents the maximum number of plans
+         */
+        Search(List<Course> courses, Timetable occupied, int limit) {
+            this.occupied = occupied;
+            this.limit = limit;
+            this.best = new PriorityQueue<>(Math.min(limit, 1024));
+
+            List<List<Index>> candidates = new ArrayList<>();
+            for (Course course : courses) {
+                List<Index> courseCandidates = new ArrayList<>();
+                for (Index index : course.getIndexes()) {
+                    if (!occupied.isClashing(course.getTimetable(index.getIndexNumber()))) {
+                        courseCandidates.add(index);
+                    }
+                }
+                courseCandidates.sort(Comparator.comparingInt(Index::getVacancy).reversed()
+                        .thenComparingInt(Index::getIndexNumber));
+                candidates.add(courseCandidates);
+            }
+            //courses with fewest candidates are chosen first so that clashes cut the search early
+            Integer[] order = new Integer[courses.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt((Integer i) -> candidates.get(i).size())
+                    .thenComparing(i -> courses.get(i).getCourseCode()));
+
+            int depths = courses.size();
+            courseCodes = new String[depths];
+            indexNumbers = new int[depths][];
+            vacancies = new int[depths][];
+            timetables = new Timetable[depths][];
+            for (int depth = 0; depth < depths; depth++) {
+                Course course = courses.get(order[depth]);
+                List<Index> courseCandidates = candidates.get(order[depth]);
+                courseCodes[depth] = course.getCourseCode();
+                indexNumbers[depth] = new int[courseCandidates.size()];
+                vacancies[depth] = new int[courseCandidates.size()];
+                timetables[depth] = new Timetable[courseCandidates.size()];
+                for (int i = 0; i < courseCandidates.size(); i++) {
+                    Index index = courseCandidates.get(i);
+                    indexNumbers[depth][i] = index.getIndexNumber();
+                    vacancies[depth][i] = index.getVacancy();
+                    timetables[depth][i] = course.getTimetable(index.getIndexNumber());
+                }
+            }
+
+            remainingMinimum = new int[depths + 1];
+            remainingTotal = new int[depths + 1];
+            remainingMinimum[depths] = Integer.MAX_VALUE;
+            for (int depth = depths - 1; depth >= 0; depth--) {
+                int largest = vacancies[depth].length == 0 ? Integer.MIN_VALUE : vacancies[depth][0];
+                remainingMinimum[depth] = Math.min(remainingMinimum[depth + 1], largest);
+                remainingTotal[depth] = remainingTotal[depth + 1] + largest;
+            }
+        }
+
+        /**
+         * Runs the search on the pool
+         * @return List of TimetablePlan objects, the plan with most vacancy first
+         */
+        List<TimetablePlan> run() {
+            int depths = courseCodes.length;
+            for (int[] courseVacancies : vacancies) {
+                if (courseVacancies.length == 0) {
+                    return List.of();
+                }
+            }
+            //the top of the tree is split until there are enough tasks to keep every thread busy
+            int splitDepth = 0;
+            long tasks = 1;
+            while (splitDepth < depths - 1 && tasks < (long) pool.getParallelism() * TASKS_PER_THREAD) {
+                tasks *= vacancies[splitDepth].length;
+                splitDepth++;
+            }
+            pool.invoke(new SearchTask(0, splitDepth, occupied, Integer.MAX_VALUE, 0, new int[depths]));
+
+            List<Found> found = new ArrayList<>(best);
+            found.sort(Comparator.reverseOrder());
+            List<TimetablePlan> plans = new ArrayList<>(found.size());
+            for (Found plan : found) {
+                TreeMap<String, Integer> chosen = new TreeMap<>();
+                int minimumVacancy = Integer.MAX_VALUE;
+                int totalVacancy = 0;
+                for (int depth = 0; depth < depths; depth++) {
+                    chosen.put(courseCodes[depth], indexNumbers[depth][plan.choice[depth]]);
+                    minimumVacancy = Math.min(minimumVacancy, vacancies[depth][plan.choice[depth]]);
+                    totalVacancy += vacancies[depth][plan.choice[depth]];
+                }
+                plans.add(new TimetablePlan(chosen, minimumVacancy, totalVacancy));
+            }
+            return plans;
+        }
+
+        /**
+         * Searches the assignments of the courses from a depth onwards, one thread at a time
+         * @param depth Integer that represents the position of the next course to choose an index for
+         * @param timetable Timetable of the occupied sessions and the indexes chosen so far
+         * @param minimumVacancy Integer that represents the smallest vacancy of the indexes chosen so far
+         * @param totalVacancy Integer that represents the total vacancy of the indexes chosen so far
+         * @param choice int array of positions of the candidate indexes chosen so far
+         */
+        void search(int depth, Timetable timetable, int minimumVacancy, int totalVacancy, int[] choice) {
+            if (depth == courseCodes.length) {
+                offer(choice.clone(), score(minimumVacancy, totalVacancy));
+                return;
+            }
+            for (int i = 0; i < vacancies[depth].length; i++) {
+                int childMinimum = Math.min(minimumVacancy, vacancies[depth][i]);
+                int childTotal = totalVacancy + vacancies[depth][i];
+                if (!canImprove(depth + 1, childMinimum, childTotal)) {
+                    //candidates are sorted by vacancy, so the candidates after this one cannot improve either
+                    break;
+                }
+                if (!timetable.isClashing(timetables[depth][i])) {
+                    choice[depth] = i;
+                    search(depth + 1, timetable.union(timetables[depth][i]), childMinimum, childTotal, choice);
+                }
+            }
+        }
+
+        /**
+         * Determines if a branch can still find a plan that ranks at least as well as the worst plan kept
+         * @param depth Integer that represents the position of the next course to choose an index for
+         * @param minimumVacancy Integer that represents the smallest vacancy of the indexes chosen so far
+         * @param totalVacancy Integer that represents the total vacancy of the indexes chosen so far
+         * @return A boolean that is false if the branch can be cut
+         */
+        boolean canImprove(int depth, int minimumVacancy, int totalVacancy) {
+            return score(Math.min(minimumVacancy, remainingMinimum[depth]), totalVacancy + remainingTotal[depth]) >= worstScore;
+        }
+
+        /**
+         * Keeps a plan if it is among the best plans found so far
+         * @param choice int array of positions of the chosen candidate indexes
+         * @param score Long that represents the score of the plan
+         */
+        synchronized void offer(int[] choice, long score) {
+            Found plan = new Found(choice, score);
+            if (best.size() < limit) {
+                best.add(plan);
+            } else if (plan.compareTo(best.peek()) > 0) {
+                best.poll();
+                best.add(plan);
+            } else {
+                return;
+            }
+            if (best.size() == limit) {
+                worstScore = best.peek().score;
+            }
+        }
+
+        /**
+         * Task that splits the top of the search tree
+         */
+        private class SearchTask extends RecursiveAction {
+            /**
+             * Serialized ID that is tagged to the task
+             */
+            private static final long serialVersionUID = 1L;
+            /**
+             * Position of the next course to choose an index for
+             */
+            private final int depth;
+            /**
+             * Depth from which the search runs in one task
+             */
+            private final int splitDepth;
+            /**
+             * Timetable of the occupied sessions and the indexes chosen so far
+             */
+            private final Timetable timetable;
+            /**
+             * Smallest vacancy of the indexes chosen so far
+             */
+            private final int minimumVacancy;
+            /**
+             * Total vacancy of the indexes chosen so far
+             */
+            private final int totalVacancy;
+            /**
+             * Positions of the candidate indexes chosen so far, owned by this task
+             */
+            private final int[] choice;
+
+            /**
+             * Creates a task
+             * @param depth Integer that represents the position of the next course to choose an index for
+             * @param splitDepth Integer that represents the depth from which the search runs in one task
+             * @param timetable Timetable of the occupied sessions and the indexes chosen so far
+             * @param minimumVacancy Integer that represents the smallest vacancy of the indexes chosen so far
+             * @param totalVacancy Integer that represents the total vacancy of the indexes chosen so far
+             * @param choice int array of positions of the candidate indexes chosen so far
+             */
+            SearchTask(int depth, int splitDepth, Timetable timetable, int minimumVacancy, int totalVacancy, int[] choice) {
+                this.depth = depth;
+                this.splitDepth = splitDepth;
+                this.timetable = timetable;
+                this.minimumVacancy = minimumVacancy;
+                this.totalVacancy = totalVacancy;
+                this.choice = choice;
+            }
+
+            /**
+             * Forks a task for every candidate index at this depth, or searches the rest of the tree
+             */
+            @Override
+            protected void compute() {
+                if (depth >= splitDepth) {
+                    search(depth, timetable, minimumVacancy, totalVacancy, choice);
+                    return;
+                }
+                List<SearchTask> children = new ArrayList<>();
+                for (int i = 0; i < vacancies[depth].length; i++) {
+                    if (!timetable.isClashing(timetables[depth][i])) {
+                        int[] childChoice = choice.clone();
+                        childChoice[depth] = i;
+                        children.add(new SearchTask(depth + 1, splitDepth, timetable.union(timetables[depth][i]),
+                                Math.min(minimumVacancy, vacancies[depth][i]), totalVacancy + vacancies[depth][i], childChoice));
+                    }
+                }
+                invokeAll(children);
+            }
+        }
+    }
+}
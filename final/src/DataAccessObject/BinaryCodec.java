@@ -0,0 +1,594 @@
+package DataAccessObject;
+
+import EntityObject.AbstractUser;
+import EntityObject.Course;
+import EntityObject.Index;
+import EntityObject.Staff;
+import EntityObject.Student;
+import ValueObject.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Compact binary format of the database files and of the courses and students written to the registration log.
+ * <p>
+ * Every encoding starts with a marker and a format version.
+ * Integers are written as variable length integers, using one byte for values below 128,
+ * and integers that can be negative are zigzag encoded first.
+ * Course codes and matric numbers are dictionary encoded: the first occurrence is written in full
+ * and every later occurrence only as its position in the dictionary.
+ * Enums are written as their ordinal and timings as minutes since midnight.
+ */
+class BinaryCodec {
+    /**
+     * Marker at the start of every encoding
+     */
+    private static final int MARKER = 0x53544152;
+    /**
+     * Version of the format written by this class
+     */
+    static final int VERSION = 1;
+    /**
+     * First byte of a stream written with Java serialization
+     */
+    private static final byte SERIALIZATION_MAGIC = (byte) 0xAC;
+    /**
+     * User type tag of a student
+     */
+    private static final int STUDENT = 1;
+    /**
+     * User type tag of a staff
+     */
+    private static final int STAFF = 2;
+    /**
+     * Days of the week by ordinal
+     */
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+    /**
+     * Genders by ordinal
+     */
+    private static final Gender[] GENDERS = Gender.values();
+    /**
+     * Nationalities by ordinal
+     */
+    private static final Nationality[] NATIONALITIES = Nationality.values();
+    /**
+     * Schools by ordinal
+     */
+    private static final School[] SCHOOLS = School.values();
+    /**
+     * Venues by ordinal
+     */
+    private static final Venue[] VENUES = Venue.values();
+
+    /**
+     * A private Constructor that prevents any other class from instantiating
+     */
+    private BinaryCodec() {
+    }
+
+    /**
+     * Checks if bytes were written with Java serialization instead of this format
+     * @param bytes byte array of an encoding
+     * @return true if bytes start with the Java serialization magic number
+     */
+    static boolean isSerialized(byte[] bytes) {
+        return bytes.length > 0 && bytes[0] == SERIALIZATION_MAGIC;
+    }
+
+    /**
+     * Encodes a course or student so that it can be written to the registration log
+     * @param value Course or AbstractUser object
+     * @return byte array of the encoding
+     * @throws IOException value cannot be encoded
+     */
+    static byte[] encodeValue(Serializable value) throws IOException {
+        Encoder encoder = new Encoder();
+        if (value instanceof Course) {
+            encoder.writeCourse((Course) value);
+        } else {
+            encoder.writeUser((AbstractUser) value);
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Decodes a course or student written by {@link #encodeValue(Serializable)}
+     * @param bytes byte array of the encoding
+     * @param course true if the encoding is a course, false if it is a user
+     * @return Course or AbstractUser object
+     * @throws IOException bytes are not a valid encoding
+     */
+    static Serializable decodeValue(byte[] bytes, boolean course) throws IOException {
+        Decoder decoder = new Decoder(bytes);
+        return course ? decoder.readCourse() : decoder.readUser();
+    }
+
+    /**
+     * Writes values into a byte array, starting with the marker and version
+     */
+    static class Encoder {
+        /**
+         * Bytes written so far
+         */
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        /**
+         * Stream writing into bytes
+         */
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        /**
+         * Dictionary of course codes and matric numbers written so far and their positions
+         */
+        private final HashMap<String, Integer> symbols = new HashMap<>();
+
+        /**
+         * Creates an encoder and writes the marker and version
+         * @throws IOException cannot write
+         */
+        Encoder() throws IOException {
+            out.writeInt(MARKER);
+            writeVarint(VERSION);
+        }
+
+        /**
+         * Gets the bytes written so far
+         * @return byte array of the encoding
+         */
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+
+        /**
+         * Writes a non-negative integer using 7 bits per byte
+         * @param value Long that represents the value
+         * @throws IOException cannot write
+         */
+        void writeVarint(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+
+        /**
+         * Writes an integer that can be negative
+         * @param value Long that represents the value
+         * @throws IOException cannot write
+         */
+        void writeSignedVarint(long value) throws IOException {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        /**
+         * Writes a String that can be null
+         * @param value String to be written
+         * @throws IOException cannot write
+         */
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarint(0);
+            } else {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                writeVarint(utf8.length + 1);
+                out.write(utf8);
+            }
+        }
+
+        /**
+         * Writes a course code or matric number through the dictionary
+         * @param value String to be written
+         * @throws IOException cannot write
+         */
+        void writeSymbol(String value) throws IOException {
+            Integer position = symbols.get(value);
+            if (position == null) {
+                symbols.put(value, symbols.size());
+                writeVarint(0);
+                writeString(value);
+            } else {
+                writeVarint(position + 1);
+            }
+        }
+
+        /**
+         * Writes an enum that can be null
+         * @param value Enum to be written
+         * @throws IOException cannot write
+         */
+        void writeEnum(Enum<?> value) throws IOException {
+            writeVarint(value == null ? 0 : value.ordinal() + 1);
+        }
+
+        /**
+         * Writes a date and time that can be null
+         * @param value LocalDateTime to be written
+         * @throws IOException cannot write
+         */
+        void writeDateTime(LocalDateTime value) throws IOException {
+            if (value == null) {
+                writeVarint(0);
+            } else {
+                writeVarint(1);
+                writeSignedVarint(value.toEpochSecond(ZoneOffset.UTC));
+                writeVarint(value.getNano());
+            }
+        }
+
+        /**
+         * Writes lecture, tutorial or laboratory timings that can be null
+         * @param timings Hashtable of days and their start and end times
+         * @throws IOException cannot write, or a time is not a whole minute
+         */
+        void writeTimings(Hashtable<DayOfWeek, List<LocalTime>> timings) throws IOException {
+            if (timings == null) {
+                writeVarint(0);
+                return;
+            }
+            writeVarint(timings.size() + 1);
+            for (Map.Entry<DayOfWeek, List<LocalTime>> entry : timings.entrySet()) {
+                writeEnum(entry.getKey());
+                writeVarint(entry.getValue().size());
+                for (LocalTime time : entry.getValue()) {
+                    if (time.getSecond() != 0 || time.getNano() != 0) {
+                        throw new InvalidObjectException("timing " + time + " is not a whole minute");
+                    }
+                    writeVarint(time.getHour() * 60 + time.getMinute());
+                }
+            }
+        }
+
+        /**
+         * Writes a map of course codes and index numbers
+         * @param courses TreeMap of course codes and index numbers
+         * @throws IOException cannot write
+         */
+        void writeCourseIndexes(TreeMap<String, Integer> courses) throws IOException {
+            writeVarint(courses.size());
+            for (Map.Entry<String, Integer> entry : courses.entrySet()) {
+                writeSymbol(entry.getKey());
+                writeVarint(entry.getValue());
+            }
+        }
+
+        /**
+         * Writes a course and its indexes
+         * @param course Course object
+         * @throws IOException cannot write
+         */
+        void writeCourse(Course course) throws IOException {
+            writeSymbol(course.getCourseCode());
+            writeString(course.getCourseName());
+            writeEnum(course.getSchool());
+            writeTimings(course.getLectureTimings());
+            writeEnum(course.getLectureVenue());
+            writeVarint(course.getAUs());
+            Collection<Index> indexes = course.getIndexes();
+            writeVarint(indexes.size());
+            for (Index index : indexes) {
+                writeIndex(index);
+            }
+        }
+
+        /**
+         * Writes an index
+         * @param index Index object
+         * @throws IOException cannot write
+         */
+        void writeIndex(Index index) throws IOException {
+            writeVarint(index.getIndexNumber());
+            writeVarint(index.getMaxClassSize());
+            writeSignedVarint(index.getVacancy());
+            writeVarint(index.getEnrolledStudents().size());
+            for (String matricNumber : index.getEnrolledStudents()) {
+                writeSymbol(matricNumber);
+            }
+            writeVarint(index.getWaitingList().size());
+            for (String matricNumber : index.getWaitingList()) {
+                writeSymbol(matricNumber);
+            }
+            writeTimings(index.getTutorialTimings());
+            writeEnum(index.getTutorialVenue());
+            writeTimings(index.getLaboratoryTimings());
+            writeEnum(index.getLaboratoryVenue());
+        }
+
+        /**
+         * Writes a student or staff
+         * @param user AbstractUser object
+         * @throws IOException cannot write
+         */
+        void writeUser(AbstractUser user) throws IOException {
+            writeVarint(user instanceof Student ? STUDENT : STAFF);
+            writeString(user.getUsername());
+            writeString(user.getHash());
+            writeString(user.getName());
+            writeEnum(user.getGender());
+            writeEnum(user.getNationality());
+            writeEnum(user.getSchool());
+            writeString(user.getEmail());
+            if (user instanceof Student) {
+                Student student = (Student) user;
+                writeSymbol(student.getMatricNumber());
+                writeCourseIndexes(student.getRegisteredCourses());
+                writeCourseIndexes(student.getWaitingListCourses());
+                writeVarint(student.getTotalRegisteredAUs());
+                writeVarint(student.getMaxAUs());
+            } else {
+                writeString(((Staff) user).getJob());
+            }
+        }
+
+        /**
+         * Writes a registration key
+         * @param registrationKey RegistrationKey object
+         * @throws IOException cannot write
+         */
+        void writeRegistrationKey(RegistrationKey registrationKey) throws IOException {
+            writeSymbol(registrationKey.getMatricNumber());
+            writeSymbol(registrationKey.getCourseCode());
+            writeVarint(registrationKey.getIndexNumber());
+        }
+    }
+
+    /**
+     * Reads values written by an {@link Encoder}, starting with the marker and version
+     */
+    static class Decoder {
+        /**
+         * Stream reading the encoding
+         */
+        private final DataInputStream input;
+        /**
+         * Dictionary of course codes and matric numbers read so far, by position
+         */
+        private final ArrayList<String> symbols = new ArrayList<>();
+
+        /**
+         * Creates a decoder and checks the marker and version
+         * @param bytes byte array of the encoding
+         * @throws IOException bytes do not start with the marker, or with a version that can be read
+         */
+        Decoder(byte[] bytes) throws IOException {
+            input = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (input.readInt() != MARKER) {
+                throw new StreamCorruptedException("not a STARS database encoding");
+            }
+            long version = readVarint();
+            if (version > VERSION) {
+                throw new InvalidClassException("format version " + version + " is newer than " + VERSION);
+            }
+        }
+
+        /**
+         * Reads a non-negative integer written with 7 bits per byte
+         * @return Long that represents the value
+         * @throws IOException cannot read
+         */
+        long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = input.readUnsignedByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new StreamCorruptedException("variable length integer is too long");
+        }
+
+        /**
+         * Reads a non-negative integer that fits in an int
+         * @return Integer that represents the value
+         * @throws IOException cannot read
+         */
+        int readInt() throws IOException {
+            long value = readVarint();
+            if (value > Integer.MAX_VALUE) {
+                throw new StreamCorruptedException("integer is too large");
+            }
+            return (int) value;
+        }
+
+        /**
+         * Reads an integer that can be negative
+         * @return Long that represents the value
+         * @throws IOException cannot read
+         */
+        long readSignedVarint() throws IOException {
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        /**
+         * Reads a String that can be null
+         * @return String that was written
+         * @throws IOException cannot read
+         */
+        String readString() throws IOException {
+            int length = readInt();
+            if (length == 0) {
+                return null;
+            }
+            byte[] utf8 = new byte[length - 1];
+            input.readFully(utf8);
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Reads a course code or matric number through the dictionary
+         * @param symbolTable SymbolTable of the course codes or matric numbers, which gives the shared copy of the String
+         * @return String that was written
+         * @throws IOException cannot read, or the dictionary position does not exist
+         */
+        String readSymbol(SymbolTable symbolTable) throws IOException {
+            int position = readInt();
+            if (position == 0) {
+                String value = symbolTable.intern(readString());
+                symbols.add(value);
+                return value;
+            } else if (position > symbols.size()) {
+                throw new StreamCorruptedException("dictionary position " + position + " does not exist");
+            }
+            return symbols.get(position - 1);
+        }
+
+        /**
+         * Reads an enum that can be null
+         * @param values array of the values of the enum
+         * @param <E> type of the enum
+         * @return Enum that was written
+         * @throws IOException cannot read, or the ordinal does not exist
+         */
+        <E extends Enum<E>> E readEnum(E[] values) throws IOException {
+            int ordinal = readInt();
+            if (ordinal > values.length) {
+                throw new StreamCorruptedException("enum ordinal " + ordinal + " does not exist");
+            }
+            return ordinal == 0 ? null : values[ordinal - 1];
+        }
+
+        /**
+         * Reads a date and time that can be null
+         * @return LocalDateTime that was written
+         * @throws IOException cannot read
+         */
+        LocalDateTime readDateTime() throws IOException {
+            if (readVarint() == 0) {
+                return null;
+            }
+            long epochSecond = readSignedVarint();
+            return LocalDateTime.ofEpochSecond(epochSecond, readInt(), ZoneOffset.UTC);
+        }
+
+        /**
+         * Reads lecture, tutorial or laboratory timings that can be null
+         * @return Hashtable of days and their start and end times
+         * @throws IOException cannot read
+         */
+        Hashtable<DayOfWeek, List<LocalTime>> readTimings() throws IOException {
+            int size = readInt();
+            if (size == 0) {
+                return null;
+            }
+            Hashtable<DayOfWeek, List<LocalTime>> timings = new Hashtable<>();
+            for (int i = 1; i < size; i++) {
+                DayOfWeek day = readEnum(DAYS);
+                int count = readInt();
+                List<LocalTime> times = new ArrayList<>(count);
+                for (int j = 0; j < count; j++) {
+                    times.add(LocalTime.ofSecondOfDay(readInt() * 60L));
+                }
+                timings.put(day, times);
+            }
+            return timings;
+        }
+
+        /**
+         * Reads a map of course codes and index numbers
+         * @return TreeMap of course codes and index numbers
+         * @throws IOException cannot read
+         */
+        TreeMap<String, Integer> readCourseIndexes() throws IOException {
+            TreeMap<String, Integer> courses = new TreeMap<>();
+            for (int i = readInt(); i > 0; i--) {
+                String courseCode = readSymbol(SymbolTable.COURSES);
+                courses.put(courseCode, readInt());
+            }
+            return courses;
+        }
+
+        /**
+         * Reads a course and its indexes
+         * @return Course object
+         * @throws IOException cannot read
+         */
+        Course readCourse() throws IOException {
+            String courseCode = readSymbol(SymbolTable.COURSES);
+            String courseName = readString();
+            School school = readEnum(SCHOOLS);
+            Hashtable<DayOfWeek, List<LocalTime>> lectureTimings = readTimings();
+            Venue lectureVenue = readEnum(VENUES);
+            int AUs = readInt();
+            int count = readInt();
+            ArrayList<Index> indexes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                indexes.add(readIndex());
+            }
+            return new Course(courseCode, courseName, school, lectureTimings, lectureVenue, AUs, indexes);
+        }
+
+        /**
+         * Reads an index
+         * @return Index object
+         * @throws IOException cannot read
+         */
+        Index readIndex() throws IOException {
+            int indexNumber = readInt();
+            int maxClassSize = readInt();
+            int vacancy = (int) readSignedVarint();
+            int enrolled = readInt();
+            ArrayList<String> enrolledStudents = new ArrayList<>(enrolled);
+            for (int i = 0; i < enrolled; i++) {
+                enrolledStudents.add(readSymbol(SymbolTable.STUDENTS));
+            }
+            Queue<String> waitingList = new LinkedList<>();
+            for (int i = readInt(); i > 0; i--) {
+                waitingList.add(readSymbol(SymbolTable.STUDENTS));
+            }
+            Hashtable<DayOfWeek, List<LocalTime>> tutorialTimings = readTimings();
+            Venue tutorialVenue = readEnum(VENUES);
+            Hashtable<DayOfWeek, List<LocalTime>> laboratoryTimings = readTimings();
+            Venue laboratoryVenue = readEnum(VENUES);
+            return new Index(indexNumber, maxClassSize, vacancy, enrolledStudents, waitingList,
+                    tutorialTimings, tutorialVenue, laboratoryTimings, laboratoryVenue);
+        }
+
+        /**
+         * Reads a student or staff
+         * @return Student or Staff object
+         * @throws IOException cannot read, or the user type does not exist
+         */
+        AbstractUser readUser() throws IOException {
+            int type = readInt();
+            String username = readString();
+            String hash = readString();
+            String name = readString();
+            Gender gender = readEnum(GENDERS);
+            Nationality nationality = readEnum(NATIONALITIES);
+            School school = readEnum(SCHOOLS);
+            String email = readString();
+            switch (type) {
+                case STUDENT -> {
+                    String matricNumber = readSymbol(SymbolTable.STUDENTS);
+                    TreeMap<String, Integer> registeredCourses = readCourseIndexes();
+                    TreeMap<String, Integer> waitingListCourses = readCourseIndexes();
+                    int totalRegisteredAUs = readInt();
+                    int maxAUs = readInt();
+                    return new Student(username, hash, name, gender, nationality, school, email, matricNumber,
+                            registeredCourses, waitingListCourses, totalRegisteredAUs, maxAUs);
+                }
+                case STAFF -> {
+                    return new Staff(username, hash, name, gender, nationality, school, email, readString());
+                }
+                default -> throw new StreamCorruptedException("user type " + type + " does not exist");
+            }
+        }
+
+        /**
+         * Reads a registration key
+         * @return RegistrationKey object
+         * @throws IOException cannot read
+         */
+        RegistrationKey readRegistrationKey() throws IOException {
+            String matricNumber = readSymbol(SymbolTable.STUDENTS);
+            String courseCode = readSymbol(SymbolTable.COURSES);
+            return new RegistrationKey(matricNumber, courseCode, readInt());
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package DataAccessObject;
+
+import EntityObject.Course;
+import EntityObject.Index;
+import ValueObject.SymbolTable;
+import ValueObject.Timetable;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Clash relation between every pair of indexes in the catalog.
+ * <p>
+ * Every index is given a dense number, and the indexes it clashes with are kept as a BitSet over those numbers,
+ * so that whether two indexes clash is a single bit test.
+ * Indexes are identified by their course code together with their index number,
+ * as nothing stops two courses from using the same index number.
+ * Two indexes clash if the lecture and index sessions of one overlap the lecture and index sessions of the other.
+ * The rows are computed in parallel when the matrix is built and kept up to date by the course data access object
+ * as courses are added, changed and deleted, recomputing only the indexes whose sessions changed.
+ */
+public class ClashMatrix {
+    /**
+     * Dense numbers of the indexes, by key of course code and index number
+     */
+    private final HashMap<Long, Integer> ids = new HashMap<>();
+    /**
+     * Keys of course code and index number, by dense number, or null if the dense number is free
+     */
+    private final ArrayList<Long> keys = new ArrayList<>();
+    /**
+     * Occupancy bitmaps of the lecture and index sessions, by dense number, or null if the dense number is free
+     */
+    private final ArrayList<Timetable> timetables = new ArrayList<>();
+    /**
+     * Dense numbers of the indexes each index clashes with, by dense number
+     */
+    private final ArrayList<BitSet> rows = new ArrayList<>();
+    /**
+     * Dense numbers of the indexes of each course, by course code
+     */
+    private final HashMap<String, List<Integer>> courseIds = new HashMap<>();
+    /**
+     * Dense numbers freed by deleted indexes, given to the next indexes added
+     */
+    private final ArrayDeque<Integer> freeIds = new ArrayDeque<>();
+
+    /**
+     * A private Constructor that prevents any other class from instantiating
+     */
+    private ClashMatrix() {
+    }
+
+    /**
+     * Builds the clash matrix of a catalog, computing the rows in parallel
+     * @param courses Collection of all Course objects in the catalog
+     * @return ClashMatrix object
+     */
+    static ClashMatrix build(Collection<Course> courses) {
+        ClashMatrix clashMatrix = new ClashMatrix();
+        for (Course course : courses) {
+            List<Integer> courseIds = new ArrayList<>();
+            for (Index index : course.getIndexes()) {
+                courseIds.add(clashMatrix.allocate(course.getCourseCode(), index.getIndexNumber(),
+                        course.getTimetable(index.getIndexNumber())));
+            }
+            clashMatrix.courseIds.put(course.getCourseCode(), courseIds);
+        }
+        Timetable[] timetables = clashMatrix.timetables.toArray(new Timetable[0]);
+        List<BitSet> rows = IntStream.range(0, timetables.length).parallel()
+                .mapToObj(id -> {
+                    BitSet row = new BitSet(timetables.length);
+                    for (int other = 0; other < timetables.length; other++) {
+                        if (timetables[id].isClashing(timetables[other])) {
+                            row.set(other);
+                        }
+                    }
+                    return row;
+                })
+                .collect(Collectors.toList());
+        for (int id = 0; id < timetables.length; id++) {
+            clashMatrix.rows.set(id, rows.get(id));
+        }
+        return clashMatrix;
+    }
+
+    /**
+     * Determines if two indexes clash
+     * @param courseCode String that represents the course code of an index
+     * @param indexNumber Integer that represents the index number of the index
+     * @param otherCourseCode String that represents the course code of the other index
+     * @param otherIndexNumber Integer that represents the index number of the other index
+     * @return A boolean that is true if the indexes clash, false if they do not or either of them does not exist
+     */
+    public synchronized boolean isClashing(String courseCode, int indexNumber, String otherCourseCode, int otherIndexNumber) {
+        Integer id = ids.get(keyOf(courseCode, indexNumber));
+        Integer otherId = ids.get(keyOf(otherCourseCode, otherIndexNumber));
+        return id != null && otherId != null && rows.get(id).get(otherId);
+    }
+
+    /**
+     * Determines if an index clashes with any of a collection of indexes, such as the indexes registered by a student
+     * @param courseCode String that represents the course code of an index
+     * @param indexNumber Integer that represents the index number of the index
+     * @param otherIndexes Map of the index numbers of the other indexes, by course code,
+     * such as {@link EntityObject.Student#getRegisteredCourses()}
+     * @return A boolean that is true if the index clashes with any of the other indexes
+     */
+    public synchronized boolean isClashing(String courseCode, int indexNumber, Map<String, Integer> otherIndexes) {
+        Integer id = ids.get(keyOf(courseCode, indexNumber));
+        if (id == null) {
+            return false;
+        }
+        BitSet row = rows.get(id);
+        for (Map.Entry<String, Integer> otherIndex : otherIndexes.entrySet()) {
+            Integer otherId = ids.get(keyOf(otherIndex.getKey(), otherIndex.getValue()));
+            if (otherId != null && row.get(otherId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the key of an index to look it up, which matches no index if the course code has no ID
+     * @param courseCode String that represents the course code, in any case
+     * @param indexNumber Integer that represents the index number
+     * @return Long that represents the key
+     */
+    private static long keyOf(String courseCode, int indexNumber) {
+        return keyOf(SymbolTable.COURSES.find(courseCode.toLowerCase()), indexNumber);
+    }
+
+    /**
+     * Gets the key of an index, the ID of its course code in the high half and its index number in the low half
+     * @param courseId Integer that represents the ID of the course code
+     * @param indexNumber Integer that represents the index number
+     * @return Long that represents the key
+     */
+    private static long keyOf(int courseId, int indexNumber) {
+        return (long) courseId << 32 | (indexNumber & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Updates the rows of the indexes of a course after it was added, changed or deleted.
+     * Nothing is recomputed if the sessions of all indexes of the course are unchanged,
+     * such as when only the students enrolled in it changed.
+     * @param courseCode String that represents course code
+     * @param course Course object, or null if the course was deleted
+     */
+    synchronized void update(String courseCode, Course course) {
+        LinkedHashMap<Integer, Timetable> courseTimetables = new LinkedHashMap<>();
+        if (course != null) {
+            for (Index index : course.getIndexes()) {
+                courseTimetables.put(index.getIndexNumber(), course.getTimetable(index.getIndexNumber()));
+            }
+        }
+        List<Integer> oldIds = courseIds.getOrDefault(courseCode, List.of());
+        if (oldIds.size() == courseTimetables.size() && oldIds.stream()
+                .allMatch(id -> timetables.get(id).equals(courseTimetables.get((int) (long) keys.get(id))))) {
+            return;
+        }
+
+        for (int id : oldIds) {
+            release(id);
+        }
+        if (course == null) {
+            courseIds.remove(courseCode);
+            return;
+        }
+        List<Integer> newIds = new ArrayList<>();
+        for (Map.Entry<Integer, Timetable> courseTimetable : courseTimetables.entrySet()) {
+            int id = allocate(courseCode, courseTimetable.getKey(), courseTimetable.getValue());
+            BitSet row = new BitSet(timetables.size());
+            for (int other = 0; other < timetables.size(); other++) {
+                if (timetables.get(other) != null && courseTimetable.getValue().isClashing(timetables.get(other))) {
+                    row.set(other);
+                    rows.get(other).set(id);
+                }
+            }
+            rows.set(id, row);
+            newIds.add(id);
+        }
+        courseIds.put(courseCode, newIds);
+    }
+
+    /**
+     * Gives an index a dense number, reusing a freed one if there is any
+     * @param courseCode String that represents the course code
+     * @param indexNumber Integer that represents the index number
+     * @param timetable Timetable of the lecture and index sessions
+     * @return Integer that represents the dense number
+     */
+    private int allocate(String courseCode, int indexNumber, Timetable timetable) {
+        long key = keyOf(SymbolTable.COURSES.idOf(courseCode.toLowerCase()), indexNumber);
+        Integer id = freeIds.poll();
+        if (id == null) {
+            id = timetables.size();
+            keys.add(key);
+            timetables.add(timetable);
+            //the row is filled in by the caller
+            rows.add(new BitSet());
+        } else {
+            keys.set(id, key);
+            timetables.set(id, timetable);
+        }
+        ids.put(key, id);
+        return id;
+    }
+
+    /**
+     * Frees the dense number of an index and clears its row and column
+     * @param id Integer that represents the dense number
+     */
+    private void release(int id) {
+        BitSet row = rows.get(id);
+        for (int other = row.nextSetBit(0); other >= 0; other = row.nextSetBit(other + 1)) {
+            rows.get(other).clear(id);
+        }
+        row.clear();
+        ids.remove(keys.get(id), id);
+        keys.set(id, null);
+        timetables.set(id, null);
+        freeIds.push(id);
+    }
+}
@@ -0,0 +1,300 @@
+package DataAccessObject;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * A database file that is read once and kept resident in memory.
+ * Remembers the last modified time and length of the file from the last read or write
+ * so that changes made to the file outside of this process can be detected.
+ * Reads and writes are synchronized so that a write in progress is never mistaken for an outside change.
+ * <p>
+ * A write goes to a temporary file which is forced to disk and then atomically moved into place,
+ * so a crash leaves either the old or the new file, never a truncated one.
+ * The content is followed by a CRC32 checksum of it and a marker.
+ * The temporary file is read back and its checksum verified before it replaces the file,
+ * so the registration log records it includes are only discarded once they are known to be on disk.
+ * The files it replaces are kept as older generations, named after the file with .1, .2 and so on appended,
+ * and reading falls back to the newest generation whose checksum is valid, with a warning,
+ * as the log records written into the damaged generation may have been discarded already.
+ * <p>
+ * Content is written in the format of {@link BinaryCodec} and turned back into an object by a {@link Decoder}.
+ * Until the file is first written, the legacy file written with Java serialization is read in its place.
+ */
+class DataFile {
+    /**
+     * Turns the content of a database file back into an object
+     */
+    interface Decoder {
+        /**
+         * Decodes the content of a database file
+         * @param bytes byte array of the content, without checksum
+         * @return object stored in the file
+         * @throws IOException content is not valid
+         */
+        Object decode(byte[] bytes) throws IOException;
+    }
+
+    /**
+     * Number of older generations kept next to the database file
+     */
+    private static final int GENERATIONS = 2;
+    /**
+     * Marker written at the end of a file after its checksum
+     */
+    private static final int CHECKSUM_MARKER = 0x53545253;
+    /**
+     * Size of the checksum and marker at the end of a file
+     */
+    private static final int TRAILER_SIZE = 8;
+    /**
+     * Database file on disk
+     */
+    private final File file;
+    /**
+     * Path of the database file
+     */
+    private final Path path;
+    /**
+     * Path of the legacy file written with Java serialization
+     */
+    private final Path legacyPath;
+    /**
+     * Decodes the content of the file
+     */
+    private final Decoder decoder;
+    /**
+     * Last modified time of the file when it was last read or written
+     */
+    private long lastModified = -1;
+    /**
+     * Length of the file when it was last read or written
+     */
+    private long length = -1;
+
+    /**
+     * Creates a handle to a database file
+     * @param path String that represents the path of the file
+     * @param legacyPath String that represents the path of the legacy file written with Java serialization, or null
+     * @param decoder Decoder that decodes the content of the file
+     */
+    DataFile(String path, String legacyPath, Decoder decoder) {
+        this.file = new File(path);
+        this.path = file.toPath();
+        this.legacyPath = legacyPath == null ? null : Paths.get(legacyPath);
+        this.decoder = decoder;
+    }
+
+    /**
+     * Reads in the object stored in the newest valid generation of the file
+     * @return object stored in the file
+     * @throws IOException cannot find file, or no generation of the file is valid
+     * @throws ClassNotFoundException Class does not exist
+     */
+    synchronized Object read() throws IOException, ClassNotFoundException {
+        if (!exists()) {
+            if (legacyPath == null) {
+                throw new FileNotFoundException(path.toString());
+            }
+            Object object = deserialize(Files.readAllBytes(legacyPath), null);
+            synchronise();
+            return object;
+        }
+        IOException failure = null;
+        for (int generation = 0; generation <= GENERATIONS; generation++) {
+            Path candidate = generation(generation);
+            if (!Files.exists(candidate)) {
+                continue;
+            }
+            try {
+                Object object = deserialize(Files.readAllBytes(candidate), decoder);
+                if (generation > 0) {
+                    String reason = failure == null ? "current generation missing" : "damaged (" + failure.getMessage() + ")";
+                    System.err.println("WARNING: " + path + " is " + reason + ", rolled back to " + candidate
+                            + ", changes written into the file since may be lost");
+                }
+                synchronise();
+                return object;
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Writes an encoded object into the file, replacing its content
+     * @param bytes byte array of the encoded object
+     * @throws IOException cannot write file
+     */
+    synchronized void write(byte[] bytes) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+        trailer.putInt((int) checksum(bytes, bytes.length)).putInt(CHECKSUM_MARKER).flip();
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] buffers = {ByteBuffer.wrap(bytes), trailer};
+            while (trailer.hasRemaining()) {
+                out.write(buffers);
+            }
+            out.force(true);
+        }
+        verify(temporary, bytes);
+
+        //keep the replaced file as the newest older generation, without ever leaving the file missing
+        for (int generation = GENERATIONS; generation > 1; generation--) {
+            Path older = generation(generation - 1);
+            if (Files.exists(older)) {
+                Files.move(older, generation(generation), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (Files.exists(path)) {
+            keepAsPrevious();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory();
+        synchronise();
+    }
+
+    /**
+     * Makes the file also generation 1, with a hard link where the file system has them or else a copy,
+     * so that the file stays in place until the new content is moved over it
+     * @throws IOException cannot link or copy file
+     */
+    private void keepAsPrevious() throws IOException {
+        Path previous = generation(1);
+        Files.deleteIfExists(previous);
+        try {
+            Files.createLink(previous, path);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(path, previous, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads back a written file and checks that it holds the content and a matching checksum
+     * @param written Path of the written file
+     * @param bytes byte array of the content that was written
+     * @throws IOException file does not hold the content, the file it was to replace is left in place
+     */
+    private static void verify(Path written, byte[] bytes) throws IOException {
+        byte[] readBack = Files.readAllBytes(written);
+        ByteBuffer trailer = ByteBuffer.wrap(readBack, Math.max(0, readBack.length - TRAILER_SIZE),
+                Math.min(readBack.length, TRAILER_SIZE));
+        if (readBack.length != bytes.length + TRAILER_SIZE
+                || trailer.getInt() != (int) checksum(readBack, bytes.length)
+                || trailer.getInt() != CHECKSUM_MARKER
+                || !Arrays.equals(readBack, 0, bytes.length, bytes, 0, bytes.length)) {
+            Files.deleteIfExists(written);
+            throw new StreamCorruptedException(written + " does not hold what was written to it");
+        }
+    }
+
+    /**
+     * Deletes the file and its older generations
+     * @throws IOException cannot delete file
+     */
+    synchronized void delete() throws IOException {
+        for (int generation = 0; generation <= GENERATIONS; generation++) {
+            Files.deleteIfExists(generation(generation));
+        }
+        forceDirectory();
+        synchronise();
+    }
+
+    /**
+     * Checks if the file or any of its older generations exists
+     * @return true if the file has been written before
+     */
+    boolean exists() {
+        for (int generation = 0; generation <= GENERATIONS; generation++) {
+            if (Files.exists(generation(generation))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decodes the content of a file, verifying its checksum if it has one
+     * @param bytes byte array of the whole file
+     * @param decoder Decoder of the content, or null if the content was written with Java serialization
+     * @return object stored in the file
+     * @throws IOException checksum does not match or the object cannot be read
+     * @throws ClassNotFoundException Class does not exist
+     */
+    private static Object deserialize(byte[] bytes, Decoder decoder) throws IOException, ClassNotFoundException {
+        int length = bytes.length;
+        if (length >= TRAILER_SIZE) {
+            ByteBuffer trailer = ByteBuffer.wrap(bytes, length - TRAILER_SIZE, TRAILER_SIZE);
+            int checksum = trailer.getInt();
+            if (trailer.getInt() == CHECKSUM_MARKER) {
+                length -= TRAILER_SIZE;
+                if ((int) checksum(bytes, length) != checksum) {
+                    throw new StreamCorruptedException("checksum does not match");
+                }
+            }
+        }
+        if (decoder != null && !BinaryCodec.isSerialized(bytes)) {
+            return decoder.decode(Arrays.copyOf(bytes, length));
+        }
+        try (ObjectInput input = new ObjectInputStream(new ByteArrayInputStream(bytes, 0, length))) {
+            return input.readObject();
+        }
+    }
+
+    /**
+     * Gets the path of a generation of the file
+     * @param generation Integer that represents the generation, 0 being the current file
+     * @return Path of the generation
+     */
+    private Path generation(int generation) {
+        return generation == 0 ? path : path.resolveSibling(path.getFileName() + "." + generation);
+    }
+
+    /**
+     * Forces the directory containing the file to disk so that the move survives a crash.
+     * Not every platform allows this, in which case the move is left to the file system.
+     */
+    private void forceDirectory() {
+        try (FileChannel directory = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            //directories cannot be opened on this platform
+        }
+    }
+
+    /**
+     * Computes the CRC32 checksum of the start of a byte array
+     * @param bytes byte array
+     * @param length Integer that represents the number of bytes to include
+     * @return checksum as an unsigned integer
+     */
+    private static long checksum(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return crc.getValue();
+    }
+
+    /**
+     * Checks if the file has been changed since it was last read or written
+     * @return true if the file has been changed
+     */
+    synchronized boolean isModified() {
+        return file.lastModified() != lastModified || file.length() != length;
+    }
+
+    /**
+     * Records the current last modified time and length of the file
+     */
+    private void synchronise() {
+        lastModified = file.lastModified();
+        length = file.length();
+    }
+}
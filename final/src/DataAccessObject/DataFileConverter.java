@@ -0,0 +1,147 @@
+package DataAccessObject;
+
+import java.io.*;
+
+/**
+ * Converts the database files written with Java serialization to the format of {@link BinaryCodec},
+ * and compares the size and the load and save times of both formats.
+ * Run it once from the directory containing the data directory, before starting STARS with the new format.
+ * A database file that has already been converted is left as it is and only compared.
+ * The courses and users are compared as one file each and then split into segments.
+ */
+public class DataFileConverter {
+    /**
+     * Minimum time in nanoseconds each load or save is repeated for when comparing the formats
+     */
+    private static final long BENCHMARK_NANOS = 1_000_000_000L;
+
+    /**
+     * Encodes a data access object
+     */
+    private interface Encoder {
+        /**
+         * Encodes a data access object
+         * @param dataAccessObject data access object to be encoded
+         * @return byte array of the encoding
+         * @throws IOException cannot encode
+         */
+        byte[] encode(Object dataAccessObject) throws IOException;
+    }
+
+    /**
+     * Something to be timed
+     */
+    private interface Task {
+        /**
+         * Runs the task
+         * @return result of the task, so that it is not optimized away
+         * @throws Exception task failed
+         */
+        Object run() throws Exception;
+    }
+
+    /**
+     * A private Constructor that prevents any other class from instantiating
+     */
+    private DataFileConverter() {
+    }
+
+    /**
+     * Converts the courses, users and registrations database files
+     * @param args not used
+     * @throws IOException cannot read or write file
+     * @throws ClassNotFoundException Class does not exist
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        convert("Courses", dataAccessObject -> ((TextCourseDataAccessObject) dataAccessObject).encode(),
+                TextCourseDataAccessObject::decode, false);
+        //reading the courses splits them into segments
+        TextCourseDataAccessObject.getInstance();
+        convert("Users", dataAccessObject -> ((TextUserDataAccessObject) dataAccessObject).encode(),
+                TextUserDataAccessObject::decode, false);
+        //reading the users splits the students into segments
+        TextUserDataAccessObject.getInstance();
+        convert("Registrations", dataAccessObject -> ((TextRegistrationDataAccessObject) dataAccessObject).encode(),
+                TextRegistrationDataAccessObject::decode, true);
+    }
+
+    /**
+     * Converts one database file and compares both formats
+     * @param name String that represents the name of the database file without extension
+     * @param encoder Encoder of the data access object
+     * @param decoder Decoder of the data access object
+     * @param write true if the converted database file is to be written, false to only compare the formats
+     * @throws IOException cannot read or write file
+     * @throws ClassNotFoundException Class does not exist
+     */
+    private static void convert(String name, Encoder encoder, DataFile.Decoder decoder, boolean write) throws IOException, ClassNotFoundException {
+        DataFile dataFile = new DataFile("./data/" + name + ".dat", "./data/" + name + ".ser", decoder);
+        boolean converted = dataFile.exists();
+        Object dataAccessObject = dataFile.read();
+        byte[] serialized = serialize(dataAccessObject);
+        byte[] encoded = encoder.encode(dataAccessObject);
+        if (write && !converted) {
+            dataFile.write(encoded);
+        }
+
+        System.out.println(name + (converted ? " (already converted)" : write ? " converted" : ""));
+        System.out.printf("  %-20s %10d bytes  load %8.3f ms  save %8.3f ms%n", "Java serialization",
+                serialized.length, time(() -> deserialize(serialized)), time(() -> serialize(dataAccessObject)));
+        System.out.printf("  %-20s %10d bytes  load %8.3f ms  save %8.3f ms%n", "binary codec",
+                encoded.length, time(() -> decoder.decode(encoded)), time(() -> encoder.encode(dataAccessObject)));
+    }
+
+    /**
+     * Repeats a task for at least BENCHMARK_NANOS after warming up
+     * @param task Task to be timed
+     * @return Double that represents the average time of one run in milliseconds
+     * @throws IOException task failed
+     */
+    private static double time(Task task) throws IOException {
+        try {
+            for (int i = 0; i < 5; i++) {
+                task.run();
+            }
+            int runs = 0;
+            long start = System.nanoTime();
+            long elapsed;
+            do {
+                task.run();
+                runs++;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < BENCHMARK_NANOS);
+            return elapsed / 1e6 / runs;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Writes an object with Java serialization
+     * @param object object to be serialized
+     * @return byte array of the serialized object
+     * @throws IOException cannot serialize
+     */
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads an object written with Java serialization
+     * @param bytes byte array of the serialized object
+     * @return object that was serialized
+     * @throws IOException cannot deserialize
+     * @throws ClassNotFoundException Class does not exist
+     */
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return input.readObject();
+        }
+    }
+}
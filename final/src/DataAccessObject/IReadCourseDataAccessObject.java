@@ -20,4 +20,16 @@ public interface IReadCourseDataAccessObject {
      * @return A List of course codes
      */
     List<String> getAllCourseCodes();
+
+    /**
+     * Gets the clash relation between all indexes in the catalog
+     * @return A ClashMatrix object
+     */
+    ClashMatrix getClashMatrix();
+
+    /**
+     * Gets the bookings of all venues in the catalog
+     * @return A VenueSchedule object
+     */
+    VenueSchedule getVenueSchedule();
 }
@@ -1,7 +1,10 @@
 package DataAccessObject;
 
+import ValueObject.RegistrationKey;
 import ValueObject.RegistrationPeriod;
 
+import java.util.List;
+
 /**
  * Interface of read only RegistrationDataAccessObject
  */
@@ -11,4 +14,18 @@ public interface IReadRegistrationDataAccessObject {
      * @return RegistrationPeriod object that contains the current start and end time
      */
     RegistrationPeriod getRegistrationPeriod();
+
+    /**
+     * Gets the registrations of a student, including courses on the waiting list
+     * @param matricNumber String that represents the matric number of the student
+     * @return List of RegistrationKey objects, by course
+     */
+    List<RegistrationKey> getStudentRegistrations(String matricNumber);
+
+    /**
+     * Gets the registrations of a course, including students on the waiting lists
+     * @param courseCode String that represents the course code
+     * @return List of RegistrationKey objects, by index and student
+     */
+    List<RegistrationKey> getCourseRegistrations(String courseCode);
 }
@@ -1,8 +1,11 @@
 package DataAccessObject;
 
 import EntityObject.Course;
+import EntityObject.Index;
 import Exception.ExistingCourseException;
 import Exception.NonExistentCourseException;
+import Exception.NonExistentIndexException;
+import Exception.StaleVersionException;
 
 /**
  * Interface of read and write CourseDataAccessObject refer to {@link DataAccessObject.IReadCourseDataAccessObject} for read methods
@@ -27,4 +30,41 @@ public interface IReadWriteCourseDataAccessObject extends IReadCourseDataAccessO
      * @param newCourse A Course object
      */
     void updateCourse(Course newCourse);
+
+    /**
+     * Overrides an existing course as part of a unit of work, written when the unit of work is committed
+     * @param newCourse A Course object
+     * @param unitOfWork UnitOfWork that the change is added to
+     */
+    void updateCourse(Course newCourse, UnitOfWork unitOfWork);
+
+    /**
+     * Overrides an existing course if nobody has stored it since the version was read
+     * @param newCourse A Course object
+     * @param expectedVersion Long that represents the version of the course the change was made to
+     * @throws NonExistentCourseException course does not exist
+     * @throws StaleVersionException course was stored since the version was read
+     * @see #getCourseCopy(String)
+     */
+    void updateCourse(Course newCourse, long expectedVersion) throws NonExistentCourseException, StaleVersionException;
+
+    /**
+     * Overrides an existing index of a course if nobody has changed the index since the version was read
+     * @param courseCode String that represents course code
+     * @param index An Index object
+     * @param expectedVersion Long that represents the version of the index the change was made to
+     * @throws NonExistentCourseException course does not exist
+     * @throws NonExistentIndexException index does not exist
+     * @throws StaleVersionException index was changed since the version was read
+     * @see #getCourseCopy(String)
+     */
+    void updateIndex(String courseCode, Index index, long expectedVersion) throws NonExistentCourseException, NonExistentIndexException, StaleVersionException;
+
+    /**
+     * Gets a copy of a course that can be changed without other sessions seeing it,
+     * with the versions of the course and its indexes it was copied from
+     * @param courseCode String that represents course code
+     * @return Course object that is a copy, or null if the course does not exist
+     */
+    Course getCourseCopy(String courseCode);
 }
@@ -5,6 +5,7 @@ import ValueObject.RegistrationPeriod;
 import Exception.*;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface of read and write RegistrationDataAccessObject refer to {@link DataAccessObject.IReadRegistrationDataAccessObject} for read methods
@@ -26,12 +27,15 @@ public interface IReadWriteRegistrationDataAccessObject extends IReadRegistratio
      * @throws ExistingCourseException course already exists
      * @throws ExistingUserException  user already exists
      * @throws NonExistentUserException user does not exist
-     * @throws MaxEnrolledStudentsException index reach it maximum student capacity
+     * @throws MaxEnrolledStudentsException index reach it maximum student capacity, the student is wait listed instead
+     * @throws InsufficientAUsException not enough AUs to add course
+     * @throws ClashingTimeTableException index will result in clashing time table
+     * @return CompletableFuture that completes when the registration is durable
      */
-    void addRegistration(RegistrationKey registrationKey) throws ExistingRegistrationException, IOException, ClassNotFoundException, ExistingCourseException, ExistingUserException, NonExistentUserException, MaxEnrolledStudentsException;
+    CompletableFuture<Void> addRegistration(RegistrationKey registrationKey) throws ExistingRegistrationException, IOException, ClassNotFoundException, ExistingCourseException, ExistingUserException, NonExistentUserException, MaxEnrolledStudentsException, InsufficientAUsException, ClashingTimeTableException;
 
     /**
-     * Delete a student from a course index using information from registrationKey
+     * Delete a student from a course index using information from registrationKey, or from its waiting list
      * @param registrationKey RegistrationPeriod object that contains student matric number, course code and index
      * @throws NonExistentRegistrationException student have not registered for the course index
      * @throws IOException cannot find file
@@ -41,6 +45,56 @@ public interface IReadWriteRegistrationDataAccessObject extends IReadRegistratio
      * @throws ExistingCourseException course already exists
      * @throws MaxEnrolledStudentsException index reach it maximum student capacity
      * @throws ExistingUserException user already exist
+     * @return CompletableFuture that completes when the deletion is durable
+     */
+    CompletableFuture<Void> deleteRegistration(RegistrationKey registrationKey) throws NonExistentRegistrationException, IOException, ClassNotFoundException, NonExistentUserException, NonExistentCourseException, ExistingCourseException, MaxEnrolledStudentsException, ExistingUserException;
+
+    /**
+     * Registers the students at the top of the waiting list of an index that are owed the seats added to it
+     * @param courseCode String that represents the course code
+     * @param indexNumber Integer that represents the index number
+     * @param seats Integer that represents the number of seats owed, as returned by {@link EntityObject.Index#setMaxClassSize(int)}
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException class is not defined in project
+     * @throws NonExistentCourseException course does not exist
+     * @throws ExistingCourseException course already exists
+     * @throws ExistingUserException user already exist
+     * @throws NonExistentUserException user does not exist
+     * @throws MaxEnrolledStudentsException index reach it maximum student capacity
+     * @return CompletableFuture that completes when the registrations are durable
+     */
+    CompletableFuture<Void> registerWaitingList(String courseCode, int indexNumber, int seats) throws IOException, ClassNotFoundException, NonExistentCourseException, ExistingCourseException, ExistingUserException, NonExistentUserException, MaxEnrolledStudentsException;
+
+    /**
+     * Moves a student to another index of a course, which no other registration to the course can come between
+     * @param registrationKey RegistrationKey object that contains student matric number, course code and the current index
+     * @param newIndexNumber Integer that represents the index number to move to
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException class is not defined in project
+     * @throws NonExistentRegistrationException student is not registered to the current index
+     * @throws NonExistentUserException user does not exist
+     * @throws NonExistentCourseException course does not exist
+     * @throws ExistingCourseException course already exists
+     * @throws ExistingUserException user already exist
+     * @throws ClashingTimeTableException new index will result in clashing time table, nothing is changed
+     * @throws MaxEnrolledStudentsException new index reach it maximum student capacity, the student is wait listed instead
+     * @return CompletableFuture that completes when the change is durable
+     */
+    CompletableFuture<Void> changeIndex(RegistrationKey registrationKey, int newIndexNumber) throws IOException, ClassNotFoundException, NonExistentRegistrationException, NonExistentUserException, NonExistentCourseException, ExistingCourseException, ExistingUserException, ClashingTimeTableException, MaxEnrolledStudentsException;
+
+    /**
+     * Swaps the indexes of two students registered to different indexes of a course, both or neither
+     * @param registrationKey RegistrationKey object that contains student matric number, course code and index
+     * @param peerRegistrationKey RegistrationKey object that contains the peer's matric number, course code and index
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException class is not defined in project
+     * @throws NonExistentRegistrationException either student is not registered to the index
+     * @throws NonExistentUserException user does not exist
+     * @throws NonExistentCourseException course does not exist
+     * @throws ExistingCourseException course already exists
+     * @throws ExistingUserException user already exist
+     * @throws ClashingTimeTableException either index will result in clashing time table, nothing is changed
+     * @return CompletableFuture that completes when the swap is durable
      */
-    void deleteRegistration(RegistrationKey registrationKey) throws NonExistentRegistrationException, IOException, ClassNotFoundException, NonExistentUserException, NonExistentCourseException, ExistingCourseException, MaxEnrolledStudentsException, ExistingUserException;
-}
\ No newline at end of file
+    CompletableFuture<Void> swapIndex(RegistrationKey registrationKey, RegistrationKey peerRegistrationKey) throws IOException, ClassNotFoundException, NonExistentRegistrationException, NonExistentUserException, NonExistentCourseException, ExistingCourseException, ExistingUserException, ClashingTimeTableException;
+}
@@ -4,6 +4,7 @@ import EntityObject.Staff;
 import EntityObject.Student;
 import Exception.ExistingUserException;
 import Exception.NonExistentUserException;
+import Exception.StaleVersionException;
 
 import java.util.List;
 
@@ -18,6 +19,32 @@ public interface IReadWriteUserDataAccessObject extends IReadUserDataAccessObjec
      */
     void updateStudent(Student student) throws NonExistentUserException;
 
+    /**
+     * Override existing student as part of a unit of work, written when the unit of work is committed
+     * @param student Student object
+     * @param unitOfWork UnitOfWork that the change is added to
+     * @throws NonExistentUserException student does not exist
+     */
+    void updateStudent(Student student, UnitOfWork unitOfWork) throws NonExistentUserException;
+
+    /**
+     * Override existing student if nobody has stored it since the version was read
+     * @param student Student object
+     * @param expectedVersion Long that represents the version of the student the change was made to
+     * @throws NonExistentUserException student does not exist
+     * @throws StaleVersionException student was stored since the version was read
+     * @see #getStudentCopy(String)
+     */
+    void updateStudent(Student student, long expectedVersion) throws NonExistentUserException, StaleVersionException;
+
+    /**
+     * Gets a copy of a student that can be changed without other sessions seeing it,
+     * with the version of the student it was copied from
+     * @param matricNumber String that represents student matric number
+     * @return Student object that is a copy, or null if the student does not exist
+     */
+    Student getStudentCopy(String matricNumber);
+
     /**
      * Add a new student
      * @param student Student object
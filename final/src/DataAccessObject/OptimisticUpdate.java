@@ -0,0 +1,177 @@
+package DataAccessObject;
+
+import EntityObject.Course;
+import EntityObject.Index;
+import EntityObject.Student;
+import Exception.NonExistentCourseException;
+import Exception.NonExistentIndexException;
+import Exception.NonExistentUserException;
+import Exception.StaleVersionException;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Changes courses, indexes and students without holding their locks while the change is made.
+ * <p>
+ * A change is made to a copy, which is stored only if nobody has stored the original since the copy was taken.
+ * Otherwise the change is made again to a fresh copy, so a change may be made more than once
+ * and must only change the copy it is given.
+ * The number of updates, of retries and of updates given up on are counted for all callers.
+ *
+ * @see DataAccessObject.IReadWriteCourseDataAccessObject#updateCourse(Course, long)
+ * @see DataAccessObject.IReadWriteCourseDataAccessObject#updateIndex(String, Index, long)
+ * @see DataAccessObject.IReadWriteUserDataAccessObject#updateStudent(Student, long)
+ */
+public final class OptimisticUpdate {
+    /**
+     * Number of times a change is made before it is given up on
+     */
+    public static final int MAX_ATTEMPTS = 8;
+    /**
+     * Number of changes stored
+     */
+    private static final LongAdder updates = new LongAdder();
+    /**
+     * Number of changes made again because the copy was stale
+     */
+    private static final LongAdder retries = new LongAdder();
+    /**
+     * Number of changes given up on after MAX_ATTEMPTS stale copies
+     */
+    private static final LongAdder failures = new LongAdder();
+
+    /**
+     * A private Constructor that prevents any other class from instantiating
+     */
+    private OptimisticUpdate() {
+    }
+
+    /**
+     * Changes a copy of a course and stores it
+     * @param courseDataAccessObject IReadWriteCourseDataAccessObject that the course is stored in
+     * @param courseCode String that represents course code
+     * @param change Consumer that changes the copy
+     * @return Course object as stored
+     * @throws NonExistentCourseException course does not exist
+     * @throws StaleVersionException course was stored by others during every attempt
+     */
+    public static Course updateCourse(IReadWriteCourseDataAccessObject courseDataAccessObject, String courseCode, Consumer<Course> change) throws NonExistentCourseException, StaleVersionException {
+        for (int attempt = 1; ; attempt++) {
+            Course course = courseDataAccessObject.getCourseCopy(courseCode);
+            if (course == null) {
+                throw new NonExistentCourseException();
+            }
+            long version = course.getVersion();
+            change.accept(course);
+            try {
+                courseDataAccessObject.updateCourse(course, version);
+                updates.increment();
+                return course;
+            } catch (StaleVersionException e) {
+                conflicted(attempt, e);
+            }
+        }
+    }
+
+    /**
+     * Changes a copy of an index and stores it, keeping changes to the other indexes of the course
+     * @param courseDataAccessObject IReadWriteCourseDataAccessObject that the course is stored in
+     * @param courseCode String that represents course code
+     * @param indexNumber Integer that represents the index number
+     * @param change Consumer that changes the copy
+     * @return Index object as stored
+     * @throws NonExistentCourseException course does not exist
+     * @throws NonExistentIndexException index does not exist
+     * @throws StaleVersionException index was changed by others during every attempt
+     */
+    public static Index updateIndex(IReadWriteCourseDataAccessObject courseDataAccessObject, String courseCode, int indexNumber, Consumer<Index> change) throws NonExistentCourseException, NonExistentIndexException, StaleVersionException {
+        for (int attempt = 1; ; attempt++) {
+            Course course = courseDataAccessObject.getCourseCopy(courseCode);
+            if (course == null) {
+                throw new NonExistentCourseException();
+            }
+            Index index = course.getIndex(indexNumber);
+            if (index == null) {
+                throw new NonExistentIndexException();
+            }
+            //read before the change, as changing an index gives it a new version
+            long version = index.getVersion();
+            change.accept(index);
+            try {
+                courseDataAccessObject.updateIndex(courseCode, index, version);
+                updates.increment();
+                return index;
+            } catch (StaleVersionException e) {
+                conflicted(attempt, e);
+            }
+        }
+    }
+
+    /**
+     * Changes a copy of a student and stores it
+     * @param userDataAccessObject IReadWriteUserDataAccessObject that the student is stored in
+     * @param matricNumber String that represents student matric number
+     * @param change Consumer that changes the copy
+     * @return Student object as stored
+     * @throws NonExistentUserException student does not exist
+     * @throws StaleVersionException student was stored by others during every attempt
+     */
+    public static Student updateStudent(IReadWriteUserDataAccessObject userDataAccessObject, String matricNumber, Consumer<Student> change) throws NonExistentUserException, StaleVersionException {
+        for (int attempt = 1; ; attempt++) {
+            Student student = userDataAccessObject.getStudentCopy(matricNumber);
+            if (student == null) {
+                throw new NonExistentUserException();
+            }
+            long version = student.getVersion();
+            change.accept(student);
+            try {
+                userDataAccessObject.updateStudent(student, version);
+                updates.increment();
+                return student;
+            } catch (StaleVersionException e) {
+                conflicted(attempt, e);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of changes stored
+     * @return Long that represents the number of updates
+     */
+    public static long getUpdateCount() {
+        return updates.sum();
+    }
+
+    /**
+     * Gets the number of changes made again because the copy was stale
+     * @return Long that represents the number of retries
+     */
+    public static long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * Gets the number of changes given up on
+     * @return Long that represents the number of failures
+     */
+    public static long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * Counts a stale copy, and gives up if it was the last attempt
+     * @param attempt Integer that represents the attempt, from 1
+     * @param e StaleVersionException of the attempt
+     * @throws StaleVersionException it was the last attempt
+     */
+    private static void conflicted(int attempt, StaleVersionException e) throws StaleVersionException {
+        if (attempt >= MAX_ATTEMPTS) {
+            failures.increment();
+            throw e;
+        }
+        retries.increment();
+        //lets the session that stored first finish before the copy is taken again
+        Thread.yield();
+    }
+}
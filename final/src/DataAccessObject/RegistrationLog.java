@@ -0,0 +1,415 @@
+package DataAccessObject;
+
+import HelperObject.Factory;
+import ValueObject.RegistrationKey;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of changes made since the registrations, courses and users database files were last written.
+ * Each record is written as its payload length, a CRC32 checksum of the payload and the payload itself.
+ * The payload contains a sequence number followed by either a single added or deleted registration,
+ * or a transaction holding every change of one unit of work, which is therefore written and replayed as a whole.
+ * Courses and students in a transaction are encoded with {@link BinaryCodec}.
+ * A record with a bad checksum or a record cut short by a crash ends the log, and is discarded when the log is replayed.
+ * Every data access object replays the log for itself, so the length of the log it is up to date with is kept for each.
+ */
+class RegistrationLog {
+    /**
+     * Change type of an added registration
+     */
+    static final byte ADD = 1;
+    /**
+     * Change type of a deleted registration
+     */
+    static final byte DELETE = 2;
+    /**
+     * Record type of a transaction containing several changes
+     */
+    static final byte TRANSACTION = 3;
+    /**
+     * Change type of a course that was added or updated
+     */
+    static final byte COURSE = 4;
+    /**
+     * Change type of a student that was updated
+     */
+    static final byte STUDENT = 5;
+    /**
+     * The log shared by all data access objects
+     */
+    private static final RegistrationLog instance = new RegistrationLog("./data/Registrations.log");
+    /**
+     * Size of the length and checksum in front of every payload
+     */
+    private static final int HEADER_SIZE = 8;
+    /**
+     * Path of the log file
+     */
+    private final Path path;
+    /**
+     * Channel that records are appended to, opened on first use
+     */
+    private FileChannel channel = null;
+    /**
+     * Length of the log file each reader is up to date with, by the reader
+     */
+    private final Map<Object, Long> replayedLengths = new HashMap<>();
+    /**
+     * Sequence number of the last record written or replayed
+     */
+    private long sequence = 0;
+
+    /**
+     * Creates a handle to a registration log file
+     * @param path String that represents the path of the file
+     */
+    RegistrationLog(String path) {
+        this.path = Paths.get(path);
+    }
+
+    /**
+     * Gets the log shared by all data access objects
+     * @return RegistrationLog of ./data/Registrations.log
+     */
+    static RegistrationLog getInstance() {
+        return instance;
+    }
+
+    /**
+     * A single change contained in a log record
+     */
+    static class Entry {
+        /**
+         * Sequence number of the record containing the change
+         */
+        long sequence;
+        /**
+         * ADD, DELETE, COURSE or STUDENT
+         */
+        final byte type;
+        /**
+         * Registration that was added or deleted
+         */
+        final RegistrationKey registrationKey;
+        /**
+         * Time the registration was done in milliseconds
+         */
+        final long time;
+        /**
+         * Course or student that was written
+         */
+        final Serializable value;
+
+        /**
+         * Creates an added or deleted registration
+         * @param type Byte that represents ADD or DELETE
+         * @param registrationKey RegistrationKey object that contains student matric number, course code and index
+         * @param time Long that represents the time of the registration
+         */
+        Entry(byte type, RegistrationKey registrationKey, long time) {
+            this.type = type;
+            this.registrationKey = registrationKey;
+            this.time = time;
+            this.value = null;
+        }
+
+        /**
+         * Creates a written course or student
+         * @param type Byte that represents COURSE or STUDENT
+         * @param value Course or Student object
+         */
+        Entry(byte type, Serializable value) {
+            this.type = type;
+            this.registrationKey = null;
+            this.time = 0;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Gets the sequence number of the last record written or replayed
+     * @return Long that represents the sequence number
+     */
+    synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Makes sure records written from now on are numbered after a sequence number already seen in a database file
+     * @param seenSequence Long that represents a sequence number stored with a database file
+     */
+    synchronized void advanceTo(long seenSequence) {
+        sequence = Math.max(sequence, seenSequence);
+    }
+
+    /**
+     * Reads all valid records in the log, cutting off a torn or corrupted tail
+     * @param reader Object that identifies the data access object the log is replayed for
+     * @return List of changes in the order they were written
+     * @throws IOException cannot read file
+     * @throws ClassNotFoundException Class of a written course or student does not exist
+     */
+    synchronized List<Entry> replay(Object reader) throws IOException, ClassNotFoundException {
+        List<Entry> entries = new ArrayList<>();
+        close();
+        if (!Files.exists(path)) {
+            replayedLengths.put(reader, 0L);
+            return entries;
+        }
+        long fileSize = Files.size(path);
+        long validLength = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                int payloadLength;
+                long checksum;
+                byte[] payload;
+                try {
+                    payloadLength = input.readInt();
+                    checksum = input.readInt() & 0xFFFFFFFFL;
+                    if (payloadLength <= 0 || payloadLength > fileSize) {
+                        break;
+                    }
+                    payload = new byte[payloadLength];
+                    input.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                if (checksum(payload) != checksum) {
+                    break;
+                }
+                sequence = Math.max(sequence, decode(payload, entries));
+                validLength += HEADER_SIZE + payloadLength;
+            }
+        }
+        if (validLength < fileSize) {
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                file.truncate(validLength);
+                file.force(true);
+            }
+        }
+        replayedLengths.put(reader, validLength);
+        return entries;
+    }
+
+    /**
+     * Appends a record containing all given changes to the end of the log.
+     * The record is durable only after the next {@link #force()}.
+     * @param changes List of changes to be written in one record
+     * @return Long that represents the sequence number of the record
+     * @throws IOException cannot write file
+     */
+    synchronized long append(List<Entry> changes) throws IOException {
+        byte[] payload = encode(sequence + 1, changes);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length).putInt((int) checksum(payload)).put(payload).flip();
+        FileChannel file = channel();
+        long start = file.size();
+        while (buffer.hasRemaining()) {
+            file.write(buffer);
+        }
+        //readers up to date before the record have its changes in memory already, the others replay it
+        replayedLengths.replaceAll((reader, length) -> length == start ? start + HEADER_SIZE + payload.length : length);
+        sequence++;
+        for (Entry change : changes) {
+            change.sequence = sequence;
+        }
+        return sequence;
+    }
+
+    /**
+     * Forces every record appended so far to disk.
+     * Records can still be appended while the log is being forced.
+     * @throws IOException cannot write file
+     */
+    void force() throws IOException {
+        FileChannel file;
+        synchronized (this) {
+            file = channel();
+        }
+        try {
+            file.force(false);
+        } catch (ClosedChannelException e) {
+            //log was replaced while forcing, force the new file
+            synchronized (this) {
+                channel().force(false);
+            }
+        }
+    }
+
+    /**
+     * Gets the current length of the log, to be used as a position for {@link #discardBefore(long)}
+     * @return Long that represents the length of the log in bytes
+     * @throws IOException cannot read file
+     */
+    synchronized long size() throws IOException {
+        return channel().size();
+    }
+
+    /**
+     * Discards every record before the given position, keeping records appended after it.
+     * The remaining records are copied into a new file which then replaces the log.
+     * @param position Long that represents a length previously returned by {@link #size()}
+     * @throws IOException cannot write file
+     */
+    synchronized void discardBefore(long position) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        close();
+        long end;
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+             FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            end = in.size();
+            for (long copied = position; copied < end; ) {
+                copied += in.transferTo(copied, end - copied, out);
+            }
+            out.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        //readers that were behind no longer know where they were, so they replay the whole log
+        long length = Files.size(path);
+        replayedLengths.replaceAll((reader, replayedLength) -> replayedLength == end ? length : -1L);
+    }
+
+    /**
+     * Checks if the log has been changed by another process since a reader last replayed it
+     * @param reader Object that identifies the data access object the log was replayed for
+     * @return true if the log has been changed, or has never been replayed for the reader
+     */
+    synchronized boolean isModified(Object reader) {
+        try {
+            return (Files.exists(path) ? Files.size(path) : 0) != replayedLengths.getOrDefault(reader, -1L);
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Gets the channel that records are appended to, opening it if needed
+     * @return FileChannel positioned at the end of the log
+     * @throws IOException cannot open file
+     */
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    /**
+     * Closes the channel that records are appended to
+     * @throws IOException cannot close file
+     */
+    private void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Encodes the payload of a transaction record
+     * @param recordSequence Long that represents the sequence number of the record
+     * @param changes List of changes in the record
+     * @return byte array of the payload
+     */
+    private static byte[] encode(long recordSequence, List<Entry> changes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(recordSequence);
+        out.writeByte(TRANSACTION);
+        out.writeInt(changes.size());
+        for (Entry change : changes) {
+            out.writeByte(change.type);
+            if (change.type == ADD || change.type == DELETE) {
+                writeRegistration(out, change);
+            } else {
+                byte[] value = BinaryCodec.encodeValue(change.value);
+                out.writeInt(value.length);
+                out.write(value);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes the payload of a record into the changes it contains
+     * @param payload byte array of the payload
+     * @param entries List that the changes are added to
+     * @return Long that represents the sequence number of the record
+     */
+    private static long decode(byte[] payload, List<Entry> entries) throws IOException, ClassNotFoundException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+        long recordSequence = input.readLong();
+        byte recordType = input.readByte();
+        int count = recordType == TRANSACTION ? input.readInt() : 1;
+        for (int i = 0; i < count; i++) {
+            byte type = recordType == TRANSACTION ? input.readByte() : recordType;
+            Entry entry;
+            if (type == ADD || type == DELETE) {
+                entry = readRegistration(input, type);
+            } else {
+                byte[] value = new byte[input.readInt()];
+                input.readFully(value);
+                if (BinaryCodec.isSerialized(value)) {
+                    try (ObjectInputStream valueIn = new ObjectInputStream(new ByteArrayInputStream(value))) {
+                        entry = new Entry(type, (Serializable) valueIn.readObject());
+                    }
+                } else {
+                    entry = new Entry(type, BinaryCodec.decodeValue(value, type == COURSE));
+                }
+            }
+            entry.sequence = recordSequence;
+            entries.add(entry);
+        }
+        return recordSequence;
+    }
+
+    /**
+     * Writes an added or deleted registration
+     * @param out DataOutputStream of the payload
+     * @param change Entry of type ADD or DELETE
+     */
+    private static void writeRegistration(DataOutputStream out, Entry change) throws IOException {
+        out.writeUTF(change.registrationKey.getMatricNumber());
+        out.writeUTF(change.registrationKey.getCourseCode());
+        out.writeInt(change.registrationKey.getIndexNumber());
+        out.writeLong(change.time);
+    }
+
+    /**
+     * Reads an added or deleted registration
+     * @param input DataInputStream of the payload
+     * @param type Byte that represents ADD or DELETE
+     * @return Entry of the registration
+     */
+    private static Entry readRegistration(DataInputStream input, byte type) throws IOException {
+        String matricNumber = input.readUTF();
+        String courseCode = input.readUTF();
+        int indexNumber = input.readInt();
+        long time = input.readLong();
+        return new Entry(type, Factory.createRegistrationKey(matricNumber, courseCode, indexNumber), time);
+    }
+
+    /**
+     * Computes the CRC32 checksum of a payload
+     * @param payload byte array of the payload
+     * @return checksum as an unsigned integer
+     */
+    private static long checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return crc.getValue();
+    }
+}
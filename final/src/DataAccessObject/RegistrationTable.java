@@ -0,0 +1,541 @@
+package DataAccessObject;
+
+import java.util.Arrays;
+
+/**
+ * Registrations of students to course indexes, kept as records of primitives.
+ * <p>
+ * Every record holds the ID of the student's matric number, the ID of the course code, the index number and the time
+ * of the registration in parallel arrays, and two {@link Order}s of record numbers keep the records sorted by student
+ * and course, and by course, index and student. Looking up the registrations of a student, course or index is a binary
+ * search followed by a scan of the matching range, and a {@link Cursor} reads the records without allocating.
+ * Registrations read from the database files are loaded unsorted and sorted once, see {@link #load} and {@link #sort()}.
+ * A student has at most one registration for a course, as with {@link ValueObject.RegistrationKey#compareTo}.
+ * @see ValueObject.SymbolTable
+ */
+class RegistrationTable {
+    /**
+     * Initial number of records
+     */
+    private static final int INITIAL_CAPACITY = 64;
+    /**
+     * Number of records a block of an order holds, which bounds the records moved by an insertion or deletion
+     */
+    private static final int BLOCK_SIZE = 512;
+    /**
+     * Number of records put in each block when the orders are built by {@link #sort()},
+     * leaving room for registrations added later
+     */
+    private static final int LOADED_BLOCK_SIZE = BLOCK_SIZE * 3 / 4;
+    /**
+     * Student IDs, by record
+     */
+    private int[] studentIds = new int[INITIAL_CAPACITY];
+    /**
+     * Course IDs, by record
+     */
+    private int[] courseIds = new int[INITIAL_CAPACITY];
+    /**
+     * Index numbers, by record
+     */
+    private int[] indexNumbers = new int[INITIAL_CAPACITY];
+    /**
+     * Times of the registrations in milliseconds, by record
+     */
+    private long[] times = new long[INITIAL_CAPACITY];
+    /**
+     * Records, sorted by student ID and course ID
+     */
+    private final Order byStudent = new Order() {
+        @Override
+        int compare(int record, int studentId, int courseId, int unused) {
+            return studentIds[record] != studentId ? Integer.compare(studentIds[record], studentId)
+                    : Integer.compare(courseIds[record], courseId);
+        }
+
+        @Override
+        int compare(int record, int otherRecord) {
+            return compare(record, studentIds[otherRecord], courseIds[otherRecord], 0);
+        }
+    };
+    /**
+     * Records, sorted by course ID, index number and student ID
+     */
+    private final Order byCourse = new Order() {
+        @Override
+        int compare(int record, int courseId, int indexNumber, int studentId) {
+            return courseIds[record] != courseId ? Integer.compare(courseIds[record], courseId)
+                    : indexNumbers[record] != indexNumber ? Integer.compare(indexNumbers[record], indexNumber)
+                    : Integer.compare(studentIds[record], studentId);
+        }
+
+        @Override
+        int compare(int record, int otherRecord) {
+            return compare(record, courseIds[otherRecord], indexNumbers[otherRecord], studentIds[otherRecord]);
+        }
+    };
+    /**
+     * Records freed by removed registrations, given to the next registrations added
+     */
+    private int[] freeRecords = new int[INITIAL_CAPACITY];
+    /**
+     * Number of freed records
+     */
+    private int freeCount;
+    /**
+     * Number of records used, freed or not
+     */
+    private int recordCount;
+    /**
+     * Number of registrations
+     */
+    private int size;
+
+    /**
+     * Records in a sorted order, kept in blocks of at most BLOCK_SIZE records, so that adding or removing a registration
+     * moves the records of one block rather than of the whole table.
+     * A position in the order is the number of its block times BLOCK_SIZE plus its offset in the block
+     */
+    private abstract class Order {
+        /**
+         * Blocks of records, each sorted and following the one before
+         */
+        private int[][] blocks = {new int[BLOCK_SIZE]};
+        /**
+         * Number of records in each block
+         */
+        private int[] counts = new int[1];
+        /**
+         * Number of blocks, at least one, and none of them empty unless it is the only one
+         */
+        private int blockCount = 1;
+
+        /**
+         * Compares a record with a key
+         * @param record Integer that represents the record
+         * @param first Integer that represents the first part of the key
+         * @param second Integer that represents the second part of the key
+         * @param third Integer that represents the third part of the key, if the order has one
+         * @return Integer that is negative, zero or positive as the record is before, at or after the key
+         */
+        abstract int compare(int record, int first, int second, int third);
+
+        /**
+         * Compares two records
+         * @param record Integer that represents the record
+         * @param otherRecord Integer that represents the other record
+         * @return Integer that is negative, zero or positive as the record is before, at or after the other record
+         */
+        abstract int compare(int record, int otherRecord);
+
+        /**
+         * Finds a key, with a binary search of the blocks followed by one of the block that would hold it
+         * Student and course IDs are never Integer.MIN_VALUE or Integer.MAX_VALUE, so those can be used to find ranges
+         * @param first Integer that represents the first part of the key
+         * @param second Integer that represents the second part of the key
+         * @param third Integer that represents the third part of the key, if the order has one
+         * @return Integer that represents the position of the registration,
+         * or (-(insertion point) - 1) if there is no such registration
+         */
+        int search(int first, int second, int third) {
+            //first block whose last record is not before the key, or the last block
+            int low = 0;
+            int high = blockCount - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(blocks[middle][counts[middle] - 1], first, second, third) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            int block = low;
+            int[] records = blocks[block];
+            low = 0;
+            high = counts[block] - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int comparison = compare(records[middle], first, second, third);
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else if (comparison > 0) {
+                    high = middle - 1;
+                } else {
+                    return block * BLOCK_SIZE + middle;
+                }
+            }
+            return -(block * BLOCK_SIZE + low + 1);
+        }
+
+        /**
+         * Gets the record at a position
+         * @param position Integer that represents the position of the record
+         * @return Integer that represents the record
+         */
+        int get(int position) {
+            return blocks[position / BLOCK_SIZE][position % BLOCK_SIZE];
+        }
+
+        /**
+         * Inserts a record, splitting its block in two if the block is full
+         * @param position Integer that represents the insertion point returned by {@link #search}
+         * @param record Integer that represents the record
+         */
+        void insert(int position, int record) {
+            int block = position / BLOCK_SIZE;
+            int offset = position % BLOCK_SIZE;
+            if (block == blockCount) {
+                //after every record of a full last block
+                block--;
+                offset = BLOCK_SIZE;
+            }
+            if (counts[block] == BLOCK_SIZE) {
+                split(block);
+                if (offset > BLOCK_SIZE / 2) {
+                    block++;
+                    offset -= BLOCK_SIZE / 2;
+                }
+            }
+            int[] records = blocks[block];
+            System.arraycopy(records, offset, records, offset + 1, counts[block] - offset);
+            records[offset] = record;
+            counts[block]++;
+        }
+
+        /**
+         * Deletes the record at a position, removing its block if it becomes empty
+         * @param position Integer that represents the position of the record
+         */
+        void delete(int position) {
+            int block = position / BLOCK_SIZE;
+            int offset = position % BLOCK_SIZE;
+            System.arraycopy(blocks[block], offset + 1, blocks[block], offset, counts[block] - offset - 1);
+            if (--counts[block] == 0 && blockCount > 1) {
+                System.arraycopy(blocks, block + 1, blocks, block, blockCount - block - 1);
+                System.arraycopy(counts, block + 1, counts, block, blockCount - block - 1);
+                blocks[--blockCount] = null;
+            }
+        }
+
+        /**
+         * Gets the position of the first record at or after a position, skipping the end of a block
+         * @param position Integer that represents the position, such as an insertion point returned by {@link #search}
+         * @return Integer that represents the position, which is blockCount times BLOCK_SIZE after the last record
+         */
+        int normalize(int position) {
+            int block = position / BLOCK_SIZE;
+            return block < blockCount && position % BLOCK_SIZE >= counts[block] ? (block + 1) * BLOCK_SIZE : position;
+        }
+
+        /**
+         * Gets the position after the last record
+         * @return Integer that represents the position
+         */
+        int end() {
+            return normalize((blockCount - 1) * BLOCK_SIZE + counts[blockCount - 1]);
+        }
+
+        /**
+         * Gets the position after a position
+         * @param position Integer that represents the position of a record
+         * @return Integer that represents the position of the next record, or the position after the last record
+         */
+        int next(int position) {
+            return normalize(position + 1);
+        }
+
+        /**
+         * Replaces the records with records already sorted, in blocks of LOADED_BLOCK_SIZE records
+         * @param records int array of records in sorted order
+         * @param count Integer that represents the number of records
+         */
+        void fill(int[] records, int count) {
+            blockCount = Math.max(1, (count + LOADED_BLOCK_SIZE - 1) / LOADED_BLOCK_SIZE);
+            blocks = new int[blockCount][];
+            counts = new int[blockCount];
+            for (int block = 0; block < blockCount; block++) {
+                int start = block * LOADED_BLOCK_SIZE;
+                counts[block] = Math.min(LOADED_BLOCK_SIZE, count - start);
+                blocks[block] = new int[BLOCK_SIZE];
+                System.arraycopy(records, start, blocks[block], 0, counts[block]);
+            }
+        }
+
+        /**
+         * Splits a full block into two halves
+         * @param block Integer that represents the block
+         */
+        private void split(int block) {
+            if (blockCount == blocks.length) {
+                blocks = Arrays.copyOf(blocks, blockCount * 2);
+                counts = Arrays.copyOf(counts, blockCount * 2);
+            }
+            System.arraycopy(blocks, block + 1, blocks, block + 2, blockCount - block - 1);
+            System.arraycopy(counts, block + 1, counts, block + 2, blockCount - block - 1);
+            int[] upper = new int[BLOCK_SIZE];
+            System.arraycopy(blocks[block], BLOCK_SIZE / 2, upper, 0, BLOCK_SIZE - BLOCK_SIZE / 2);
+            blocks[block + 1] = upper;
+            counts[block + 1] = BLOCK_SIZE - BLOCK_SIZE / 2;
+            counts[block] = BLOCK_SIZE / 2;
+            blockCount++;
+        }
+    }
+
+    /**
+     * Reads the registrations in a range of one of the sorted orders, one at a time.
+     * The same cursor is advanced through the range, so that no object is created for each registration
+     */
+    class Cursor {
+        /**
+         * Sorted order being read
+         */
+        private final Order order;
+        /**
+         * Position of the next registration in the sorted order
+         */
+        private int position;
+        /**
+         * Position after the last registration in the range
+         */
+        private final int end;
+        /**
+         * Current record
+         */
+        private int record;
+
+        /**
+         * Creates a cursor before the first registration of a range
+         * @param order Order being read
+         * @param start Integer that represents the position of the first registration
+         * @param end Integer that represents the position after the last registration
+         */
+        private Cursor(Order order, int start, int end) {
+            this.order = order;
+            this.position = order.normalize(start);
+            this.end = order.normalize(end);
+        }
+
+        /**
+         * Moves to the next registration
+         * @return A boolean that is false if there are no more registrations in the range
+         */
+        boolean next() {
+            if (position >= end) {
+                return false;
+            }
+            record = order.get(position);
+            position = order.next(position);
+            return true;
+        }
+
+        /**
+         * Gets the student ID of the current registration
+         * @return Integer that represents the student ID
+         */
+        int getStudentId() {
+            return studentIds[record];
+        }
+
+        /**
+         * Gets the course ID of the current registration
+         * @return Integer that represents the course ID
+         */
+        int getCourseId() {
+            return courseIds[record];
+        }
+
+        /**
+         * Gets the index number of the current registration
+         * @return Integer that represents the index number
+         */
+        int getIndexNumber() {
+            return indexNumbers[record];
+        }
+
+        /**
+         * Gets the time of the current registration
+         * @return Long that represents the time in milliseconds
+         */
+        long getTime() {
+            return times[record];
+        }
+    }
+
+    /**
+     * Adds a registration, replacing the registration of the student for the same course if there is one
+     * @param studentId Integer that represents the student ID
+     * @param courseId Integer that represents the course ID
+     * @param indexNumber Integer that represents the index number
+     * @param time Long that represents the time of the registration in milliseconds
+     */
+    void put(int studentId, int courseId, int indexNumber, long time) {
+        remove(studentId, courseId);
+        int record = newRecord(studentId, courseId, indexNumber, time);
+        byStudent.insert(-1 - byStudent.search(studentId, courseId, 0), record);
+        byCourse.insert(-1 - byCourse.search(courseId, indexNumber, studentId), record);
+        size++;
+    }
+
+    /**
+     * Adds a registration read from a database file, leaving the orders to {@link #sort()}.
+     * No registration can be looked up until the table is sorted
+     * @param studentId Integer that represents the student ID
+     * @param courseId Integer that represents the course ID
+     * @param indexNumber Integer that represents the index number
+     * @param time Long that represents the time of the registration in milliseconds
+     */
+    void load(int studentId, int courseId, int indexNumber, long time) {
+        newRecord(studentId, courseId, indexNumber, time);
+    }
+
+    /**
+     * Builds the orders of the registrations added by {@link #load} with one sort each.
+     * Of several registrations of a student for the same course, the one loaded last is kept
+     */
+    void sort() {
+        int[] records = new int[recordCount];
+        for (int record = 0; record < recordCount; record++) {
+            records[record] = record;
+        }
+        //stable, so the registrations of a student for a course stay in the order loaded
+        mergeSort(records, recordCount, byStudent);
+        int count = 0;
+        freeCount = 0;
+        for (int i = 0; i < recordCount; i++) {
+            if (i + 1 < recordCount && byStudent.compare(records[i], records[i + 1]) == 0) {
+                freeRecords[freeCount++] = records[i];
+            } else {
+                records[count++] = records[i];
+            }
+        }
+        size = count;
+        byStudent.fill(records, count);
+        mergeSort(records, count, byCourse);
+        byCourse.fill(records, count);
+    }
+
+    /**
+     * Removes the registration of a student for a course
+     * @param studentId Integer that represents the student ID
+     * @param courseId Integer that represents the course ID
+     * @return A boolean that is true if the student was registered for the course
+     */
+    boolean remove(int studentId, int courseId) {
+        int position = byStudent.search(studentId, courseId, 0);
+        if (position < 0) {
+            return false;
+        }
+        int record = byStudent.get(position);
+        byStudent.delete(position);
+        byCourse.delete(byCourse.search(courseId, indexNumbers[record], studentId));
+        freeRecords[freeCount++] = record;
+        size--;
+        return true;
+    }
+
+    /**
+     * Gets the number of registrations
+     * @return Integer that represents the number of registrations
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets a cursor over all registrations, by student and course
+     * @return Cursor object
+     */
+    Cursor all() {
+        return new Cursor(byStudent, 0, byStudent.end());
+    }
+
+    /**
+     * Gets a cursor over the registrations of a student, by course
+     * @param studentId Integer that represents the student ID
+     * @return Cursor object
+     */
+    Cursor ofStudent(int studentId) {
+        return new Cursor(byStudent, -1 - byStudent.search(studentId, Integer.MIN_VALUE, 0),
+                -1 - byStudent.search(studentId, Integer.MAX_VALUE, 0));
+    }
+
+    /**
+     * Gets a cursor over the registrations of a course, by index and student
+     * @param courseId Integer that represents the course ID
+     * @return Cursor object
+     */
+    Cursor ofCourse(int courseId) {
+        return new Cursor(byCourse, -1 - byCourse.search(courseId, Integer.MIN_VALUE, Integer.MIN_VALUE),
+                -1 - byCourse.search(courseId, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Gets a cursor over the registrations of an index of a course, by student
+     * @param courseId Integer that represents the course ID
+     * @param indexNumber Integer that represents the index number
+     * @return Cursor object
+     */
+    Cursor ofIndex(int courseId, int indexNumber) {
+        return new Cursor(byCourse, -1 - byCourse.search(courseId, indexNumber, Integer.MIN_VALUE),
+                -1 - byCourse.search(courseId, indexNumber, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Stores a registration in a free record, or a new one
+     * @param studentId Integer that represents the student ID
+     * @param courseId Integer that represents the course ID
+     * @param indexNumber Integer that represents the index number
+     * @param time Long that represents the time of the registration in milliseconds
+     * @return Integer that represents the record
+     */
+    private int newRecord(int studentId, int courseId, int indexNumber, long time) {
+        int record;
+        if (freeCount > 0) {
+            record = freeRecords[--freeCount];
+        } else {
+            if (recordCount == studentIds.length) {
+                int capacity = recordCount * 2;
+                studentIds = Arrays.copyOf(studentIds, capacity);
+                courseIds = Arrays.copyOf(courseIds, capacity);
+                indexNumbers = Arrays.copyOf(indexNumbers, capacity);
+                times = Arrays.copyOf(times, capacity);
+                freeRecords = Arrays.copyOf(freeRecords, capacity);
+            }
+            record = recordCount++;
+        }
+        studentIds[record] = studentId;
+        courseIds[record] = courseId;
+        indexNumbers[record] = indexNumber;
+        times[record] = time;
+        return record;
+    }
+
+    /**
+     * Sorts records by an order with a bottom-up merge sort, which keeps equal records in the order given
+     * @param records int array of records
+     * @param count Integer that represents the number of records to sort
+     * @param order Order to sort by
+     */
+    private static void mergeSort(int[] records, int count, Order order) {
+        int[] source = records;
+        int[] target = new int[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int start = 0; start < count; start += 2 * width) {
+                int middle = Math.min(start + width, count);
+                int end = Math.min(start + 2 * width, count);
+                int left = start;
+                int right = middle;
+                for (int i = start; i < end; i++) {
+                    target[i] = right >= end || (left < middle && order.compare(source[left], source[right]) <= 0)
+                            ? source[left++] : source[right++];
+                }
+            }
+            int[] sorted = target;
+            target = source;
+            source = sorted;
+        }
+        if (source != records) {
+            System.arraycopy(source, 0, records, 0, count);
+        }
+    }
+}
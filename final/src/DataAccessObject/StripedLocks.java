@@ -0,0 +1,78 @@
+package DataAccessObject;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks of courses and students, striped by the hashes of their course codes and matric numbers.
+ * The names are hashed rather than given IDs, as they may come from a client and name nobody.
+ * <p>
+ * Registrations to courses on different stripes run in parallel and only contend within a stripe.
+ * A course lock is taken before a student lock, and a thread holds at most one lock of each kind at a time
+ * apart from taking the same lock again, so that two registrations can never wait for each other.
+ * Swapping indexes is the only exception, which holds the locks of two students taken in stripe order,
+ * see {@link #get(String, String)}.
+ * The registration log is only locked after both, as it guards the data access objects for a single call.
+ */
+public final class StripedLocks {
+    /**
+     * Number of stripes of each kind
+     */
+    private static final int STRIPES = 64;
+    /**
+     * Locks of courses, by course code
+     */
+    public static final StripedLocks COURSES = new StripedLocks();
+    /**
+     * Locks of students, by matric number
+     */
+    public static final StripedLocks STUDENTS = new StripedLocks();
+    /**
+     * Lock of each stripe
+     */
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    /**
+     * Creates the locks of one kind
+     */
+    private StripedLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Gets the lock of a course or student
+     * @param name String that represents the course code or matric number
+     * @return ReentrantLock of the stripe of the course or student
+     */
+    public ReentrantLock get(String name) {
+        return stripes[stripeOf(name)];
+    }
+
+    /**
+     * Gets the locks of two courses or students in the order they are to be taken,
+     * so that threads taking two locks of the same kind take them in the same order
+     * @param name String that represents the course code or matric number
+     * @param otherName String that represents the other course code or matric number
+     * @return ReentrantLock array of the stripes of both, with one lock if they share a stripe
+     */
+    public ReentrantLock[] get(String name, String otherName) {
+        int stripe = stripeOf(name);
+        int otherStripe = stripeOf(otherName);
+        if (stripe == otherStripe) {
+            return new ReentrantLock[]{stripes[stripe]};
+        }
+        return new ReentrantLock[]{stripes[Math.min(stripe, otherStripe)], stripes[Math.max(stripe, otherStripe)]};
+    }
+
+    /**
+     * Gets the stripe of a course or student
+     * @param name String that represents the course code or matric number
+     * @return Integer that represents the stripe
+     */
+    private static int stripeOf(String name) {
+        int hash = name.hashCode();
+        //mixes the high bits into the low bits the stripe is taken from
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % STRIPES;
+    }
+}
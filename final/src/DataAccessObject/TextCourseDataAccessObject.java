@@ -2,26 +2,187 @@ package DataAccessObject;
 
 import Exception.ExistingCourseException;
 import Exception.NonExistentCourseException;
+import Exception.NonExistentIndexException;
+import Exception.StaleVersionException;
 import EntityObject.Course;
+import EntityObject.Index;
+import ValueObject.SymbolTable;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.TreeMap;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 /**
  * text version of course data access object
+ * <p>
+ * Every course is stored in its own segment file in ./data/courses, named after its course code,
+ * and a manifest in the same directory lists the course codes.
+ * Changing a course rewrites only its segment, and adding or deleting a course also rewrites the manifest.
+ * <p>
+ * Only the manifest is read when the courses are loaded. A course is decoded from its segment
+ * the first time it is asked for and kept in a cache of at most stars.courses.cacheSize courses (64 by default),
+ * evicting the least recently used course that has no unwritten changes.
+ * With stars.courses.lazy set to false every segment is read in parallel when the courses are loaded instead.
  */
 public class TextCourseDataAccessObject implements Serializable, IReadWriteCourseDataAccessObject {
     /**
      * TreeMap of courses in NTU
      * Contains course code in String and Course object
+     * Only used for the courses database file of the whole catalog
      */
     private final TreeMap<String, Course> courses = new TreeMap<>();
     /**
      * A null instance of TextCourseDataAccess
      */
-    private static TextCourseDataAccessObject instance = null;
+    private static volatile TextCourseDataAccessObject instance = null;
+    /**
+     * Lock held while the database files are read, so that concurrent callers read them once
+     */
+    private static final Object initializationLock = new Object();
+    /**
+     * Directory containing the manifest and the course segments
+     */
+    private static final Path SEGMENT_DIRECTORY = Paths.get("./data/courses");
+    /**
+     * Manifest of the course segments, read once and kept resident
+     */
+    private static final DataFile manifestFile = new DataFile(SEGMENT_DIRECTORY.resolve("manifest.dat").toString(),
+            null, TextCourseDataAccessObject::decodeManifest);
+    /**
+     * Courses database file of the whole catalog, read once to split it into segments
+     */
+    private static final DataFile legacyFile = new DataFile("./data/Courses.dat", "./data/Courses.ser",
+            TextCourseDataAccessObject::decode);
+    /**
+     * true if courses are decoded when they are first asked for, false if all courses are decoded when loaded
+     */
+    private static final boolean LAZY = Boolean.parseBoolean(System.getProperty("stars.courses.lazy", "true"));
+    /**
+     * Number of courses kept decoded
+     */
+    private static final int CACHE_SIZE = LAZY ? Integer.getInteger("stars.courses.cacheSize", 64) : Integer.MAX_VALUE;
+    /**
+     * Serialized ID that is tagged to the data access object
+     */
+    private static final long serialVersionUID = 6388101764537441430L;
+    /**
+     * Last version given to any course, so that no two stores of courses are given the same version
+     */
+    private static final AtomicLong versions = new AtomicLong();
+    /**
+     * Sequence number of the last registration log record included when the manifest was written to file
+     */
+    private long logSequence = 0;
+    /**
+     * Course codes of all courses, served without decoding any course
+     */
+    private transient TreeSet<String> courseCodes = new TreeSet<>();
+    /**
+     * Decoded courses, from least to most recently used
+     */
+    private transient LinkedHashMap<String, Course> cache = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Latest record in the registration log for each course that is not decoded yet,
+     * used instead of the segment if it is newer
+     */
+    private transient HashMap<String, RegistrationLog.Entry> pendingChanges = new HashMap<>();
+    /**
+     * Course codes of courses changed since their segments were written, which are never evicted
+     */
+    private transient HashSet<String> dirtyCourses = new HashSet<>();
+    /**
+     * Course codes of courses deleted since the manifest was written
+     */
+    private transient HashSet<String> deletedCourses = new HashSet<>();
+    /**
+     * true if courses were added or deleted since the manifest was written
+     */
+    private transient boolean manifestDirty = false;
+    /**
+     * Clash relation between all indexes in the catalog, or null until it is first asked for
+     */
+    private transient volatile ClashMatrix clashMatrix = null;
+    /**
+     * Bookings of all venues in the catalog, or null until they are first asked for
+     */
+    private transient volatile VenueSchedule venueSchedule = null;
+    /**
+     * Courses changed while the clash matrix or the venue schedule is being built, with null for a deleted course,
+     * or null when neither is being built
+     */
+    private transient LinkedHashMap<String, Course> changesWhileBuilding = null;
+    /**
+     * Lock held while the clash matrix or the venue schedule is being built, so that only one is built at a time
+     */
+    private final transient Object buildLock = new Object();
+
+    /**
+     * Something kept up to date as courses change, such as the clash matrix
+     * @param <T> type of what is kept up to date
+     */
+    private interface CourseUpdate<T> {
+        /**
+         * Replaces a course after it was added, changed or deleted
+         * @param built what is kept up to date
+         * @param courseCode String that represents course code
+         * @param course Course object, or null if the course was deleted
+         */
+        void update(T built, String courseCode, Course course);
+    }
+
+    /**
+     * A course segment as it is stored in its file
+     */
+    private static class Segment {
+        /**
+         * Sequence number of the last registration log record included when the segment was written
+         */
+        final long logSequence;
+        /**
+         * Course stored in the segment
+         */
+        final Course course;
+
+        /**
+         * Creates a segment
+         * @param logSequence Long that represents the sequence number of the registration log
+         * @param course Course object
+         */
+        Segment(long logSequence, Course course) {
+            this.logSequence = logSequence;
+            this.course = course;
+        }
+    }
+
+    /**
+     * The manifest as it is stored in its file
+     */
+    private static class Manifest {
+        /**
+         * Sequence number of the last registration log record included when the manifest was written
+         */
+        final long logSequence;
+        /**
+         * Course codes of all courses
+         */
+        final List<String> courseCodes;
+
+        /**
+         * Creates a manifest
+         * @param logSequence Long that represents the sequence number of the registration log
+         * @param courseCodes List of course codes
+         */
+        Manifest(long logSequence, List<String> courseCodes) {
+            this.logSequence = logSequence;
+            this.courseCodes = courseCodes;
+        }
+    }
 
     /**
      * A private Constructor that prevents any other class from instantiating
@@ -33,64 +194,384 @@ public class TextCourseDataAccessObject implements Serializable, IReadWriteCours
 
     /**
      * Static 'instance' method
+     * The database files are only read on the first call, or when the manifest has been changed by another process
      * @return An instance of this class
      * @throws IOException cannot find file
      * @throws ClassNotFoundException Class does not exist
      */
     public static TextCourseDataAccessObject getInstance() throws IOException, ClassNotFoundException{
-        initialize();
-        if(instance == null){
-            instance = new TextCourseDataAccessObject();
+        if (instance == null || isChangedElsewhere()) {
+            synchronized (initializationLock) {
+                if (instance == null || isChangedElsewhere()) {
+                    initialize();
+                }
+            }
         }
         return instance;
     }
 
     /**
-     * Reads in serialized courses database file
+     * Checks if the database files or the registration log have been changed by another process since they were read.
+     * Changes not written yet are never discarded, so they are not reread until the changes are written.
+     * @return A boolean that is true if they should be read again
+     */
+    private static boolean isChangedElsewhere() {
+        return (manifestFile.isModified() || RegistrationLog.getInstance().isModified(TextCourseDataAccessObject.class))
+                && !WriteBehindPersister.getInstance().isPending(manifestFile);
+    }
+
+    /**
+     * Discards the resident copy and reads in the courses database files again
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException Class does not exist
+     */
+    public static void reload() throws IOException, ClassNotFoundException {
+        synchronized (initializationLock) {
+            initialize();
+        }
+    }
+
+    /**
+     * Reads in the manifest and collects the courses written to the registration log since.
+     * If there is no manifest yet, the courses database file of the whole catalog is read and split into segments.
      * @throws IOException cannot find file
      * @throws ClassNotFoundException Class does not exist
      */
     private static void initialize() throws IOException, ClassNotFoundException {
-        InputStream file = new FileInputStream("./data/Courses.ser");
-        InputStream buffer = new BufferedInputStream(file);
-        ObjectInput input = new ObjectInputStream(buffer);
+        RegistrationLog registrationLog = RegistrationLog.getInstance();
+        boolean split = !manifestFile.exists();
+        TextCourseDataAccessObject dataAccessObject = split ? readCatalog() : readManifest();
+        synchronized (registrationLog) {
+            registrationLog.advanceTo(dataAccessObject.logSequence);
+            for (RegistrationLog.Entry entry : registrationLog.replay(TextCourseDataAccessObject.class)) {
+                if (entry.type != RegistrationLog.COURSE) {
+                    continue;
+                }
+                String courseCode = ((Course) entry.value).getCourseCode();
+                if (dataAccessObject.courseCodes.contains(courseCode) && !dataAccessObject.cache.containsKey(courseCode)) {
+                    //compared with the segment when the course is decoded
+                    dataAccessObject.pendingChanges.put(courseCode, entry);
+                } else if (entry.sequence > dataAccessObject.logSequence) {
+                    dataAccessObject.apply(entry);
+                }
+            }
+            instance = dataAccessObject;
+        }
+        if (split) {
+            persist();
+        } else if (!LAZY) {
+            instance.decodeAll(instance.getAllCourseCodes());
+        }
+    }
+
+    /**
+     * Reads in the manifest without decoding any course
+     * @return TextCourseDataAccessObject object
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException Class does not exist
+     */
+    private static TextCourseDataAccessObject readManifest() throws IOException, ClassNotFoundException {
+        Manifest manifest = (Manifest) manifestFile.read();
+        TextCourseDataAccessObject dataAccessObject = new TextCourseDataAccessObject();
+        dataAccessObject.logSequence = manifest.logSequence;
+        dataAccessObject.courseCodes.addAll(manifest.courseCodes);
+        return dataAccessObject;
+    }
 
-        instance = (TextCourseDataAccessObject) input.readObject();
+    /**
+     * Reads in the courses database file of the whole catalog and marks every course to be written to its segment
+     * @return TextCourseDataAccessObject object
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException Class does not exist
+     */
+    private static TextCourseDataAccessObject readCatalog() throws IOException, ClassNotFoundException {
+        TextCourseDataAccessObject catalog = (TextCourseDataAccessObject) legacyFile.read();
+        TextCourseDataAccessObject dataAccessObject = new TextCourseDataAccessObject();
+        dataAccessObject.logSequence = catalog.logSequence;
+        for (Course course : catalog.courses.values()) {
+            dataAccessObject.courseCodes.add(course.getCourseCode());
+            dataAccessObject.cache.put(course.getCourseCode(), course);
+            dataAccessObject.dirtyCourses.add(course.getCourseCode());
+        }
+        dataAccessObject.manifestDirty = true;
+        return dataAccessObject;
     }
 
     /**
-     * Writes/update into serialized courses database file
-     *
+     * Decodes the segments of courses that are not decoded yet, in parallel
+     * @param courseCodes List of course codes
+     * @throws IOException cannot find file
+     */
+    private void decodeAll(List<String> courseCodes) throws IOException {
+        try {
+            courseCodes.parallelStream().forEach(this::getCourse);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Puts a course decoded from its segment into the cache,
+     * unless a newer version of it was written to the registration log
+     * @param courseCode String that represents course code
+     * @param segment Segment read from file
+     * @return Course object in the cache, or null if the course was deleted meanwhile
      */
-    private static void persist(){
-        FileOutputStream fos;
-        ObjectOutputStream out = null;
-        try{
-            fos = new FileOutputStream("./data/Courses.ser");
-            out = new ObjectOutputStream(fos);
-            out.writeObject(instance);
+    private Course decoded(String courseCode, Segment segment) {
+        synchronized (RegistrationLog.getInstance()) {
+            Course course = cache.get(courseCode);
+            if (course != null || !courseCodes.contains(courseCode)) {
+                return course;
+            }
+            RegistrationLog.Entry pendingChange = pendingChanges.remove(courseCode);
+            if (pendingChange != null && pendingChange.sequence > segment.logSequence) {
+                course = (Course) pendingChange.value;
+                dirtyCourses.add(courseCode);
+            } else {
+                course = segment.course;
+            }
+            cache.put(courseCode, course);
+            evict();
+            return course;
+        }
+    }
+
+    /**
+     * Evicts the least recently used courses without unwritten changes until the cache holds at most CACHE_SIZE courses
+     */
+    private void evict() {
+        Iterator<String> leastRecentlyUsed = cache.keySet().iterator();
+        while (cache.size() > CACHE_SIZE && leastRecentlyUsed.hasNext()) {
+            if (!dirtyCourses.contains(leastRecentlyUsed.next())) {
+                leastRecentlyUsed.remove();
+            }
+        }
+    }
+
+    /**
+     * Writes the segments of changed courses, the manifest if courses were added or deleted,
+     * and deletes the segments of deleted courses.
+     * The files written include every record in the registration log written so far
+     * @throws IOException cannot write file
+     */
+    static synchronized void persist() throws IOException {
+        //courses only changed in the registration log must be written before the log is compacted
+        instance.decodeAll(new ArrayList<>(instance.pendingChanges.keySet()));
+
+        LinkedHashMap<String, byte[]> segments = new LinkedHashMap<>();
+        List<String> deleted;
+        byte[] manifest = null;
+        RegistrationLog registrationLog = RegistrationLog.getInstance();
+        synchronized (registrationLog) {
+            long sequence = registrationLog.getSequence();
+            for (String courseCode : instance.dirtyCourses) {
+                segments.put(courseCode, encodeSegment(sequence, instance.cache.get(courseCode)));
+            }
+            deleted = new ArrayList<>(instance.deletedCourses);
+            //the manifest is written with every segment so that its sequence number is never behind a segment
+            if (instance.manifestDirty || !segments.isEmpty()) {
+                instance.logSequence = sequence;
+                manifest = instance.encodeManifest();
+            }
+            instance.dirtyCourses.clear();
+            instance.deletedCourses.clear();
+            instance.manifestDirty = false;
+        }
+
+        try {
+            Files.createDirectories(SEGMENT_DIRECTORY);
+            //segments of added courses are written before the manifest lists them
+            for (Map.Entry<String, byte[]> segment : segments.entrySet()) {
+                segmentFile(segment.getKey()).write(segment.getValue());
+            }
+            if (manifest != null) {
+                manifestFile.write(manifest);
+            }
+            //segments of deleted courses are deleted after the manifest no longer lists them
+            for (String courseCode : deleted) {
+                segmentFile(courseCode).delete();
+            }
         } catch (IOException e) {
-            e.printStackTrace();
-        } finally{
-            try {
-                out.close();
-            } catch (IOException e) {
-                e.printStackTrace();
+            synchronized (registrationLog) {
+                for (String courseCode : segments.keySet()) {
+                    if (instance.courseCodes.contains(courseCode)) {
+                        instance.dirtyCourses.add(courseCode);
+                    }
+                }
+                instance.deletedCourses.addAll(deleted);
+                instance.manifestDirty |= manifest != null;
+            }
+            throw e;
+        } finally {
+            synchronized (registrationLog) {
+                instance.evict();
             }
         }
     }
 
+    /**
+     * Gets the segment file of a course
+     * @param courseCode String that represents course code
+     * @return DataFile of the segment
+     */
+    private static DataFile segmentFile(String courseCode) {
+        return new DataFile(SEGMENT_DIRECTORY.resolve(courseCode + ".dat").toString(), null,
+                TextCourseDataAccessObject::decodeSegment);
+    }
+
+    /**
+     * Encodes a course segment in the format of {@link BinaryCodec}
+     * @param logSequence Long that represents the sequence number of the registration log
+     * @param course Course object
+     * @return byte array of the encoding
+     * @throws IOException cannot encode
+     */
+    private static byte[] encodeSegment(long logSequence, Course course) throws IOException {
+        BinaryCodec.Encoder encoder = new BinaryCodec.Encoder();
+        encoder.writeVarint(logSequence);
+        encoder.writeCourse(course);
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Decodes a course segment written by {@link #encodeSegment(long, Course)}
+     * @param bytes byte array of the encoding
+     * @return Segment object
+     * @throws IOException bytes are not a valid encoding
+     */
+    private static Segment decodeSegment(byte[] bytes) throws IOException {
+        BinaryCodec.Decoder decoder = new BinaryCodec.Decoder(bytes);
+        long logSequence = decoder.readVarint();
+        return new Segment(logSequence, decoder.readCourse());
+    }
+
+    /**
+     * Encodes the manifest in the format of {@link BinaryCodec}
+     * @return byte array of the encoding
+     * @throws IOException cannot encode
+     */
+    private byte[] encodeManifest() throws IOException {
+        BinaryCodec.Encoder encoder = new BinaryCodec.Encoder();
+        encoder.writeVarint(logSequence);
+        encoder.writeVarint(courseCodes.size());
+        for (String courseCode : courseCodes) {
+            encoder.writeSymbol(courseCode);
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Decodes a manifest written by {@link #encodeManifest()}
+     * @param bytes byte array of the encoding
+     * @return Manifest object
+     * @throws IOException bytes are not a valid encoding
+     */
+    private static Manifest decodeManifest(byte[] bytes) throws IOException {
+        BinaryCodec.Decoder decoder = new BinaryCodec.Decoder(bytes);
+        long logSequence = decoder.readVarint();
+        int count = decoder.readInt();
+        List<String> courseCodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            courseCodes.add(decoder.readSymbol(SymbolTable.COURSES));
+        }
+        return new Manifest(logSequence, courseCodes);
+    }
+
+    /**
+     * Encodes the whole catalog in the format of {@link BinaryCodec}, as in the courses database file
+     * @return byte array of the encoding
+     * @throws IOException cannot encode
+     */
+    byte[] encode() throws IOException {
+        BinaryCodec.Encoder encoder = new BinaryCodec.Encoder();
+        encoder.writeVarint(logSequence);
+        encoder.writeVarint(courses.size());
+        for (Course course : courses.values()) {
+            encoder.writeCourse(course);
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Decodes the whole catalog written by {@link #encode()}
+     * @param bytes byte array of the encoding
+     * @return TextCourseDataAccessObject object
+     * @throws IOException bytes are not a valid encoding
+     */
+    static TextCourseDataAccessObject decode(byte[] bytes) throws IOException {
+        BinaryCodec.Decoder decoder = new BinaryCodec.Decoder(bytes);
+        TextCourseDataAccessObject dataAccessObject = new TextCourseDataAccessObject();
+        dataAccessObject.logSequence = decoder.readVarint();
+        for (int i = decoder.readInt(); i > 0; i--) {
+            Course course = decoder.readCourse();
+            dataAccessObject.courses.put(course.getCourseCode(), course);
+        }
+        return dataAccessObject;
+    }
+
+    /**
+     * Marks the course segments to be written by the write-behind persister
+     * @return CompletableFuture that completes when the segments have been written
+     */
+    private static CompletableFuture<Void> markDirty() {
+        return WriteBehindPersister.getInstance().markDirty(manifestFile, TextCourseDataAccessObject::persist);
+    }
+
+    /**
+     * Puts a course into the cache, or removes it, and marks its segment and the manifest as changed
+     * @param courseCode String that represents course code
+     * @param course Course object, or null to remove the course
+     */
+    private void change(String courseCode, Course course) {
+        synchronized (RegistrationLog.getInstance()) {
+            pendingChanges.remove(courseCode);
+            if (course == null) {
+                courseCodes.remove(courseCode);
+                cache.remove(courseCode);
+                dirtyCourses.remove(courseCode);
+                deletedCourses.add(courseCode);
+                manifestDirty = true;
+            } else {
+                if (courseCodes.add(courseCode)) {
+                    manifestDirty = true;
+                }
+                course.setVersion(versions.incrementAndGet());
+                cache.put(courseCode, course);
+                deletedCourses.remove(courseCode);
+                dirtyCourses.add(courseCode);
+            }
+            if (clashMatrix != null) {
+                clashMatrix.update(courseCode, course);
+            }
+            if (venueSchedule != null) {
+                venueSchedule.update(courseCode, course);
+            }
+            if (changesWhileBuilding != null) {
+                changesWhileBuilding.put(courseCode, course);
+            }
+        }
+    }
+
+    /**
+     * Puts a course written to the registration log into the cache
+     * @param change Entry of type RegistrationLog.COURSE
+     */
+    void apply(RegistrationLog.Entry change) {
+        Course course = (Course) change.value;
+        change(course.getCourseCode(), course);
+    }
+
     /**
      * Adds a new Course object
      * @param newCourse Course object
      */
     @Override
     public void addCourse(Course newCourse) throws ExistingCourseException {
-        if (courses.containsKey(newCourse.getCourseCode())) {
+        if (courseCodes.contains(newCourse.getCourseCode())) {
             throw new ExistingCourseException();
         } else {
-            courses.put(newCourse.getCourseCode(), newCourse);
-            persist();
+            change(newCourse.getCourseCode(), newCourse);
+            markDirty();
         }
     }
 
@@ -100,11 +581,11 @@ public class TextCourseDataAccessObject implements Serializable, IReadWriteCours
      */
     @Override
     public void deleteCourse(Course course) throws NonExistentCourseException {
-        if (!courses.containsKey(course.getCourseCode())) {
+        if (!courseCodes.contains(course.getCourseCode())) {
             throw new NonExistentCourseException();
         } else {
-            courses.remove(course.getCourseCode(), course);
-            persist();
+            change(course.getCourseCode(), null);
+            markDirty();
         }
     }
 
@@ -114,27 +595,264 @@ public class TextCourseDataAccessObject implements Serializable, IReadWriteCours
      */
     @Override
     public void updateCourse(Course newCourse) {
-        courses.replace(newCourse.getCourseCode(), newCourse);
-        persist();
+        if (courseCodes.contains(newCourse.getCourseCode())) {
+            change(newCourse.getCourseCode(), newCourse);
+            markDirty();
+        }
     }
 
     /**
-     * Gets Course object
+     * Overrides an existing Course object when the unit of work is committed
+     * @param newCourse Course object
+     * @param unitOfWork UnitOfWork that the change is added to
+     */
+    @Override
+    public void updateCourse(Course newCourse, UnitOfWork unitOfWork) {
+        unitOfWork.add(new RegistrationLog.Entry(RegistrationLog.COURSE, newCourse));
+    }
+
+    /**
+     * Overrides an existing Course object if nobody has stored the course since the version was read.
+     * Compared and stored under the lock of the course, so it cannot come between the steps of a registration
+     * @param newCourse Course object
+     * @param expectedVersion Long that represents the version of the course the change was made to
+     * @throws NonExistentCourseException course does not exist
+     * @throws StaleVersionException course was stored since the version was read
+     */
+    @Override
+    public void updateCourse(Course newCourse, long expectedVersion) throws NonExistentCourseException, StaleVersionException {
+        ReentrantLock courseLock = StripedLocks.COURSES.get(newCourse.getCourseCode().toLowerCase());
+        courseLock.lock();
+        try {
+            Course course = getCourse(newCourse.getCourseCode());
+            synchronized (RegistrationLog.getInstance()) {
+                if (course == null) {
+                    throw new NonExistentCourseException();
+                }
+                //a course evicted or replaced since it was read counts as changed, and the caller tries again
+                if (cache.get(course.getCourseCode()) != course || course.getVersion() != expectedVersion) {
+                    throw new StaleVersionException();
+                }
+                change(newCourse.getCourseCode(), newCourse);
+            }
+        } finally {
+            courseLock.unlock();
+        }
+        markDirty();
+    }
+
+    /**
+     * Overrides an existing Index object of a course if nobody has changed the index since the version was read.
+     * Changes to the other indexes of the course meanwhile are kept
+     * @param courseCode String that represents course code
+     * @param index Index object
+     * @param expectedVersion Long that represents the version of the index the change was made to
+     * @throws NonExistentCourseException course does not exist
+     * @throws NonExistentIndexException index does not exist
+     * @throws StaleVersionException index was changed since the version was read
+     */
+    @Override
+    public void updateIndex(String courseCode, Index index, long expectedVersion) throws NonExistentCourseException, NonExistentIndexException, StaleVersionException {
+        ReentrantLock courseLock = StripedLocks.COURSES.get(courseCode.toLowerCase());
+        courseLock.lock();
+        try {
+            Course course = getCourse(courseCode);
+            synchronized (RegistrationLog.getInstance()) {
+                if (course == null) {
+                    throw new NonExistentCourseException();
+                }
+                Index storedIndex = course.getIndex(index.getIndexNumber());
+                if (storedIndex == null) {
+                    throw new NonExistentIndexException();
+                }
+                if (cache.get(course.getCourseCode()) != course || storedIndex.getVersion() != expectedVersion) {
+                    throw new StaleVersionException();
+                }
+                course.updateIndex(index);
+                change(course.getCourseCode(), course);
+            }
+        } finally {
+            courseLock.unlock();
+        }
+        markDirty();
+    }
+
+    /**
+     * Gets Course object, decoding it from its segment if it is not in the cache
      * @param courseCode String that represents course code
      * @return Course object with the corresponding course code
+     * @throws UncheckedIOException segment of the course cannot be read
      */
     @Override
     public Course getCourse(String courseCode) {
-        return courses.get(courseCode.toLowerCase());
+        String code = courseCode.toLowerCase();
+        synchronized (RegistrationLog.getInstance()) {
+            Course course = cache.get(code);
+            if (course != null || !courseCodes.contains(code)) {
+                return course;
+            }
+        }
+        try {
+            return decoded(code, (Segment) segmentFile(code).read());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new UncheckedIOException(new IOException(e));
+        }
+    }
+
+    /**
+     * Gets a copy of a Course object that can be changed without other sessions seeing it,
+     * with the versions of the course and its indexes it was copied from.
+     * Copied under the lock of the course, so the copy never holds half of a registration
+     * @param courseCode String that represents course code
+     * @return Course object that is a copy, or null if the course does not exist
+     * @throws UncheckedIOException course cannot be copied
+     */
+    @Override
+    public Course getCourseCopy(String courseCode) {
+        ReentrantLock courseLock = StripedLocks.COURSES.get(courseCode.toLowerCase());
+        courseLock.lock();
+        try {
+            Course course = getCourse(courseCode);
+            if (course == null) {
+                return null;
+            }
+            //versions are read before the copy, so a change made meanwhile shows as a stale version rather than being lost
+            long version = course.getVersion();
+            HashMap<Integer, Long> indexVersions = new HashMap<>();
+            for (Index index : course.getIndexes()) {
+                indexVersions.put(index.getIndexNumber(), index.getVersion());
+            }
+            Course copy = (Course) BinaryCodec.decodeValue(BinaryCodec.encodeValue(course), true);
+            copy.setVersion(version);
+            for (Index index : copy.getIndexes()) {
+                index.setVersion(indexVersions.getOrDefault(index.getIndexNumber(), -1L));
+            }
+            return copy;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            courseLock.unlock();
+        }
     }
 
     /**
-     * Gets course codes of existing courses in a List
+     * Gets course codes of existing courses in a List, without decoding any course
      * @return A List as described above
      */
     @Override
     public List<String> getAllCourseCodes() {
-        return new ArrayList<>(courses.keySet());
+        synchronized (RegistrationLog.getInstance()) {
+            return new ArrayList<>(courseCodes);
+        }
+    }
+
+    /**
+     * Gets the clash relation between all indexes in the catalog.
+     * It is built the first time it is asked for, reading every course, and kept up to date as courses change
+     * @return ClashMatrix object
+     * @throws UncheckedIOException segment of a course cannot be read
+     */
+    @Override
+    public ClashMatrix getClashMatrix() {
+        ClashMatrix built = clashMatrix;
+        if (built == null) {
+            synchronized (buildLock) {
+                if (clashMatrix == null) {
+                    clashMatrix = build(ClashMatrix::build, ClashMatrix::update);
+                }
+                built = clashMatrix;
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Gets the bookings of all venues in the catalog.
+     * They are collected the first time they are asked for, reading every course, and kept up to date as courses change
+     * @return VenueSchedule object
+     * @throws UncheckedIOException segment of a course cannot be read
+     */
+    @Override
+    public VenueSchedule getVenueSchedule() {
+        VenueSchedule built = venueSchedule;
+        if (built == null) {
+            synchronized (buildLock) {
+                if (venueSchedule == null) {
+                    venueSchedule = build(VenueSchedule::build, VenueSchedule::update);
+                }
+                built = venueSchedule;
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Builds something from every course without holding the registration log, so that registrations go on meanwhile.
+     * The courses changed while it is built are replaced in it before it is returned, with the registration log held,
+     * and it is kept up to date from then on once the caller publishes it.
+     * Called with buildLock held
+     * @param build Function that builds it from every course
+     * @param update CourseUpdate that replaces a changed course in it
+     * @param <T> type of what is built
+     * @return what is built
+     * @throws UncheckedIOException segment of a course cannot be read
+     */
+    private <T> T build(Function<List<Course>, T> build, CourseUpdate<T> update) {
+        RegistrationLog registrationLog = RegistrationLog.getInstance();
+        List<String> allCourseCodes;
+        synchronized (registrationLog) {
+            changesWhileBuilding = new LinkedHashMap<>();
+            allCourseCodes = new ArrayList<>(courseCodes);
+        }
+        try {
+            List<Course> allCourses = new ArrayList<>();
+            for (String courseCode : allCourseCodes) {
+                Course course = readCourse(courseCode);
+                if (course != null) {
+                    allCourses.add(course);
+                }
+            }
+            T built = build.apply(allCourses);
+            synchronized (registrationLog) {
+                for (Map.Entry<String, Course> change : changesWhileBuilding.entrySet()) {
+                    update.update(built, change.getKey(), change.getValue());
+                }
+                return built;
+            }
+        } finally {
+            synchronized (registrationLog) {
+                changesWhileBuilding = null;
+            }
+        }
+    }
+
+    /**
+     * Gets a course from the cache, or reads it from its segment without putting it into the cache,
+     * so that reading every course does not evict the courses in use
+     * @param courseCode String that represents course code
+     * @return Course object, or null if the course was deleted
+     * @throws UncheckedIOException segment of the course cannot be read
+     */
+    private Course readCourse(String courseCode) {
+        RegistrationLog.Entry pendingChange;
+        synchronized (RegistrationLog.getInstance()) {
+            Course course = cache.get(courseCode);
+            if (course != null || !courseCodes.contains(courseCode)) {
+                return course;
+            }
+            pendingChange = pendingChanges.get(courseCode);
+        }
+        try {
+            Segment segment = (Segment) segmentFile(courseCode).read();
+            return pendingChange != null && pendingChange.sequence > segment.logSequence
+                    ? (Course) pendingChange.value : segment.course;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new UncheckedIOException(new IOException(e));
+        }
     }
 
     /**
@@ -145,8 +863,8 @@ public class TextCourseDataAccessObject implements Serializable, IReadWriteCours
     public String toString() {
         StringBuilder str = new StringBuilder();
         str.append("_______All Available Courses_______").append('\n');
-        for (Course course : courses.values()) {
-            str.append(course.toString()).append('\n');
+        for (String courseCode : getAllCourseCodes()) {
+            str.append(getCourse(courseCode).toString()).append('\n');
         }
         return str.toString();
     }
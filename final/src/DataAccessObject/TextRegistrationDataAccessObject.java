@@ -10,26 +10,83 @@ import HelperObject.IMessenger;
 import ValueObject.*;
 
 import java.io.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * text version of registration data access object
  */
 public class TextRegistrationDataAccessObject implements Serializable, IReadWriteRegistrationDataAccessObject {
     /**
-     * TreeMap of Registrations done by students
-     * Contains RegistrationKey object and DateTime when the registration was done in Long
+     * Registrations done by students
+     * Contains the student, course and index of each registration and DateTime when the registration was done in Long
+     * Written to file with Java serialization as a TreeMap of RegistrationKey objects and Long
      */
-    private final TreeMap<RegistrationKey, Long> registrations = new TreeMap<>();
+    private transient RegistrationTable registrations = new RegistrationTable();
     /**
      * A null instance of RegistrationPeriod
      */
     private RegistrationPeriod registrationPeriod = null;
+    /**
+     * Sequence number of the last registration log record included when this object was written to file
+     */
+    private long logSequence = 0;
     /**
      * A null instance of TextRegistrationDataAccess
      */
-    private static TextRegistrationDataAccessObject instance = null;
+    private static volatile TextRegistrationDataAccessObject instance = null;
+    /**
+     * Lock held while the database files are read, so that concurrent callers read them once
+     */
+    private static final Object initializationLock = new Object();
+    /**
+     * Registrations database file, read once and kept resident
+     */
+    private static final DataFile dataFile = new DataFile("./data/Registrations.dat", "./data/Registrations.ser",
+            TextRegistrationDataAccessObject::decode);
+    /**
+     * Log of changes made since the database files were last written
+     */
+    private static final RegistrationLog registrationLog = RegistrationLog.getInstance();
+    /**
+     * Size in bytes the registration log can grow to before it is compacted into the database files
+     */
+    private static final long COMPACTION_THRESHOLD = 256 * 1024;
+    /**
+     * Background thread that compacts the registration log
+     */
+    private static final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "registration-log-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * Whether a compaction of the registration log is waiting to run
+     */
+    private static final AtomicBoolean compactionScheduled = new AtomicBoolean(false);
+    /**
+     * Serialized ID that is tagged to the data access object
+     */
+    private static final long serialVersionUID = 8294799683150393405L;
+    /**
+     * Fields written to file with Java serialization, kept as they were when the registrations were a TreeMap
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("registrations", TreeMap.class),
+            new ObjectStreamField("registrationPeriod", RegistrationPeriod.class),
+            new ObjectStreamField("logSequence", long.class)
+    };
 
     /**
      * A private Constructor that prevents any other class from instantiating
@@ -41,49 +98,238 @@ public class TextRegistrationDataAccessObject implements Serializable, IReadWrit
 
     /**
      * Static 'instance' method
+     * The database file is only read on the first call, or when it has been changed by another process
      * @return An instance of this class
      * @throws IOException cannot find file
      * @throws ClassNotFoundException Class does not exist
      */
     public static TextRegistrationDataAccessObject getInstance() throws IOException, ClassNotFoundException{
-        initialize();
-        if(instance == null){
-            instance = new TextRegistrationDataAccessObject();
+        if (instance == null || isChangedElsewhere()) {
+            synchronized (initializationLock) {
+                if (instance == null || isChangedElsewhere()) {
+                    initialize();
+                }
+            }
         }
         return instance;
     }
 
     /**
-     * Reads in serialized Registrations database file
+     * Checks if the database files or the registration log have been changed by another process since they were read.
+     * Changes not written yet are never discarded, so they are not reread until the changes are written.
+     * @return A boolean that is true if they should be read again
+     */
+    private static boolean isChangedElsewhere() {
+        return (dataFile.isModified() || registrationLog.isModified(TextRegistrationDataAccessObject.class))
+                && !WriteBehindPersister.getInstance().isPending(dataFile);
+    }
+
+    /**
+     * Discards the resident copy and reads in the Registrations database file again
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException Class does not exist
+     */
+    public static void reload() throws IOException, ClassNotFoundException {
+        synchronized (initializationLock) {
+            initialize();
+        }
+    }
+
+    /**
+     * Reads in Registrations database file and replays the registration log on top of it
      * @throws IOException cannot find file
      * @throws ClassNotFoundException Class does not exist
      */
     private static void initialize() throws IOException, ClassNotFoundException {
-        InputStream file = new FileInputStream("./data/Registrations.ser");
-        InputStream buffer = new BufferedInputStream(file);
-        ObjectInput input = new ObjectInputStream(buffer);
+        synchronized (registrationLog) {
+            instance = (TextRegistrationDataAccessObject) dataFile.read();
+            registrationLog.advanceTo(instance.logSequence);
+            for (RegistrationLog.Entry entry : registrationLog.replay(TextRegistrationDataAccessObject.class)) {
+                if ((entry.type == RegistrationLog.ADD || entry.type == RegistrationLog.DELETE)
+                        && entry.sequence > instance.logSequence) {
+                    instance.apply(entry);
+                }
+            }
+        }
+    }
 
-        instance = (TextRegistrationDataAccessObject) input.readObject();
+    /**
+     * Writes/update into Registrations database file
+     * The file includes every record in the registration log written so far
+     * @throws IOException cannot write file
+     */
+    static synchronized void persist() throws IOException {
+        byte[] snapshot;
+        synchronized (registrationLog) {
+            instance.logSequence = registrationLog.getSequence();
+            snapshot = instance.encode();
+        }
+        dataFile.write(snapshot);
     }
 
     /**
-     * Writes/update into serialized Registrations database file
-     *
+     * Encodes this object in the format of {@link BinaryCodec}
+     * @return byte array of the encoding
+     * @throws IOException cannot encode
+     */
+    byte[] encode() throws IOException {
+        BinaryCodec.Encoder encoder = new BinaryCodec.Encoder();
+        encoder.writeVarint(logSequence);
+        encoder.writeVarint(registrationPeriod == null ? 0 : 1);
+        if (registrationPeriod != null) {
+            encoder.writeDateTime(registrationPeriod.getStartDate());
+            encoder.writeDateTime(registrationPeriod.getEndDate());
+        }
+        encoder.writeVarint(registrations.size());
+        for (RegistrationTable.Cursor registration = registrations.all(); registration.next(); ) {
+            encoder.writeRegistrationKey(toRegistrationKey(registration));
+            encoder.writeVarint(registration.getTime());
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Decodes an object written by {@link #encode()}
+     * @param bytes byte array of the encoding
+     * @return TextRegistrationDataAccessObject object
+     * @throws IOException bytes are not a valid encoding
      */
-    private static void persist(){
-        FileOutputStream fos;
-        ObjectOutputStream out = null;
-        try{
-            fos = new FileOutputStream("./data/Registrations.ser");
-            out = new ObjectOutputStream(fos);
-            out.writeObject(instance);
-        } catch (IOException e) {
+    static TextRegistrationDataAccessObject decode(byte[] bytes) throws IOException {
+        BinaryCodec.Decoder decoder = new BinaryCodec.Decoder(bytes);
+        TextRegistrationDataAccessObject dataAccessObject = new TextRegistrationDataAccessObject();
+        dataAccessObject.logSequence = decoder.readVarint();
+        if (decoder.readVarint() != 0) {
+            LocalDateTime startDate = decoder.readDateTime();
+            dataAccessObject.registrationPeriod = Factory.createRegistrationPeriod(startDate, decoder.readDateTime());
+        }
+        for (int i = decoder.readInt(); i > 0; i--) {
+            RegistrationKey registrationKey = decoder.readRegistrationKey();
+            dataAccessObject.load(registrationKey, decoder.readVarint());
+        }
+        dataAccessObject.registrations.sort();
+        return dataAccessObject;
+    }
+
+    /**
+     * Writes this object with Java serialization, with the registrations as a TreeMap
+     * @param out ObjectOutputStream to write to
+     * @throws IOException cannot write
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        TreeMap<RegistrationKey, Long> registrationMap = new TreeMap<>();
+        for (RegistrationTable.Cursor registration = registrations.all(); registration.next(); ) {
+            registrationMap.put(toRegistrationKey(registration), registration.getTime());
+        }
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("registrations", registrationMap);
+        fields.put("registrationPeriod", registrationPeriod);
+        fields.put("logSequence", logSequence);
+        out.writeFields();
+    }
+
+    /**
+     * Reads this object written with Java serialization, with the registrations as a TreeMap
+     * @param in ObjectInputStream to read from
+     * @throws IOException cannot read
+     * @throws ClassNotFoundException class of a field is not found
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        registrations = new RegistrationTable();
+        TreeMap<RegistrationKey, Long> registrationMap =
+                (TreeMap<RegistrationKey, Long>) fields.get("registrations", new TreeMap<>());
+        for (Map.Entry<RegistrationKey, Long> registration : registrationMap.entrySet()) {
+            load(registration.getKey(), registration.getValue());
+        }
+        registrations.sort();
+        registrationPeriod = (RegistrationPeriod) fields.get("registrationPeriod", null);
+        logSequence = fields.get("logSequence", 0L);
+    }
+
+    /**
+     * Adds a registration to registrations
+     * @param registrationKey RegistrationKey object that contains student matric number, course code and index
+     * @param time Long that represents the time of the registration in milliseconds
+     */
+    private void put(RegistrationKey registrationKey, long time) {
+        registrations.put(SymbolTable.STUDENTS.idOf(registrationKey.getMatricNumber()),
+                SymbolTable.COURSES.idOf(registrationKey.getCourseCode()), registrationKey.getIndexNumber(), time);
+    }
+
+    /**
+     * Adds a registration read from a database file to registrations, which are sorted once all are read
+     * @param registrationKey RegistrationKey object that contains student matric number, course code and index
+     * @param time Long that represents the time of the registration in milliseconds
+     */
+    private void load(RegistrationKey registrationKey, long time) {
+        registrations.load(SymbolTable.STUDENTS.idOf(registrationKey.getMatricNumber()),
+                SymbolTable.COURSES.idOf(registrationKey.getCourseCode()), registrationKey.getIndexNumber(), time);
+    }
+
+    /**
+     * Creates the registration key of the current registration of a cursor
+     * @param registration Cursor of registrations
+     * @return RegistrationKey object
+     */
+    private static RegistrationKey toRegistrationKey(RegistrationTable.Cursor registration) {
+        return Factory.createRegistrationKey(SymbolTable.STUDENTS.nameOf(registration.getStudentId()),
+                SymbolTable.COURSES.nameOf(registration.getCourseId()), registration.getIndexNumber());
+    }
+
+    /**
+     * Marks the Registrations database file to be written by the write-behind persister
+     * @return CompletableFuture that completes when the file has been written
+     */
+    private static CompletableFuture<Void> markDirty() {
+        return WriteBehindPersister.getInstance().markDirty(dataFile, TextRegistrationDataAccessObject::persist);
+    }
+
+    /**
+     * Compacts the registration log on the background thread once it has grown past COMPACTION_THRESHOLD
+     * @throws IOException cannot read file
+     */
+    static void compactIfNeeded() throws IOException {
+        if (registrationLog.size() > COMPACTION_THRESHOLD && compactionScheduled.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                compactionScheduled.set(false);
+                compact();
+            });
+        }
+    }
+
+    /**
+     * Writes the registrations, courses and users database files, then removes the records they include from the log.
+     * Records appended while the files are being written stay in the log.
+     */
+    private static void compact() {
+        try {
+            long logPosition = registrationLog.size();
+            TextCourseDataAccessObject.getInstance();
+            TextUserDataAccessObject.getInstance();
+            persist();
+            TextCourseDataAccessObject.persist();
+            TextUserDataAccessObject.persist();
+            registrationLog.discardBefore(logPosition);
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            //runs on the compactor thread, where nobody else would see the failure
             e.printStackTrace();
-        } finally{
-            try {
-                out.close();
-            } catch (IOException e) {
-                e.printStackTrace();
+        }
+    }
+
+    /**
+     * Adds or deletes a registration in registrations
+     * @param change Entry of type RegistrationLog.ADD or RegistrationLog.DELETE
+     */
+    void apply(RegistrationLog.Entry change) {
+        if (change.type == RegistrationLog.ADD) {
+            put(change.registrationKey, change.time);
+        } else {
+            int studentId = SymbolTable.STUDENTS.find(change.registrationKey.getMatricNumber());
+            int courseId = SymbolTable.COURSES.find(change.registrationKey.getCourseCode());
+            //a student or course without an ID has no registration to remove
+            if (studentId >= 0 && courseId >= 0) {
+                registrations.remove(studentId, courseId);
             }
         }
     }
@@ -97,6 +343,46 @@ public class TextRegistrationDataAccessObject implements Serializable, IReadWrit
         return registrationPeriod;
     }
 
+    /**
+     * Gets the registrations of a student, including courses on the waiting list
+     * @param matricNumber String that represents the matric number of the student
+     * @return List of RegistrationKey objects, by course
+     */
+    @Override
+    public List<RegistrationKey> getStudentRegistrations(String matricNumber) {
+        List<RegistrationKey> studentRegistrations = new ArrayList<>();
+        int studentId = SymbolTable.STUDENTS.find(matricNumber);
+        if (studentId < 0) {
+            return studentRegistrations;
+        }
+        synchronized (registrationLog) {
+            for (RegistrationTable.Cursor registration = registrations.ofStudent(studentId); registration.next(); ) {
+                studentRegistrations.add(toRegistrationKey(registration));
+            }
+        }
+        return studentRegistrations;
+    }
+
+    /**
+     * Gets the registrations of a course, including students on the waiting lists
+     * @param courseCode String that represents the course code
+     * @return List of RegistrationKey objects, by index and student
+     */
+    @Override
+    public List<RegistrationKey> getCourseRegistrations(String courseCode) {
+        List<RegistrationKey> courseRegistrations = new ArrayList<>();
+        int courseId = SymbolTable.COURSES.find(courseCode);
+        if (courseId < 0) {
+            return courseRegistrations;
+        }
+        synchronized (registrationLog) {
+            for (RegistrationTable.Cursor registration = registrations.ofCourse(courseId); registration.next(); ) {
+                courseRegistrations.add(toRegistrationKey(registration));
+            }
+        }
+        return courseRegistrations;
+    }
+
     /**
      * Overrides existing registration period
      * @param newRegistrationPeriod RegistrationPeriod object that contains the start and end time
@@ -106,6 +392,7 @@ public class TextRegistrationDataAccessObject implements Serializable, IReadWrit
     public void updateRegistrationPeriod(RegistrationPeriod newRegistrationPeriod) throws IdenticalRegistrationPeriodException {
         if (registrationPeriod == null || !registrationPeriod.equals(newRegistrationPeriod)) {
             registrationPeriod = newRegistrationPeriod;
+            markDirty();
         } else {
             throw new IdenticalRegistrationPeriodException();
         }
@@ -120,7 +407,7 @@ public class TextRegistrationDataAccessObject implements Serializable, IReadWrit
      * @see DataAccessObject.IReadWriteCourseDataAccessObject#getCourse(String)
      *
      * @see HelperObject.Factory#getTextUserDataAccessObject(ConsoleAdminSession)
-     * @see DataAccessObject.IReadWriteUserDataAccessObject#updateStudent(Student)
+     * @see DataAccessObject.IReadWriteUserDataAccessObject#updateStudent(Student, UnitOfWork)
      *
      * @see ValueObject.RegistrationKey#getCourseCode()
      * @see ValueObject.RegistrationKey#getIndexNumber()
@@ -134,41 +421,104 @@ public class TextRegistrationDataAccessObject implements Serializable, IReadWrit
      * @see EntityObject.Student#registerCourse(String, int)
      * @see EntityObject.Student#registerAUs(int)
      *
+     * @see DataAccessObject.ClashMatrix#isClashing(String, int, Map)
+     *
      * @throws IOException cannot find file
      * @throws ClassNotFoundException class is not defined in project
      * @throws ExistingCourseException course already exists
      * @throws ExistingUserException  user already exists
      * @throws NonExistentUserException user does not exist
-     * @throws MaxEnrolledStudentsException index reach it maximum student capacity
+     * @throws MaxEnrolledStudentsException index reach it maximum student capacity, the student is wait listed instead
+     * and the wait listing is durable once {@link WriteBehindPersister#flush()} completes
+     * @throws InsufficientAUsException not enough AUs to add course
+     * @throws ClashingTimeTableException index will result in clashing time table
+     * @return CompletableFuture that completes when the registration is durable
      */
     @Override
-    public void addRegistration(RegistrationKey registrationKey) throws IOException, ClassNotFoundException, ExistingCourseException, ExistingUserException, NonExistentUserException, MaxEnrolledStudentsException {
-        registrations.put(registrationKey, new Date().getTime());
-        persist();
+    public CompletableFuture<Void> addRegistration(RegistrationKey registrationKey) throws IOException, ClassNotFoundException, ExistingCourseException, ExistingUserException, NonExistentUserException, MaxEnrolledStudentsException, InsufficientAUsException, ClashingTimeTableException {
+        ReentrantLock courseLock = StripedLocks.COURSES.get(registrationKey.getCourseCode().toLowerCase());
+        courseLock.lock();
+        try {
+            ReentrantLock studentLock = StripedLocks.STUDENTS.get(registrationKey.getMatricNumber());
+            studentLock.lock();
+            try {
+                //checked with the student locked, as the student may have added courses since the caller checked
+                IReadWriteCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+                Course course = courseDataAccessObject.getCourse(registrationKey.getCourseCode());
+                Student student = Factory.getTextUserDataAccessObject(this).getStudent(registrationKey.getMatricNumber());
+                if (student.getMaxAUs() - student.getTotalRegisteredAUs() < course.getAUs()) {
+                    throw new InsufficientAUsException();
+                }
+                Map<String, Integer> registeredIndexes = new HashMap<>(student.getRegisteredCourses());
+                registeredIndexes.putAll(student.getWaitingListCourses());
+                if (courseDataAccessObject.getClashMatrix().isClashing(registrationKey.getCourseCode(),
+                        registrationKey.getIndexNumber(), registeredIndexes)) {
+                    throw new ClashingTimeTableException();
+                }
+                return enroll(registrationKey);
+            } finally {
+                studentLock.unlock();
+            }
+        } finally {
+            courseLock.unlock();
+        }
+    }
 
-        //enroll student
-        IReadWriteCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
-        Course course = courseDataAccessObject.getCourse(registrationKey.getCourseCode());
-        Index index = course.getIndex(registrationKey.getIndexNumber());
-        String waitingListStudent =  index.enrollStudent(registrationKey.getMatricNumber());
+    /**
+     * Register student to a course index without checking their AUs and time table,
+     * as when a student on the waiting list is given a vacancy
+     * @param registrationKey RegistrationKey object that contains student matric number, course code and index
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException class is not defined in project
+     * @throws ExistingCourseException course already exists
+     * @throws ExistingUserException  user already exists
+     * @throws NonExistentUserException user does not exist
+     * @throws MaxEnrolledStudentsException index reach it maximum student capacity, the student is wait listed instead
+     * @return CompletableFuture that completes when the registration is durable
+     */
+    private CompletableFuture<Void> enroll(RegistrationKey registrationKey) throws IOException, ClassNotFoundException, ExistingCourseException, ExistingUserException, NonExistentUserException, MaxEnrolledStudentsException {
+        UnitOfWork unitOfWork = Factory.createUnitOfWork();
+        unitOfWork.add(new RegistrationLog.Entry(RegistrationLog.ADD, registrationKey, new Date().getTime()));
 
-        course.updateIndex(index);
-        courseDataAccessObject.updateCourse(course);
-        IReadWriteUserDataAccessObject userDataAccess = Factory.getTextUserDataAccessObject(this);
-        Student student = userDataAccess.getStudent(registrationKey.getMatricNumber());
+        //registrations to the same course wait for each other, registrations to other courses run in parallel
+        ReentrantLock courseLock = StripedLocks.COURSES.get(registrationKey.getCourseCode().toLowerCase());
+        courseLock.lock();
+        try {
+            //enroll student
+            IReadWriteCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+            Course course = courseDataAccessObject.getCourse(registrationKey.getCourseCode());
+            Index index = course.getIndex(registrationKey.getIndexNumber());
+            String waitingListStudent =  index.enrollStudent(registrationKey.getMatricNumber());
 
-        if (waitingListStudent != null) {
+            course.updateIndex(index);
+            courseDataAccessObject.updateCourse(course, unitOfWork);
 
-            //update student info
-            student.registerWaitListCourse(registrationKey.getCourseCode(), registrationKey.getIndexNumber());
-            userDataAccess.updateStudent(student);
-            throw new MaxEnrolledStudentsException();
-        } else {
+            ReentrantLock studentLock = StripedLocks.STUDENTS.get(registrationKey.getMatricNumber());
+            studentLock.lock();
+            try {
+                IReadWriteUserDataAccessObject userDataAccess = Factory.getTextUserDataAccessObject(this);
+                Student student = userDataAccess.getStudent(registrationKey.getMatricNumber());
 
-            //update student info
-            student.registerCourse(registrationKey.getCourseCode(), registrationKey.getIndexNumber());
-            student.registerAUs(course.getAUs());
-            userDataAccess.updateStudent(student);
+                if (waitingListStudent != null) {
+
+                    //update student info
+                    student.registerWaitListCourse(registrationKey.getCourseCode(), registrationKey.getIndexNumber());
+                    userDataAccess.updateStudent(student, unitOfWork);
+                    unitOfWork.commit();
+                    throw new MaxEnrolledStudentsException();
+                } else {
+
+                    //update student info
+                    student.registerCourse(registrationKey.getCourseCode(), registrationKey.getIndexNumber());
+                    student.registerAUs(course.getAUs());
+                    userDataAccess.updateStudent(student, unitOfWork);
+                    return unitOfWork.commit();
+                }
+            } finally {
+                studentLock.unlock();
+            }
+        } finally {
+            courseLock.unlock();
         }
     }
 
@@ -177,10 +527,10 @@ public class TextRegistrationDataAccessObject implements Serializable, IReadWrit
      * @param registrationKey RegistrationPeriod object that contains student matric number, course code and index
      * @see HelperObject.Factory#getTextCourseDataAccessObject(ConsoleAdminSession)
      * @see DataAccessObject.IReadWriteCourseDataAccessObject#getCourse(String)
-     * @see DataAccessObject.IReadWriteCourseDataAccessObject#updateCourse(Course)
+     * @see DataAccessObject.IReadWriteCourseDataAccessObject#updateCourse(Course, UnitOfWork)
      *
      * @see HelperObject.Factory#getTextUserDataAccessObject(ConsoleAdminSession)
-     * @see DataAccessObject.IReadWriteUserDataAccessObject#updateStudent(Student)
+     * @see DataAccessObject.IReadWriteUserDataAccessObject#updateStudent(Student, UnitOfWork)
      * @see DataAccessObject.IReadWriteUserDataAccessObject#getStudent(String)
      *
      * @see ValueObject.RegistrationKey#getCourseCode()
@@ -208,37 +558,315 @@ public class TextRegistrationDataAccessObject implements Serializable, IReadWrit
      * @throws ExistingCourseException course already exists
      * @throws MaxEnrolledStudentsException index reach it maximum student capacity
      * @throws ExistingUserException user already exist
+     * @return CompletableFuture that completes when the deletion, and the registration of the wait listed student
+     * given the vacancy, are durable
      */
     @Override
-    public void deleteRegistration(RegistrationKey registrationKey) throws IOException, ClassNotFoundException, NonExistentUserException, NonExistentCourseException, ExistingCourseException, MaxEnrolledStudentsException, ExistingUserException {
-        registrations.remove(registrationKey);
+    public CompletableFuture<Void> deleteRegistration(RegistrationKey registrationKey) throws IOException, ClassNotFoundException, NonExistentUserException, NonExistentCourseException, ExistingCourseException, MaxEnrolledStudentsException, ExistingUserException {
+        UnitOfWork unitOfWork = Factory.createUnitOfWork();
 
+        //registrations to the same course wait for each other, registrations to other courses run in parallel
+        ReentrantLock courseLock = StripedLocks.COURSES.get(registrationKey.getCourseCode().toLowerCase());
+        IReadWriteUserDataAccessObject userDataAccessObject = Factory.getTextUserDataAccessObject(this);
+        Course course;
+        Index index;
+        String waitingListStudentMatricNumber;
+        CompletableFuture<Void> durable;
+        courseLock.lock();
+        try {
+            IReadWriteCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+            course = courseDataAccessObject.getCourse(registrationKey.getCourseCode());
+            index = course.getIndex(registrationKey.getIndexNumber());
+            //drops course even when student is in waiting list for it, which holds no seat and no AUs
+            boolean waitListed = index.getWaitingList().contains(registrationKey.getMatricNumber());
+            unitOfWork.add(new RegistrationLog.Entry(RegistrationLog.DELETE, registrationKey, new Date().getTime()));
+            waitingListStudentMatricNumber = index.dropStudent(registrationKey.getMatricNumber());
+            course.updateIndex(index);
+            courseDataAccessObject.updateCourse(course, unitOfWork);
+
+            //update student
+            ReentrantLock studentLock = StripedLocks.STUDENTS.get(registrationKey.getMatricNumber());
+            studentLock.lock();
+            try {
+                Student student = userDataAccessObject.getStudent(registrationKey.getMatricNumber());
+                student.deregisterCourse(registrationKey.getCourseCode());
+                if (!waitListed) {
+                    student.deregisterAUs(course.getAUs());
+                }
+                userDataAccessObject.updateStudent(student, unitOfWork);
+                durable = unitOfWork.commit();
+            } finally {
+                //released before the waiting list student is locked, so that a thread never holds two student locks
+                studentLock.unlock();
+            }
+
+            //add course for waiting list student before another registration can take the vacancy
+            if (waitingListStudentMatricNumber != null) {
+                RegistrationKey newRegistrationKey = Factory.createRegistrationKey(waitingListStudentMatricNumber,
+                        registrationKey.getCourseCode(),
+                        registrationKey.getIndexNumber());
+                durable = CompletableFuture.allOf(durable, enroll(newRegistrationKey));
+            }
+        } finally {
+            courseLock.unlock();
+        }
+
+        //the email is sent without holding the course lock
+        if (waitingListStudentMatricNumber != null) {
+            sendRegisteredEmail(waitingListStudentMatricNumber, course, index.getIndexNumber());
+        }
+        return durable;
+    }
+
+    /**
+     * Registers the students at the top of the waiting list of an index that are owed the seats added to it
+     * They are registered as when a student drops the index, before another registration can take the seats.
+     * @param courseCode String that represents the course code
+     * @param indexNumber Integer that represents the index number
+     * @param seats Integer that represents the number of seats owed, as returned by {@link Index#setMaxClassSize(int)}
+     * @see EntityObject.Index#setMaxClassSize(int)
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException class is not defined in project
+     * @throws NonExistentCourseException course does not exist
+     * @throws ExistingCourseException course already exists
+     * @throws ExistingUserException user already exist
+     * @throws NonExistentUserException user does not exist
+     * @throws MaxEnrolledStudentsException index reach it maximum student capacity
+     * @return CompletableFuture that completes when the registrations are durable
+     */
+    @Override
+    public CompletableFuture<Void> registerWaitingList(String courseCode, int indexNumber, int seats) throws IOException, ClassNotFoundException, NonExistentCourseException, ExistingCourseException, ExistingUserException, NonExistentUserException, MaxEnrolledStudentsException {
+        ReentrantLock courseLock = StripedLocks.COURSES.get(courseCode.toLowerCase());
         IReadWriteCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
-        Course course = courseDataAccessObject.getCourse(registrationKey.getCourseCode());
-        Index index = course.getIndex(registrationKey.getIndexNumber());
-        String waitingListStudentMatricNumber = index.dropStudent(registrationKey.getMatricNumber());
-        course.updateIndex(index);
-        courseDataAccessObject.updateCourse(course);
+        List<String> registered = new ArrayList<>();
+        CompletableFuture<Void> durable = CompletableFuture.completedFuture(null);
+        Course course;
+        courseLock.lock();
+        try {
+            course = courseDataAccessObject.getCourse(courseCode);
+            Queue<String> waitingList = course.getIndex(indexNumber).getWaitingList();
+            while (registered.size() < seats && !waitingList.isEmpty()) {
+                String waitingListStudentMatricNumber = waitingList.peek();
+                RegistrationKey registrationKey = Factory.createRegistrationKey(waitingListStudentMatricNumber,
+                        courseCode, indexNumber);
+                durable = CompletableFuture.allOf(durable, enroll(registrationKey));
+                registered.add(waitingListStudentMatricNumber);
+                //read again, as the index is replaced by each registration
+                course = courseDataAccessObject.getCourse(courseCode);
+                waitingList = course.getIndex(indexNumber).getWaitingList();
+            }
+        } finally {
+            courseLock.unlock();
+        }
+
+        //the emails are sent without holding the course lock
+        for (String matricNumber : registered) {
+            sendRegisteredEmail(matricNumber, course, indexNumber);
+        }
+        return durable;
+    }
 
-        //update student
+    /**
+     * Moves a student to another index of a course, in one change of the course and the student
+     * The student is put on the waiting list of the new index if it is full, and the student at the top of the waiting
+     * list of the old index is registered if the seat given up is owed to them.
+     * Nobody else registers to the course in between, so no one can take the seat given up or the seat wanted.
+     * @param registrationKey RegistrationKey object that contains student matric number, course code and the current index
+     * @param newIndexNumber Integer that represents the index number to move to
+     * @see EntityObject.Index#dropStudent(String)
+     * @see EntityObject.Index#enrollStudent(String)
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException class is not defined in project
+     * @throws NonExistentRegistrationException student is not registered to the current index
+     * @throws NonExistentUserException user does not exist
+     * @throws NonExistentCourseException course does not exist
+     * @throws ExistingCourseException course already exists
+     * @throws ExistingUserException user already exist
+     * @throws ClashingTimeTableException new index will result in clashing time table, nothing is changed
+     * @throws MaxEnrolledStudentsException new index reach it maximum student capacity, the student is wait listed
+     * instead and the change is durable once {@link WriteBehindPersister#flush()} completes
+     * @return CompletableFuture that completes when the change, and the registration of the wait listed student
+     * given the vacancy, are durable
+     */
+    @Override
+    public CompletableFuture<Void> changeIndex(RegistrationKey registrationKey, int newIndexNumber) throws IOException, ClassNotFoundException, NonExistentRegistrationException, NonExistentUserException, NonExistentCourseException, ExistingCourseException, ExistingUserException, ClashingTimeTableException, MaxEnrolledStudentsException {
+        String matricNumber = registrationKey.getMatricNumber();
+        String courseCode = registrationKey.getCourseCode();
+        UnitOfWork unitOfWork = Factory.createUnitOfWork();
         IReadWriteUserDataAccessObject userDataAccessObject = Factory.getTextUserDataAccessObject(this);
-        Student student = userDataAccessObject.getStudent(registrationKey.getMatricNumber());
-        student.deregisterCourse(registrationKey.getCourseCode());
-        student.deregisterAUs(course.getAUs());
-        userDataAccessObject.updateStudent(student);
+        Course course;
+        String waitingListStudentMatricNumber;
+        boolean waitListed;
+        CompletableFuture<Void> durable;
+
+        ReentrantLock courseLock = StripedLocks.COURSES.get(courseCode.toLowerCase());
+        courseLock.lock();
+        try {
+            IReadWriteCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+            course = courseDataAccessObject.getCourse(courseCode);
+            ReentrantLock studentLock = StripedLocks.STUDENTS.get(matricNumber);
+            studentLock.lock();
+            try {
+                Student student = userDataAccessObject.getStudent(matricNumber);
+                Integer registeredIndexNumber = student.getRegisteredCourses().get(courseCode);
+                if (registeredIndexNumber == null || registeredIndexNumber != registrationKey.getIndexNumber()) {
+                    throw new NonExistentRegistrationException();
+                }
+                if (isClashingWithOtherCourses(student, courseCode, newIndexNumber)) {
+                    throw new ClashingTimeTableException();
+                }
+
+                //the registration of the student for the course is replaced
+                unitOfWork.add(new RegistrationLog.Entry(RegistrationLog.ADD,
+                        Factory.createRegistrationKey(matricNumber, courseCode, newIndexNumber), new Date().getTime()));
+                Index index = course.getIndex(registrationKey.getIndexNumber());
+                Index newIndex = course.getIndex(newIndexNumber);
+                waitingListStudentMatricNumber = index.dropStudent(matricNumber);
+                waitListed = newIndex.enrollStudent(matricNumber) != null;
+                course.updateIndex(index);
+                course.updateIndex(newIndex);
+                courseDataAccessObject.updateCourse(course, unitOfWork);
+
+                student.deregisterCourse(courseCode);
+                if (waitListed) {
+                    student.registerWaitListCourse(courseCode, newIndexNumber);
+                    student.deregisterAUs(course.getAUs());
+                } else {
+                    student.registerCourse(courseCode, newIndexNumber);
+                }
+                userDataAccessObject.updateStudent(student, unitOfWork);
+                durable = unitOfWork.commit();
+            } finally {
+                studentLock.unlock();
+            }
+
+            //add course for waiting list student before another registration can take the vacancy
+            if (waitingListStudentMatricNumber != null) {
+                durable = CompletableFuture.allOf(durable, enroll(Factory.createRegistrationKey(
+                        waitingListStudentMatricNumber, courseCode, registrationKey.getIndexNumber())));
+            }
+        } finally {
+            courseLock.unlock();
+        }
 
-        //add course for waiting list student
         if (waitingListStudentMatricNumber != null) {
-            RegistrationKey newRegistrationKey = Factory.createRegistrationKey(waitingListStudentMatricNumber,
-                    registrationKey.getCourseCode(),
-                    registrationKey.getIndexNumber());
-            addRegistration(newRegistrationKey);
+            sendRegisteredEmail(waitingListStudentMatricNumber, course, registrationKey.getIndexNumber());
+        }
+        if (waitListed) {
+            throw new MaxEnrolledStudentsException();
+        }
+        return durable;
+    }
 
-            String waitingListStudentEmail = userDataAccessObject.getStudent(waitingListStudentMatricNumber).getEmail();
-            IMessenger messenger = Factory.createEmailMessenger(waitingListStudentEmail);
-            messenger.sendMessage("Course registered",
-                    "Waiting list course " + course.getCourseCode() + ' ' +  course.getCourseName() + " index: "
-                            + index.getIndexNumber() + " successfully added.\nPlease log in to check your STARS");
+    /**
+     * Swaps the indexes of two students registered to different indexes of a course, in one change of the course
+     * and both students. The students keep their seats, so the vacancies and waiting lists are not changed
+     * @param registrationKey RegistrationKey object that contains student matric number, course code and index
+     * @param peerRegistrationKey RegistrationKey object that contains the peer's matric number, course code and index
+     * @see EntityObject.Index#replaceStudent(String, String)
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException class is not defined in project
+     * @throws NonExistentRegistrationException either student is not registered to the index
+     * @throws NonExistentUserException user does not exist
+     * @throws NonExistentCourseException course does not exist
+     * @throws ExistingCourseException course already exists
+     * @throws ExistingUserException user already exist
+     * @throws ClashingTimeTableException either index will result in clashing time table, nothing is changed
+     * @return CompletableFuture that completes when the swap is durable
+     */
+    @Override
+    public CompletableFuture<Void> swapIndex(RegistrationKey registrationKey, RegistrationKey peerRegistrationKey) throws IOException, ClassNotFoundException, NonExistentRegistrationException, NonExistentUserException, NonExistentCourseException, ExistingCourseException, ExistingUserException, ClashingTimeTableException {
+        String courseCode = registrationKey.getCourseCode();
+        if (!courseCode.equalsIgnoreCase(peerRegistrationKey.getCourseCode())) {
+            throw new IllegalArgumentException("indexes of different courses cannot be swapped");
+        }
+        String matricNumber = registrationKey.getMatricNumber();
+        String peerMatricNumber = peerRegistrationKey.getMatricNumber();
+        UnitOfWork unitOfWork = Factory.createUnitOfWork();
+
+        ReentrantLock courseLock = StripedLocks.COURSES.get(courseCode.toLowerCase());
+        courseLock.lock();
+        try {
+            ReentrantLock[] studentLocks = StripedLocks.STUDENTS.get(matricNumber, peerMatricNumber);
+            for (ReentrantLock studentLock : studentLocks) {
+                studentLock.lock();
+            }
+            try {
+                IReadWriteCourseDataAccessObject courseDataAccessObject = Factory.getTextCourseDataAccessObject(this);
+                IReadWriteUserDataAccessObject userDataAccessObject = Factory.getTextUserDataAccessObject(this);
+                Course course = courseDataAccessObject.getCourse(courseCode);
+                Student student = userDataAccessObject.getStudent(matricNumber);
+                Student peer = userDataAccessObject.getStudent(peerMatricNumber);
+                Integer indexNumber = student.getRegisteredCourses().get(courseCode);
+                Integer peerIndexNumber = peer.getRegisteredCourses().get(courseCode);
+                if (indexNumber == null || indexNumber != registrationKey.getIndexNumber()
+                        || peerIndexNumber == null || peerIndexNumber != peerRegistrationKey.getIndexNumber()) {
+                    throw new NonExistentRegistrationException();
+                }
+                if (isClashingWithOtherCourses(student, courseCode, peerIndexNumber)
+                        || isClashingWithOtherCourses(peer, courseCode, indexNumber)) {
+                    throw new ClashingTimeTableException();
+                }
+
+                //the registrations of the students for the course are replaced
+                unitOfWork.add(new RegistrationLog.Entry(RegistrationLog.ADD,
+                        Factory.createRegistrationKey(matricNumber, courseCode, peerIndexNumber), new Date().getTime()));
+                unitOfWork.add(new RegistrationLog.Entry(RegistrationLog.ADD,
+                        Factory.createRegistrationKey(peerMatricNumber, courseCode, indexNumber), new Date().getTime()));
+                Index index = course.getIndex(indexNumber);
+                Index peerIndex = course.getIndex(peerIndexNumber);
+                index.replaceStudent(matricNumber, peerMatricNumber);
+                peerIndex.replaceStudent(peerMatricNumber, matricNumber);
+                course.updateIndex(index);
+                course.updateIndex(peerIndex);
+                courseDataAccessObject.updateCourse(course, unitOfWork);
+
+                student.deregisterCourse(courseCode);
+                student.registerCourse(courseCode, peerIndexNumber);
+                userDataAccessObject.updateStudent(student, unitOfWork);
+                peer.deregisterCourse(courseCode);
+                peer.registerCourse(courseCode, indexNumber);
+                userDataAccessObject.updateStudent(peer, unitOfWork);
+                return unitOfWork.commit();
+            } finally {
+                for (int i = studentLocks.length - 1; i >= 0; i--) {
+                    studentLocks[i].unlock();
+                }
+            }
+        } finally {
+            courseLock.unlock();
         }
     }
+
+    /**
+     * Determines if an index of a course would clash with the other courses of a student, registered or wait listed
+     * @param student Student object, locked by the caller
+     * @param courseCode String that represents the course code, whose index the student holds is left out
+     * @param indexNumber Integer that represents the index number
+     * @return A boolean that is true if there is a clash
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException class is not defined in project
+     */
+    private boolean isClashingWithOtherCourses(Student student, String courseCode, int indexNumber) throws IOException, ClassNotFoundException {
+        Map<String, Integer> otherIndexes = new HashMap<>(student.getRegisteredCourses());
+        otherIndexes.putAll(student.getWaitingListCourses());
+        otherIndexes.remove(courseCode);
+        return Factory.getTextCourseDataAccessObject(this).getClashMatrix().isClashing(courseCode, indexNumber, otherIndexes);
+    }
+
+    /**
+     * Emails a student on a waiting list who was registered to the index given the vacancy
+     * @param matricNumber String that represents the matric number of the student
+     * @param course Course object
+     * @param indexNumber Integer that represents the index number
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException class is not defined in project
+     */
+    private void sendRegisteredEmail(String matricNumber, Course course, int indexNumber) throws IOException, ClassNotFoundException {
+        String waitingListStudentEmail = Factory.getTextUserDataAccessObject(this).getStudent(matricNumber).getEmail();
+        IMessenger messenger = Factory.createEmailMessenger(waitingListStudentEmail);
+        messenger.sendMessage("Course registered",
+                "Waiting list course " + course.getCourseCode() + ' ' +  course.getCourseName() + " index: "
+                        + indexNumber + " successfully added.\nPlease log in to check your STARS");
+    }
 }
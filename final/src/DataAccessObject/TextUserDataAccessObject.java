@@ -3,29 +3,211 @@ package DataAccessObject;
 import EntityObject.Staff;
 import Exception.ExistingUserException;
 import Exception.NonExistentUserException;
+import Exception.StaleVersionException;
 import HelperObject.PasswordStorage;
 import EntityObject.AbstractUser;
 import EntityObject.Student;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.TreeMap;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * text version of user data access object
+ * <p>
+ * Every student is stored in its own segment file in ./data/users, named after its matric number,
+ * and a credentials file in the same directory holds the username, password hash and matric number of every student
+ * together with all staff. The credentials file is kept resident, so authenticating a user reads no segment.
+ * <p>
+ * A student is decoded from its segment the first time it is asked for and kept in a cache that is bounded by
+ * the estimated memory footprint of the cached students, stars.users.cacheBytes bytes (16 MiB by default),
+ * evicting the least recently used student that has no unwritten changes.
+ * With stars.users.lazy set to false every segment is read in parallel when the users are loaded instead.
  */
 public class TextUserDataAccessObject implements Serializable, IReadWriteUserDataAccessObject {
     /**
      * TreeMap of login information of users in STARS
      * Contains username in String and AbstractUser object
+     * Only used for the users database file of all users
      */
     private final TreeMap<String, AbstractUser> loginInformation = new TreeMap<>();
+    /**
+     * HashMap of student matric numbers and the usernames of the students
+     */
+    private transient HashMap<String, String> matricNumbers = new HashMap<>();
     /**
      * A null instance of TextUserDataAccess
      */
-    private static TextUserDataAccessObject instance = null;
+    private static volatile TextUserDataAccessObject instance = null;
+    /**
+     * Lock held while the database files are read, so that concurrent callers read them once
+     */
+    private static final Object initializationLock = new Object();
+    /**
+     * Directory containing the credentials file and the student segments
+     */
+    private static final Path SEGMENT_DIRECTORY = Paths.get("./data/users");
+    /**
+     * Credentials file, read once and kept resident
+     */
+    private static final DataFile credentialsFile = new DataFile(SEGMENT_DIRECTORY.resolve("credentials.dat").toString(),
+            null, TextUserDataAccessObject::decodeCredentials);
+    /**
+     * Users database file of all users, read once to split it into segments
+     */
+    private static final DataFile legacyFile = new DataFile("./data/Users.dat", "./data/Users.ser",
+            TextUserDataAccessObject::decode);
+    /**
+     * true if students are decoded when they are first asked for, false if all students are decoded when loaded
+     */
+    private static final boolean LAZY = Boolean.parseBoolean(System.getProperty("stars.users.lazy", "true"));
+    /**
+     * Estimated number of bytes of students kept decoded
+     */
+    private static final long CACHE_BYTES = LAZY ? Long.getLong("stars.users.cacheBytes", 16L << 20) : Long.MAX_VALUE;
+    /**
+     * Estimated number of bytes of a student without its strings and course indexes
+     */
+    private static final int STUDENT_BYTES = 160;
+    /**
+     * Estimated number of bytes of a string without its characters
+     */
+    private static final int STRING_BYTES = 56;
+    /**
+     * Estimated number of bytes of a course index of a student without its course code
+     */
+    private static final int COURSE_INDEX_BYTES = 64 + STRING_BYTES;
+    /**
+     * Serialized ID that is tagged to the data access object
+     */
+    private static final long serialVersionUID = -6180066537921441886L;
+    /**
+     * Last version given to any student, so that no two stores of students are given the same version
+     */
+    private static final AtomicLong versions = new AtomicLong();
+    /**
+     * Sequence number of the last registration log record included when the credentials file was written to file
+     */
+    private long logSequence = 0;
+    /**
+     * Credentials of all users by username
+     */
+    private transient HashMap<String, Credential> credentials = new HashMap<>();
+    /**
+     * Decoded students by matric number, from least to most recently used
+     */
+    private transient LinkedHashMap<String, CachedStudent> cache = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Estimated number of bytes of the students in the cache
+     */
+    private transient long cachedBytes = 0;
+    /**
+     * Latest record in the registration log for each student that is not decoded yet,
+     * used instead of the segment if it is newer
+     */
+    private transient HashMap<String, RegistrationLog.Entry> pendingChanges = new HashMap<>();
+    /**
+     * Matric numbers of students changed since their segments were written, which are never evicted
+     */
+    private transient HashSet<String> dirtyStudents = new HashSet<>();
+    /**
+     * true if users were added, or credentials changed, since the credentials file was written
+     */
+    private transient boolean credentialsDirty = false;
+    /**
+     * Number of students found in the cache
+     */
+    private transient long cacheHits = 0;
+    /**
+     * Number of students decoded from their segments
+     */
+    private transient long cacheMisses = 0;
+    /**
+     * Number of students evicted from the cache
+     */
+    private transient long cacheEvictions = 0;
+
+    /**
+     * Login information of a user that is kept resident
+     */
+    private static class Credential {
+        /**
+         * Hash of the password of the user
+         */
+        final String hash;
+        /**
+         * Matric number of the student, or null if the user is staff
+         */
+        final String matricNumber;
+        /**
+         * Staff object, or null if the user is a student
+         */
+        final Staff staff;
+
+        /**
+         * Creates a credential
+         * @param hash String that represents the password hash
+         * @param matricNumber String that represents the student matric number, or null
+         * @param staff Staff object, or null
+         */
+        Credential(String hash, String matricNumber, Staff staff) {
+            this.hash = hash;
+            this.matricNumber = matricNumber;
+            this.staff = staff;
+        }
+    }
+
+    /**
+     * A student in the cache together with its estimated size
+     */
+    private static class CachedStudent {
+        /**
+         * Student object
+         */
+        final Student student;
+        /**
+         * Estimated number of bytes of the student when it was cached
+         */
+        final long size;
+
+        /**
+         * Creates a cached student
+         * @param student Student object
+         */
+        CachedStudent(Student student) {
+            this.student = student;
+            this.size = estimateSize(student);
+        }
+    }
+
+    /**
+     * A student segment as it is stored in its file
+     */
+    private static class Segment {
+        /**
+         * Sequence number of the last registration log record included when the segment was written
+         */
+        final long logSequence;
+        /**
+         * Student stored in the segment
+         */
+        final Student student;
+
+        /**
+         * Creates a segment
+         * @param logSequence Long that represents the sequence number of the registration log
+         * @param student Student object
+         */
+        Segment(long logSequence, Student student) {
+            this.logSequence = logSequence;
+            this.student = student;
+        }
+    }
 
     /**
      * A private Constructor that prevents any other class from instantiating
@@ -37,51 +219,357 @@ public class TextUserDataAccessObject implements Serializable, IReadWriteUserDat
 
     /**
      * Static 'instance' method
+     * The database files are only read on the first call, or when the credentials have been changed by another process
      * @return An instance of this class
      * @throws IOException cannot find file
      * @throws ClassNotFoundException Class does not exist
      */
     public static TextUserDataAccessObject getInstance() throws IOException, ClassNotFoundException{
-        initialize();
-        if(instance == null){
-            instance = new TextUserDataAccessObject();
+        if (instance == null || isChangedElsewhere()) {
+            synchronized (initializationLock) {
+                if (instance == null || isChangedElsewhere()) {
+                    initialize();
+                }
+            }
         }
         return instance;
     }
 
     /**
-     * Reads in serialized Users database file
+     * Checks if the database files or the registration log have been changed by another process since they were read.
+     * Changes not written yet are never discarded, so they are not reread until the changes are written.
+     * @return A boolean that is true if they should be read again
+     */
+    private static boolean isChangedElsewhere() {
+        return (credentialsFile.isModified() || RegistrationLog.getInstance().isModified(TextUserDataAccessObject.class))
+                && !WriteBehindPersister.getInstance().isPending(credentialsFile);
+    }
+
+    /**
+     * Discards the resident copy and reads in the users database files again
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException Class does not exist
+     */
+    public static void reload() throws IOException, ClassNotFoundException {
+        synchronized (initializationLock) {
+            initialize();
+        }
+    }
+
+    /**
+     * Reads in the credentials file and collects the students written to the registration log since.
+     * If there is no credentials file yet, the users database file of all users is read and split into segments.
      * @throws IOException cannot find file
      * @throws ClassNotFoundException Class does not exist
      */
     private static void initialize() throws IOException, ClassNotFoundException {
-        InputStream file = new FileInputStream("./data/Users.ser");
-        InputStream buffer = new BufferedInputStream(file);
-        ObjectInput input = new ObjectInputStream(buffer);
+        RegistrationLog registrationLog = RegistrationLog.getInstance();
+        boolean split = !credentialsFile.exists();
+        TextUserDataAccessObject dataAccessObject = split ? readUsers() : (TextUserDataAccessObject) credentialsFile.read();
+        synchronized (registrationLog) {
+            registrationLog.advanceTo(dataAccessObject.logSequence);
+            for (RegistrationLog.Entry entry : registrationLog.replay(TextUserDataAccessObject.class)) {
+                if (entry.type != RegistrationLog.STUDENT) {
+                    continue;
+                }
+                String matricNumber = ((Student) entry.value).getMatricNumber();
+                if (dataAccessObject.matricNumbers.containsKey(matricNumber) && !dataAccessObject.cache.containsKey(matricNumber)) {
+                    //compared with the segment when the student is decoded
+                    dataAccessObject.pendingChanges.put(matricNumber, entry);
+                } else if (entry.sequence > dataAccessObject.logSequence) {
+                    dataAccessObject.apply(entry);
+                }
+            }
+            instance = dataAccessObject;
+        }
+        if (split) {
+            persist();
+        } else if (!LAZY) {
+            instance.decodeAll(instance.getAllStudentMatricNumbers());
+        }
+    }
 
-        instance = (TextUserDataAccessObject) input.readObject();
+    /**
+     * Reads in the users database file of all users and marks every student to be written to its segment
+     * @return TextUserDataAccessObject object
+     * @throws IOException cannot find file
+     * @throws ClassNotFoundException Class does not exist
+     */
+    private static TextUserDataAccessObject readUsers() throws IOException, ClassNotFoundException {
+        TextUserDataAccessObject users = (TextUserDataAccessObject) legacyFile.read();
+        TextUserDataAccessObject dataAccessObject = new TextUserDataAccessObject();
+        dataAccessObject.logSequence = users.logSequence;
+        for (AbstractUser user : users.loginInformation.values()) {
+            dataAccessObject.putUser(user);
+        }
+        dataAccessObject.credentialsDirty = true;
+        return dataAccessObject;
     }
 
     /**
-     * Writes/update into serialized Users database file
-     *
+     * Decodes the segments of students that are not decoded yet, in parallel
+     * @param matricNumbers List of student matric numbers
+     * @throws IOException cannot find file
+     */
+    private void decodeAll(List<String> matricNumbers) throws IOException {
+        try {
+            matricNumbers.parallelStream().forEach(this::getStudent);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Puts a student decoded from its segment into the cache,
+     * unless a newer version of it was written to the registration log
+     * @param matricNumber String that represents student matric number
+     * @param segment Segment read from file
+     * @return Student object in the cache
+     */
+    private Student decoded(String matricNumber, Segment segment) {
+        RegistrationLog registrationLog = RegistrationLog.getInstance();
+        synchronized (registrationLog) {
+            CachedStudent cached = cache.get(matricNumber);
+            if (cached != null) {
+                return cached.student;
+            }
+            registrationLog.advanceTo(segment.logSequence);
+            cacheMisses++;
+            Student student = segment.student;
+            RegistrationLog.Entry pendingChange = pendingChanges.remove(matricNumber);
+            if (pendingChange != null && pendingChange.sequence > segment.logSequence) {
+                student = (Student) pendingChange.value;
+                dirtyStudents.add(matricNumber);
+            }
+            cacheStudent(student);
+            evict();
+            return student;
+        }
+    }
+
+    /**
+     * Puts a student into the cache, replacing the cached version of it
+     * @param student Student object
+     */
+    private void cacheStudent(Student student) {
+        CachedStudent cached = new CachedStudent(student);
+        CachedStudent replaced = cache.put(student.getMatricNumber(), cached);
+        cachedBytes += cached.size - (replaced == null ? 0 : replaced.size);
+    }
+
+    /**
+     * Evicts the least recently used students without unwritten changes
+     * until the cache is within CACHE_BYTES
+     */
+    private void evict() {
+        Iterator<CachedStudent> leastRecentlyUsed = cache.values().iterator();
+        while (cachedBytes > CACHE_BYTES && leastRecentlyUsed.hasNext()) {
+            CachedStudent cached = leastRecentlyUsed.next();
+            if (!dirtyStudents.contains(cached.student.getMatricNumber())) {
+                leastRecentlyUsed.remove();
+                cachedBytes -= cached.size;
+                cacheEvictions++;
+            }
+        }
+    }
+
+    /**
+     * Estimates the number of bytes a student takes up in memory
+     * @param student Student object
+     * @return Long that represents the estimated size
+     */
+    private static long estimateSize(Student student) {
+        long size = STUDENT_BYTES;
+        for (String string : new String[]{student.getUsername(), student.getHash(), student.getName(),
+                student.getEmail(), student.getMatricNumber()}) {
+            size += STRING_BYTES + (string == null ? 0 : string.length());
+        }
+        for (String courseCode : student.getRegisteredCourses().keySet()) {
+            size += COURSE_INDEX_BYTES + courseCode.length();
+        }
+        for (String courseCode : student.getWaitingListCourses().keySet()) {
+            size += COURSE_INDEX_BYTES + courseCode.length();
+        }
+        return size;
+    }
+
+    /**
+     * Writes the segments of changed students, and the credentials file if users were added.
+     * The files written include every record in the registration log written so far
+     * @throws IOException cannot write file
      */
-    private static void persist(){
-        FileOutputStream fos;
-        ObjectOutputStream out = null;
-        try{
-            fos = new FileOutputStream("./data/Users.ser");
-            out = new ObjectOutputStream(fos);
-            out.writeObject(instance);
+    static synchronized void persist() throws IOException {
+        //students only changed in the registration log must be written before the log is compacted
+        instance.decodeAll(new ArrayList<>(instance.pendingChanges.keySet()));
+
+        LinkedHashMap<String, byte[]> segments = new LinkedHashMap<>();
+        byte[] snapshot = null;
+        RegistrationLog registrationLog = RegistrationLog.getInstance();
+        synchronized (registrationLog) {
+            long sequence = registrationLog.getSequence();
+            for (String matricNumber : instance.dirtyStudents) {
+                segments.put(matricNumber, encodeSegment(sequence, instance.cache.get(matricNumber).student));
+            }
+            if (instance.credentialsDirty) {
+                instance.logSequence = sequence;
+                snapshot = instance.encodeCredentials();
+            }
+            instance.dirtyStudents.clear();
+            instance.credentialsDirty = false;
+        }
+
+        try {
+            Files.createDirectories(SEGMENT_DIRECTORY);
+            //segments of added students are written before the credentials file lists them
+            for (Map.Entry<String, byte[]> segment : segments.entrySet()) {
+                segmentFile(segment.getKey()).write(segment.getValue());
+            }
+            if (snapshot != null) {
+                credentialsFile.write(snapshot);
+            }
         } catch (IOException e) {
-            e.printStackTrace();
-        }finally{
-            try {
-                out.close();
-            } catch (IOException e) {
-                e.printStackTrace();
+            synchronized (registrationLog) {
+                instance.dirtyStudents.addAll(segments.keySet());
+                instance.credentialsDirty |= snapshot != null;
+            }
+            throw e;
+        } finally {
+            synchronized (registrationLog) {
+                instance.evict();
+            }
+        }
+    }
+
+    /**
+     * Gets the segment file of a student
+     * @param matricNumber String that represents student matric number
+     * @return DataFile of the segment
+     */
+    private static DataFile segmentFile(String matricNumber) {
+        return new DataFile(SEGMENT_DIRECTORY.resolve(matricNumber + ".dat").toString(), null,
+                TextUserDataAccessObject::decodeSegment);
+    }
+
+    /**
+     * Encodes a student segment in the format of {@link BinaryCodec}
+     * @param logSequence Long that represents the sequence number of the registration log
+     * @param student Student object
+     * @return byte array of the encoding
+     * @throws IOException cannot encode
+     */
+    private static byte[] encodeSegment(long logSequence, Student student) throws IOException {
+        BinaryCodec.Encoder encoder = new BinaryCodec.Encoder();
+        encoder.writeVarint(logSequence);
+        encoder.writeUser(student);
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Decodes a student segment written by {@link #encodeSegment(long, Student)}
+     * @param bytes byte array of the encoding
+     * @return Segment object
+     * @throws IOException bytes are not a valid encoding
+     */
+    private static Segment decodeSegment(byte[] bytes) throws IOException {
+        BinaryCodec.Decoder decoder = new BinaryCodec.Decoder(bytes);
+        long logSequence = decoder.readVarint();
+        return new Segment(logSequence, (Student) decoder.readUser());
+    }
+
+    /**
+     * Encodes the credentials file in the format of {@link BinaryCodec}
+     * @return byte array of the encoding
+     * @throws IOException cannot encode
+     */
+    private byte[] encodeCredentials() throws IOException {
+        BinaryCodec.Encoder encoder = new BinaryCodec.Encoder();
+        encoder.writeVarint(logSequence);
+        encoder.writeVarint(credentials.size());
+        for (Map.Entry<String, Credential> credential : credentials.entrySet()) {
+            if (credential.getValue().staff != null) {
+                encoder.writeVarint(0);
+                encoder.writeUser(credential.getValue().staff);
+            } else {
+                encoder.writeVarint(1);
+                encoder.writeString(credential.getKey());
+                encoder.writeString(credential.getValue().hash);
+                encoder.writeString(credential.getValue().matricNumber);
+            }
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Decodes a credentials file written by {@link #encodeCredentials()}
+     * @param bytes byte array of the encoding
+     * @return TextUserDataAccessObject object without decoded students
+     * @throws IOException bytes are not a valid encoding
+     */
+    private static TextUserDataAccessObject decodeCredentials(byte[] bytes) throws IOException {
+        BinaryCodec.Decoder decoder = new BinaryCodec.Decoder(bytes);
+        TextUserDataAccessObject dataAccessObject = new TextUserDataAccessObject();
+        dataAccessObject.logSequence = decoder.readVarint();
+        for (int i = decoder.readInt(); i > 0; i--) {
+            if (decoder.readInt() == 0) {
+                Staff staff = (Staff) decoder.readUser();
+                dataAccessObject.credentials.put(staff.getUsername(), new Credential(staff.getHash(), null, staff));
+            } else {
+                String username = decoder.readString();
+                String hash = decoder.readString();
+                String matricNumber = decoder.readString();
+                dataAccessObject.credentials.put(username, new Credential(hash, matricNumber, null));
+                dataAccessObject.matricNumbers.put(matricNumber, username);
             }
         }
+        return dataAccessObject;
+    }
+
+    /**
+     * Encodes the users database file of all users in the format of {@link BinaryCodec}
+     * @return byte array of the encoding
+     * @throws IOException cannot encode
+     */
+    byte[] encode() throws IOException {
+        BinaryCodec.Encoder encoder = new BinaryCodec.Encoder();
+        encoder.writeVarint(logSequence);
+        encoder.writeVarint(loginInformation.size());
+        for (AbstractUser user : loginInformation.values()) {
+            encoder.writeUser(user);
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Decodes the users database file of all users written by {@link #encode()}
+     * @param bytes byte array of the encoding
+     * @return TextUserDataAccessObject object
+     * @throws IOException bytes are not a valid encoding
+     */
+    static TextUserDataAccessObject decode(byte[] bytes) throws IOException {
+        BinaryCodec.Decoder decoder = new BinaryCodec.Decoder(bytes);
+        TextUserDataAccessObject dataAccessObject = new TextUserDataAccessObject();
+        dataAccessObject.logSequence = decoder.readVarint();
+        for (int i = decoder.readInt(); i > 0; i--) {
+            AbstractUser user = decoder.readUser();
+            dataAccessObject.loginInformation.put(user.getUsername(), user);
+        }
+        return dataAccessObject;
+    }
+
+    /**
+     * Marks the users database files to be written by the write-behind persister
+     * @return CompletableFuture that completes when the files have been written
+     */
+    private static CompletableFuture<Void> markDirty() {
+        return WriteBehindPersister.getInstance().markDirty(credentialsFile, TextUserDataAccessObject::persist);
+    }
+
+    /**
+     * Puts a student written to the registration log into the cache
+     * @param change Entry of type RegistrationLog.STUDENT
+     */
+    void apply(RegistrationLog.Entry change) {
+        putUser((Student) change.value);
     }
 
     /**
@@ -91,29 +579,71 @@ public class TextUserDataAccessObject implements Serializable, IReadWriteUserDat
      */
     @Override
     public void updateStudent(Student student) throws NonExistentUserException {
-        HashMap<String, Student> students = getAllStudents();
+        if (!matricNumbers.containsKey(student.getMatricNumber())) {
+            throw new NonExistentUserException();
+        } else {
+            putUser(student);
+            markDirty();
+        }
+    }
 
-        if (!students.containsKey(student.getMatricNumber())) {
+    /**
+     * Overrides existing Student object when the unit of work is committed
+     * @param student Student object
+     * @param unitOfWork UnitOfWork that the change is added to
+     * @throws NonExistentUserException Student does not exist
+     */
+    @Override
+    public void updateStudent(Student student, UnitOfWork unitOfWork) throws NonExistentUserException {
+        if (!matricNumbers.containsKey(student.getMatricNumber())) {
             throw new NonExistentUserException();
         } else {
-            loginInformation.put(student.getUsername(), student);
-            persist();
+            unitOfWork.add(new RegistrationLog.Entry(RegistrationLog.STUDENT, student));
         }
     }
 
+    /**
+     * Overrides existing Student object if nobody has stored the student since the version was read.
+     * Compared and stored under the lock of the student, so it cannot come between the steps of a registration
+     * @param student Student object
+     * @param expectedVersion Long that represents the version of the student the change was made to
+     * @throws NonExistentUserException Student does not exist
+     * @throws StaleVersionException Student was stored since the version was read
+     */
+    @Override
+    public void updateStudent(Student student, long expectedVersion) throws NonExistentUserException, StaleVersionException {
+        ReentrantLock studentLock = StripedLocks.STUDENTS.get(student.getMatricNumber());
+        studentLock.lock();
+        try {
+            Student storedStudent = getStudent(student.getMatricNumber());
+            synchronized (RegistrationLog.getInstance()) {
+                if (storedStudent == null) {
+                    throw new NonExistentUserException();
+                }
+                //a student evicted or replaced since it was read counts as changed, and the caller tries again
+                CachedStudent cached = cache.get(student.getMatricNumber());
+                if (cached == null || cached.student != storedStudent || storedStudent.getVersion() != expectedVersion) {
+                    throw new StaleVersionException();
+                }
+                putUser(student);
+            }
+        } finally {
+            studentLock.unlock();
+        }
+        markDirty();
+    }
+
     /**
      * Add a new student
      * @param student Student object
      */
     @Override
     public void addStudent(Student student) throws ExistingUserException {
-        HashMap<String, Student> students = getAllStudents();
-
-        if (students.containsKey(student.getMatricNumber())) {
+        if (matricNumbers.containsKey(student.getMatricNumber())) {
             throw new ExistingUserException();
         } else {
-            loginInformation.put(student.getUsername(), student);
-            persist();
+            putUser(student);
+            markDirty();
         }
     }
 
@@ -123,41 +653,89 @@ public class TextUserDataAccessObject implements Serializable, IReadWriteUserDat
      */
     @Override
     public void addAdmin(Staff staff) throws ExistingUserException {
-        if (loginInformation.containsKey(staff.getUsername())) {
+        if (credentials.containsKey(staff.getUsername())) {
             throw new ExistingUserException();
         } else {
-            loginInformation.put(staff.getUsername(), staff);
-            persist();
+            putUser(staff);
+            markDirty();
         }
     }
 
     /**
      * Authenticate user
+     * Only the resident credentials are used to verify the password, a student is decoded once verified
      * @param username A String that represents username
      * @param password A String that presents password
      * @return null if authentication fail, AbstractUser object to successful
      */
     @Override
     public AbstractUser authenticate(String username, String password) throws PasswordStorage.InvalidHashException, PasswordStorage.CannotPerformOperationException {
-        AbstractUser user = loginInformation.get(username);
+        Credential credential;
+        synchronized (RegistrationLog.getInstance()) {
+            credential = credentials.get(username);
+        }
 
-        if (user != null) {
-            if (PasswordStorage.verifyPassword(password, user.getHash())) {
-                return user;
+        if (credential != null) {
+            if (PasswordStorage.verifyPassword(password, credential.hash)) {
+                return credential.staff != null ? credential.staff : getStudent(credential.matricNumber);
             }
         }
         return null;
     }
 
     /**
-     * Gets Student object
+     * Gets Student object, decoding it from its segment if it is not in the cache
      * @param matricNumber A String that represents student matric number
      * @return Student object
+     * @throws UncheckedIOException segment of the student cannot be read
      */
     @Override
     public Student getStudent(String matricNumber) {
-        HashMap<String, Student> students = getAllStudents();
-        return students.get(matricNumber);
+        synchronized (RegistrationLog.getInstance()) {
+            CachedStudent cached = cache.get(matricNumber);
+            if (cached != null) {
+                cacheHits++;
+                return cached.student;
+            }
+            if (!matricNumbers.containsKey(matricNumber)) {
+                return null;
+            }
+        }
+        try {
+            return decoded(matricNumber, (Segment) segmentFile(matricNumber).read());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new UncheckedIOException(new IOException(e));
+        }
+    }
+
+    /**
+     * Gets a copy of a Student object that can be changed without other sessions seeing it,
+     * with the version of the student it was copied from.
+     * Copied under the lock of the student, so the copy never holds half of a registration
+     * @param matricNumber A String that represents student matric number
+     * @return Student object that is a copy, or null if the student does not exist
+     * @throws UncheckedIOException student cannot be copied
+     */
+    @Override
+    public Student getStudentCopy(String matricNumber) {
+        ReentrantLock studentLock = StripedLocks.STUDENTS.get(matricNumber);
+        studentLock.lock();
+        try {
+            Student student = getStudent(matricNumber);
+            if (student == null) {
+                return null;
+            }
+            long version = student.getVersion();
+            Student copy = (Student) BinaryCodec.decodeValue(BinaryCodec.encodeValue(student), false);
+            copy.setVersion(version);
+            return copy;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            studentLock.unlock();
+        }
     }
 
     /**
@@ -166,8 +744,9 @@ public class TextUserDataAccessObject implements Serializable, IReadWriteUserDat
      */
     @Override
     public List<String> getAllStudentMatricNumbers() {
-        HashMap<String, Student> students = getAllStudents();
-        return new ArrayList<>(students.keySet());
+        synchronized (RegistrationLog.getInstance()) {
+            return new ArrayList<>(matricNumbers.keySet());
+        }
     }
 
     /**
@@ -177,25 +756,86 @@ public class TextUserDataAccessObject implements Serializable, IReadWriteUserDat
     @Override
     public String studentsInfoToString() {
         StringBuilder str = new StringBuilder();
-        HashMap<String, Student> students = getAllStudents();
-        for (Student existingStudent : students.values()) {
-            str.append(existingStudent.toString()).append('\n');
+        for (String matricNumber : getAllStudentMatricNumbers()) {
+            str.append(getStudent(matricNumber).toString()).append('\n');
         }
         return str.toString();
     }
 
     /**
-     * Gets HashMap of all existing students, contains student matric number in String and Student object
-     * @return HashMap as described above
+     * Gets the number of students found in the cache
+     * @return Long that represents the number of cache hits
      */
-    private HashMap<String, Student> getAllStudents() {
-        HashMap<String, Student> students = new HashMap<>();
-        for (AbstractUser user : loginInformation.values()) {
+    public long getCacheHits() {
+        synchronized (RegistrationLog.getInstance()) {
+            return cacheHits;
+        }
+    }
+
+    /**
+     * Gets the number of students decoded from their segments
+     * @return Long that represents the number of cache misses
+     */
+    public long getCacheMisses() {
+        synchronized (RegistrationLog.getInstance()) {
+            return cacheMisses;
+        }
+    }
+
+    /**
+     * Gets the number of students evicted from the cache
+     * @return Long that represents the number of cache evictions
+     */
+    public long getCacheEvictions() {
+        synchronized (RegistrationLog.getInstance()) {
+            return cacheEvictions;
+        }
+    }
+
+    /**
+     * Gets the estimated number of bytes of the students in the cache
+     * @return Long that represents the estimated size of the cache
+     */
+    public long getCachedBytes() {
+        synchronized (RegistrationLog.getInstance()) {
+            return cachedBytes;
+        }
+    }
+
+    /**
+     * Append the metrics of the student cache to a String
+     * @return A String as described above
+     */
+    public String cacheStatisticsToString() {
+        synchronized (RegistrationLog.getInstance()) {
+            return String.format("students cached: %d (%d of %d bytes), hits: %d, misses: %d, evictions: %d",
+                    cache.size(), cachedBytes, CACHE_BYTES, cacheHits, cacheMisses, cacheEvictions);
+        }
+    }
+
+    /**
+     * Puts a user into credentials, and a student also into matricNumbers and the cache
+     * @param user AbstractUser object
+     */
+    private void putUser(AbstractUser user) {
+        synchronized (RegistrationLog.getInstance()) {
             if (user instanceof Student) {
-                Student s = (Student) user;
-                students.put(s.getMatricNumber(), s);
+                Student student = (Student) user;
+                Credential credential = credentials.get(user.getUsername());
+                if (credential == null || !user.getHash().equals(credential.hash)
+                        || !student.getMatricNumber().equals(credential.matricNumber)) {
+                    credentials.put(user.getUsername(), new Credential(user.getHash(), student.getMatricNumber(), null));
+                    credentialsDirty = true;
+                }
+                matricNumbers.put(student.getMatricNumber(), user.getUsername());
+                pendingChanges.remove(student.getMatricNumber());
+                student.setVersion(versions.incrementAndGet());
+                cacheStudent(student);
+                dirtyStudents.add(student.getMatricNumber());
+            } else {
+                credentials.put(user.getUsername(), new Credential(user.getHash(), null, (Staff) user));
+                credentialsDirty = true;
             }
         }
-        return students;
     }
 }
@@ -0,0 +1,60 @@
+package DataAccessObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Collects the changes to registrations, courses and students made by one registration
+ * and commits them as a single record in the registration log.
+ * After a crash either all of the changes are replayed or none of them are.
+ *
+ * @see DataAccessObject.IReadWriteCourseDataAccessObject#updateCourse(EntityObject.Course, UnitOfWork)
+ * @see DataAccessObject.IReadWriteUserDataAccessObject#updateStudent(EntityObject.Student, UnitOfWork)
+ */
+public class UnitOfWork {
+    /**
+     * Changes collected so far, in the order they were made
+     */
+    private final List<RegistrationLog.Entry> changes = new ArrayList<>();
+
+    /**
+     * Adds a change to be committed
+     * @param change Entry that represents an added or deleted registration, or a written course or student
+     */
+    void add(RegistrationLog.Entry change) {
+        changes.add(change);
+    }
+
+    /**
+     * Writes all collected changes to the registration log as one record, then applies them to the data access objects.
+     * The record is forced to disk by the write-behind persister together with the records of other commits.
+     * @return CompletableFuture that completes when the record is durable
+     * @throws IOException cannot write file
+     * @throws ClassNotFoundException class is not defined in project
+     */
+    public CompletableFuture<Void> commit() throws IOException, ClassNotFoundException {
+        if (changes.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        TextRegistrationDataAccessObject registrationDataAccessObject = TextRegistrationDataAccessObject.getInstance();
+        TextCourseDataAccessObject courseDataAccessObject = TextCourseDataAccessObject.getInstance();
+        TextUserDataAccessObject userDataAccessObject = TextUserDataAccessObject.getInstance();
+        RegistrationLog registrationLog = RegistrationLog.getInstance();
+        synchronized (registrationLog) {
+            registrationLog.append(changes);
+            for (RegistrationLog.Entry change : changes) {
+                switch (change.type) {
+                    case RegistrationLog.ADD, RegistrationLog.DELETE -> registrationDataAccessObject.apply(change);
+                    case RegistrationLog.COURSE -> courseDataAccessObject.apply(change);
+                    case RegistrationLog.STUDENT -> userDataAccessObject.apply(change);
+                }
+            }
+        }
+        changes.clear();
+        CompletableFuture<Void> durable = WriteBehindPersister.getInstance().markDirty(registrationLog, registrationLog::force);
+        TextRegistrationDataAccessObject.compactIfNeeded();
+        return durable;
+    }
+}
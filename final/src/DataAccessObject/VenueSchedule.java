@@ -0,0 +1,343 @@
+package DataAccessObject;
+
+import EntityObject.Course;
+import EntityObject.Index;
+import ValueObject.DayOfWeek;
+import ValueObject.Sessions;
+import ValueObject.Timetable;
+import ValueObject.Venue;
+
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Bookings of every venue in the catalog by lecture, tutorial and laboratory sessions.
+ * <p>
+ * Every venue has a list of bookings for every 30-minute slot of the week, so that finding the sessions
+ * booked in a venue at some timing only looks at the slots of that timing, however large the catalog is.
+ * The bookings are kept up to date by the course data access object as courses are added, changed and deleted.
+ */
+public class VenueSchedule {
+    /**
+     * Number of slots in a week
+     */
+    private static final int SLOTS_PER_WEEK = DayOfWeek.values().length * Timetable.SLOTS_PER_DAY;
+    /**
+     * Bookings touching every slot of the week, by venue
+     */
+    private final EnumMap<Venue, List<List<Booking>>> slots = new EnumMap<>(Venue.class);
+    /**
+     * Bookings of each course, by course code
+     */
+    private final HashMap<String, List<Booking>> courseBookings = new HashMap<>();
+
+    /**
+     * A session of a course booked in a venue
+     */
+    public static class Booking {
+        /**
+         * Course code of the course of the session
+         */
+        private final String courseCode;
+        /**
+         * Index number of the index of the session, or 0 for a lecture
+         */
+        private final int indexNumber;
+        /**
+         * Type of the session, lecture, tutorial or laboratory
+         */
+        private final String session;
+        /**
+         * Venue booked
+         */
+        private final Venue venue;
+        /**
+         * Day of the session
+         */
+        private final DayOfWeek day;
+        /**
+         * Start timing of the session
+         */
+        private final LocalTime start;
+        /**
+         * End timing of the session
+         */
+        private final LocalTime end;
+
+        /**
+         * Creates a booking
+         * @param courseCode String that represents course code
+         * @param indexNumber Integer that represents index number, or 0 for a lecture
+         * @param session String that represents the type of the session
+         * @param venue Venue booked
+         * @param day DayOfWeek of the session
+         * @param start LocalTime that represents the start timing
+         * @param end LocalTime that represents the end timing
+         */
+        Booking(String courseCode, int indexNumber, String session, Venue venue, DayOfWeek day, LocalTime start, LocalTime end) {
+            this.courseCode = courseCode;
+            this.indexNumber = indexNumber;
+            this.session = session;
+            this.venue = venue;
+            this.day = day;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Gets the course code of the course of the session
+         * @return String that represents course code
+         */
+        public String getCourseCode() {
+            return courseCode;
+        }
+
+        /**
+         * Gets the index number of the index of the session
+         * @return Integer that represents index number, or 0 for a lecture
+         */
+        public int getIndexNumber() {
+            return indexNumber;
+        }
+
+        /**
+         * Gets the venue booked
+         * @return Venue booked
+         */
+        public Venue getVenue() {
+            return venue;
+        }
+
+        /**
+         * Determines if this session overlaps a session on a day
+         * @param day DayOfWeek of the other session
+         * @param start LocalTime that represents the start timing of the other session
+         * @param end LocalTime that represents the end timing of the other session
+         * @return A boolean that is true if the sessions overlap
+         */
+        boolean overlaps(DayOfWeek day, LocalTime start, LocalTime end) {
+            return this.day == day && this.start.isBefore(end) && start.isBefore(this.end);
+        }
+
+        /**
+         * Gets the first slot of the week the session touches
+         * @return Integer that represents the slot
+         */
+        int firstSlot() {
+            return day.ordinal() * Timetable.SLOTS_PER_DAY + start.toSecondOfDay() / Timetable.SLOT_SECONDS;
+        }
+
+        /**
+         * Determines if another booking is of the same session in the same venue at the same timing
+         * @param o Object to compare with
+         * @return A boolean that is true if the bookings are the same
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            } else if (!(o instanceof Booking)) {
+                return false;
+            }
+            Booking other = (Booking) o;
+            return indexNumber == other.indexNumber && courseCode.equals(other.courseCode) &&
+                    session.equals(other.session) && venue == other.venue && day == other.day &&
+                    start.equals(other.start) && end.equals(other.end);
+        }
+
+        /**
+         * Gets the hash code of the booking
+         * @return Integer that represents the hash code
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(courseCode, indexNumber, session, venue, day, start, end);
+        }
+
+        /**
+         * Append all attributes of this booking into a String
+         * @return A String as described above
+         */
+        @Override
+        public String toString() {
+            return courseCode + (indexNumber == 0 ? "" : " " + indexNumber) + " " + session + " " + venue + " " +
+                    day + " " + start + "-" + end;
+        }
+    }
+
+    /**
+     * A private Constructor that prevents any other class from instantiating
+     */
+    private VenueSchedule() {
+    }
+
+    /**
+     * Builds the bookings of a catalog
+     * @param courses Collection of all Course objects in the catalog
+     * @return VenueSchedule object
+     */
+    static VenueSchedule build(Collection<Course> courses) {
+        VenueSchedule venueSchedule = new VenueSchedule();
+        for (Course course : courses) {
+            venueSchedule.update(course.getCourseCode(), course);
+        }
+        return venueSchedule;
+    }
+
+    /**
+     * Gets the sessions of other courses booked in a venue at the same time as some timings
+     * @param courseCode String that represents the course code of the course being changed, whose bookings are left out
+     * @param venue Venue to be booked
+     * @param timings Hashtable of days and start and end timings to be booked
+     * @return List of Booking objects that overlap the timings, empty if the venue is free
+     */
+    public synchronized List<Booking> getConflicts(String courseCode, Venue venue, Hashtable<DayOfWeek, List<LocalTime>> timings) {
+        List<Booking> conflicts = new ArrayList<>();
+        if (venue == null || timings == null || !slots.containsKey(venue)) {
+            return conflicts;
+        }
+        List<List<Booking>> venueSlots = slots.get(venue);
+        for (Map.Entry<DayOfWeek, List<LocalTime>> timing : timings.entrySet()) {
+            DayOfWeek day = timing.getKey();
+            for (int session = 0; session < Sessions.count(timing.getValue()); session++) {
+                LocalTime start = Sessions.start(timing.getValue(), session);
+                LocalTime end = Sessions.end(timing.getValue(), session);
+                for (int slot : slotsOf(day, start, end)) {
+                    for (Booking booking : venueSlots.get(slot)) {
+                        //a booking touching several slots of the timing is only added once
+                        if (!booking.courseCode.equals(courseCode) && booking.overlaps(day, start, end) &&
+                                !conflicts.contains(booking)) {
+                            conflicts.add(booking);
+                        }
+                    }
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Finds every double-booking in the catalog, sweeping the venues in parallel.
+     * Sessions of the same course are reported as well
+     * @return List of Strings that describe each pair of sessions booked in the same venue at the same time
+     */
+    public List<String> findDoubleBookings() {
+        EnumMap<Venue, List<List<Booking>>> snapshot = new EnumMap<>(Venue.class);
+        synchronized (this) {
+            for (Map.Entry<Venue, List<List<Booking>>> venueSlots : slots.entrySet()) {
+                List<List<Booking>> copy = new ArrayList<>(SLOTS_PER_WEEK);
+                for (List<Booking> bookings : venueSlots.getValue()) {
+                    copy.add(List.copyOf(bookings));
+                }
+                snapshot.put(venueSlots.getKey(), copy);
+            }
+        }
+        return snapshot.values().parallelStream()
+                .flatMap(venueSlots -> {
+                    List<String> doubleBookings = new ArrayList<>();
+                    for (int slot = 0; slot < SLOTS_PER_WEEK; slot++) {
+                        List<Booking> bookings = venueSlots.get(slot);
+                        for (int i = 0; i < bookings.size(); i++) {
+                            for (int j = i + 1; j < bookings.size(); j++) {
+                                Booking booking = bookings.get(i);
+                                Booking other = bookings.get(j);
+                                //a pair sharing several slots is only reported at the first slot they share
+                                if (Math.max(booking.firstSlot(), other.firstSlot()) == slot &&
+                                        booking.overlaps(other.day, other.start, other.end)) {
+                                    doubleBookings.add(booking + " and " + other);
+                                }
+                            }
+                        }
+                    }
+                    return doubleBookings.stream();
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Replaces the bookings of a course after it was added, changed or deleted
+     * @param courseCode String that represents course code
+     * @param course Course object, or null if the course was deleted
+     */
+    synchronized void update(String courseCode, Course course) {
+        List<Booking> bookings = new ArrayList<>();
+        if (course != null) {
+            addBookings(bookings, courseCode, 0, "lecture", course.getLectureVenue(), course.getLectureTimings());
+            for (Index index : course.getIndexes()) {
+                addBookings(bookings, courseCode, index.getIndexNumber(), "tutorial",
+                        index.getTutorialVenue(), index.getTutorialTimings());
+                addBookings(bookings, courseCode, index.getIndexNumber(), "laboratory",
+                        index.getLaboratoryVenue(), index.getLaboratoryTimings());
+            }
+        }
+        List<Booking> oldBookings = courseBookings.getOrDefault(courseCode, List.of());
+        if (bookings.equals(oldBookings)) {
+            return;
+        }
+
+        for (Booking booking : oldBookings) {
+            for (int slot : slotsOf(booking.day, booking.start, booking.end)) {
+                slots.get(booking.venue).get(slot).removeIf(slotBooking -> slotBooking == booking);
+            }
+        }
+        for (Booking booking : bookings) {
+            List<List<Booking>> venueSlots = slots.computeIfAbsent(booking.venue, venue -> {
+                List<List<Booking>> emptySlots = new ArrayList<>(SLOTS_PER_WEEK);
+                for (int slot = 0; slot < SLOTS_PER_WEEK; slot++) {
+                    emptySlots.add(new ArrayList<>(1));
+                }
+                return emptySlots;
+            });
+            for (int slot : slotsOf(booking.day, booking.start, booking.end)) {
+                venueSlots.get(slot).add(booking);
+            }
+        }
+        if (course == null) {
+            courseBookings.remove(courseCode);
+        } else {
+            courseBookings.put(courseCode, bookings);
+        }
+    }
+
+    /**
+     * Adds a booking for every session of a lecture, tutorial or laboratory that has a venue
+     * @param bookings List of Booking objects to add to
+     * @param courseCode String that represents course code
+     * @param indexNumber Integer that represents index number, or 0 for a lecture
+     * @param session String that represents the type of the session
+     * @param venue Venue booked, or null
+     * @param timings Hashtable of days and start and end timings, or null
+     */
+    private static void addBookings(List<Booking> bookings, String courseCode, int indexNumber, String session,
+                                    Venue venue, Hashtable<DayOfWeek, List<LocalTime>> timings) {
+        if (venue == null || timings == null) {
+            return;
+        }
+        //days in order, so that the bookings of unchanged sessions compare equal
+        for (DayOfWeek day : new TreeSet<>(timings.keySet())) {
+            List<LocalTime> dayTimings = timings.get(day);
+            for (int daySession = 0; daySession < Sessions.count(dayTimings); daySession++) {
+                bookings.add(new Booking(courseCode, indexNumber, session, venue, day,
+                        Sessions.start(dayTimings, daySession), Sessions.end(dayTimings, daySession)));
+            }
+        }
+    }
+
+    /**
+     * Gets the slots of the week a session touches
+     * @param day DayOfWeek of the session
+     * @param start LocalTime that represents the start timing
+     * @param end LocalTime that represents the end timing
+     * @return int array of slots
+     */
+    private static int[] slotsOf(DayOfWeek day, LocalTime start, LocalTime end) {
+        int first = start.toSecondOfDay() / Timetable.SLOT_SECONDS;
+        int last = (end.toSecondOfDay() + Timetable.SLOT_SECONDS - 1) / Timetable.SLOT_SECONDS;
+        int[] sessionSlots = new int[Math.max(last - first, 0)];
+        for (int i = 0; i < sessionSlots.length; i++) {
+            sessionSlots[i] = day.ordinal() * Timetable.SLOTS_PER_DAY + first + i;
+        }
+        return sessionSlots;
+    }
+}
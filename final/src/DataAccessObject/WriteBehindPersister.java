@@ -0,0 +1,277 @@
+package DataAccessObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes database files and forces the registration log on a background thread.
+ * Callers mark a file as dirty and return immediately, and every file marked within one group commit window
+ * is written only once, no matter how many times it was marked.
+ * A window closes after windowMillis milliseconds, or earlier once maxOperations marks have been collected.
+ * Every mark returns a future that completes when the write it asked for is durable.
+ * The window can be configured with the system properties stars.persist.windowMillis and stars.persist.maxOperations.
+ */
+public class WriteBehindPersister {
+    /**
+     * Something that can be written to disk
+     */
+    interface Flush {
+        /**
+         * Writes to disk
+         * @throws IOException cannot write file
+         */
+        void flush() throws IOException;
+    }
+
+    /**
+     * The persister shared by all data access objects
+     */
+    private static final WriteBehindPersister instance = new WriteBehindPersister(
+            Long.getLong("stars.persist.windowMillis", 5), Integer.getInteger("stars.persist.maxOperations", 64));
+    /**
+     * Milliseconds a group commit window stays open after its first mark
+     */
+    private final long windowMillis;
+    /**
+     * Number of marks that closes a group commit window early
+     */
+    private final int maxOperations;
+    /**
+     * Flushes marked in the current window, by the file they write
+     */
+    private LinkedHashMap<Object, Flush> dirty = new LinkedHashMap<>();
+    /**
+     * Flushes of the window being written, by the file they write
+     */
+    private Map<Object, Flush> writing = Map.of();
+    /**
+     * Completed when the flushes marked in the current window are durable
+     */
+    private CompletableFuture<Void> pending = new CompletableFuture<>();
+    /**
+     * Number of marks collected in the current window
+     */
+    private int operations = 0;
+    /**
+     * Time in nanoseconds the current window was opened at
+     */
+    private long windowStart = 0;
+    /**
+     * Number of group commits done
+     */
+    private long flushCount = 0;
+    /**
+     * Number of marks included in all group commits
+     */
+    private long operationCount = 0;
+    /**
+     * Largest number of marks included in one group commit
+     */
+    private int maxBatchSize = 0;
+    /**
+     * Total time in nanoseconds spent writing group commits
+     */
+    private long totalFlushNanos = 0;
+    /**
+     * Longest time in nanoseconds spent writing one group commit
+     */
+    private long maxFlushNanos = 0;
+
+    /**
+     * Creates a persister and starts its background thread
+     * @param windowMillis Long that represents the milliseconds a window stays open
+     * @param maxOperations Integer that represents the number of marks that closes a window early
+     */
+    WriteBehindPersister(long windowMillis, int maxOperations) {
+        this.windowMillis = windowMillis;
+        this.maxOperations = maxOperations;
+        Thread thread = new Thread(this::run, "write-behind-persister");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush().join()));
+    }
+
+    /**
+     * Gets the persister shared by all data access objects
+     * @return WriteBehindPersister object
+     */
+    public static WriteBehindPersister getInstance() {
+        return instance;
+    }
+
+    /**
+     * Marks a file as dirty so that it is written in the current group commit window
+     * @param file Object that identifies the file, marks with the same file are merged
+     * @param flush Flush that writes the file
+     * @return CompletableFuture that completes when the file has been written
+     */
+    synchronized CompletableFuture<Void> markDirty(Object file, Flush flush) {
+        if (operations == 0) {
+            windowStart = System.nanoTime();
+        }
+        dirty.put(file, flush);
+        operations++;
+        notifyAll();
+        return pending;
+    }
+
+    /**
+     * Checks if a file has changes marked that are not written yet
+     * @param file Object that identifies the file
+     * @return A boolean that is true if the file is marked in the current window or is being written
+     */
+    synchronized boolean isPending(Object file) {
+        return dirty.containsKey(file) || writing.containsKey(file);
+    }
+
+    /**
+     * Gets a future for everything marked so far
+     * @return CompletableFuture that completes when all files marked so far have been written
+     */
+    public synchronized CompletableFuture<Void> flush() {
+        if (operations == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        windowStart = System.nanoTime() - windowMillis * 1_000_000;
+        notifyAll();
+        return pending;
+    }
+
+    /**
+     * Waits for each group commit window to close and writes the files marked in it
+     */
+    private void run() {
+        while (true) {
+            Map<Object, Flush> batch;
+            CompletableFuture<Void> batchDone;
+            int batchSize;
+            synchronized (this) {
+                try {
+                    while (operations == 0) {
+                        wait();
+                    }
+                    long remaining;
+                    while (operations < maxOperations
+                            && (remaining = windowStart + windowMillis * 1_000_000 - System.nanoTime()) > 0) {
+                        wait(remaining / 1_000_000, (int) (remaining % 1_000_000));
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                batch = dirty;
+                writing = batch;
+                batchDone = pending;
+                batchSize = operations;
+                dirty = new LinkedHashMap<>();
+                pending = new CompletableFuture<>();
+                operations = 0;
+            }
+
+            long start = System.nanoTime();
+            List<Object> retry = new ArrayList<>();
+            Throwable failure = null;
+            for (Map.Entry<Object, Flush> entry : batch.entrySet()) {
+                try {
+                    entry.getValue().flush();
+                } catch (ConcurrentModificationException e) {
+                    retry.add(entry.getKey());
+                } catch (Throwable e) {
+                    //fails the batch but not this thread, so that later batches are still written
+                    e.printStackTrace();
+                    failure = e;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            synchronized (this) {
+                //files to be written again are marked again below
+                writing = Map.of();
+                flushCount++;
+                operationCount += batchSize;
+                maxBatchSize = Math.max(maxBatchSize, batchSize);
+                totalFlushNanos += elapsed;
+                maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+            }
+            if (!retry.isEmpty()) {
+                //written while being changed, write again in the next window
+                CompletableFuture<Void> next = null;
+                for (Object file : retry) {
+                    next = markDirty(file, batch.get(file));
+                }
+                //a file of this batch that failed to be written fails the batch, however the retry goes
+                Throwable batchFailure = failure;
+                next.whenComplete((result, e) -> completeBatch(batchDone, batchFailure != null ? batchFailure : e));
+            } else {
+                completeBatch(batchDone, failure);
+            }
+        }
+    }
+
+    /**
+     * Completes the future of a group commit
+     * @param batchDone CompletableFuture of the group commit
+     * @param failure Throwable that the group commit failed with, or null
+     */
+    private static void completeBatch(CompletableFuture<Void> batchDone, Throwable failure) {
+        if (failure == null) {
+            batchDone.complete(null);
+        } else {
+            batchDone.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Gets the number of group commits done
+     * @return Long that represents the number of group commits
+     */
+    public synchronized long getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Gets the average number of marks merged into one group commit
+     * @return Double that represents the average batch size
+     */
+    public synchronized double getAverageBatchSize() {
+        return flushCount == 0 ? 0 : (double) operationCount / flushCount;
+    }
+
+    /**
+     * Gets the largest number of marks merged into one group commit
+     * @return Integer that represents the largest batch size
+     */
+    public synchronized int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Gets the average time spent writing one group commit
+     * @return Double that represents the average flush latency in milliseconds
+     */
+    public synchronized double getAverageFlushMillis() {
+        return flushCount == 0 ? 0 : totalFlushNanos / 1e6 / flushCount;
+    }
+
+    /**
+     * Gets the longest time spent writing one group commit
+     * @return Double that represents the longest flush latency in milliseconds
+     */
+    public synchronized double getMaxFlushMillis() {
+        return maxFlushNanos / 1e6;
+    }
+
+    /**
+     * Append the metrics of the persister to a String
+     * @return A String as described above
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("flushes: %d, batch size avg: %.1f max: %d, flush latency avg: %.2f ms max: %.2f ms",
+                flushCount, getAverageBatchSize(), maxBatchSize, getAverageFlushMillis(), getMaxFlushMillis());
+    }
+}
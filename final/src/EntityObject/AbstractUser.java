@@ -61,6 +61,29 @@ public abstract class AbstractUser implements Serializable {
                 Year.now().toString() + ": " + email);
     }
 
+    /**
+     * Recreates a user that was written to a database file.
+     *
+     * @param username A String that represents the username
+     * @param hash A String that represents the hashed password
+     * @param name A String that represents user name
+     * @param gender An Enum value of the user's gender
+     * @param nationality An Enum value of the user's nationality
+     * @param school An Enum value of the user's school
+     * @param userType An Enum value of user's type
+     * @param email A String that represents user's email
+     */
+    protected AbstractUser(String username, String hash, String name, Gender gender, Nationality nationality, School school, UserType userType, String email) {
+        this.username = username;
+        this.hash = hash;
+        this.name = name;
+        this.gender = gender;
+        this.nationality = nationality;
+        this.school = school;
+        this.userType = userType;
+        this.email = email;
+    }
+
     /**
      * Gets user type
      * @return userType An enum that represents user type
@@ -119,4 +142,13 @@ public abstract class AbstractUser implements Serializable {
     public String getName() {
         return name;
     }
+
+    /**
+     * Gets school of user
+     * @return school An enum representing user's school
+     * @see ValueObject.School
+     */
+    public School getSchool() {
+        return school;
+    }
 }
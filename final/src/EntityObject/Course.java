@@ -7,6 +7,8 @@ import java.util.*;
 import Exception.NonExistentIndexException;
 import ValueObject.DayOfWeek;
 import ValueObject.School;
+import ValueObject.SymbolTable;
+import ValueObject.Timetable;
 import ValueObject.Venue;
 
 /**
@@ -26,9 +28,14 @@ public class Course implements Serializable {
      */
     private School school;
     /**
-     * Lecture timing of this course
+     * Lecture timing of this course. Contains DayOfWeek and the start and end timing of every session on that day
+     * @see ValueObject.Sessions
      */
     private final Hashtable<DayOfWeek, List<LocalTime>> lectureTimings;
+    /**
+     * Occupancy bitmap of the lecture timings, built from lectureTimings so it is not written to file
+     */
+    private transient Timetable lectureTimetable;
     /**
      * Venue of the lecture
      */
@@ -41,6 +48,11 @@ public class Course implements Serializable {
      * Indexes available for this course
      */
     private TreeMap<Integer, Index> indexes;
+    /**
+     * Version of the course, given by the data access object whenever the course is stored
+     * Not written to file, so a course read from file starts at version 0
+     */
+    private transient volatile long version;
     /**
      * Serialised ID that is tagged to the course object
      */
@@ -62,10 +74,11 @@ public class Course implements Serializable {
      * @see ValueObject.Venue
      */
     public Course(String courseCode, String courseName, School school, Hashtable<DayOfWeek, List<LocalTime>> lectureTimings, Venue lectureVenue, int AUs, ArrayList<Index> indexes) {
-        this.courseCode = courseCode.toLowerCase();
+        this.courseCode = SymbolTable.COURSES.intern(courseCode.toLowerCase());
         this.courseName = courseName;
         this.school = school;
         this.lectureTimings = lectureTimings;
+        this.lectureTimetable = Timetable.of(lectureTimings);
         this.lectureVenue = lectureVenue;
         this.AUs = AUs;
         this.indexes = new TreeMap<>();
@@ -98,6 +111,15 @@ public class Course implements Serializable {
         this.courseName = courseName;
     }
 
+    /** Gets the school that offers the course.
+     *
+     * @return Enum value of a school in NTU
+     * @see ValueObject.School
+     */
+    public School getSchool() {
+        return school;
+    }
+
     /** Sets the school that offers the course.
      *
      * @param school Enum value of a school in NTU
@@ -107,6 +129,60 @@ public class Course implements Serializable {
         this.school = school;
     }
 
+    /** Gets the lecture timings of the course.
+     *
+     * @return A Hashtable with the lecture day and the list of start and end timings of a lecture session
+     */
+    public Hashtable<DayOfWeek, List<LocalTime>> getLectureTimings() {
+        return lectureTimings;
+    }
+
+    /** Gets the occupancy bitmap of the lecture timings of the course.
+     * Built again if the course was read from a database file written with Java serialization.
+     *
+     * @return Timetable of the lecture sessions
+     */
+    public Timetable getLectureTimetable() {
+        if (lectureTimetable == null) {
+            lectureTimetable = Timetable.of(lectureTimings);
+        }
+        return lectureTimetable;
+    }
+
+    /** Gets the occupancy bitmap of the lecture timings of the course together with the sessions of one of its indexes.
+     *
+     * @param indexNumber An integer that represents the index number
+     * @return Timetable of the lecture sessions and the sessions of the index, or only of the lecture sessions if there is no such index
+     */
+    public Timetable getTimetable(int indexNumber) {
+        Index index = indexes.get(indexNumber);
+        return index == null ? getLectureTimetable() : getLectureTimetable().union(index.getTimetable());
+    }
+
+    /** Gets the version of the course, to check later that nobody has stored the course since.
+     *
+     * @return A long that represents the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /** Sets the version of the course, when it is stored or copied.
+     *
+     * @param version A long that represents the version
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /** Gets the lecture venue of the course
+     * @return venue of course lecture
+     * @see ValueObject.Venue
+     */
+    public Venue getLectureVenue() {
+        return lectureVenue;
+    }
+
     /** Sets the lecture venue of the course
      * @param lectureVenue venue of course lecture
      * @see ValueObject.Venue
@@ -170,6 +246,14 @@ public class Course implements Serializable {
         return indexes.get(indexNumber);
     }
 
+    /** Retrieves all index objects of the course, ordered by index number.
+     *
+     * @return Collection of Index objects
+     */
+    public Collection<Index> getIndexes() {
+        return indexes.values();
+    }
+
     /** Retrieves index numbers of the course.
      *
      * @return List containing strings of index numbers
@@ -193,83 +277,26 @@ public class Course implements Serializable {
     }
 
     /** Determines if there is a clash in lecture timings between two courses.
-     * Loops through the lecture days in the Lecture Timings TreeMap
-     * to check if there is an overlap in lecture timings with another course on any particular day.
+     * Compares the occupancy bitmaps of the lecture timings of both courses.
      *
      * @param c course to check against
      * @return A boolean that is true if there is a clash in lecture timings
-     * @see #clashingTimetable(Hashtable, Hashtable, DayOfWeek)
+     * @see Timetable#isClashing(Timetable)
      */
     public boolean isClashing(Course c) {
-        for(DayOfWeek thisLectureDay: this.lectureTimings.keySet()) {
-            if (clashingTimetable(lectureTimings, c.lectureTimings, thisLectureDay)) {
-                return true;
-            }
-        }
-        return false;
+        return getLectureTimetable().isClashing(c.getLectureTimetable());
     }
 
     /** Determines if there is a clash in timings between the laboratory and tutorial sessions (if any) of a given index
      * and the lecture timings of the course.
-     * Loops through the lecture days in the Lecture Timings TreeMap
-     * to check if there is an overlap in timings with the laboratory or tutorial sessions
-     * of a given index on any particular day.
+     * Compares the occupancy bitmap of the lecture timings with the occupancy bitmap of the sessions of the index.
      *
      * @param i index to check against
      * @return A boolean that is true if there is a clash in timings
-     * @see #clashingTimetable(Hashtable, Hashtable, DayOfWeek)
+     * @see Timetable#isClashing(Timetable)
      */
     public boolean isClashing(Index i) {
-        Hashtable<DayOfWeek, List<LocalTime>> laboratoryTimings = i.getLaboratoryTimings();
-        Hashtable<DayOfWeek, List<LocalTime>> tutorialTimings = i.getTutorialTimings();
-        for (DayOfWeek lectureDay : lectureTimings.keySet()) {
-            if (clashingTimetable(lectureTimings, laboratoryTimings, lectureDay) ||
-                    clashingTimetable(lectureTimings, tutorialTimings, lectureDay)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Determines if two time slots overlap.
-     *
-     * @param thisCourseTimings start time and end time of current index lecture/ laboratory/ tutorial
-     * @param newCourseTimings start and end time of new index laboratory/ tutorial
-     * @param thisCourseDay day of current course lecture/ laboratory/ tutorial
-     * @return A boolean that is true if and only if there is a clash in timings.
-     */
-    private boolean clashingTimetable(Hashtable<DayOfWeek, List<LocalTime>> thisCourseTimings,
-                                      Hashtable<DayOfWeek, List<LocalTime>> newCourseTimings,
-                                      DayOfWeek thisCourseDay) {
-        if (thisCourseDay == null || newCourseTimings == null || thisCourseTimings == null) {
-            return false;
-        }
-        for (DayOfWeek thatLectureDay : newCourseTimings.keySet()) {
-            if (thisCourseDay == thatLectureDay) {
-                if (overlappingTimeslot(thisCourseTimings.get(thisCourseDay).get(0),
-                        thisCourseTimings.get(thisCourseDay).get(1),
-                        newCourseTimings.get(thatLectureDay).get(0),
-                        newCourseTimings.get(thatLectureDay).get(1))) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    /** Determines if two timings overlap.
-     * Timings overlap if a session starts before the other session ends and
-     * if the session also ends after the other session starts.
-     *
-     * @param start1 LocalTime object that contains the start time of a session
-     * @param end1 LocalTime object that contains the end time of a session
-     * @param start2 LocalTime object that contains the start time of the other session
-     * @param end2 LocalTime object that contains the end time of the other session
-     * @return A boolean that is true if there is an overlap in two timings
-     */
-    private boolean overlappingTimeslot(LocalTime start1, LocalTime end1, LocalTime start2, LocalTime end2) {
-        return start1.isBefore(end2) && start2.isBefore(end1);
+        return getLectureTimetable().isClashing(i.getTimetable());
     }
 
     /** Builds a String containing all course information.
@@ -3,11 +3,18 @@ package EntityObject;
 import Exception.ExistingUserException;
 import Exception.NonExistentUserException;
 import ValueObject.DayOfWeek;
+import ValueObject.Timetable;
 import ValueObject.Venue;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents the index of a particular course in NTU
@@ -16,25 +23,30 @@ public class Index implements Serializable {
     /**
      * Index number of the course
      */
-    private final int indexNumber;
+    private int indexNumber;
     /**
      * Maximum number of student this index can have
      */
-    private int maxClassSize;
+    private volatile int maxClassSize;
     /**
-     * Amount of vacancy left
+     * Amount of vacancy left, the maximum class size less the enrolled and waiting list students
+     * Changed only with atomic instructions, so that seats are handed out without locking
+     * Written to file as an int
      */
-    private int vacancy;
+    private transient AtomicInteger vacancy;
     /**
-     * A list of students matric number that are enrolled in this index
+     * A set of students matric number that are enrolled in this index, kept as the IDs of the matric numbers
+     * Written to file as an ArrayList
      */
-    private ArrayList<String> enrolledStudents;
+    private transient StudentSet enrolledStudents;
     /**
      * A list of enrolled students' matric number who are on waiting list
+     * Written to file as a LinkedList
      */
-    private Queue<String> waitingList;
+    private transient WaitingList waitingList;
     /**
-     * TreeMap of tutorial timing. TreeMap contains DayOfWeek and a list of timing
+     * TreeMap of tutorial timing. TreeMap contains DayOfWeek and the start and end timing of every session on that day
+     * @see ValueObject.Sessions
      */
     private Hashtable<DayOfWeek, List<LocalTime>> tutorialTimings;
     /**
@@ -42,17 +54,45 @@ public class Index implements Serializable {
      */
     private Venue tutorialVenue;
     /**
-     * TreeMap of laboratory timing. TreeMap contains DayOfWeek and a list of timing
+     * TreeMap of laboratory timing. TreeMap contains DayOfWeek and the start and end timing of every session on that day
+     * @see ValueObject.Sessions
      */
     private Hashtable<DayOfWeek, List<LocalTime>> laboratoryTimings;
     /**
      * Venue for laboratory sessions
      */
     private Venue laboratoryVenue;
+    /**
+     * Occupancy bitmap of the tutorial and laboratory timings, built from the timings so it is not written to file
+     */
+    private transient Timetable timetable;
+    /**
+     * Version of the index, changed whenever its students, class size, timings or venues are changed
+     * Not written to file, so an index read from file starts at version 0
+     */
+    private transient volatile long version;
+    /**
+     * Last version given to any index, so that no two changes of indexes are given the same version
+     */
+    private static final AtomicLong versions = new AtomicLong();
     /**
      * Serialized ID that is tagged to the index object
      */
     private static final long serialVersionUID = 1L;
+    /**
+     * Fields written to file, kept as they were when the enrolled students and waiting list were lists
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("indexNumber", int.class),
+            new ObjectStreamField("maxClassSize", int.class),
+            new ObjectStreamField("vacancy", int.class),
+            new ObjectStreamField("enrolledStudents", ArrayList.class),
+            new ObjectStreamField("waitingList", Queue.class),
+            new ObjectStreamField("tutorialTimings", Hashtable.class),
+            new ObjectStreamField("tutorialVenue", Venue.class),
+            new ObjectStreamField("laboratoryTimings", Hashtable.class),
+            new ObjectStreamField("laboratoryVenue", Venue.class)
+    };
 
     /**
      * Creates index containing index specific information
@@ -69,42 +109,89 @@ public class Index implements Serializable {
      */
     public Index(int indexNumber, int maxClassSize, Hashtable<DayOfWeek, List<LocalTime>> tutorialTimings, Venue tutorialVenue, Hashtable<DayOfWeek, List<LocalTime>> laboratoryTimings, Venue laboratoryVenue) {
         this.indexNumber = indexNumber;
-        this.vacancy = this.maxClassSize = maxClassSize;
-        this.enrolledStudents = new ArrayList<>();
-        this.waitingList = new LinkedList<>();
+        this.maxClassSize = maxClassSize;
+        this.vacancy = new AtomicInteger(maxClassSize);
+        this.enrolledStudents = new StudentSet(maxClassSize);
+        this.waitingList = new WaitingList();
         this.tutorialTimings = tutorialTimings;
         this.tutorialVenue = tutorialVenue;
         this.laboratoryTimings = laboratoryTimings;
         this.laboratoryVenue = laboratoryVenue;
+        this.timetable = buildTimetable();
+    }
+
+    /**
+     * Recreates an index that was written to a database file
+     *
+     * @param indexNumber Integer that represent the index number
+     * @param maxClassSize Integer that represents the maximum class size
+     * @param vacancy Integer that represents the vacancy, negative when students are on the waiting list
+     * @param enrolledStudents Collection of matric numbers of enrolled students
+     * @param waitingList Collection of matric numbers of students on the waiting list, first come first
+     * @param tutorialTimings TreeMap that represents tutorial timings
+     * @param tutorialVenue An Enum value of the tutorial venue
+     * @param laboratoryTimings TreeMap that represents laboratory timings
+     * @param laboratoryVenue An Enum value of the laboratory venue
+     */
+    public Index(int indexNumber, int maxClassSize, int vacancy, Collection<String> enrolledStudents, Collection<String> waitingList, Hashtable<DayOfWeek, List<LocalTime>> tutorialTimings, Venue tutorialVenue, Hashtable<DayOfWeek, List<LocalTime>> laboratoryTimings, Venue laboratoryVenue) {
+        this.indexNumber = indexNumber;
+        this.maxClassSize = maxClassSize;
+        this.vacancy = new AtomicInteger(vacancy);
+        this.enrolledStudents = new StudentSet(maxClassSize, enrolledStudents);
+        this.waitingList = new WaitingList(waitingList);
+        this.tutorialTimings = tutorialTimings;
+        this.tutorialVenue = tutorialVenue;
+        this.laboratoryTimings = laboratoryTimings;
+        this.laboratoryVenue = laboratoryVenue;
+        this.timetable = buildTimetable();
     }
 
     /**
      * Add student matric number to enrollStudent ArrayList
      * If student matric number is already in the ArrayList, throw ExistingUserException
-     * Else if there is no vacancy and matric number is not in waitList TreeMap, add it to waitingList and decrement vacancy and return matric number
-     * Else if matric number if in waitingList, remove it from there and add it to enrolledStudents ArrayList and return null
-     * Else add matric number to enrolledStudents ArrayList and return null
+     * Else if matric number if in waitingList, remove it from there and add it to enrolledStudents ArrayList and return null,
+     * leaving the vacancy as it is since the student already holds a place
+     * Else reserve a place, and if it is a seat add matric number to enrolledStudents ArrayList and return null
+     * Else add it to waitingList and return matric number
+     * The enrolled students and waiting list are not thread safe, so calls for the same course are made under its lock
      * @param matricNumber String that represents the matric number of a student
      * @throws ExistingUserException existing user
      * @return String
+     * @see #reserveSeat()
      */
     public String enrollStudent(String matricNumber) throws ExistingUserException {
         if (enrolledStudents.contains(matricNumber)) {
             throw new ExistingUserException();
-        } else if (vacancy <= 0 && !waitingList.contains(matricNumber)) {
-            waitingList.add(matricNumber);
-            vacancy--;
-            return matricNumber;
-        } else if (waitingList.contains(matricNumber)) {
-            waitingList.remove(matricNumber);
+        }
+        changed();
+        if (waitingList.remove(matricNumber)) {
             enrolledStudents.add(matricNumber);
-            vacancy--;
             return null;
-        } else {
+        } else if (reserveSeat()) {
             enrolledStudents.add(matricNumber);
-            vacancy--;
             return null;
+        } else {
+            waitingList.add(matricNumber);
+            return matricNumber;
+        }
+    }
+
+    /**
+     * Gives the seat of an enrolled student to another student, without changing the vacancy or the waiting list
+     * @param matricNumber String that represents the matric number of the enrolled student
+     * @param newMatricNumber String that represents the matric number of the student given the seat
+     * @throws NonExistentUserException the student is not enrolled
+     * @throws ExistingUserException the student given the seat is already enrolled
+     */
+    public void replaceStudent(String matricNumber, String newMatricNumber) throws NonExistentUserException, ExistingUserException {
+        if (!enrolledStudents.contains(matricNumber)) {
+            throw new NonExistentUserException();
+        } else if (enrolledStudents.contains(newMatricNumber)) {
+            throw new ExistingUserException();
         }
+        changed();
+        enrolledStudents.remove(matricNumber);
+        enrolledStudents.add(newMatricNumber);
     }
 
     /**
@@ -112,30 +199,73 @@ public class Index implements Serializable {
      *
      * If the matric number is in waitingList ArrayList, remove it from there and increment the vacancy
      * Else if the matric number is not in enrolledStudents ArrayList, throw NonExistentUserException
-     * Else if waitingList is not empty, remove matric number from enrolledStudent ArrayList and increment vacancy by 2 and return the matric number at the top of the waitingList
-     * Else remove matric number from enrolledStudents ArrayList, increment vacancy and return matric number that is at the top of the waitingList
+     * Else remove matric number from enrolledStudents ArrayList, release the seat and return the matric number at the top of the waitingList
+     * if the seat is owed to it, or null otherwise.
+     * The seat stays owed until the student is enrolled, as the vacancy does not become positive while anyone is waiting
      * @param matricNumber String that represents the matric number of a student
      * @return matric number of next student in waiting list (if any)
      * @throws NonExistentUserException student not registered
+     * @see #releaseSeat()
      */
     public String dropStudent(String matricNumber) throws NonExistentUserException {
-        if (waitingList.contains(matricNumber)) {
-            waitingList.remove(matricNumber);
-            vacancy++;
+        if (waitingList.remove(matricNumber)) {
+            changed();
+            vacancy.incrementAndGet();
             return null;
-        } else if (!enrolledStudents.contains(matricNumber)) {
+        } else if (!enrolledStudents.remove(matricNumber)) {
             throw new NonExistentUserException();
-        } else if (!waitingList.isEmpty()){
-            enrolledStudents.remove(matricNumber);
-            vacancy+=2;
+        }
+        changed();
+        if (releaseSeat()) {
             return waitingList.peek();
         } else {
-            enrolledStudents.remove(matricNumber);
-            vacancy++;
-            return waitingList.peek();
+            return null;
         }
     }
 
+    /**
+     * Reserves a place in the index with a single atomic decrement of the vacancy, without locking
+     * The place is a seat if there was a vacancy and a place on the waiting list otherwise,
+     * so however many threads race for the last seats, no more seats are handed out than the index has
+     * @return A boolean that is true if the place is a seat
+     */
+    public boolean reserveSeat() {
+        return vacancy.getAndDecrement() > 0;
+    }
+
+    /**
+     * Releases a seat with a single atomic increment of the vacancy, without locking
+     * If anyone was waiting the vacancy stays at or below 0, so the seat cannot be reserved by anyone else
+     * and is owed to the student at the front of the waiting list
+     * @return A boolean that is true if the seat is owed to a student on the waiting list
+     */
+    public boolean releaseSeat() {
+        return vacancy.getAndIncrement() < 0;
+    }
+
+    /**
+     * Gets the version of the index, to check later that nobody has changed it since
+     * @return Long that represents the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the index, to that of the index it is a copy of
+     * @param version Long that represents the version
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Gives the index a version that no index has had before
+     */
+    private void changed() {
+        version = versions.incrementAndGet();
+    }
+
     /**
      * Gets index number of the index
      * @return indexNumber Integer that represents the index number
@@ -154,11 +284,19 @@ public class Index implements Serializable {
 
     /**
      * Sets maximum class size of the index
+     * The students at the top of the waiting list that are given the seats added are not enrolled here,
+     * they are enrolled by the caller as when a student drops the index.
      * @param maxClassSize Integer that represents maximum class size of the index
+     * @return Integer that represents the number of students at the top of the waiting list now owed a seat
      */
-    public void setMaxClassSize(int maxClassSize) {
+    public int setMaxClassSize(int maxClassSize) {
+        int added = maxClassSize - this.maxClassSize;
+        //the change in size is added, so that seats reserved meanwhile are kept
+        int oldVacancy = vacancy.getAndAdd(added);
         this.maxClassSize = maxClassSize;
-        vacancy = maxClassSize - enrolledStudents.size();
+        changed();
+        //a negative vacancy is the number of students waiting for a seat
+        return Math.max(0, Math.min(added, Math.min(-oldVacancy, waitingList.size())));
     }
 
     /**
@@ -166,14 +304,14 @@ public class Index implements Serializable {
      * @return vacancy of the index
      */
     public int getVacancy() {
-        return vacancy;
+        return vacancy.get();
     }
 
     /**
-     * Gets ArrayList of enrolledStudents, contains matric number of students that are enrolled in the index
-     * @return ArrayList as described above
+     * Gets Set of enrolledStudents, contains matric number of students that are enrolled in the index
+     * @return Set as described above, in the order the students were enrolled
      */
-    public ArrayList<String> getEnrolledStudents() {
+    public Set<String> getEnrolledStudents() {
         return enrolledStudents;
     }
 
@@ -191,6 +329,8 @@ public class Index implements Serializable {
      */
     public void setTutorialTimings(Hashtable<DayOfWeek, List<LocalTime>> tutorialTimings) {
         this.tutorialTimings = tutorialTimings;
+        this.timetable = buildTimetable();
+        changed();
     }
 
     /**
@@ -207,6 +347,28 @@ public class Index implements Serializable {
      */
     public void setLaboratoryTimings(Hashtable<DayOfWeek, List<LocalTime>> laboratoryTimings) {
         this.laboratoryTimings = laboratoryTimings;
+        this.timetable = buildTimetable();
+        changed();
+    }
+
+    /**
+     * Gets the occupancy bitmap of the tutorial and laboratory timings
+     * Built again if the index was read from a database file written with Java serialization
+     * @return Timetable of the tutorial and laboratory sessions
+     */
+    public Timetable getTimetable() {
+        if (timetable == null) {
+            timetable = buildTimetable();
+        }
+        return timetable;
+    }
+
+    /**
+     * Builds the occupancy bitmap of the tutorial and laboratory timings
+     * @return Timetable of the tutorial and laboratory sessions
+     */
+    private Timetable buildTimetable() {
+        return Timetable.of(tutorialTimings).union(Timetable.of(laboratoryTimings));
     }
 
     /**
@@ -223,6 +385,7 @@ public class Index implements Serializable {
      */
     public void setTutorialVenue(Venue tutorialVenue) {
         this.tutorialVenue = tutorialVenue;
+        changed();
     }
 
     /**
@@ -239,12 +402,66 @@ public class Index implements Serializable {
      */
     public void setLaboratoryVenue(Venue laboratoryVenue) {
         this.laboratoryVenue = laboratoryVenue;
+        changed();
     }
 
+    /**
+     * Gets Queue of waitingList, contains matric number of students that are on the waiting list of the index
+     * @return Queue as described above, first come first
+     */
     public Queue<String> getWaitingList() {
         return waitingList;
     }
 
+    /**
+     * Gets the position of a student on the waiting list
+     * @param matricNumber String that represents the matric number of a student
+     * @return Integer that represents the position, 1 for the next student to be enrolled,
+     * or 0 if the student is not on the waiting list
+     */
+    public int getWaitingListPosition(String matricNumber) {
+        return waitingList.positionOf(matricNumber);
+    }
+
+    /**
+     * Writes the index to file, with the enrolled students and waiting list as lists
+     * @param out ObjectOutputStream to write to
+     * @throws IOException cannot write
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("indexNumber", indexNumber);
+        fields.put("maxClassSize", maxClassSize);
+        fields.put("vacancy", vacancy.get());
+        fields.put("enrolledStudents", new ArrayList<>(enrolledStudents));
+        fields.put("waitingList", new LinkedList<>(waitingList));
+        fields.put("tutorialTimings", tutorialTimings);
+        fields.put("tutorialVenue", tutorialVenue);
+        fields.put("laboratoryTimings", laboratoryTimings);
+        fields.put("laboratoryVenue", laboratoryVenue);
+        out.writeFields();
+    }
+
+    /**
+     * Reads the index from file, with the enrolled students and waiting list as lists
+     * @param in ObjectInputStream to read from
+     * @throws IOException cannot read
+     * @throws ClassNotFoundException class of a field is not found
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        indexNumber = fields.get("indexNumber", 0);
+        maxClassSize = fields.get("maxClassSize", 0);
+        vacancy = new AtomicInteger(fields.get("vacancy", 0));
+        enrolledStudents = new StudentSet(maxClassSize, (Collection<String>) fields.get("enrolledStudents", new ArrayList<>()));
+        waitingList = new WaitingList((Collection<String>) fields.get("waitingList", new LinkedList<>()));
+        tutorialTimings = (Hashtable<DayOfWeek, List<LocalTime>>) fields.get("tutorialTimings", null);
+        tutorialVenue = (Venue) fields.get("tutorialVenue", null);
+        laboratoryTimings = (Hashtable<DayOfWeek, List<LocalTime>>) fields.get("laboratoryTimings", null);
+        laboratoryVenue = (Venue) fields.get("laboratoryVenue", null);
+    }
+
     /**
      * Append all attributes of this index into a String
      * @return A String as described above
@@ -252,81 +469,20 @@ public class Index implements Serializable {
     @Override
     public String toString(){
         return "---------------latest index info---------------" +
-                "\nindexNumber: " + indexNumber + "\tmax class size: " + maxClassSize + "\tvacancies: " + vacancy +
+                "\nindexNumber: " + indexNumber + "\tmax class size: " + maxClassSize + "\tvacancies: " + vacancy.get() +
                 "\ntutorial timings: " + tutorialTimings + "\ttutorial venue: " + tutorialVenue +
                 "\nlaboratory timings: " + laboratoryTimings + "\tlaboratory venue: " + laboratoryVenue;
     }
 
     /** Determines if there is a clash in timings between the laboratory or tutorial sessions (if any) of a given index
      * and the laboratory and tutorial sessions (if any) timings of the other index.
-     * Loops through the lecture days in the Lecture Timings TreeMap
-     * to check if there is an overlap in timings with the laboratory or tutorial sessions
-     * of a given index on any particular day.
+     * Compares the occupancy bitmaps of the sessions of both indexes.
      *
      * @param i index to check against
      * @return A boolean that is true if there is a clash in timings
-     * @see #clashingTimetable(Hashtable, Hashtable, DayOfWeek)
+     * @see Timetable#isClashing(Timetable)
      */
     public boolean isClashing(Index i) {
-        Hashtable<DayOfWeek, List<LocalTime>> laboratoryTimings = i.getLaboratoryTimings();
-        Hashtable<DayOfWeek, List<LocalTime>> tutorialTimings = i.getTutorialTimings();
-        if (this.laboratoryTimings != null) {
-            for (DayOfWeek thisLaboratoryDay : this.laboratoryTimings.keySet()) {
-                if (clashingTimetable(this.laboratoryTimings, laboratoryTimings, thisLaboratoryDay) ||
-                        clashingTimetable(this.laboratoryTimings, tutorialTimings, thisLaboratoryDay)) {
-                    return true;
-                }
-            }
-        }
-        if (this.tutorialTimings != null) {
-            for (DayOfWeek thisTutorialDay : this.tutorialTimings.keySet()) {
-                if (clashingTimetable(this.tutorialTimings, laboratoryTimings, thisTutorialDay) ||
-                        clashingTimetable(this.tutorialTimings, tutorialTimings, thisTutorialDay)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Determines if two time slots overlap.
-     *
-     * @param thisIndexTimings start time and end time of current index laboratory/ tutorial
-     * @param newIndexTimings start and end time of new index laboratory/ tutorial
-     * @param thisIndexDay day of current index laboratory/ tutorial
-     * @return A boolean that is true if and only if there is a clash in timings.
-     */
-    private boolean clashingTimetable(Hashtable<DayOfWeek, List<LocalTime>> thisIndexTimings,
-                                      Hashtable<DayOfWeek, List<LocalTime>> newIndexTimings,
-                                      DayOfWeek thisIndexDay) {
-        if (thisIndexDay == null || newIndexTimings == null || thisIndexTimings == null) {
-            return false;
-        }
-        for (DayOfWeek thatLectureDay : newIndexTimings.keySet()) {
-            if (thisIndexDay == thatLectureDay) {
-                if (overlappingTimeslot(thisIndexTimings.get(thisIndexDay).get(0),
-                        thisIndexTimings.get(thisIndexDay).get(1),
-                        newIndexTimings.get(thatLectureDay).get(0),
-                        newIndexTimings.get(thatLectureDay).get(1))) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    /** Determines if two timings overlap.
-     * Timings overlap if a session starts before the other session ends and
-     * if the session also ends after the other session starts.
-     *
-     * @param start1 LocalTime object that contains the start time of a session
-     * @param end1 LocalTime object that contains the end time of a session
-     * @param start2 LocalTime object that contains the start time of the other session
-     * @param end2 LocalTime object that contains the end time of the other session
-     * @return A boolean that is true if there is an overlap in two timings
-     */
-    private boolean overlappingTimeslot(LocalTime start1, LocalTime end1, LocalTime start2, LocalTime end2) {
-        return start1.isBefore(end2) && start2.isBefore(end1);
+        return getTimetable().isClashing(i.getTimetable());
     }
 }
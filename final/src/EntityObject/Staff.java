@@ -14,6 +14,10 @@ import java.io.Serializable;
  */
 public class Staff extends AbstractUser {
     private String job;
+    /**
+     * Serialized ID that is tagged to the staff
+     */
+    private static final long serialVersionUID = -4820145197104064421L;
     /**
      *Creates staff user containing staff specific information.
      *
@@ -30,4 +34,29 @@ public class Staff extends AbstractUser {
         super(name, school, gender, nationality, UserType.ADMIN);
         this.job = job;
     }
+
+    /**
+     * Recreates a staff user that was written to a database file.
+     *
+     * @param username A String that represents the username
+     * @param hash A String that represents the hashed password
+     * @param name A String that represents the staff name
+     * @param gender An Enum value representing gender of staff
+     * @param nationality An Enum value of the nationality of the staff
+     * @param school An Enum value of the school
+     * @param email A String that represents the staff's email
+     * @param job A String that represents the staff's job
+     */
+    public Staff(String username, String hash, String name, Gender gender, Nationality nationality, School school, String email, String job) {
+        super(username, hash, name, gender, nationality, school, UserType.ADMIN, email);
+        this.job = job;
+    }
+
+    /**
+     * Gets job of staff
+     * @return job A String representing staff's job
+     */
+    public String getJob() {
+        return job;
+    }
 }
@@ -6,6 +6,7 @@ import HelperObject.PasswordStorage;
 import ValueObject.Gender;
 import ValueObject.Nationality;
 import ValueObject.School;
+import ValueObject.SymbolTable;
 import ValueObject.UserType;
 
 import java.util.Calendar;
@@ -42,6 +43,15 @@ public class Student extends AbstractUser {
      * Maximum number of AUs student can have
      */
     private int maxAUs;
+    /**
+     * Version of the student, given by the data access object whenever the student is stored
+     * Not written to file, so a student read from file starts at version 0
+     */
+    private transient volatile long version;
+    /**
+     * Serialized ID that is tagged to the student
+     */
+    private static final long serialVersionUID = -3061653854755863597L;
 
     /**
      * Creates student containing student specific information.
@@ -60,15 +70,56 @@ public class Student extends AbstractUser {
     public Student(String name, School school, Gender gender, Nationality nationality, int maxAUs, Random random) throws PasswordStorage.CannotPerformOperationException {
         super(name, school, gender, nationality, UserType.USER);
         int year = (Calendar.getInstance().get(Calendar.YEAR))%100 ;
-        this.matricNumber = "U" + year +
+        this.matricNumber = SymbolTable.STUDENTS.intern("U" + year +
                 String.format("%05d", count++) +
-                (char)(random.nextInt(26) + 'A');
+                (char)(random.nextInt(26) + 'A'));
         this.registeredCourses = new TreeMap<>();
         this.waitingListCourses = new TreeMap<>();
         this.totalRegisteredAUs = 0;
         this.maxAUs = maxAUs;
     }
 
+    /**
+     * Recreates a student that was written to a database file.
+     *
+     * @param username A String that represents the username
+     * @param hash A String that represents the hashed password
+     * @param name A String that represents the student name
+     * @param gender An Enum value of the gender that the student belongs to
+     * @param nationality An Enum value of the nationality of the student
+     * @param school An Enum value of the school of the student
+     * @param email A String that represents the student's email
+     * @param matricNumber A String that represents the student's matric number
+     * @param registeredCourses TreeMap of registered course codes and their index numbers
+     * @param waitingListCourses TreeMap of waiting list course codes and their index numbers
+     * @param totalRegisteredAUs An integer that represents the total AUs registered
+     * @param maxAUs An integer thar represents to number of AUs a student can have
+     */
+    public Student(String username, String hash, String name, Gender gender, Nationality nationality, School school, String email, String matricNumber, TreeMap<String, Integer> registeredCourses, TreeMap<String, Integer> waitingListCourses, int totalRegisteredAUs, int maxAUs) {
+        super(username, hash, name, gender, nationality, school, UserType.USER, email);
+        this.matricNumber = SymbolTable.STUDENTS.intern(matricNumber);
+        this.registeredCourses = registeredCourses;
+        this.waitingListCourses = waitingListCourses;
+        this.totalRegisteredAUs = totalRegisteredAUs;
+        this.maxAUs = maxAUs;
+    }
+
+    /**
+     * Gets the version of the student, to check later that nobody has stored the student since
+     * @return Long that represents the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the student, when it is stored or copied
+     * @param version Long that represents the version
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     /**
      * Gets a String that represents the student's matric number
      * @return String that represents student's matric number
@@ -82,7 +133,7 @@ public class Student extends AbstractUser {
      * @param matricNumber A String that represents the student's matric number
      */
     public void setMatricNumber(String matricNumber) {
-        this.matricNumber = matricNumber;
+        this.matricNumber = SymbolTable.STUDENTS.intern(matricNumber);
     }
 
     /**
@@ -95,6 +146,7 @@ public class Student extends AbstractUser {
      * @throws ExistingCourseException course already registered
      */
     public void registerCourse(String courseCode, int indexNumber) throws ExistingCourseException {
+        courseCode = SymbolTable.COURSES.intern(courseCode);
         if (registeredCourses.containsKey(courseCode)) {
             throw new ExistingCourseException();
         } else if (waitingListCourses.containsKey(courseCode)) {
@@ -132,6 +184,7 @@ public class Student extends AbstractUser {
      * @throws ExistingCourseException course already registered
      */
     public void registerWaitListCourse(String courseCode, int indexNumber) throws ExistingCourseException {
+        courseCode = SymbolTable.COURSES.intern(courseCode);
         if (waitingListCourses.containsKey(courseCode)) {
             throw new ExistingCourseException();
         } else {
@@ -0,0 +1,230 @@
+package EntityObject;
+
+import ValueObject.SymbolTable;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of students, kept as the IDs of their matric numbers in the order the students were added.
+ * The IDs are also kept in an open addressing table sized to the class, so that a student is checked
+ * without going through the whole class, whatever the number of students in the school.
+ * Matric numbers are translated to IDs when students are added, checked and removed,
+ * and back to matric numbers only when the set is iterated, in the order the students were added.
+ * @see SymbolTable#STUDENTS
+ */
+class StudentSet extends AbstractSet<String> {
+    /**
+     * IDs of the students in the set, in the order they were added
+     */
+    private int[] ids;
+    /**
+     * Open addressing table of the IDs of the students in the set, each plus one, with 0 for a free slot
+     */
+    private int[] slots;
+    /**
+     * Number of students in the set
+     */
+    private int size;
+    /**
+     * Number of times students were removed, so that iterators can tell the set was changed under them
+     */
+    private int removals;
+
+    /**
+     * Creates an empty set
+     * @param capacity Integer that represents the number of students expected, such as the maximum class size
+     */
+    StudentSet(int capacity) {
+        ids = new int[Math.max(capacity, 4)];
+        slots = new int[tableSize(ids.length)];
+    }
+
+    /**
+     * Creates a set of students
+     * @param capacity Integer that represents the number of students expected, such as the maximum class size
+     * @param students Collection of matric numbers of students, in the order they were added
+     */
+    StudentSet(int capacity, Collection<String> students) {
+        this(Math.max(capacity, students.size()));
+        addAll(students);
+    }
+
+    /**
+     * Adds a student to the set
+     * @param matricNumber String that represents the matric number of a student
+     * @return A boolean that is false if the student is already in the set
+     */
+    @Override
+    public boolean add(String matricNumber) {
+        int id = SymbolTable.STUDENTS.idOf(matricNumber);
+        if (slots[slotOf(id)] != 0) {
+            return false;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            rehash(tableSize(ids.length));
+        }
+        slots[slotOf(id)] = id + 1;
+        ids[size++] = id;
+        return true;
+    }
+
+    /**
+     * Removes a student from the set
+     * @param o Object that represents the matric number of a student
+     * @return A boolean that is true if the student was in the set
+     */
+    @Override
+    public boolean remove(Object o) {
+        int id = o instanceof String ? SymbolTable.STUDENTS.find((String) o) : -1;
+        if (id < 0 || slots[slotOf(id)] == 0) {
+            return false;
+        }
+        removeId(id);
+        return true;
+    }
+
+    /**
+     * Determines if a student is in the set
+     * @param o Object that represents the matric number of a student
+     * @return A boolean that is true if the student is in the set
+     */
+    @Override
+    public boolean contains(Object o) {
+        int id = o instanceof String ? SymbolTable.STUDENTS.find((String) o) : -1;
+        return id >= 0 && slots[slotOf(id)] != 0;
+    }
+
+    /**
+     * Gets the number of students in the set
+     * @return Integer that represents the number of students
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets an iterator over the matric numbers of the students in the set, in the order they were added
+     * @return Iterator of matric numbers
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            /**
+             * Position of the next student to be returned
+             */
+            private int next;
+            /**
+             * ID of the student last returned, or -1 if it was removed
+             */
+            private int last = -1;
+            /**
+             * Number of removals from the set that this iterator knows of
+             */
+            private int expectedRemovals = removals;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public String next() {
+                if (expectedRemovals != removals) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                last = ids[next++];
+                return SymbolTable.STUDENTS.nameOf(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                removeId(last);
+                expectedRemovals = removals;
+                next--;
+                last = -1;
+            }
+        };
+    }
+
+    /**
+     * Removes a student that is in the set, keeping the order of the others
+     * @param id Integer that represents the ID of the matric number of the student
+     */
+    private void removeId(int id) {
+        int mask = slots.length - 1;
+        int free = slotOf(id);
+        //moves back the IDs after the freed slot that would no longer be found past it
+        for (int slot = (free + 1) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int home = hash(slots[slot] - 1) & mask;
+            if (((slot - home) & mask) >= ((slot - free) & mask)) {
+                slots[free] = slots[slot];
+                free = slot;
+            }
+        }
+        slots[free] = 0;
+        int position = 0;
+        while (ids[position] != id) {
+            position++;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+        removals++;
+    }
+
+    /**
+     * Finds the slot of an ID, which is the slot it is in or the free slot it would be put in
+     * @param id Integer that represents the ID of a matric number
+     * @return Integer that represents the slot
+     */
+    private int slotOf(int id) {
+        int mask = slots.length - 1;
+        int slot = hash(id) & mask;
+        while (slots[slot] != 0 && slots[slot] != id + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Puts the IDs of the students in the set into a new table
+     * @param tableSize Integer that represents the number of slots, a power of two
+     */
+    private void rehash(int tableSize) {
+        slots = new int[tableSize];
+        for (int i = 0; i < size; i++) {
+            slots[slotOf(ids[i])] = ids[i] + 1;
+        }
+    }
+
+    /**
+     * Spreads IDs over the table, as IDs given out one after another would otherwise fill runs of slots
+     * @param id Integer that represents the ID of a matric number
+     * @return Integer that represents the hash
+     */
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Gets the number of slots for a number of students, so that the table is at most half full
+     * @param capacity Integer that represents the number of students
+     * @return Integer that represents the number of slots, a power of two
+     */
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+}
@@ -0,0 +1,229 @@
+package EntityObject;
+
+import ValueObject.SymbolTable;
+
+import java.util.*;
+
+/**
+ * Waiting list of an index, first come first served.
+ * <p>
+ * Every student added is given a ticket, a number larger than the ticket of every student added before,
+ * and a Fenwick tree over the tickets counts the students still waiting, so that checking and removing a student
+ * takes constant time and finding the position of a student takes logarithmic time.
+ * Tickets of removed students are given out again when the tickets run out.
+ */
+class WaitingList extends AbstractQueue<String> {
+    /**
+     * Initial number of tickets
+     */
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * Tickets of the students waiting, by matric number
+     */
+    private final HashMap<String, Integer> tickets = new HashMap<>();
+    /**
+     * Matric numbers of the students waiting, by ticket, or null if the student of the ticket was removed
+     */
+    private String[] students = new String[INITIAL_CAPACITY];
+    /**
+     * Fenwick tree counting the students waiting, over the tickets from 1
+     */
+    private int[] tree = new int[INITIAL_CAPACITY + 1];
+    /**
+     * Ticket of the first student waiting, or of a removed student before it
+     */
+    private int head;
+    /**
+     * Ticket to be given to the next student added
+     */
+    private int next;
+
+    /**
+     * Creates an empty waiting list
+     */
+    WaitingList() {
+    }
+
+    /**
+     * Creates a waiting list of students in order, leaving out repeated students
+     * @param students Collection of matric numbers of students, first come first
+     */
+    WaitingList(Collection<String> students) {
+        for (String matricNumber : students) {
+            offer(matricNumber);
+        }
+    }
+
+    /**
+     * Adds a student to the end of the waiting list
+     * @param matricNumber String that represents the matric number of a student
+     * @return A boolean that is false if the student is already on the waiting list
+     */
+    @Override
+    public boolean offer(String matricNumber) {
+        Objects.requireNonNull(matricNumber);
+        if (tickets.containsKey(matricNumber)) {
+            return false;
+        }
+        if (next == students.length) {
+            renumber();
+        }
+        //one shared copy of the matric number however many waiting lists the student is on
+        matricNumber = SymbolTable.STUDENTS.intern(matricNumber);
+        students[next] = matricNumber;
+        tickets.put(matricNumber, next);
+        count(next, 1);
+        next++;
+        return true;
+    }
+
+    /**
+     * Removes the student at the front of the waiting list
+     * @return String that represents the matric number of the student, or null if the waiting list is empty
+     */
+    @Override
+    public String poll() {
+        String matricNumber = peek();
+        if (matricNumber != null) {
+            remove(matricNumber);
+        }
+        return matricNumber;
+    }
+
+    /**
+     * Gets the student at the front of the waiting list
+     * @return String that represents the matric number of the student, or null if the waiting list is empty
+     */
+    @Override
+    public String peek() {
+        while (head < next && students[head] == null) {
+            head++;
+        }
+        return head < next ? students[head] : null;
+    }
+
+    /**
+     * Removes a student from the waiting list
+     * @param o Object that represents the matric number of a student
+     * @return A boolean that is true if the student was on the waiting list
+     */
+    @Override
+    public boolean remove(Object o) {
+        Integer ticket = tickets.remove(o);
+        if (ticket == null) {
+            return false;
+        }
+        students[ticket] = null;
+        count(ticket, -1);
+        return true;
+    }
+
+    /**
+     * Determines if a student is on the waiting list
+     * @param o Object that represents the matric number of a student
+     * @return A boolean that is true if the student is on the waiting list
+     */
+    @Override
+    public boolean contains(Object o) {
+        return tickets.containsKey(o);
+    }
+
+    /**
+     * Gets the position of a student on the waiting list
+     * @param matricNumber String that represents the matric number of a student
+     * @return Integer that represents the position, 1 for the student at the front, or 0 if the student is not waiting
+     */
+    int positionOf(String matricNumber) {
+        Integer ticket = tickets.get(matricNumber);
+        if (ticket == null) {
+            return 0;
+        }
+        int position = 0;
+        for (int i = ticket + 1; i > 0; i -= i & -i) {
+            position += tree[i];
+        }
+        return position;
+    }
+
+    /**
+     * Gets the number of students on the waiting list
+     * @return Integer that represents the number of students
+     */
+    @Override
+    public int size() {
+        return tickets.size();
+    }
+
+    /**
+     * Gets an iterator over the students on the waiting list, front first
+     * @return Iterator of matric numbers
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            /**
+             * Ticket of the next student to be returned, or of a removed student before it
+             */
+            private int ticket = head;
+            /**
+             * Matric number of the student last returned, or null if it was removed
+             */
+            private String last;
+
+            @Override
+            public boolean hasNext() {
+                while (ticket < next && students[ticket] == null) {
+                    ticket++;
+                }
+                return ticket < next;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = students[ticket++];
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                WaitingList.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    /**
+     * Adds to the count of students waiting at a ticket
+     * @param ticket Integer that represents the ticket
+     * @param delta Integer that represents the change in count
+     */
+    private void count(int ticket, int delta) {
+        for (int i = ticket + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Gives the students waiting new tickets from 0 in order, making room for at least as many students again
+     */
+    private void renumber() {
+        String[] waiting = toArray(new String[0]);
+        int capacity = Math.max(INITIAL_CAPACITY, waiting.length * 2);
+        students = new String[capacity];
+        tree = new int[capacity + 1];
+        tickets.clear();
+        head = next = 0;
+        for (String matricNumber : waiting) {
+            students[next] = matricNumber;
+            tickets.put(matricNumber, next);
+            count(next, 1);
+            next++;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package Exception;
+
+public class StaleVersionException extends Exception{
+    /**
+     * Serialized ID that is tagged to the exception
+     */
+    private static final long serialVersionUID = 1L;
+}
@@ -11,15 +11,36 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 
 public class Factory {
+    /**
+     * Stack size of the platform threads of network connections and requests, used where there are no virtual threads
+     */
+    private static final long THREAD_STACK_SIZE = 256 * 1024;
+    /**
+     * Creates the messengers of createEmailMessenger, email messengers unless replaced
+     */
+    private static volatile Function<String, IMessenger> messengerFactory = EmailMessenger::new;
+
     /**
      * Creates a login control terminal.
      * @return LoginControl
      */
     public static ConsoleLoginControl createLoginControl() {
-        TextIO textIO = TextIoFactory.getTextIO();
+        return createLoginControl(TextIoFactory.getTextIO());
+    }
+
+    /**
+     * Creates a login control on a given terminal, such as the terminal of a network connection.
+     * @param textIO TextIO object of the terminal
+     * @return LoginControl
+     */
+    public static ConsoleLoginControl createLoginControl(TextIO textIO) {
         return new ConsoleLoginControl(textIO, textIO.getTextTerminal());
     }
 
@@ -68,6 +89,14 @@ public class Factory {
         return TextUserDataAccessObject.getInstance();
     }
 
+    /**
+     * @param h HTTP registration API
+     * Refer to {@link #getTextUserDataAccessObject(ConsoleAdminSession a)} for the overloaded method}.
+     */
+    public static IReadUserDataAccessObject getTextUserDataAccessObject(HttpRegistrationApi h) throws IOException, ClassNotFoundException {
+        return TextUserDataAccessObject.getInstance();
+    }
+
     /**
      * Gets the read and write/ read only version of TextCourseDataAccessObject interface.
      * Admin session, Student course registrar, registration data access object returns read and write version
@@ -105,6 +134,22 @@ public class Factory {
         return TextCourseDataAccessObject.getInstance();
     }
 
+    /**
+     * @param p timetable planner
+     * Refer to {@link #getTextCourseDataAccessObject(ConsoleAdminSession a)} for the overloaded method}.
+     */
+    public static IReadCourseDataAccessObject getTextCourseDataAccessObject(TimetablePlanner p) throws IOException, ClassNotFoundException {
+        return TextCourseDataAccessObject.getInstance();
+    }
+
+    /**
+     * @param h HTTP registration API
+     * Refer to {@link #getTextCourseDataAccessObject(ConsoleAdminSession a)} for the overloaded method}.
+     */
+    public static IReadCourseDataAccessObject getTextCourseDataAccessObject(HttpRegistrationApi h) throws IOException, ClassNotFoundException {
+        return TextCourseDataAccessObject.getInstance();
+    }
+
     /**
      * Gets the read and write/ read only version of TextRegistrationDataAccessObject interface.
      * Admin session, Student course registrar returns read and write version
@@ -140,7 +185,16 @@ public class Factory {
      * @return appropriate session based on user type
      */
     public static ISession createSession(AbstractUser user) {
-        TextIO textIO = TextIoFactory.getTextIO();
+        return createSession(user, TextIoFactory.getTextIO());
+    }
+
+    /**
+     * Creates session appropriate for the user given, on a given terminal.
+     * @param user AbstractUser object given
+     * @param textIO TextIO object of the terminal
+     * @return appropriate session based on user type
+     */
+    public static ISession createSession(AbstractUser user, TextIO textIO) {
         switch (user.getUserType()) {
             case ADMIN -> {
                 return new ConsoleAdminSession(textIO, textIO.getTextTerminal(), user);
@@ -243,10 +297,18 @@ public class Factory {
     /**
      * Creates email messenger.
      * @param recipientEmail String that stores email of recipient
-     * @return EmailMessenger object
+     * @return EmailMessenger object, or the messenger of the factory set by {@link #setMessengerFactory(Function)}
      */
     public static IMessenger createEmailMessenger(String recipientEmail) {
-        return new EmailMessenger(recipientEmail);
+        return messengerFactory.apply(recipientEmail);
+    }
+
+    /**
+     * Replaces the messengers created by {@link #createEmailMessenger(String)}, for tools that must not send email
+     * @param factory Function that creates a messenger for the email of a recipient
+     */
+    public static void setMessengerFactory(Function<String, IMessenger> factory) {
+        messengerFactory = factory;
     }
 
     /**
@@ -256,4 +318,42 @@ public class Factory {
     public static StudentCourseRegistrar createStudentCourseRegistrar() {
         return new StudentCourseRegistrar();
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a unit of work.
+     * @return UnitOfWork object
+     */
+    public static UnitOfWork createUnitOfWork() {
+        return new UnitOfWork();
+    }
+
+    /**
+     * Creates a timetable planner that searches on the common ForkJoinPool.
+     * @return TimetablePlanner object
+     */
+    public static TimetablePlanner createTimetablePlanner() {
+        return new TimetablePlanner(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a factory of threads for serving network connections and requests.
+     * Virtual threads are looked up by reflection, as the application is built for runtimes without them.
+     * @param name String that the names of the threads start with
+     * @return ThreadFactory of virtual threads if the runtime has them, else of daemon platform threads with small stacks
+     */
+    public static ThreadFactory createThreadFactory(String name) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return r -> {
+                Thread thread = new Thread(null, r, name + threadNumber.getAndIncrement(), THREAD_STACK_SIZE);
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+}
@@ -81,7 +81,7 @@ public class InputValidator {
             String[] splitTime = timeStr.split(":");
             int hour = Integer.parseInt(splitTime[0]);
             int min = Integer.parseInt(splitTime[1]);
-            valid = ((hour >= 0 && hour < 24) && (min == 0 || min == 30));
+            valid = ((hour >= 0 && hour < 24) && (min >= 0 && min < 60));
         }
         else{
             valid = false;
@@ -94,13 +94,13 @@ public class InputValidator {
      * @param timeStr String that stores time input value to be checked
      * @param schoolStartTime String that stores opening time of school
      * @param schoolEndTime String that stores closing time of school
-     * @param duration Integer that stores duration of class
+     * @param duration Integer that stores duration of class in minutes
      * @return boolean value if given time input is within earliest and latest times of school opening hours, true if valid
      */
     public static boolean validateTimeInput(String timeStr, String schoolStartTime, String schoolEndTime, int duration) {
         boolean valid;
         LocalTime classStartTime = LocalTime.parse(timeStr);
-        LocalTime classEndTime = classStartTime.plusHours(duration);
+        LocalTime classEndTime = classStartTime.plusMinutes(duration);
         LocalTime earliestTime = LocalTime.parse(schoolStartTime);
         LocalTime latestTime = LocalTime.parse(schoolEndTime);
         valid = !classStartTime.isBefore(earliestTime) && classStartTime.isBefore(latestTime) &&
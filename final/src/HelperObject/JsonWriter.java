@@ -0,0 +1,154 @@
+package HelperObject;
+
+/**
+ * Writes JSON text, one name or value at a time, putting in the commas between them.
+ */
+public class JsonWriter {
+    /**
+     * JSON text written so far
+     */
+    private final StringBuilder json = new StringBuilder();
+    /**
+     * boolean that is true if the next value is the first of its object or array, or follows a name
+     */
+    private boolean first = true;
+
+    /**
+     * Starts an object
+     * @return this JsonWriter
+     */
+    public JsonWriter beginObject() {
+        separate();
+        json.append('{');
+        first = true;
+        return this;
+    }
+
+    /**
+     * Ends an object
+     * @return this JsonWriter
+     */
+    public JsonWriter endObject() {
+        json.append('}');
+        first = false;
+        return this;
+    }
+
+    /**
+     * Starts an array
+     * @return this JsonWriter
+     */
+    public JsonWriter beginArray() {
+        separate();
+        json.append('[');
+        first = true;
+        return this;
+    }
+
+    /**
+     * Ends an array
+     * @return this JsonWriter
+     */
+    public JsonWriter endArray() {
+        json.append(']');
+        first = false;
+        return this;
+    }
+
+    /**
+     * Writes the name of the next value of an object
+     * @param name String that represents the name
+     * @return this JsonWriter
+     */
+    public JsonWriter name(String name) {
+        separate();
+        string(name);
+        json.append(':');
+        first = true;
+        return this;
+    }
+
+    /**
+     * Writes a string
+     * @param value String to be written, or null
+     * @return this JsonWriter
+     */
+    public JsonWriter value(String value) {
+        separate();
+        if (value == null) {
+            json.append("null");
+        } else {
+            string(value);
+        }
+        first = false;
+        return this;
+    }
+
+    /**
+     * Writes a number
+     * @param value Long to be written
+     * @return this JsonWriter
+     */
+    public JsonWriter value(long value) {
+        separate();
+        json.append(value);
+        first = false;
+        return this;
+    }
+
+    /**
+     * Writes a boolean
+     * @param value boolean to be written
+     * @return this JsonWriter
+     */
+    public JsonWriter value(boolean value) {
+        separate();
+        json.append(value);
+        first = false;
+        return this;
+    }
+
+    /**
+     * Gets the JSON text written
+     * @return String of JSON text
+     */
+    @Override
+    public String toString() {
+        return json.toString();
+    }
+
+    /**
+     * Writes a comma if the next value is not the first of its object or array
+     */
+    private void separate() {
+        if (!first) {
+            json.append(',');
+        }
+    }
+
+    /**
+     * Writes a quoted string, escaping quotes, backslashes and control characters
+     * @param value String to be written
+     */
+    private void string(String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,112 @@
+package HelperObject;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in microseconds, recorded from many threads without locking.
+ * <p>
+ * Latencies below 16 microseconds are counted exactly, and every doubling above that is split into 16 buckets,
+ * so that a percentile is never more than about 6% above the latency it stands for.
+ */
+public class LatencyHistogram {
+    /**
+     * Number of bits of a latency kept within each doubling
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+    /**
+     * Number of buckets of each doubling
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Counts of the latencies, by bucket
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(bucketOf(Long.MAX_VALUE) + 1);
+    /**
+     * Number of latencies recorded
+     */
+    private final LongAdder count = new LongAdder();
+    /**
+     * Longest latency recorded in microseconds
+     */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a latency
+     * @param nanos Long that represents the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(bucketOf(micros));
+        count.increment();
+        max.accumulate(micros);
+    }
+
+    /**
+     * Gets the number of latencies recorded
+     * @return Long that represents the number of latencies
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the longest latency recorded
+     * @return Long that represents the latency in microseconds, or 0 if none was recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets a percentile of the latencies recorded
+     * @param percentile Double that represents the percentile, from 0 to 100
+     * @return Long that represents the highest latency of the bucket the percentile falls in, in microseconds,
+     * or 0 if none was recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[counts.length()];
+        for (int bucket = 0; bucket < snapshot.length; bucket++) {
+            snapshot[bucket] = counts.get(bucket);
+            total += snapshot[bucket];
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < snapshot.length; bucket++) {
+            seen += snapshot[bucket];
+            if (seen >= rank) {
+                return Math.min(highestOf(bucket), getMax());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the bucket of a latency
+     * @param micros Long that represents the latency in microseconds, not negative
+     * @return Integer that represents the bucket
+     */
+    private static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (micros >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Gets the highest latency of a bucket
+     * @param bucket Integer that represents the bucket
+     * @return Long that represents the latency in microseconds
+     */
+    private static long highestOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,197 @@
+package HelperObject;
+
+import org.beryx.textio.AbstractTextTerminal;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Text terminal on a network connection, for telnet clients and the like.
+ * <p>
+ * Lines are read from the connection and text is written to it in UTF-8, with lines ending in CR LF.
+ * Telnet commands sent by the client are skipped, and masked input is read by asking the client to stop echoing.
+ * When the connection is closed every read throws an UncheckedIOException, so that the session on the terminal ends.
+ */
+public class SocketTextTerminal extends AbstractTextTerminal<SocketTextTerminal> {
+    /**
+     * Size of the buffers of the connection, kept small as most connections are idle
+     */
+    private static final int BUFFER_SIZE = 512;
+    /**
+     * Maximum number of bytes kept of a line, the rest of a longer line is left out
+     */
+    private static final int MAX_LINE_LENGTH = 1024;
+    /**
+     * Telnet command that starts every other command
+     */
+    private static final int IAC = 255;
+    /**
+     * Telnet command that starts a subnegotiation
+     */
+    private static final int SB = 250;
+    /**
+     * Telnet command that ends a subnegotiation
+     */
+    private static final int SE = 240;
+    /**
+     * First telnet command taking an option, followed by WONT, DO and DONT
+     */
+    private static final int WILL = 251;
+    /**
+     * Telnet command that refuses an option
+     */
+    private static final int WONT = 252;
+    /**
+     * Telnet command that requests an option
+     */
+    private static final int DONT = 254;
+    /**
+     * Telnet option of echoing by the server
+     */
+    private static final int ECHO = 1;
+    /**
+     * InputStream of the connection
+     */
+    private final InputStream in;
+    /**
+     * OutputStream of the connection
+     */
+    private final OutputStream out;
+    /**
+     * Bytes of the line being read
+     */
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    /**
+     * boolean that is true once the connection is closed
+     */
+    private boolean closed;
+
+    /**
+     * Creates a terminal on a connection
+     * @param socket Socket of the connection
+     * @throws IOException cannot get the streams of the connection
+     */
+    public SocketTextTerminal(Socket socket) throws IOException {
+        this.in = new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE);
+        this.out = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+    }
+
+    /**
+     * Reads a line, without echoing it if masked
+     * @param masking boolean that is true if the input is masked
+     * @return String that represents the line, without its line ending
+     * @throws UncheckedIOException the connection is closed
+     */
+    @Override
+    public String read(boolean masking) {
+        try {
+            if (masking) {
+                sendCommand(WILL, ECHO);
+            }
+            out.flush();
+            String input = readLine();
+            if (masking) {
+                sendCommand(WONT, ECHO);
+                println();
+            }
+            return input;
+        } catch (IOException e) {
+            closed = true;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes text, with line endings as CR LF
+     * @param message String that represents the text
+     */
+    @Override
+    public void rawPrint(String message) {
+        write(message.replace("\r\n", "\n").replace("\n", "\r\n"));
+    }
+
+    /**
+     * Ends the line
+     */
+    @Override
+    public void println() {
+        write("\r\n");
+        try {
+            out.flush();
+        } catch (IOException e) {
+            closed = true;
+        }
+    }
+
+    /**
+     * Writes text to the connection, doing nothing once it is closed as the next read ends the session
+     * @param text String that represents the text
+     */
+    private void write(String text) {
+        if (closed) {
+            return;
+        }
+        try {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            closed = true;
+        }
+    }
+
+    /**
+     * Reads a line, skipping telnet commands
+     * @return String that represents the line, without its line ending
+     * @throws IOException cannot read, or the connection is closed
+     */
+    private String readLine() throws IOException {
+        if (closed) {
+            throw new EOFException("connection closed");
+        }
+        line.reset();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException("connection closed");
+            } else if (b == IAC) {
+                b = in.read();
+                if (b == IAC && line.size() < MAX_LINE_LENGTH) {
+                    line.write(b);
+                } else if (b == SB) {
+                    skipSubnegotiation();
+                } else if (b >= WILL && b <= DONT) {
+                    in.read();
+                }
+            } else if (b != '\r' && b != 0 && line.size() < MAX_LINE_LENGTH) {
+                line.write(b);
+            }
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Skips a telnet subnegotiation up to and including its end
+     * @throws IOException cannot read, or the connection is closed
+     */
+    private void skipSubnegotiation() throws IOException {
+        int previous = 0;
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (previous == IAC && b == SE) {
+                return;
+            }
+            previous = previous == IAC && b == IAC ? 0 : b;
+        }
+        throw new EOFException("connection closed");
+    }
+
+    /**
+     * Sends a telnet command about an option
+     * @param command Integer that represents the command, from WILL to DONT
+     * @param option Integer that represents the option
+     * @throws IOException cannot write
+     */
+    private void sendCommand(int command, int option) throws IOException {
+        out.write(new byte[]{(byte) IAC, (byte) command, (byte) option});
+    }
+}
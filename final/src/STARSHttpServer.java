@@ -0,0 +1,42 @@
+import ControlObject.HttpRegistrationApi;
+import DataAccessObject.TextCourseDataAccessObject;
+import DataAccessObject.TextRegistrationDataAccessObject;
+import DataAccessObject.TextUserDataAccessObject;
+import HelperObject.Factory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the HTTP registration API, for load tests and other programs.
+ * Requests are handled on virtual threads where the Java runtime has them, and on a pool of platform threads otherwise.
+ * Run it from the directory containing the data directory, with the port as the argument or 8080 by default.
+ * @see HttpRegistrationApi
+ */
+public class STARSHttpServer {
+    /**
+     * Port listened on if none is given
+     */
+    private static final int DEFAULT_PORT = 8080;
+
+    /**
+     * Starts the API
+     * @param args the port, if not the default
+     * @throws IOException cannot read file, or cannot listen on the port
+     * @throws ClassNotFoundException Class does not exist
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+        //the files are read before the first request rather than during it
+        TextCourseDataAccessObject.getInstance();
+        TextUserDataAccessObject.getInstance();
+        TextRegistrationDataAccessObject.getInstance();
+
+        HttpRegistrationApi api = new HttpRegistrationApi(new InetSocketAddress(port),
+                Executors.newCachedThreadPool(Factory.createThreadFactory("http-")));
+        api.start();
+        System.out.println("listening on port " + api.getAddress().getPort());
+    }
+}
@@ -0,0 +1,123 @@
+import ControlObject.ConsoleLoginControl;
+import ControlObject.ISession;
+import DataAccessObject.TextCourseDataAccessObject;
+import DataAccessObject.TextRegistrationDataAccessObject;
+import DataAccessObject.TextUserDataAccessObject;
+import EntityObject.AbstractUser;
+import HelperObject.Factory;
+import HelperObject.SocketTextTerminal;
+import org.beryx.textio.TextIO;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs STARS for many users at once over the network, one login and session per telnet connection.
+ * <p>
+ * Every connection is served on its own thread, a virtual thread where the Java runtime has them and a platform
+ * thread with a small stack otherwise, so that connections left idle at a prompt cost little.
+ * All sessions share the data access objects of the server, so a registration in one session is seen by all.
+ * The number of connections and of logged in sessions is printed every minute.
+ * Run it from the directory containing the data directory, with the port as the argument or 2323 by default.
+ */
+public class STARSServer {
+    /**
+     * Port listened on if none is given
+     */
+    private static final int DEFAULT_PORT = 2323;
+    /**
+     * Number of connections that may wait to be accepted
+     */
+    private static final int BACKLOG = 1024;
+    /**
+     * Seconds between reports of the connections and sessions
+     */
+    private static final long REPORT_INTERVAL_SECONDS = 60;
+    /**
+     * Number of open connections
+     */
+    private static final AtomicInteger connections = new AtomicInteger();
+    /**
+     * Number of logged in sessions
+     */
+    private static final AtomicInteger activeSessions = new AtomicInteger();
+
+    /**
+     * Accepts connections until the server is stopped
+     * @param args the port, if not the default
+     * @throws IOException cannot read file, or cannot listen on the port
+     * @throws ClassNotFoundException Class does not exist
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+        //the files are read before the first login rather than during it
+        TextCourseDataAccessObject.getInstance();
+        TextUserDataAccessObject.getInstance();
+        TextRegistrationDataAccessObject.getInstance();
+
+        ThreadFactory connectionThreads = Factory.createThreadFactory("connection-");
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> System.out.println(report()),
+                REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        try (ServerSocket serverSocket = new ServerSocket(port, BACKLOG)) {
+            System.out.println("listening on port " + serverSocket.getLocalPort());
+            while (true) {
+                Socket socket = serverSocket.accept();
+                connectionThreads.newThread(() -> serve(socket)).start();
+            }
+        }
+    }
+
+    /**
+     * Logs in and runs sessions on a connection until the user exits or the connection is closed
+     * @param socket Socket of the connection
+     */
+    private static void serve(Socket socket) {
+        connections.incrementAndGet();
+        try (socket) {
+            TextIO textIO = new TextIO(new SocketTextTerminal(socket));
+            ISession session;
+            do {
+                ConsoleLoginControl loginControl = Factory.createLoginControl(textIO);
+                AbstractUser user = loginControl.login();
+                if (user == null) {
+                    return;
+                }
+                session = Factory.createSession(user, textIO);
+                activeSessions.incrementAndGet();
+                try {
+                    session.run();
+                } finally {
+                    activeSessions.decrementAndGet();
+                }
+            } while (!session.logout());
+        } catch (SecurityException | UncheckedIOException | IOException ignored) {
+            //the user exited or the connection was closed
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        } finally {
+            connections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Describes the connections and sessions
+     * @return String that represents the number of connections and of logged in sessions
+     */
+    private static String report() {
+        return connections.get() + " connections, " + activeSessions.get() + " active sessions";
+    }
+}
@@ -19,6 +19,16 @@ public class RegistrationKey implements Comparable<RegistrationKey>, Serializabl
      * index number of a course
      */
     private final int indexNumber;
+    /**
+     * ID of the student's matric number, or -1 if no student has it, not written to file
+     * @see SymbolTable#STUDENTS
+     */
+    private final transient int studentId;
+    /**
+     * ID of the course code, or -1 if no course has it, not written to file
+     * @see SymbolTable#COURSES
+     */
+    private final transient int courseId;
     /**
      * Serialized ID that is tagged to the registrationKey object
      */
@@ -26,16 +36,28 @@ public class RegistrationKey implements Comparable<RegistrationKey>, Serializabl
 
     /**
      * Initialize all attributes of this class
+     * The matric number and course code are only looked up, as they may come from a client and name nobody,
+     * and are given IDs when the student or course is created
      * @param matricNumber String that presents student's matric number
      * @param courseCode String containing the course code
      * @param indexNumber Integer that represents the index number
      */
     public RegistrationKey(String matricNumber, String courseCode, int indexNumber) {
-        this.matricNumber = matricNumber;
-        this.courseCode = courseCode;
+        this.studentId = SymbolTable.STUDENTS.find(matricNumber);
+        this.courseId = SymbolTable.COURSES.find(courseCode);
+        this.matricNumber = studentId < 0 ? matricNumber : SymbolTable.STUDENTS.nameOf(studentId);
+        this.courseCode = courseId < 0 ? courseCode : SymbolTable.COURSES.nameOf(courseId);
         this.indexNumber = indexNumber;
     }
 
+    /**
+     * Replaces a registration key read from file with one that has the IDs of its matric number and course code
+     * @return RegistrationKey object
+     */
+    private Object readResolve() {
+        return new RegistrationKey(matricNumber, courseCode, indexNumber);
+    }
+
     /**
      * Gets a String that represents the student's matric number
      * @return String that presents student's matric number
@@ -62,13 +84,15 @@ public class RegistrationKey implements Comparable<RegistrationKey>, Serializabl
 
     /**
      * Compares RegistrationKey object to another RegistrationKey object
+     * Equal matric numbers and course codes are found by their IDs, without comparing the Strings,
+     * unless they have no ID
      * @param other A RegistrationKey object
      * @return 1 if they are the same. 0 if they are not
      */
     @Override
     public int compareTo(RegistrationKey other) {
-        if (this.matricNumber.equals(other.matricNumber)) {
-            if (this.courseCode.equals(other.courseCode)) {
+        if (this.studentId >= 0 ? this.studentId == other.studentId : this.matricNumber.equals(other.matricNumber)) {
+            if (this.courseId >= 0 ? this.courseId == other.courseId : this.courseCode.equals(other.courseCode)) {
                 return 0;
             } else {
                 return this.courseCode.compareTo(other.courseCode);
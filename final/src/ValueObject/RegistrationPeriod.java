@@ -30,6 +30,22 @@ public class RegistrationPeriod implements Serializable {
         this.endDate = endDate;
     }
 
+    /**
+     * Gets the start date of the Registration Period
+     * @return A LocalDateTime object that represents the start date
+     */
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * Gets the end date of the Registration Period
+     * @return A LocalDateTime object that represents the end date
+     */
+    public LocalDateTime getEndDate() {
+        return endDate;
+    }
+
     /**
      * Determines if the current datetime falls within the Registration Period.
      *
@@ -0,0 +1,93 @@
+package ValueObject;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+
+/**
+ * Helpers for lecture, tutorial and laboratory timings.
+ * Timings are kept as a Hashtable of days and a list of start and end timings on that day,
+ * where the list holds the start and end timing of every session on the day in turn, earliest session first,
+ * so that a day can have several sessions. Timings may be on any minute.
+ */
+public final class Sessions {
+    /**
+     * A private Constructor that prevents any other class from instantiating
+     */
+    private Sessions() {
+    }
+
+    /**
+     * Gets the number of sessions on a day
+     * @param dayTimings List of start and end timings on the day
+     * @return Integer that represents the number of sessions
+     */
+    public static int count(List<LocalTime> dayTimings) {
+        return dayTimings.size() / 2;
+    }
+
+    /**
+     * Gets the start timing of a session on a day
+     * @param dayTimings List of start and end timings on the day
+     * @param session Integer that represents the position of the session on the day, from 0
+     * @return LocalTime that represents the start timing
+     */
+    public static LocalTime start(List<LocalTime> dayTimings, int session) {
+        return dayTimings.get(2 * session);
+    }
+
+    /**
+     * Gets the end timing of a session on a day
+     * @param dayTimings List of start and end timings on the day
+     * @param session Integer that represents the position of the session on the day, from 0
+     * @return LocalTime that represents the end timing
+     */
+    public static LocalTime end(List<LocalTime> dayTimings, int session) {
+        return dayTimings.get(2 * session + 1);
+    }
+
+    /**
+     * Determines if a session would overlap a session already in the timings
+     * @param timings Hashtable of days and start and end timings, or null
+     * @param day DayOfWeek of the session
+     * @param start LocalTime that represents the start timing of the session
+     * @param end LocalTime that represents the end timing of the session
+     * @return A boolean that is true if the session overlaps a session on the same day
+     */
+    public static boolean isOverlapping(Hashtable<DayOfWeek, List<LocalTime>> timings, DayOfWeek day, LocalTime start, LocalTime end) {
+        if (timings == null || !timings.containsKey(day)) {
+            return false;
+        }
+        List<LocalTime> dayTimings = timings.get(day);
+        for (int session = 0; session < count(dayTimings); session++) {
+            if (start(dayTimings, session).isBefore(end) && start.isBefore(end(dayTimings, session))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a session to the timings, keeping the sessions on its day in order
+     * @param timings Hashtable of days and start and end timings
+     * @param day DayOfWeek of the session
+     * @param start LocalTime that represents the start timing of the session
+     * @param end LocalTime that represents the end timing of the session
+     * @return A boolean that is false if the session overlaps a session on the same day and was not added
+     */
+    public static boolean addSession(Hashtable<DayOfWeek, List<LocalTime>> timings, DayOfWeek day, LocalTime start, LocalTime end) {
+        if (isOverlapping(timings, day, start, end)) {
+            return false;
+        }
+        List<LocalTime> dayTimings = new ArrayList<>(timings.getOrDefault(day, List.of()));
+        int session = 0;
+        while (session < count(dayTimings) && start(dayTimings, session).isBefore(start)) {
+            session++;
+        }
+        dayTimings.add(2 * session, end);
+        dayTimings.add(2 * session, start);
+        timings.put(day, dayTimings);
+        return true;
+    }
+}
@@ -0,0 +1,92 @@
+package ValueObject;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dense integer IDs for matric numbers and course codes.
+ * <p>
+ * Every name is given the next ID the first time it is seen and keeps it until the application exits,
+ * so that collections of students or courses can be kept as primitive structures over the IDs,
+ * and every copy of a name read from file or console can be replaced by a single shared String.
+ */
+public final class SymbolTable {
+    /**
+     * IDs of matric numbers
+     */
+    public static final SymbolTable STUDENTS = new SymbolTable();
+    /**
+     * IDs of course codes
+     */
+    public static final SymbolTable COURSES = new SymbolTable();
+    /**
+     * IDs, by name
+     */
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    /**
+     * Names, by ID, written before the ID is published in ids
+     */
+    private volatile String[] names = new String[64];
+    /**
+     * Number of IDs given
+     */
+    private int size;
+
+    /**
+     * A private Constructor that prevents any other class from instantiating
+     */
+    private SymbolTable() {
+    }
+
+    /**
+     * Gets the ID of a name, giving it the next ID if it has none
+     * @param name String that represents a matric number or course code
+     * @return Integer that represents the ID
+     */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(name);
+            if (id == null) {
+                if (size == names.length) {
+                    names = Arrays.copyOf(names, size * 2);
+                }
+                names[size] = name;
+                id = size++;
+                ids.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Gets the ID of a name without giving it one
+     * @param name String that represents a matric number or course code
+     * @return Integer that represents the ID, or -1 if the name has no ID
+     */
+    public int find(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Gets the name of an ID
+     * @param id Integer that represents the ID
+     * @return String that represents the matric number or course code
+     */
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    /**
+     * Gets the shared copy of a name, giving it an ID if it has none
+     * @param name String that represents a matric number or course code, or null
+     * @return String equal to the name, the same object for every equal name, or null
+     */
+    public String intern(String name) {
+        return name == null ? null : nameOf(idOf(name));
+    }
+}
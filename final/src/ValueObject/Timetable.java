@@ -0,0 +1,272 @@
+package ValueObject;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Occupancy bitmap of the weekly sessions of a course or index
+ * Every day is divided into 30-minute slots and a bit is set for every slot a session occupies,
+ * so that two timetables clash if and only if their bitmaps share a bit.
+ * Sessions that do not start and end on a 30-minute boundary are also kept as a sorted array of intervals,
+ * which is searched with a binary search when the slots are shared, so that clash checks stay O(log n)
+ * however many sessions a timetable has.
+ */
+public final class Timetable {
+    /**
+     * Length of a slot in seconds
+     */
+    public static final int SLOT_SECONDS = 30 * 60;
+    /**
+     * Number of slots in a day
+     */
+    public static final int SLOTS_PER_DAY = 24 * 60 * 60 / SLOT_SECONDS;
+    /**
+     * Number of seconds in a day
+     */
+    private static final int DAY_SECONDS = 24 * 60 * 60;
+    /**
+     * Number of longs holding the slots of all days
+     */
+    private static final int WORDS = (DayOfWeek.values().length * SLOTS_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+    /**
+     * Timetable without sessions
+     */
+    public static final Timetable EMPTY = new Timetable(new long[WORDS], null);
+    /**
+     * Occupied slots, slot s of day d is bit d * SLOTS_PER_DAY + s
+     */
+    private final long[] slots;
+    /**
+     * Start and end second of the week of every occupied interval in turn, sorted and without overlapping or
+     * touching intervals, or null if all sessions are on 30-minute boundaries
+     */
+    private final int[] intervals;
+
+    /**
+     * Creates a timetable
+     * @param slots long array of occupied slots
+     * @param intervals int array of sorted start and end seconds of the week, or null
+     */
+    private Timetable(long[] slots, int[] intervals) {
+        this.slots = slots;
+        this.intervals = intervals;
+    }
+
+    /**
+     * Creates the timetable of sessions given as days and the start and end timings of the sessions on each day
+     * @param timings Hashtable of days and start and end timings, or null if there are no sessions
+     * @return Timetable object
+     * @see Sessions
+     */
+    public static Timetable of(Hashtable<DayOfWeek, List<LocalTime>> timings) {
+        if (timings == null || timings.isEmpty()) {
+            return EMPTY;
+        }
+        long[] slots = new long[WORDS];
+        int count = 0;
+        for (List<LocalTime> dayTimings : timings.values()) {
+            count += Sessions.count(dayTimings);
+        }
+        long[] sessions = new long[count];
+        boolean aligned = true;
+        int i = 0;
+        for (Map.Entry<DayOfWeek, List<LocalTime>> timing : timings.entrySet()) {
+            int day = timing.getKey().ordinal();
+            List<LocalTime> dayTimings = timing.getValue();
+            for (int session = 0; session < Sessions.count(dayTimings); session++) {
+                int start = Sessions.start(dayTimings, session).toSecondOfDay();
+                int end = Sessions.end(dayTimings, session).toSecondOfDay();
+                aligned &= start % SLOT_SECONDS == 0 && end % SLOT_SECONDS == 0;
+                sessions[i++] = (long) (day * DAY_SECONDS + start) << 32 | (day * DAY_SECONDS + end);
+                //every slot the session touches, so that sessions off the boundaries are never missed
+                for (int slot = start / SLOT_SECONDS; slot * SLOT_SECONDS < end; slot++) {
+                    int bit = day * SLOTS_PER_DAY + slot;
+                    slots[bit / Long.SIZE] |= 1L << bit;
+                }
+            }
+        }
+        if (aligned) {
+            return new Timetable(slots, null);
+        }
+        //sorted by start second, as the start second is in the high half
+        Arrays.sort(sessions);
+        int[] sorted = new int[count * 2];
+        for (i = 0; i < count; i++) {
+            sorted[2 * i] = (int) (sessions[i] >>> 32);
+            sorted[2 * i + 1] = (int) sessions[i];
+        }
+        return new Timetable(slots, coalesce(sorted));
+    }
+
+    /**
+     * Creates the timetable of the sessions of this and another timetable
+     * @param other Timetable object
+     * @return Timetable object
+     */
+    public Timetable union(Timetable other) {
+        if (other.isEmpty()) {
+            return this;
+        } else if (isEmpty()) {
+            return other;
+        }
+        long[] union = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            union[i] = slots[i] | other.slots[i];
+        }
+        if (intervals == null && other.intervals == null) {
+            return new Timetable(union, null);
+        }
+        int[] these = intervals != null ? intervals : intervalsOf(slots);
+        int[] those = other.intervals != null ? other.intervals : intervalsOf(other.slots);
+        //merge of two sorted arrays
+        int[] merged = new int[these.length + those.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < these.length || j < those.length) {
+            if (j == those.length || (i < these.length && these[i] <= those[j])) {
+                merged[k++] = these[i++];
+                merged[k++] = these[i++];
+            } else {
+                merged[k++] = those[j++];
+                merged[k++] = those[j++];
+            }
+        }
+        return new Timetable(union, coalesce(merged));
+    }
+
+    /**
+     * Joins overlapping and touching intervals of an array sorted by start second
+     * Touching intervals can be joined as any interval overlapping the joined interval overlaps one of its parts
+     * @param sorted int array of start and end seconds sorted by start second, which is changed
+     * @return int array of intervals without overlapping or touching intervals
+     */
+    private static int[] coalesce(int[] sorted) {
+        int k = 0;
+        for (int i = 0; i < sorted.length; i += 2) {
+            if (k > 0 && sorted[i] <= sorted[k - 1]) {
+                sorted[k - 1] = Math.max(sorted[k - 1], sorted[i + 1]);
+            } else {
+                sorted[k++] = sorted[i];
+                sorted[k++] = sorted[i + 1];
+            }
+        }
+        return k == sorted.length ? sorted : Arrays.copyOf(sorted, k);
+    }
+
+    /**
+     * Gets the intervals of a timetable of aligned sessions, recovered from its slots
+     * @param slots long array of occupied slots
+     * @return int array of start and end seconds of the week of every run of occupied slots
+     */
+    private static int[] intervalsOf(long[] slots) {
+        int[] runs = new int[WORDS * Long.SIZE * 2];
+        int k = 0;
+        for (int bit = 0; bit < WORDS * Long.SIZE; bit++) {
+            if ((slots[bit / Long.SIZE] & 1L << bit) != 0) {
+                int start = bit / SLOTS_PER_DAY * DAY_SECONDS + bit % SLOTS_PER_DAY * SLOT_SECONDS;
+                if (k > 0 && runs[k - 1] == start) {
+                    runs[k - 1] = start + SLOT_SECONDS;
+                } else {
+                    runs[k++] = start;
+                    runs[k++] = start + SLOT_SECONDS;
+                }
+            }
+        }
+        return Arrays.copyOf(runs, k);
+    }
+
+    /**
+     * Determines if there is a clash between the sessions of this and another timetable
+     * @param other Timetable object
+     * @return A boolean that is true if a session of this timetable overlaps a session of the other timetable
+     */
+    public boolean isClashing(Timetable other) {
+        boolean sharedSlot = false;
+        for (int i = 0; i < WORDS; i++) {
+            if ((slots[i] & other.slots[i]) != 0) {
+                sharedSlot = true;
+                break;
+            }
+        }
+        if (!sharedSlot || (intervals == null && other.intervals == null)) {
+            return sharedSlot;
+        }
+        int[] these = intervals != null ? intervals : intervalsOf(slots);
+        int[] those = other.intervals != null ? other.intervals : intervalsOf(other.slots);
+        if (these.length > those.length) {
+            int[] swap = these;
+            these = those;
+            those = swap;
+        }
+        for (int i = 0; i < these.length; i += 2) {
+            if (overlaps(those, these[i], these[i + 1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines if an interval overlaps any of an array of intervals, with a binary search
+     * @param intervals int array of sorted intervals without overlapping intervals
+     * @param start Integer that represents the start second of the week of the interval
+     * @param end Integer that represents the end second of the week of the interval
+     * @return A boolean that is true if the interval overlaps one of the intervals
+     */
+    private static boolean overlaps(int[] intervals, int start, int end) {
+        //first interval ending after the start, as the ends are sorted as well
+        int low = 0;
+        int high = intervals.length / 2;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (intervals[2 * middle + 1] <= start) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < intervals.length / 2 && intervals[2 * low] < end;
+    }
+
+    /**
+     * Determines if another timetable has the same sessions
+     * @param o Object to compare with
+     * @return A boolean that is true if the other object is a Timetable occupying the same slots with the same sessions
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (!(o instanceof Timetable)) {
+            return false;
+        }
+        Timetable other = (Timetable) o;
+        return Arrays.equals(slots, other.slots) && Arrays.equals(intervals, other.intervals);
+    }
+
+    /**
+     * Gets the hash code of the occupied slots
+     * @return Integer that represents the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(slots);
+    }
+
+    /**
+     * Determines if there are no sessions
+     * @return A boolean that is true if no slot is occupied
+     */
+    public boolean isEmpty() {
+        for (long word : slots) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
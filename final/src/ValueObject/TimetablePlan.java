@@ -0,0 +1,83 @@
+package ValueObject;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A clash-free choice of one index for every course in a wishlist
+ * Plans are ranked by their smallest vacancy, then by their total vacancy
+ */
+public class TimetablePlan implements Comparable<TimetablePlan> {
+    /**
+     * Course codes and the index numbers chosen for them
+     */
+    private final TreeMap<String, Integer> indexNumbers;
+    /**
+     * Smallest vacancy of the chosen indexes
+     */
+    private final int minimumVacancy;
+    /**
+     * Sum of the vacancies of the chosen indexes
+     */
+    private final int totalVacancy;
+
+    /**
+     * Initialize all attributes of this class
+     * @param indexNumbers TreeMap of course codes and the index numbers chosen for them
+     * @param minimumVacancy Integer that represents the smallest vacancy of the chosen indexes
+     * @param totalVacancy Integer that represents the sum of the vacancies of the chosen indexes
+     */
+    public TimetablePlan(TreeMap<String, Integer> indexNumbers, int minimumVacancy, int totalVacancy) {
+        this.indexNumbers = indexNumbers;
+        this.minimumVacancy = minimumVacancy;
+        this.totalVacancy = totalVacancy;
+    }
+
+    /**
+     * Gets the course codes and the index numbers chosen for them
+     * @return unmodifiable Map of course codes and index numbers
+     */
+    public Map<String, Integer> getIndexNumbers() {
+        return Collections.unmodifiableMap(indexNumbers);
+    }
+
+    /**
+     * Gets the smallest vacancy of the chosen indexes, negative if one of them has a waiting list
+     * @return Integer that represents the smallest vacancy
+     */
+    public int getMinimumVacancy() {
+        return minimumVacancy;
+    }
+
+    /**
+     * Gets the sum of the vacancies of the chosen indexes
+     * @return Integer that represents the total vacancy
+     */
+    public int getTotalVacancy() {
+        return totalVacancy;
+    }
+
+    /**
+     * Compares TimetablePlan object to another TimetablePlan object, the plan with more vacancy comes first
+     * @param other A TimetablePlan object
+     * @return negative if this plan ranks before the other plan, positive if it ranks after, 0 if they rank the same
+     */
+    @Override
+    public int compareTo(TimetablePlan other) {
+        if (minimumVacancy != other.minimumVacancy) {
+            return Integer.compare(other.minimumVacancy, minimumVacancy);
+        } else {
+            return Integer.compare(other.totalVacancy, totalVacancy);
+        }
+    }
+
+    /**
+     * Append all attributes of this plan into a String
+     * @return A String as described above
+     */
+    @Override
+    public String toString() {
+        return indexNumbers + "\tminimum vacancy: " + minimumVacancy + "\ttotal vacancy: " + totalVacancy;
+    }
+}